@@ -0,0 +1,71 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+import de.javagl.ply.PlyElement;
+import de.javagl.ply.PlyProperty;
+
+/**
+ * A point cloud vertex with annotated fields, that is read and written by
+ * the {@link ObjectBenchmarks}
+ */
+@PlyElement("vertex")
+class AnnotatedVertex
+{
+    /**
+     * The x-coordinate
+     */
+    @PlyProperty
+    float x;
+
+    /**
+     * The y-coordinate
+     */
+    @PlyProperty
+    float y;
+
+    /**
+     * The z-coordinate
+     */
+    @PlyProperty
+    float z;
+
+    /**
+     * The x-component of the normal
+     */
+    @PlyProperty
+    float nx;
+
+    /**
+     * The y-component of the normal
+     */
+    @PlyProperty
+    float ny;
+
+    /**
+     * The z-component of the normal
+     */
+    @PlyProperty
+    float nz;
+
+    /**
+     * The red component of the color
+     */
+    @PlyProperty
+    byte red;
+
+    /**
+     * The green component of the color
+     */
+    @PlyProperty
+    byte green;
+
+    /**
+     * The blue component of the color
+     */
+    @PlyProperty
+    byte blue;
+}
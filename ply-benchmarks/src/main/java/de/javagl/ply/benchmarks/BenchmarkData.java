@@ -0,0 +1,385 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.javagl.ply.Descriptor;
+import de.javagl.ply.Descriptors;
+import de.javagl.ply.Element;
+import de.javagl.ply.Elements;
+import de.javagl.ply.MutableDescriptor;
+import de.javagl.ply.MutableElement;
+import de.javagl.ply.MutablePlySource;
+import de.javagl.ply.PlySource;
+import de.javagl.ply.PlySources;
+import de.javagl.ply.PlyType;
+import de.javagl.ply.PlyWriter;
+import de.javagl.ply.PlyWriters;
+
+/**
+ * Methods to create synthetic PLY data for the benchmarks
+ */
+class BenchmarkData
+{
+    /**
+     * The shapes of the synthetic data
+     */
+    enum Shape
+    {
+        /**
+         * A point cloud: 'vertex' elements with float coordinates, float
+         * normals, and uchar colors
+         */
+        POINT_CLOUD,
+
+        /**
+         * A triangle mesh: 'vertex' elements with float coordinates, and
+         * twice as many 'face' elements with three int vertex indices
+         */
+        TRIANGLE_MESH,
+
+        /**
+         * Mixed lists: 'vertex' elements with double coordinates and a
+         * ushort confidence, 'face' elements with 3 to 8 int vertex indices
+         * and a float texture coordinate list, and 'edge' elements with
+         * two int vertex indices
+         */
+        MIXED_LISTS
+    }
+
+    /**
+     * The formats in which the synthetic data can be encoded
+     */
+    enum Format
+    {
+        /**
+         * The ASCII format
+         */
+        ASCII,
+
+        /**
+         * The binary little endian format
+         */
+        BINARY_LITTLE_ENDIAN,
+
+        /**
+         * The binary big endian format
+         */
+        BINARY_BIG_ENDIAN;
+
+        /**
+         * Create a {@link PlyWriter} for this format
+         *
+         * @return The {@link PlyWriter}
+         */
+        PlyWriter createWriter()
+        {
+            switch (this)
+            {
+                case ASCII:
+                    return PlyWriters.createAscii();
+                case BINARY_LITTLE_ENDIAN:
+                    return PlyWriters.createBinaryLittleEndian();
+                case BINARY_BIG_ENDIAN:
+                    return PlyWriters.createBinaryBigEndian();
+                default:
+                    break;
+            }
+            throw new IllegalArgumentException("Invalid format: " + this);
+        }
+    }
+
+    /**
+     * The seed for the random number generator, so that the data is the
+     * same for all benchmark runs
+     */
+    private static final long SEED = 0;
+
+    /**
+     * Create a {@link PlySource} with synthetic data of the given shape
+     *
+     * @param shape The {@link Shape}
+     * @param vertexCount The number of vertices
+     * @return The {@link PlySource}
+     */
+    static PlySource create(Shape shape, int vertexCount)
+    {
+        Random random = new Random(SEED);
+        Descriptor descriptor = createDescriptor(shape);
+        MutablePlySource plySource = PlySources.create(descriptor);
+        switch (shape)
+        {
+            case POINT_CLOUD:
+                plySource.addElements("vertex",
+                    createPointCloudVertices(random, vertexCount));
+                break;
+
+            case TRIANGLE_MESH:
+                plySource.addElements("vertex",
+                    createMeshVertices(random, vertexCount));
+                plySource.addElements("face",
+                    createTriangles(random, vertexCount, vertexCount * 2));
+                break;
+
+            case MIXED_LISTS:
+                plySource.addElements("vertex",
+                    createMixedVertices(random, vertexCount));
+                plySource.addElements("face",
+                    createPolygons(random, vertexCount, vertexCount));
+                plySource.addElements("edge",
+                    createEdges(random, vertexCount, vertexCount / 2));
+                break;
+
+            default:
+                throw new IllegalArgumentException("Invalid shape: " + shape);
+        }
+        return plySource;
+    }
+
+    /**
+     * Write the given {@link PlySource} in the given format, and return
+     * the resulting bytes
+     *
+     * @param plySource The {@link PlySource}
+     * @param format The {@link Format}
+     * @return The bytes
+     * @throws IOException If an IO error occurs
+     */
+    static byte[] encode(PlySource plySource, Format format)
+        throws IOException
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.createWriter().write(plySource, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Create the {@link Descriptor} for the given shape
+     *
+     * @param shape The {@link Shape}
+     * @return The {@link Descriptor}
+     */
+    private static Descriptor createDescriptor(Shape shape)
+    {
+        MutableDescriptor d = Descriptors.create();
+        switch (shape)
+        {
+            case POINT_CLOUD:
+                d.addProperty("vertex", "x", PlyType.FLOAT);
+                d.addProperty("vertex", "y", PlyType.FLOAT);
+                d.addProperty("vertex", "z", PlyType.FLOAT);
+                d.addProperty("vertex", "nx", PlyType.FLOAT);
+                d.addProperty("vertex", "ny", PlyType.FLOAT);
+                d.addProperty("vertex", "nz", PlyType.FLOAT);
+                d.addProperty("vertex", "red", PlyType.UCHAR);
+                d.addProperty("vertex", "green", PlyType.UCHAR);
+                d.addProperty("vertex", "blue", PlyType.UCHAR);
+                break;
+
+            case TRIANGLE_MESH:
+                d.addProperty("vertex", "x", PlyType.FLOAT);
+                d.addProperty("vertex", "y", PlyType.FLOAT);
+                d.addProperty("vertex", "z", PlyType.FLOAT);
+                d.addListProperty("face", "vertex_indices",
+                    PlyType.UCHAR, PlyType.INT);
+                break;
+
+            case MIXED_LISTS:
+                d.addProperty("vertex", "x", PlyType.DOUBLE);
+                d.addProperty("vertex", "y", PlyType.DOUBLE);
+                d.addProperty("vertex", "z", PlyType.DOUBLE);
+                d.addProperty("vertex", "confidence", PlyType.USHORT);
+                d.addListProperty("face", "vertex_indices",
+                    PlyType.UCHAR, PlyType.INT);
+                d.addListProperty("face", "texcoord",
+                    PlyType.UCHAR, PlyType.FLOAT);
+                d.addProperty("edge", "vertex1", PlyType.INT);
+                d.addProperty("edge", "vertex2", PlyType.INT);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Invalid shape: " + shape);
+        }
+        return d;
+    }
+
+    /**
+     * Create the vertices for a point cloud
+     *
+     * @param random The random number generator
+     * @param n The number of vertices
+     * @return The vertices
+     */
+    private static List<Element> createPointCloudVertices(
+        Random random, int n)
+    {
+        List<Element> elements = new ArrayList<Element>(n);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement e = Elements.create();
+            e.setFloatProperty("x", random.nextFloat());
+            e.setFloatProperty("y", random.nextFloat());
+            e.setFloatProperty("z", random.nextFloat());
+            e.setFloatProperty("nx", random.nextFloat() * 2.0f - 1.0f);
+            e.setFloatProperty("ny", random.nextFloat() * 2.0f - 1.0f);
+            e.setFloatProperty("nz", random.nextFloat() * 2.0f - 1.0f);
+            e.setCharProperty("red", (byte) random.nextInt(256));
+            e.setCharProperty("green", (byte) random.nextInt(256));
+            e.setCharProperty("blue", (byte) random.nextInt(256));
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Create the vertices for a triangle mesh
+     *
+     * @param random The random number generator
+     * @param n The number of vertices
+     * @return The vertices
+     */
+    private static List<Element> createMeshVertices(Random random, int n)
+    {
+        List<Element> elements = new ArrayList<Element>(n);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement e = Elements.create();
+            e.setFloatProperty("x", random.nextFloat());
+            e.setFloatProperty("y", random.nextFloat());
+            e.setFloatProperty("z", random.nextFloat());
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Create the vertices for the mixed lists data
+     *
+     * @param random The random number generator
+     * @param n The number of vertices
+     * @return The vertices
+     */
+    private static List<Element> createMixedVertices(Random random, int n)
+    {
+        List<Element> elements = new ArrayList<Element>(n);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement e = Elements.create();
+            e.setDoubleProperty("x", random.nextDouble());
+            e.setDoubleProperty("y", random.nextDouble());
+            e.setDoubleProperty("z", random.nextDouble());
+            e.setShortProperty("confidence", (short) random.nextInt(65536));
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Create triangles with random vertex indices
+     *
+     * @param random The random number generator
+     * @param vertexCount The number of vertices
+     * @param n The number of triangles
+     * @return The triangles
+     */
+    private static List<Element> createTriangles(
+        Random random, int vertexCount, int n)
+    {
+        List<Element> elements = new ArrayList<Element>(n);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement e = Elements.create();
+            e.setIntListProperty("vertex_indices",
+                createIndices(random, vertexCount, 3));
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Create polygons with 3 to 8 random vertex indices and two texture
+     * coordinates per vertex
+     *
+     * @param random The random number generator
+     * @param vertexCount The number of vertices
+     * @param n The number of polygons
+     * @return The polygons
+     */
+    private static List<Element> createPolygons(
+        Random random, int vertexCount, int n)
+    {
+        List<Element> elements = new ArrayList<Element>(n);
+        for (int i = 0; i < n; i++)
+        {
+            int size = 3 + random.nextInt(6);
+            float texcoord[] = new float[size * 2];
+            for (int j = 0; j < texcoord.length; j++)
+            {
+                texcoord[j] = random.nextFloat();
+            }
+            MutableElement e = Elements.create();
+            e.setIntListProperty("vertex_indices",
+                createIndices(random, vertexCount, size));
+            e.setFloatListProperty("texcoord", texcoord);
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Create edges with random vertex indices
+     *
+     * @param random The random number generator
+     * @param vertexCount The number of vertices
+     * @param n The number of edges
+     * @return The edges
+     */
+    private static List<Element> createEdges(
+        Random random, int vertexCount, int n)
+    {
+        List<Element> elements = new ArrayList<Element>(n);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement e = Elements.create();
+            e.setIntProperty("vertex1", random.nextInt(vertexCount));
+            e.setIntProperty("vertex2", random.nextInt(vertexCount));
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Create an array with random vertex indices
+     *
+     * @param random The random number generator
+     * @param vertexCount The number of vertices
+     * @param size The size of the array
+     * @return The array
+     */
+    private static int[] createIndices(
+        Random random, int vertexCount, int size)
+    {
+        int indices[] = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            indices[i] = random.nextInt(vertexCount);
+        }
+        return indices;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BenchmarkData()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
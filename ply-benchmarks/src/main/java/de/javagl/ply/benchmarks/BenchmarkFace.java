@@ -0,0 +1,22 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+/**
+ * A face that is created by the object-based read benchmarks
+ */
+class BenchmarkFace
+{
+    /**
+     * The vertex indices
+     */
+    int vertexIndices[];
+
+    /**
+     * The texture coordinates
+     */
+    float texcoord[];
+}
@@ -0,0 +1,27 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+/**
+ * A vertex that is created by the object-based read benchmarks
+ */
+class BenchmarkVertex
+{
+    /**
+     * The x-coordinate
+     */
+    double x;
+
+    /**
+     * The y-coordinate
+     */
+    double y;
+
+    /**
+     * The z-coordinate
+     */
+    double z;
+}
@@ -0,0 +1,42 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that discards all data, and only counts the number of
+ * bytes that have been written
+ */
+class NullOutputStream extends OutputStream
+{
+    /**
+     * The number of bytes that have been written
+     */
+    private long count;
+
+    @Override
+    public void write(int b)
+    {
+        count++;
+    }
+
+    @Override
+    public void write(byte b[], int off, int len)
+    {
+        count += len;
+    }
+
+    /**
+     * Returns the number of bytes that have been written
+     * 
+     * @return The number of bytes
+     */
+    long getCount()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.javagl.ply.ObjectPlySource;
+import de.javagl.ply.ObjectPlyTarget;
+import de.javagl.ply.PlyReader;
+import de.javagl.ply.PlyReaders;
+import de.javagl.ply.PlySource;
+import de.javagl.ply.PlyWriter;
+import de.javagl.ply.benchmarks.BenchmarkData.Format;
+import de.javagl.ply.benchmarks.BenchmarkData.Shape;
+
+/**
+ * Benchmarks for reading and writing objects with an
+ * {@link ObjectPlyTarget} and an {@link ObjectPlySource}.
+ * 
+ * The objects are {@link AnnotatedVertex} instances of a point cloud. They
+ * are either accessed with lambdas that are passed to the
+ * <code>withPrimitive...</code> methods, or with the setters and getters
+ * that are derived from the annotations of the fields, so that the cost of
+ * the latter can be compared with the former.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectBenchmarks
+{
+    /**
+     * The name of the {@link Format} of the data
+     */
+    @Param({ "ASCII", "BINARY_LITTLE_ENDIAN", "BINARY_BIG_ENDIAN" })
+    public String format;
+
+    /**
+     * The number of vertices
+     */
+    @Param({ "100000" })
+    public int vertexCount;
+
+    /**
+     * The encoded PLY data
+     */
+    private byte data[];
+
+    /**
+     * The {@link PlySource} that the data was created from
+     */
+    private PlySource plySource;
+
+    /**
+     * The vertices that are written
+     */
+    private List<AnnotatedVertex> vertices;
+
+    /**
+     * The {@link PlyWriter}
+     */
+    private PlyWriter plyWriter;
+
+    /**
+     * Create the encoded PLY data and the vertices
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        Format f = Format.valueOf(format);
+        plySource = BenchmarkData.create(Shape.POINT_CLOUD, vertexCount);
+        data = BenchmarkData.encode(plySource, f);
+        plyWriter = f.createWriter();
+
+        vertices = new ArrayList<AnnotatedVertex>(vertexCount);
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+        plyTarget.register(AnnotatedVertex.class).consume(vertices::add);
+        readInto(plyTarget);
+    }
+
+    /**
+     * Read the data into an {@link ObjectPlyTarget} that creates the
+     * vertices with lambdas, and passes them to the given blackhole
+     * 
+     * @param blackhole The blackhole
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public void readLambda(Blackhole blackhole) throws IOException
+    {
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+        plyTarget.register("vertex", AnnotatedVertex::new)
+            .withPrimitiveFloat("x", (v, value) -> v.x = value)
+            .withPrimitiveFloat("y", (v, value) -> v.y = value)
+            .withPrimitiveFloat("z", (v, value) -> v.z = value)
+            .withPrimitiveFloat("nx", (v, value) -> v.nx = value)
+            .withPrimitiveFloat("ny", (v, value) -> v.ny = value)
+            .withPrimitiveFloat("nz", (v, value) -> v.nz = value)
+            .withPrimitiveByte("red", (v, value) -> v.red = value)
+            .withPrimitiveByte("green", (v, value) -> v.green = value)
+            .withPrimitiveByte("blue", (v, value) -> v.blue = value)
+            .consume(blackhole::consume);
+        readInto(plyTarget);
+    }
+
+    /**
+     * Read the data into an {@link ObjectPlyTarget} that creates the
+     * vertices based on their annotations, and passes them to the given
+     * blackhole
+     * 
+     * @param blackhole The blackhole
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public void readAnnotated(Blackhole blackhole) throws IOException
+    {
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+        plyTarget.register(AnnotatedVertex.class).consume(blackhole::consume);
+        readInto(plyTarget);
+    }
+
+    /**
+     * Read the data into the given {@link ObjectPlyTarget}
+     * 
+     * @param plyTarget The {@link ObjectPlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readInto(ObjectPlyTarget plyTarget) throws IOException
+    {
+        PlyReader plyReader = PlyReaders.create();
+        InputStream inputStream = new ByteArrayInputStream(data);
+        plyReader.readDescriptor(inputStream);
+        plyReader.readContent(inputStream, plyTarget);
+    }
+
+    /**
+     * Write the vertices from an {@link ObjectPlySource} that obtains the
+     * values with lambdas
+     * 
+     * @return The number of bytes that have been written
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public long writeLambda() throws IOException
+    {
+        ObjectPlySource objectPlySource =
+            new ObjectPlySource(plySource.getDescriptor());
+        objectPlySource.register("vertex", vertices)
+            .withPrimitiveFloat("x", v -> v.x)
+            .withPrimitiveFloat("y", v -> v.y)
+            .withPrimitiveFloat("z", v -> v.z)
+            .withPrimitiveFloat("nx", v -> v.nx)
+            .withPrimitiveFloat("ny", v -> v.ny)
+            .withPrimitiveFloat("nz", v -> v.nz)
+            .withPrimitiveByte("red", v -> v.red)
+            .withPrimitiveByte("green", v -> v.green)
+            .withPrimitiveByte("blue", v -> v.blue);
+        return writeFrom(objectPlySource);
+    }
+
+    /**
+     * Write the vertices from an {@link ObjectPlySource} that obtains the
+     * values based on their annotations
+     * 
+     * @return The number of bytes that have been written
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public long writeAnnotated() throws IOException
+    {
+        ObjectPlySource objectPlySource =
+            new ObjectPlySource(plySource.getDescriptor());
+        objectPlySource.register(AnnotatedVertex.class, vertices);
+        return writeFrom(objectPlySource);
+    }
+
+    /**
+     * Write the given {@link ObjectPlySource}
+     * 
+     * @param objectPlySource The {@link ObjectPlySource}
+     * @return The number of bytes that have been written
+     * @throws IOException If an IO error occurs
+     */
+    private long writeFrom(ObjectPlySource objectPlySource) throws IOException
+    {
+        NullOutputStream outputStream = new NullOutputStream();
+        plyWriter.write(objectPlySource, outputStream);
+        return outputStream.getCount();
+    }
+}
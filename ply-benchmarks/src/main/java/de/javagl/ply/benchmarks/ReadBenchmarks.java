@@ -0,0 +1,273 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.javagl.ply.AbstractBatchPlyTarget;
+import de.javagl.ply.AbstractPlyTarget;
+import de.javagl.ply.ColumnarPlyTarget;
+import de.javagl.ply.ObjectPlyTarget;
+import de.javagl.ply.ObjectPlyTarget.Handle;
+import de.javagl.ply.PlyReader;
+import de.javagl.ply.PlyReaders;
+import de.javagl.ply.PlySource;
+import de.javagl.ply.benchmarks.BenchmarkData.Format;
+import de.javagl.ply.benchmarks.BenchmarkData.Shape;
+
+/**
+ * Benchmarks for reading PLY data with the different target types.
+ * 
+ * The data is created once per trial, encoded in the given format, and
+ * read from memory, so that the benchmarks measure the decoding and not
+ * the file system. Run with <code>-prof gc</code> to also report the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmarks
+{
+    /**
+     * The name of the {@link Shape} of the data
+     */
+    @Param({ "POINT_CLOUD", "TRIANGLE_MESH", "MIXED_LISTS" })
+    public String shape;
+
+    /**
+     * The name of the {@link Format} of the data
+     */
+    @Param({ "ASCII", "BINARY_LITTLE_ENDIAN", "BINARY_BIG_ENDIAN" })
+    public String format;
+
+    /**
+     * The number of vertices
+     */
+    @Param({ "100000" })
+    public int vertexCount;
+
+    /**
+     * The encoded PLY data
+     */
+    private byte data[];
+
+    /**
+     * Whether the vertex coordinates are stored as double values
+     */
+    private boolean doubleCoordinates;
+
+    /**
+     * Create the encoded PLY data
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        Shape s = Shape.valueOf(shape);
+        PlySource plySource = BenchmarkData.create(s, vertexCount);
+        data = BenchmarkData.encode(plySource, Format.valueOf(format));
+        doubleCoordinates = s == Shape.MIXED_LISTS;
+    }
+
+    /**
+     * Read the data into a {@link PlySource} that is backed by the default
+     * target
+     * 
+     * @return The {@link PlySource}
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public PlySource readDefault() throws IOException
+    {
+        PlyReader plyReader = PlyReaders.create();
+        return plyReader.read(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Read the data into a {@link ColumnarPlyTarget}
+     * 
+     * @return The {@link ColumnarPlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public ColumnarPlyTarget readColumnar() throws IOException
+    {
+        ColumnarPlyTarget plyTarget = new ColumnarPlyTarget();
+        PlyReader plyReader = PlyReaders.create();
+        InputStream inputStream = new ByteArrayInputStream(data);
+        plyReader.readDescriptor(inputStream);
+        plyReader.readContent(inputStream, plyTarget);
+        return plyTarget;
+    }
+
+    /**
+     * Read the data into an {@link ObjectPlyTarget} that creates vertex
+     * and face objects, and passes them to the given blackhole
+     * 
+     * @param blackhole The blackhole
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public void readObject(Blackhole blackhole) throws IOException
+    {
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+
+        Handle<BenchmarkVertex> v =
+            plyTarget.register("vertex", BenchmarkVertex::new);
+        if (doubleCoordinates)
+        {
+            v.withDouble("x", (vertex, x) -> vertex.x = x);
+            v.withDouble("y", (vertex, y) -> vertex.y = y);
+            v.withDouble("z", (vertex, z) -> vertex.z = z);
+        }
+        else
+        {
+            v.withFloat("x", (vertex, x) -> vertex.x = x);
+            v.withFloat("y", (vertex, y) -> vertex.y = y);
+            v.withFloat("z", (vertex, z) -> vertex.z = z);
+        }
+        v.consume(blackhole::consume);
+        registerFaces(plyTarget, blackhole);
+        readInto(plyTarget);
+    }
+
+    /**
+     * Read the data into an {@link ObjectPlyTarget} that creates vertex
+     * and face objects, and passes them to the given blackhole, using
+     * primitive setters for the vertex coordinates
+     * 
+     * @param blackhole The blackhole
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public void readObjectPrimitive(Blackhole blackhole) throws IOException
+    {
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+
+        Handle<BenchmarkVertex> v =
+            plyTarget.register("vertex", BenchmarkVertex::new);
+        if (doubleCoordinates)
+        {
+            v.withPrimitiveDouble("x", (vertex, x) -> vertex.x = x);
+            v.withPrimitiveDouble("y", (vertex, y) -> vertex.y = y);
+            v.withPrimitiveDouble("z", (vertex, z) -> vertex.z = z);
+        }
+        else
+        {
+            v.withPrimitiveFloat("x", (vertex, x) -> vertex.x = x);
+            v.withPrimitiveFloat("y", (vertex, y) -> vertex.y = y);
+            v.withPrimitiveFloat("z", (vertex, z) -> vertex.z = z);
+        }
+        v.consume(blackhole::consume);
+        registerFaces(plyTarget, blackhole);
+        readInto(plyTarget);
+    }
+
+    /**
+     * Register the face type in the given {@link ObjectPlyTarget}, so that
+     * it creates face objects and passes them to the given blackhole
+     * 
+     * @param plyTarget The {@link ObjectPlyTarget}
+     * @param blackhole The blackhole
+     */
+    private static void registerFaces(ObjectPlyTarget plyTarget,
+        Blackhole blackhole)
+    {
+        Handle<BenchmarkFace> f =
+            plyTarget.register("face", BenchmarkFace::new);
+        f.withIntList("vertex_indices",
+            (face, vertexIndices) -> face.vertexIndices = vertexIndices);
+        f.withFloatList("texcoord",
+            (face, texcoord) -> face.texcoord = texcoord);
+        f.consume(blackhole::consume);
+    }
+
+    /**
+     * Read the data into the given {@link ObjectPlyTarget}
+     * 
+     * @param plyTarget The {@link ObjectPlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readInto(ObjectPlyTarget plyTarget) throws IOException
+    {
+        PlyReader plyReader = PlyReaders.create();
+        InputStream inputStream = new ByteArrayInputStream(data);
+        plyReader.readDescriptor(inputStream);
+        plyReader.readContent(inputStream, plyTarget);
+    }
+
+    /**
+     * Read the data into an {@link AbstractBatchPlyTarget} that passes the
+     * batches of floating point values to the given blackhole
+     * 
+     * @param blackhole The blackhole
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public void readBatch(Blackhole blackhole) throws IOException
+    {
+        PlyReader plyReader = PlyReaders.create();
+        InputStream inputStream = new ByteArrayInputStream(data);
+        plyReader.readDescriptor(inputStream);
+        plyReader.readContent(inputStream, new AbstractBatchPlyTarget()
+        {
+            @Override
+            public void handleFloatColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, float values[],
+                int offset, int length)
+            {
+                blackhole.consume(values);
+            }
+
+            @Override
+            public void handleDoubleColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, double values[],
+                int offset, int length)
+            {
+                blackhole.consume(values);
+            }
+        });
+    }
+
+    /**
+     * Read the data into an {@link AbstractPlyTarget} that ignores all
+     * properties, to measure the pure decoding overhead
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public void readNoOp() throws IOException
+    {
+        PlyReader plyReader = PlyReaders.create();
+        InputStream inputStream = new ByteArrayInputStream(data);
+        plyReader.readDescriptor(inputStream);
+        plyReader.readContent(inputStream, new AbstractPlyTarget()
+        {
+            // Ignore everything
+        });
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.javagl.ply.PlySource;
+import de.javagl.ply.PlyWriter;
+import de.javagl.ply.benchmarks.BenchmarkData.Format;
+import de.javagl.ply.benchmarks.BenchmarkData.Shape;
+
+/**
+ * Benchmarks for writing PLY data with the different writers.
+ * 
+ * The data is written into a stream that discards all bytes, so that the
+ * benchmarks measure the encoding and not the file system. Run with
+ * <code>-prof gc</code> to also report the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmarks
+{
+    /**
+     * The name of the {@link Shape} of the data
+     */
+    @Param({ "POINT_CLOUD", "TRIANGLE_MESH", "MIXED_LISTS" })
+    public String shape;
+
+    /**
+     * The name of the {@link Format} that should be written
+     */
+    @Param({ "ASCII", "BINARY_LITTLE_ENDIAN", "BINARY_BIG_ENDIAN" })
+    public String format;
+
+    /**
+     * The number of vertices
+     */
+    @Param({ "100000" })
+    public int vertexCount;
+
+    /**
+     * The {@link PlySource} that is written
+     */
+    private PlySource plySource;
+
+    /**
+     * The {@link PlyWriter}
+     */
+    private PlyWriter plyWriter;
+
+    /**
+     * Create the {@link PlySource} and the {@link PlyWriter}
+     */
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        plySource = BenchmarkData.create(Shape.valueOf(shape), vertexCount);
+        plyWriter = Format.valueOf(format).createWriter();
+    }
+
+    /**
+     * Write the data
+     * 
+     * @return The number of bytes that have been written
+     * @throws IOException If an IO error occurs
+     */
+    @Benchmark
+    public long write() throws IOException
+    {
+        NullOutputStream outputStream = new NullOutputStream();
+        plyWriter.write(plySource, outputStream);
+        return outputStream.getCount();
+    }
+}
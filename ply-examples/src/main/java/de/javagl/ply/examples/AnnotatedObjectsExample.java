@@ -0,0 +1,155 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.examples;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.javagl.ply.Descriptor;
+import de.javagl.ply.Descriptors;
+import de.javagl.ply.MutableDescriptor;
+import de.javagl.ply.ObjectPlySource;
+import de.javagl.ply.ObjectPlyTarget;
+import de.javagl.ply.PlyElement;
+import de.javagl.ply.PlyProperty;
+import de.javagl.ply.PlyReader;
+import de.javagl.ply.PlyReaders;
+import de.javagl.ply.PlyType;
+import de.javagl.ply.PlyWriter;
+import de.javagl.ply.PlyWriters;
+
+/**
+ * An example showing how to write and read objects whose classes are
+ * annotated with {@link PlyElement} and {@link PlyProperty}
+ */
+public class AnnotatedObjectsExample
+{
+    /**
+     * A vertex whose fields are mapped to the properties of the 'vertex'
+     * element type
+     */
+    @PlyElement("vertex")
+    public static class Vertex
+    {
+        /**
+         * The x-coordinate
+         */
+        @PlyProperty
+        float x;
+
+        /**
+         * The y-coordinate
+         */
+        @PlyProperty
+        float y;
+
+        /**
+         * The z-coordinate
+         */
+        @PlyProperty
+        float z;
+
+        /**
+         * The red component, stored in the 'red' property
+         */
+        @PlyProperty("red")
+        byte r;
+
+        @Override
+        public String toString()
+        {
+            return "Vertex[" + x + ", " + y + ", " + z + ", red="
+                + Byte.toUnsignedInt(r) + "]";
+        }
+    }
+
+    /**
+     * A face whose field is mapped to the 'vertex_index' list property of
+     * the 'face' element type
+     */
+    @PlyElement("face")
+    public static class Face
+    {
+        /**
+         * The vertex indices
+         */
+        @PlyProperty("vertex_index")
+        int indices[];
+    }
+
+    /**
+     * The entry point
+     * 
+     * @param args Not used
+     * @throws IOException If an error occurs
+     */
+    public static void main(String[] args) throws IOException
+    {
+        // Create some example objects
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 3; i++)
+        {
+            Vertex vertex = new Vertex();
+            vertex.x = i;
+            vertex.y = i * 2;
+            vertex.z = i * 3;
+            vertex.r = (byte) (i * 100);
+            vertices.add(vertex);
+        }
+        Face face = new Face();
+        face.indices = new int[] { 0, 1, 2 };
+        List<Face> faces = new ArrayList<Face>();
+        faces.add(face);
+
+        // Create a source that provides the values of the annotated
+        // fields of the objects, and write it as ASCII PLY
+        ObjectPlySource plySource = new ObjectPlySource(createDescriptor());
+        plySource.register(Vertex.class, vertices);
+        plySource.register(Face.class, faces);
+        PlyWriter w = PlyWriters.createAscii();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.write(plySource, baos);
+        System.out.println(baos.toString());
+
+        // Create a target that creates new objects and assigns the
+        // values to their annotated fields, and read the PLY data
+        List<Vertex> readVertices = new ArrayList<Vertex>();
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+        plyTarget.register(Vertex.class).consume(readVertices::add);
+        PlyReader r = PlyReaders.create();
+        InputStream inputStream = new ByteArrayInputStream(baos.toByteArray());
+        r.readDescriptor(inputStream);
+        r.readContent(inputStream, plyTarget);
+        for (Vertex vertex : readVertices)
+        {
+            System.out.println(vertex);
+        }
+    }
+
+    /**
+     * Create a descriptor for the PLY data structure
+     * 
+     * @return The descriptor
+     */
+    private static Descriptor createDescriptor()
+    {
+        MutableDescriptor d = Descriptors.create();
+
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.FLOAT);
+        d.addProperty("vertex", "z", PlyType.FLOAT);
+        d.addProperty("vertex", "red", PlyType.UCHAR);
+
+        d.addListProperty("face", "vertex_index", PlyType.UCHAR, PlyType.INT);
+
+        return d;
+    }
+
+}
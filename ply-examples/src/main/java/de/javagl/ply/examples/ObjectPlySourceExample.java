@@ -51,13 +51,14 @@ public class ObjectPlySourceExample
         Handle<ExampleVertex> v = plySource.register("vertex", vertices);
 
         // Configure the source to fetch the properties from the
-        // vertices in the list, using getters
-        v.withFloat("x", ExampleVertex::getX);
-        v.withFloat("y", ExampleVertex::getY);
-        v.withFloat("z", ExampleVertex::getZ);
-        v.withByte("red", ExampleVertex::getRed);
-        v.withByte("green", ExampleVertex::getGreen);
-        v.withByte("blue", ExampleVertex::getBlue);
+        // vertices in the list, using getters. The primitive
+        // getters provide the values without boxing them.
+        v.withPrimitiveFloat("x", ExampleVertex::getX);
+        v.withPrimitiveFloat("y", ExampleVertex::getY);
+        v.withPrimitiveFloat("z", ExampleVertex::getZ);
+        v.withPrimitiveByte("red", ExampleVertex::getRed);
+        v.withPrimitiveByte("green", ExampleVertex::getGreen);
+        v.withPrimitiveByte("blue", ExampleVertex::getBlue);
 
         // Configure the source to provide the faces as PLY elements
         Handle<ExampleFace> f = plySource.register("face", faces);
@@ -48,13 +48,14 @@ public class ObjectPlyTargetExample
             plyTarget.register("vertex", ExampleVertex::new);
 
         // Configure the target to assign the properties to
-        // the newly created vertices using setters
-        v.withFloat("x", ExampleVertex::setX);
-        v.withFloat("y", ExampleVertex::setY);
-        v.withFloat("z", ExampleVertex::setZ);
-        v.withByte("red", ExampleVertex::setRed);
-        v.withByte("green", ExampleVertex::setGreen);
-        v.withByte("blue", ExampleVertex::setBlue);
+        // the newly created vertices using setters. The primitive
+        // setters receive the values without boxing them.
+        v.withPrimitiveFloat("x", ExampleVertex::setX);
+        v.withPrimitiveFloat("y", ExampleVertex::setY);
+        v.withPrimitiveFloat("z", ExampleVertex::setZ);
+        v.withPrimitiveByte("red", ExampleVertex::setRed);
+        v.withPrimitiveByte("green", ExampleVertex::setGreen);
+        v.withPrimitiveByte("blue", ExampleVertex::setBlue);
 
         // Configure the target to put each vertex into a list
         List<ExampleVertex> vertices = new ArrayList<ExampleVertex>();
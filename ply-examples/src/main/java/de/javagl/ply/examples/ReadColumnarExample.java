@@ -0,0 +1,63 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.examples;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import de.javagl.ply.ColumnarPlySource;
+import de.javagl.ply.ColumnarPlyTarget;
+import de.javagl.ply.PlyReader;
+import de.javagl.ply.PlyReaders;
+
+/**
+ * An example showing how to use the Ply library to load a PLY file into a
+ * {@link ColumnarPlySource}, where the values of each property are stored in
+ * a single array.
+ */
+public class ReadColumnarExample
+{
+    /**
+     * The entry point
+     * 
+     * @param args Not used
+     * @throws IOException If an error occurs
+     */
+    public static void main(String[] args) throws IOException
+    {
+        // Create a PLY reader
+        PlyReader p = PlyReaders.create();
+
+        // Create a PLY target that stores the data in columns
+        ColumnarPlyTarget plyTarget = new ColumnarPlyTarget();
+
+        // Read the descriptor (header) and the actual content
+        // from a file channel, passing it to the target
+        try (FileChannel fileChannel =
+            FileChannel.open(Paths.get("./data/cube-ascii.ply")))
+        {
+            p.readDescriptor(fileChannel);
+            p.readContent(fileChannel, plyTarget);
+        }
+        ColumnarPlySource plySource = plyTarget.getPlySource();
+
+        // Access the columns of the vertex properties
+        float x[] = plySource.getFloatColumn("vertex", "x");
+        float y[] = plySource.getFloatColumn("vertex", "y");
+        float z[] = plySource.getFloatColumn("vertex", "z");
+        System.out.println("x-coordinates: " + Arrays.toString(x));
+        System.out.println("y-coordinates: " + Arrays.toString(y));
+        System.out.println("z-coordinates: " + Arrays.toString(z));
+
+        // Access the column of the vertex indices of the faces
+        int vertexIndices[][] =
+            plySource.getIntListColumn("face", "vertex_index");
+        System.out.println("vertex indices: "
+            + Arrays.deepToString(vertexIndices));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.examples;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import de.javagl.ply.ArrayPlySource;
+import de.javagl.ply.Descriptor;
+import de.javagl.ply.Descriptors;
+import de.javagl.ply.MutableDescriptor;
+import de.javagl.ply.PlyType;
+import de.javagl.ply.PlyWriter;
+import de.javagl.ply.PlyWriters;
+
+/**
+ * An example showing how to use the Ply library to write PLY data directly
+ * from primitive arrays, using an {@link ArrayPlySource}
+ */
+public class WriteArraysExample
+{
+    /**
+     * The entry point
+     * 
+     * @param args Not used
+     * @throws IOException If an error occurs
+     */
+    public static void main(String[] args) throws IOException
+    {
+        // Create a descriptor for the data structure, which
+        // will go into the header of the PLY file
+        Descriptor d = createDescriptor();
+
+        // The vertex coordinates, stored in one array for each property
+        float x[] = { 0.0f, 1.0f, 0.0f, 1.0f };
+        float y[] = { 0.0f, 0.0f, 1.0f, 1.0f };
+
+        // The vertex indices of all faces, stored in a single array,
+        // and the offsets where the indices of each face start
+        int vertexIndices[] = { 0, 1, 2, 2, 3, 0 };
+        int offsets[] = { 0, 3, 6 };
+
+        // Create a PLY source, and bind the properties of the
+        // elements to the arrays. Properties may also be
+        // computed from the element index
+        ArrayPlySource p = new ArrayPlySource(d);
+        p.register("vertex", 4)
+            .withFloat("x", x)
+            .withFloat("y", y)
+            .withFloat("z", i -> 0.0f);
+        p.register("face", 2)
+            .withIntList("vertex_index", vertexIndices, offsets);
+
+        // Write the PLY data, in 'ascii' format, into an
+        // output stream, and print the resulting string
+        PlyWriter w = PlyWriters.createAscii();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.write(p, baos);
+        System.out.println(baos.toString());
+    }
+
+    /**
+     * Create a descriptor for the PLY data structure
+     * 
+     * @return The descriptor
+     */
+    private static Descriptor createDescriptor()
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.FLOAT);
+        d.addProperty("vertex", "z", PlyType.FLOAT);
+        d.addListProperty("face", "vertex_index", PlyType.UCHAR, PlyType.INT);
+        return d;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply.examples;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.javagl.ply.ArrayPlySource;
+import de.javagl.ply.Descriptor;
+import de.javagl.ply.Descriptors;
+import de.javagl.ply.MutableDescriptor;
+import de.javagl.ply.PlyStreamWriter;
+import de.javagl.ply.PlyType;
+import de.javagl.ply.PlyWriter;
+import de.javagl.ply.PlyWriters;
+
+/**
+ * An example showing how to use the Ply library to write PLY data
+ * incrementally, using a {@link PlyStreamWriter}
+ */
+public class WriteStreamExample
+{
+    /**
+     * The entry point
+     * 
+     * @param args Not used
+     * @throws IOException If an error occurs
+     */
+    public static void main(String[] args) throws IOException
+    {
+        // Create a descriptor for the data structure, which
+        // will go into the header of the PLY file
+        Descriptor d = createDescriptor();
+
+        // Open a stream writer. The number of elements of each
+        // element type has to be known in advance, because it
+        // is written into the header immediately
+        int vertexCount = 10;
+        int batchSize = 4;
+        PlyWriter w = PlyWriters.createAscii();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PlyStreamWriter s = w.open(d, Arrays.asList(vertexCount), baos);
+
+        // Write the vertices in batches. Only the data of one
+        // batch has to be kept in memory
+        float x[] = new float[batchSize];
+        float y[] = new float[batchSize];
+        for (int first = 0; first < vertexCount; first += batchSize)
+        {
+            int n = Math.min(batchSize, vertexCount - first);
+            for (int i = 0; i < n; i++)
+            {
+                x[i] = first + i;
+                y[i] = (first + i) * 0.5f;
+            }
+            ArrayPlySource batch = new ArrayPlySource(d);
+            batch.register("vertex", n)
+                .withFloat("x", x)
+                .withFloat("y", y);
+            s.write(batch);
+        }
+
+        // Finish writing, and print the resulting string
+        s.finish();
+        System.out.println(baos.toString());
+    }
+
+    /**
+     * Create a descriptor for the PLY data structure
+     * 
+     * @return The descriptor
+     */
+    private static Descriptor createDescriptor()
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.FLOAT);
+        return d;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.util.List;
+
+/**
+ * Abstract base implementation of a {@link BatchPlyTarget}.
+ * 
+ * This class also delivers the elements in batches when they are not read
+ * from binary data, but passed to the methods of the {@link PlyTarget}
+ * interface, as it is the case for ASCII data. The values of each element
+ * type that only contains scalar properties are collected in columns, and
+ * passed to the <code>handle...Column</code> methods in batches of up to
+ * {@value #BATCH_SIZE} elements. The values of element types that contain
+ * list properties are passed to the methods of the {@link PlyTarget}
+ * interface.
+ * 
+ * All other methods are empty and may be overridden. Subclasses that
+ * override the {@link #setDescriptor(Descriptor)},
+ * {@link #startElementList(int, int)}, {@link #startElement(int, int)},
+ * {@link #endElementList(int)} or <code>handle...Property</code> methods
+ * for scalar values have to call the implementation of this class.
+ */
+public abstract class AbstractBatchPlyTarget implements BatchPlyTarget
+{
+    /**
+     * The maximum number of elements in the batches that are collected
+     * from the calls to the methods of the {@link PlyTarget} interface
+     */
+    public static final int BATCH_SIZE = 4096;
+
+    /**
+     * The property types for each element type, or <code>null</code> for
+     * element types that are not collected in batches
+     */
+    private PlyType batchTypes[][];
+
+    /**
+     * The element type index of the batch that is currently being
+     * collected, or -1 if no batch is being collected
+     */
+    private int batchElementTypeIndex;
+
+    /**
+     * The columns for the batch that is currently being collected
+     */
+    private Object batchColumns[];
+
+    /**
+     * The index of the first element of the current batch
+     */
+    private int batchStart;
+
+    /**
+     * The number of elements in the current batch
+     */
+    private int batchLength;
+
+    /**
+     * Default constructor
+     */
+    protected AbstractBatchPlyTarget()
+    {
+        this.batchTypes = new PlyType[0][];
+        this.batchElementTypeIndex = -1;
+    }
+
+    @Override
+    public void setDescriptor(Descriptor descriptor)
+    {
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        batchTypes = new PlyType[elementDescriptors.size()][];
+        for (int t = 0; t < elementDescriptors.size(); t++)
+        {
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            if (ElementDescriptors.computeStride(elementDescriptor) <= 0)
+            {
+                continue;
+            }
+            List<PropertyDescriptor> propertyDescriptors =
+                elementDescriptor.getPropertyDescriptors();
+            PlyType types[] = new PlyType[propertyDescriptors.size()];
+            for (int p = 0; p < types.length; p++)
+            {
+                types[p] = propertyDescriptors.get(p).getType();
+            }
+            batchTypes[t] = types;
+        }
+    }
+
+    @Override
+    public void startElementList(int elementTypeIndex, int elementCount)
+    {
+        batchElementTypeIndex = -1;
+        batchColumns = null;
+        batchStart = 0;
+        batchLength = 0;
+    }
+
+    @Override
+    public void startElement(int elementTypeIndex, int elementIndex)
+    {
+        int t = elementTypeIndex;
+        if (t >= batchTypes.length || batchTypes[t] == null)
+        {
+            return;
+        }
+        if (batchColumns == null)
+        {
+            batchElementTypeIndex = t;
+            batchColumns = Batches.createColumns(batchTypes[t], BATCH_SIZE);
+        }
+        if (batchLength == BATCH_SIZE)
+        {
+            flushBatch();
+        }
+        batchLength++;
+    }
+
+    @Override
+    public void handleCharProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte value)
+    {
+        if (elementTypeIndex == batchElementTypeIndex)
+        {
+            ((byte[]) batchColumns[propertyIndex])[batchLength - 1] = value;
+        }
+    }
+
+    @Override
+    public void handleShortProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short value)
+    {
+        if (elementTypeIndex == batchElementTypeIndex)
+        {
+            ((short[]) batchColumns[propertyIndex])[batchLength - 1] = value;
+        }
+    }
+
+    @Override
+    public void handleIntProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int value)
+    {
+        if (elementTypeIndex == batchElementTypeIndex)
+        {
+            ((int[]) batchColumns[propertyIndex])[batchLength - 1] = value;
+        }
+    }
+
+    @Override
+    public void handleFloatProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float value)
+    {
+        if (elementTypeIndex == batchElementTypeIndex)
+        {
+            ((float[]) batchColumns[propertyIndex])[batchLength - 1] = value;
+        }
+    }
+
+    @Override
+    public void handleDoubleProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double value)
+    {
+        if (elementTypeIndex == batchElementTypeIndex)
+        {
+            ((double[]) batchColumns[propertyIndex])[batchLength - 1] = value;
+        }
+    }
+
+    @Override
+    public void handleCharListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte[] value)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleShortListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short[] value)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleIntListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int[] value)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleFloatListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float[] value)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleDoubleListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double[] value)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void endElement(int elementTypeIndex, int elementIndex)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void endElementList(int elementTypeIndex)
+    {
+        if (elementTypeIndex == batchElementTypeIndex && batchLength > 0)
+        {
+            flushBatch();
+        }
+        batchElementTypeIndex = -1;
+        batchColumns = null;
+    }
+
+    /**
+     * Pass the batch that is currently being collected to the
+     * <code>handle...Column</code> methods, and start a new batch
+     */
+    private void flushBatch()
+    {
+        int t = batchElementTypeIndex;
+        Batches.handleColumns(this, t, batchStart, batchTypes[t],
+            batchColumns, batchLength);
+        batchStart += batchLength;
+        batchLength = 0;
+    }
+
+    @Override
+    public void handleCharColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, byte values[], int offset, int length)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleShortColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, short values[], int offset, int length)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleIntColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, int values[], int offset, int length)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleFloatColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, float values[], int offset, int length)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void handleDoubleColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, double values[], int offset, int length)
+    {
+        // Empty default implementation
+    }
+
+    @Override
+    public void endBatch(int elementTypeIndex, int firstElementIndex,
+        int length)
+    {
+        // Empty default implementation
+    }
+
+}
@@ -0,0 +1,401 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Abstract base implementation of a {@link PlyStreamWriter}.
+ * 
+ * This class keeps track of the elements that have been written, and
+ * checks whether they match the declared element counts. Implementations
+ * only have to write the actual content.
+ * 
+ * When the element counts are not declared, then the header must have been
+ * written into a file channel, with element counts that are padded with
+ * spaces to a fixed width. The actual element counts are then written into
+ * the header when {@link #finish()} is called.
+ */
+abstract class AbstractPlyStreamWriter implements PlyStreamWriter
+{
+    /**
+     * The {@link Descriptor}
+     */
+    private final Descriptor descriptor;
+
+    /**
+     * The mapping from element names to element type indices
+     */
+    private final Map<String, Integer> elementTypeIndices;
+
+    /**
+     * The declared number of elements, for each element type. This is
+     * <code>null</code> if the element counts are written into the header
+     * when this writer is finished.
+     */
+    private final int elementCounts[];
+
+    /**
+     * The number of elements that have been written, for each element type
+     */
+    private final int writtenElementCounts[];
+
+    /**
+     * The file channel that the element counts are written to when this
+     * writer is finished, or <code>null</code> if the element counts have
+     * been declared
+     */
+    private final FileChannel fileChannel;
+
+    /**
+     * The positions of the element counts in the file channel
+     */
+    private final long countPositions[];
+
+    /**
+     * The index of the element type that is currently written
+     */
+    private int currentElementTypeIndex;
+
+    /**
+     * Whether {@link #finish()} was called
+     */
+    private boolean finished;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param elementCounts The element counts
+     * @throws IllegalArgumentException If the number of element counts does
+     *         not match the number of element types, or any element count
+     *         is negative
+     */
+    AbstractPlyStreamWriter(Descriptor descriptor,
+        List<Integer> elementCounts)
+    {
+        this.descriptor = Objects.requireNonNull(descriptor,
+            "The descriptor may not be null");
+        Objects.requireNonNull(elementCounts,
+            "The elementCounts may not be null");
+        this.elementTypeIndices =
+            Descriptors.computeElementTypeIndices(descriptor);
+        int n = descriptor.getElementDescriptors().size();
+        if (elementCounts.size() != n)
+        {
+            throw new IllegalArgumentException("Expected " + n
+                + " element counts, but received " + elementCounts.size());
+        }
+        this.elementCounts = new int[n];
+        for (int t = 0; t < n; t++)
+        {
+            int elementCount = elementCounts.get(t);
+            if (elementCount < 0)
+            {
+                throw new IllegalArgumentException(
+                    "The element count may not be negative, but is "
+                        + elementCount);
+            }
+            this.elementCounts[t] = elementCount;
+        }
+        this.writtenElementCounts = new int[n];
+        this.fileChannel = null;
+        this.countPositions = null;
+    }
+
+    /**
+     * Creates a new instance for element counts that are not known in
+     * advance.
+     * 
+     * The given positions are the positions in the given file channel where
+     * the element counts have to be written, with the width of
+     * {@link PlyWriters#DEFERRED_COUNT_WIDTH}, when this writer is finished.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param fileChannel The file channel
+     * @param countPositions The positions of the element counts
+     */
+    AbstractPlyStreamWriter(Descriptor descriptor, FileChannel fileChannel,
+        long countPositions[])
+    {
+        this.descriptor = Objects.requireNonNull(descriptor,
+            "The descriptor may not be null");
+        this.elementTypeIndices =
+            Descriptors.computeElementTypeIndices(descriptor);
+        int n = descriptor.getElementDescriptors().size();
+        this.elementCounts = null;
+        this.writtenElementCounts = new int[n];
+        this.fileChannel = fileChannel;
+        this.countPositions = countPositions;
+    }
+
+    /**
+     * Returns the {@link ElementDescriptor} for the specified element type
+     * 
+     * @param elementTypeIndex The element type index
+     * @return The {@link ElementDescriptor}
+     */
+    final ElementDescriptor getElementDescriptor(int elementTypeIndex)
+    {
+        return descriptor.getElementDescriptors().get(elementTypeIndex);
+    }
+
+    @Override
+    public final void write(String elementName, Element element)
+        throws IOException
+    {
+        write(elementName, Collections.singletonList(element));
+    }
+
+    @Override
+    public final void write(String elementName, List<Element> elements)
+        throws IOException
+    {
+        Objects.requireNonNull(elements, "The elements may not be null");
+        Integer elementTypeIndex = elementTypeIndices.get(elementName);
+        if (elementTypeIndex == null)
+        {
+            throw new IllegalArgumentException("The descriptor does not "
+                + "contain an element type '" + elementName + "'");
+        }
+        prepare(elementTypeIndex, elements.size());
+        writeElements(elementTypeIndex, elements);
+    }
+
+    @Override
+    public final void write(ArrayPlySource batch) throws IOException
+    {
+        Objects.requireNonNull(batch, "The batch may not be null");
+        if (batch.getDescriptor() != descriptor)
+        {
+            throw new IllegalArgumentException("The batch was not created "
+                + "with the descriptor of this writer");
+        }
+        batch.validate();
+        int n = writtenElementCounts.length;
+        for (int t = 0; t < n; t++)
+        {
+            Object columns[] = batch.getColumns(t);
+            if (columns != null)
+            {
+                int elementCount = batch.getElementCount(t);
+                prepare(t, elementCount);
+                writeColumns(t, elementCount, columns);
+            }
+        }
+    }
+
+    /**
+     * Write the elements of the specified type that are given by the
+     * columns. The columns have the same structure as the columns of an
+     * {@link ArrayPlySource}.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementCount The number of elements
+     * @param columns The columns
+     * @throws IOException If an IO error occurs
+     * @throws IllegalStateException If the elements may not be written
+     */
+    final void write(int elementTypeIndex, int elementCount, Object columns[])
+        throws IOException
+    {
+        prepare(elementTypeIndex, elementCount);
+        writeColumns(elementTypeIndex, elementCount, columns);
+    }
+
+    /**
+     * Write the elements of the specified type, which only contains scalar
+     * properties, that are given as raw binary data, as described in
+     * {@link RawPlyTarget}.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementCount The number of elements
+     * @param buffer The buffer
+     * @param position The position of the first element in the buffer
+     * @throws IOException If an IO error occurs
+     * @throws IllegalStateException If the elements may not be written
+     */
+    final void writeRaw(int elementTypeIndex, int elementCount,
+        ByteBuffer buffer, int position) throws IOException
+    {
+        prepare(elementTypeIndex, elementCount);
+        writeRawElements(elementTypeIndex, elementCount, buffer, position);
+    }
+
+    @Override
+    public final void finish() throws IOException
+    {
+        prepare(writtenElementCounts.length, 0);
+        finished = true;
+        finishContent();
+        if (fileChannel != null)
+        {
+            writeElementCounts();
+        }
+    }
+
+    /**
+     * Write the element counts into the file channel, at the count
+     * positions
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    private void writeElementCounts() throws IOException
+    {
+        for (int t = 0; t < writtenElementCounts.length; t++)
+        {
+            String count =
+                PlyWriters.formatDeferredCount(writtenElementCounts[t]);
+            ByteBuffer buffer =
+                ByteBuffer.wrap(count.getBytes(StandardCharsets.US_ASCII));
+            long position = countPositions[t];
+            while (buffer.hasRemaining())
+            {
+                position += fileChannel.write(buffer, position);
+            }
+        }
+    }
+
+    /**
+     * Prepare writing the given number of elements of the specified type.
+     * 
+     * This checks whether the elements may be written, and updates the
+     * number of elements that have been written. An element type index
+     * that is equal to the number of element types may be used to check
+     * whether all elements have been written.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param n The number of elements
+     * @throws IllegalStateException If the elements may not be written
+     */
+    private void prepare(int elementTypeIndex, int n)
+    {
+        if (finished)
+        {
+            throw new IllegalStateException("The writer was already finished");
+        }
+        if (elementTypeIndex < currentElementTypeIndex)
+        {
+            throw new IllegalStateException("Elements of type '"
+                + getElementName(elementTypeIndex) + "' can not be written "
+                + "after elements of type '"
+                + getElementName(currentElementTypeIndex) + "'");
+        }
+        while (currentElementTypeIndex < elementTypeIndex)
+        {
+            if (elementCounts != null)
+            {
+                int expected = elementCounts[currentElementTypeIndex];
+                int written = writtenElementCounts[currentElementTypeIndex];
+                if (written != expected)
+                {
+                    throw new IllegalStateException("Expected " + expected
+                        + " elements of type '"
+                        + getElementName(currentElementTypeIndex)
+                        + "', but only " + written + " have been written");
+                }
+            }
+            currentElementTypeIndex++;
+        }
+        if (n == 0)
+        {
+            return;
+        }
+        long total = (long) writtenElementCounts[elementTypeIndex] + n;
+        int expected =
+            elementCounts == null ? Integer.MAX_VALUE
+                : elementCounts[elementTypeIndex];
+        if (total > expected)
+        {
+            throw new IllegalStateException("Expected " + expected
+                + " elements of type '" + getElementName(elementTypeIndex)
+                + "', but received " + total);
+        }
+        writtenElementCounts[elementTypeIndex] = (int) total;
+    }
+
+    /**
+     * Returns the name of the specified element type
+     * 
+     * @param elementTypeIndex The element type index
+     * @return The element name
+     */
+    private String getElementName(int elementTypeIndex)
+    {
+        return descriptor.getElementName(elementTypeIndex);
+    }
+
+    /**
+     * Write the given elements of the specified type
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elements The elements
+     * @throws IOException If an IO error occurs
+     */
+    abstract void writeElements(int elementTypeIndex, List<Element> elements)
+        throws IOException;
+
+    /**
+     * Write the elements of the specified type that are given by the columns
+     * of an {@link ArrayPlySource}
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementCount The number of elements
+     * @param columns The columns
+     * @throws IOException If an IO error occurs
+     */
+    abstract void writeColumns(int elementTypeIndex, int elementCount,
+        Object columns[]) throws IOException;
+
+    /**
+     * Write the elements of the specified type, which only contains scalar
+     * properties, that are given as raw binary data, as described in
+     * {@link RawPlyTarget}
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementCount The number of elements
+     * @param buffer The buffer
+     * @param position The position of the first element in the buffer
+     * @throws IOException If an IO error occurs
+     */
+    abstract void writeRawElements(int elementTypeIndex, int elementCount,
+        ByteBuffer buffer, int position) throws IOException;
+
+    /**
+     * Write all pending data into the output
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    abstract void finishContent() throws IOException;
+}
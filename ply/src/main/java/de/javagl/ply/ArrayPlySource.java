@@ -0,0 +1,974 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Implementation of a {@link PlySource} that is backed by primitive arrays.
+ * 
+ * Each element type that should be provided has to be registered with
+ * {@link #register(String, int)}, which returns a {@link Handle}. The handle
+ * allows binding each scalar property either to a primitive array that
+ * contains one value for each element, or to a function that computes the
+ * value from the element index. Each list property is bound to a data array
+ * that contains the lists of all elements, and an offsets array, as
+ * described in {@link ListColumn}.
+ * 
+ * The arrays are not copied. When this source is written with a binary
+ * {@link PlyWriter}, the values are encoded directly from the arrays,
+ * without creating {@link Element} objects. The
+ * {@link #getElementList(String)} methods return views on the arrays, for
+ * compatibility with code that expects {@link Element} objects.
+ * 
+ * All properties of a registered element type have to be bound before the
+ * source is written. Otherwise, the {@link PlyWriter} will throw an
+ * <code>IllegalStateException</code>. Element types that are not registered
+ * are written with an element count of 0.
+ */
+public final class ArrayPlySource implements PlySource
+{
+    /**
+     * The {@link Descriptor}
+     */
+    private final Descriptor descriptor;
+
+    /**
+     * The mapping from element names to element type indices
+     */
+    private final Map<String, Integer> elementTypeIndices;
+
+    /**
+     * A list containing one map for each element type, mapping the property
+     * names to the indices that they have in that element.
+     */
+    private final List<Map<String, Integer>> propertyIndexMaps;
+
+    /**
+     * The number of elements, for each element type
+     */
+    private final int elementCounts[];
+
+    /**
+     * The columns. For each element type, this contains one entry for each
+     * property, or <code>null</code> if the element type was not registered.
+     * Each entry is either a primitive array or a function for a scalar
+     * property, or a {@link ListColumn} for a list property, or
+     * <code>null</code> if the property was not bound yet.
+     */
+    private final Object columns[][];
+
+    /**
+     * Creates a new instance with the given {@link Descriptor}
+     * 
+     * @param descriptor The {@link Descriptor}
+     */
+    public ArrayPlySource(Descriptor descriptor)
+    {
+        this.descriptor = Objects.requireNonNull(descriptor,
+            "The descriptor may not be null");
+        this.elementTypeIndices =
+            Descriptors.computeElementTypeIndices(descriptor);
+
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        int n = elementDescriptors.size();
+        this.propertyIndexMaps = new ArrayList<Map<String, Integer>>();
+        for (int t = 0; t < n; t++)
+        {
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            Map<String, Integer> propertyIndices =
+                ElementDescriptors.computePropertyIndices(elementDescriptor);
+            propertyIndexMaps.add(propertyIndices);
+        }
+        this.elementCounts = new int[n];
+        this.columns = new Object[n][];
+    }
+
+    /**
+     * Register a new element type to be provided by this instance.
+     * 
+     * This will return a {@link Handle} that allows binding the properties
+     * of the element type to arrays or functions, using the
+     * <code>handle.with...</code> functions.
+     * 
+     * @param elementName The element name
+     * @param elementCount The number of elements
+     * @return The {@link Handle}
+     * @throws IllegalArgumentException If the descriptor does not contain
+     *         the specified element type, or the element count is negative
+     * @throws IllegalStateException If the element type was already
+     *         registered
+     */
+    public Handle register(String elementName, int elementCount)
+    {
+        Integer elementTypeIndex = elementTypeIndices.get(elementName);
+        if (elementTypeIndex == null)
+        {
+            throw new IllegalArgumentException("The descriptor does not "
+                + "contain an element type '" + elementName + "'");
+        }
+        if (columns[elementTypeIndex] != null)
+        {
+            throw new IllegalStateException(
+                "Element type '" + elementName + "' was already registered");
+        }
+        if (elementCount < 0)
+        {
+            throw new IllegalArgumentException(
+                "The element count may not be negative, but is "
+                    + elementCount);
+        }
+        int numProperties = propertyIndexMaps.get(elementTypeIndex).size();
+        elementCounts[elementTypeIndex] = elementCount;
+        columns[elementTypeIndex] = new Object[numProperties];
+        return new Handle(elementTypeIndex);
+    }
+
+    /**
+     * The handle that is returned from
+     * {@link ArrayPlySource#register(String, int)} and that allows binding
+     * the properties of one element type to arrays or functions.
+     * 
+     * The arrays for scalar properties must contain at least one entry for
+     * each element. The functions for scalar properties will be called with
+     * the element indices. The offsets arrays for list properties must
+     * contain at least <code>elementCount+1</code> non-decreasing entries
+     * that are valid indices for the data array, where the list of element
+     * <code>i</code> consists of the data array entries from
+     * <code>offsets[i]</code> (inclusive) to <code>offsets[i+1]</code>
+     * (exclusive).
+     * 
+     * All methods throw an <code>IllegalArgumentException</code> if the
+     * element type does not contain the specified property, if the type of
+     * the property does not match the given array or function, or if the
+     * given arrays are too short.
+     */
+    public final class Handle
+    {
+        /**
+         * The element type index
+         */
+        private final int elementTypeIndex;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param elementTypeIndex The element type index
+         */
+        private Handle(int elementTypeIndex)
+        {
+            this.elementTypeIndex = elementTypeIndex;
+        }
+
+        /**
+         * Provide the specified property with the given values.
+         * 
+         * @param propertyName The property name
+         * @param values The values
+         * @return This handle
+         */
+        public Handle withByte(String propertyName, byte values[])
+        {
+            checkLength(propertyName, values.length);
+            return bind(propertyName, byte[].class, false, values);
+        }
+
+        /**
+         * Provide the specified property with the given function.
+         * 
+         * @param propertyName The property name
+         * @param function The function
+         * @return This handle
+         */
+        public Handle withByte(String propertyName,
+            IntToByteFunction function)
+        {
+            return bind(propertyName, byte[].class, false, function);
+        }
+
+        /**
+         * Provide the specified property with the given values.
+         * 
+         * @param propertyName The property name
+         * @param values The values
+         * @return This handle
+         */
+        public Handle withShort(String propertyName, short values[])
+        {
+            checkLength(propertyName, values.length);
+            return bind(propertyName, short[].class, false, values);
+        }
+
+        /**
+         * Provide the specified property with the given function.
+         * 
+         * @param propertyName The property name
+         * @param function The function
+         * @return This handle
+         */
+        public Handle withShort(String propertyName,
+            IntToShortFunction function)
+        {
+            return bind(propertyName, short[].class, false, function);
+        }
+
+        /**
+         * Provide the specified property with the given values.
+         * 
+         * @param propertyName The property name
+         * @param values The values
+         * @return This handle
+         */
+        public Handle withInt(String propertyName, int values[])
+        {
+            checkLength(propertyName, values.length);
+            return bind(propertyName, int[].class, false, values);
+        }
+
+        /**
+         * Provide the specified property with the given function.
+         * 
+         * @param propertyName The property name
+         * @param function The function
+         * @return This handle
+         */
+        public Handle withInt(String propertyName, IntUnaryOperator function)
+        {
+            return bind(propertyName, int[].class, false, function);
+        }
+
+        /**
+         * Provide the specified property with the given values.
+         * 
+         * @param propertyName The property name
+         * @param values The values
+         * @return This handle
+         */
+        public Handle withFloat(String propertyName, float values[])
+        {
+            checkLength(propertyName, values.length);
+            return bind(propertyName, float[].class, false, values);
+        }
+
+        /**
+         * Provide the specified property with the given function.
+         * 
+         * @param propertyName The property name
+         * @param function The function
+         * @return This handle
+         */
+        public Handle withFloat(String propertyName,
+            IntToFloatFunction function)
+        {
+            return bind(propertyName, float[].class, false, function);
+        }
+
+        /**
+         * Provide the specified property with the given values.
+         * 
+         * @param propertyName The property name
+         * @param values The values
+         * @return This handle
+         */
+        public Handle withDouble(String propertyName, double values[])
+        {
+            checkLength(propertyName, values.length);
+            return bind(propertyName, double[].class, false, values);
+        }
+
+        /**
+         * Provide the specified property with the given function.
+         * 
+         * @param propertyName The property name
+         * @param function The function
+         * @return This handle
+         */
+        public Handle withDouble(String propertyName,
+            IntToDoubleFunction function)
+        {
+            return bind(propertyName, double[].class, false, function);
+        }
+
+        /**
+         * Provide the specified list property with the given data and
+         * offsets.
+         * 
+         * @param propertyName The property name
+         * @param data The data
+         * @param offsets The offsets
+         * @return This handle
+         */
+        public Handle withByteList(String propertyName, byte data[],
+            int offsets[])
+        {
+            return bindList(propertyName, byte[].class, data, data.length,
+                offsets);
+        }
+
+        /**
+         * Provide the specified list property with the given data and
+         * offsets.
+         * 
+         * @param propertyName The property name
+         * @param data The data
+         * @param offsets The offsets
+         * @return This handle
+         */
+        public Handle withShortList(String propertyName, short data[],
+            int offsets[])
+        {
+            return bindList(propertyName, short[].class, data, data.length,
+                offsets);
+        }
+
+        /**
+         * Provide the specified list property with the given data and
+         * offsets.
+         * 
+         * @param propertyName The property name
+         * @param data The data
+         * @param offsets The offsets
+         * @return This handle
+         */
+        public Handle withIntList(String propertyName, int data[],
+            int offsets[])
+        {
+            return bindList(propertyName, int[].class, data, data.length,
+                offsets);
+        }
+
+        /**
+         * Provide the specified list property with the given data and
+         * offsets.
+         * 
+         * @param propertyName The property name
+         * @param data The data
+         * @param offsets The offsets
+         * @return This handle
+         */
+        public Handle withFloatList(String propertyName, float data[],
+            int offsets[])
+        {
+            return bindList(propertyName, float[].class, data, data.length,
+                offsets);
+        }
+
+        /**
+         * Provide the specified list property with the given data and
+         * offsets.
+         * 
+         * @param propertyName The property name
+         * @param data The data
+         * @param offsets The offsets
+         * @return This handle
+         */
+        public Handle withDoubleList(String propertyName, double data[],
+            int offsets[])
+        {
+            return bindList(propertyName, double[].class, data, data.length,
+                offsets);
+        }
+
+        /**
+         * Provide the specified list property with the given
+         * {@link ListColumn}, for example, one that was obtained from a
+         * {@link ColumnarPlySource}.
+         * 
+         * @param propertyName The property name
+         * @param listColumn The {@link ListColumn}
+         * @return This handle
+         */
+        public Handle withList(String propertyName, ListColumn listColumn)
+        {
+            int elementCount = elementCounts[elementTypeIndex];
+            if (listColumn.getElementCount() < elementCount)
+            {
+                throw new IllegalArgumentException("The list column for "
+                    + "property '" + propertyName + "' contains "
+                    + listColumn.getElementCount() + " elements, but "
+                    + "requires " + elementCount);
+            }
+            Class<?> arrayType = getArrayType(listColumn.getType());
+            return bind(propertyName, arrayType, true, listColumn);
+        }
+
+        /**
+         * Create a {@link ListColumn} from the given data and offsets, and
+         * bind it to the specified property
+         * 
+         * @param propertyName The property name
+         * @param arrayType The type of the data array
+         * @param data The data array
+         * @param dataLength The length of the data array
+         * @param offsets The offsets
+         * @return This handle
+         */
+        private Handle bindList(String propertyName, Class<?> arrayType,
+            Object data, int dataLength, int offsets[])
+        {
+            int elementCount = elementCounts[elementTypeIndex];
+            if (offsets.length < elementCount + 1)
+            {
+                throw new IllegalArgumentException("The offsets for "
+                    + "property '" + propertyName + "' have a length of "
+                    + offsets.length + ", but require " + (elementCount + 1));
+            }
+            int previous = 0;
+            for (int i = 0; i <= elementCount; i++)
+            {
+                int offset = offsets[i];
+                if (offset < previous || offset > dataLength)
+                {
+                    throw new IllegalArgumentException("Invalid offset for "
+                        + "property '" + propertyName + "' at index " + i
+                        + ": " + offset);
+                }
+                previous = offset;
+            }
+            PlyType type = getPropertyDescriptor(propertyName).getType();
+            ListColumn listColumn =
+                new ListColumn(type, data, offsets, elementCount);
+            return bind(propertyName, arrayType, true, listColumn);
+        }
+
+        /**
+         * Check whether an array with the given length contains enough
+         * entries for the elements
+         * 
+         * @param propertyName The property name
+         * @param length The length
+         * @throws IllegalArgumentException If the length is too small
+         */
+        private void checkLength(String propertyName, int length)
+        {
+            int elementCount = elementCounts[elementTypeIndex];
+            if (length < elementCount)
+            {
+                throw new IllegalArgumentException("The array for property '"
+                    + propertyName + "' has a length of " + length
+                    + ", but requires " + elementCount);
+            }
+        }
+
+        /**
+         * Returns the {@link PropertyDescriptor} for the specified property
+         * 
+         * @param propertyName The property name
+         * @return The {@link PropertyDescriptor}
+         * @throws IllegalArgumentException If the property does not exist
+         */
+        private PropertyDescriptor getPropertyDescriptor(String propertyName)
+        {
+            Integer propertyIndex =
+                propertyIndexMaps.get(elementTypeIndex).get(propertyName);
+            if (propertyIndex == null)
+            {
+                String elementName =
+                    descriptor.getElementName(elementTypeIndex);
+                throw new IllegalArgumentException("The element type '"
+                    + elementName + "' does not contain a property '"
+                    + propertyName + "'");
+            }
+            ElementDescriptor elementDescriptor =
+                descriptor.getElementDescriptors().get(elementTypeIndex);
+            return elementDescriptor.getPropertyDescriptors().get(
+                propertyIndex);
+        }
+
+        /**
+         * Bind the given column to the specified property
+         * 
+         * @param propertyName The property name
+         * @param arrayType The array type that corresponds to the type of
+         *        the values
+         * @param list Whether the column is a list column
+         * @param column The column
+         * @return This handle
+         * @throws IllegalArgumentException If the property does not exist,
+         *         or its type does not match
+         */
+        private Handle bind(String propertyName, Class<?> arrayType,
+            boolean list, Object column)
+        {
+            Objects.requireNonNull(column, "The column may not be null");
+            PropertyDescriptor propertyDescriptor =
+                getPropertyDescriptor(propertyName);
+            boolean isList = propertyDescriptor.getSizeType() != null;
+            PlyType type = propertyDescriptor.getType();
+            if (isList != list || getArrayType(type) != arrayType)
+            {
+                String elementName =
+                    descriptor.getElementName(elementTypeIndex);
+                throw new IllegalArgumentException("The property '"
+                    + propertyName + "' of element type '" + elementName
+                    + "' has the type " + (isList ? "list of " : "") + type
+                    + ", which does not match the given values");
+            }
+            int propertyIndex =
+                propertyIndexMaps.get(elementTypeIndex).get(propertyName);
+            columns[elementTypeIndex][propertyIndex] = column;
+            return this;
+        }
+    }
+
+    /**
+     * Returns the primitive array type that corresponds to the given type
+     * 
+     * @param type The type
+     * @return The array type
+     */
+    private static Class<?> getArrayType(PlyType type)
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return byte[].class;
+            case USHORT:
+            case SHORT:
+                return short[].class;
+            case UINT:
+            case INT:
+                return int[].class;
+            case FLOAT:
+                return float[].class;
+            case DOUBLE:
+                return double[].class;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown property type: " + type);
+    }
+
+    /**
+     * Register the specified element type, with the given number of
+     * elements and the given columns. The columns must have the structure
+     * that is described in {@link #getColumns(int)}, and are not copied.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementCount The number of elements
+     * @param elementColumns The columns
+     * @throws IllegalStateException If the element type was already
+     *         registered
+     */
+    void register(int elementTypeIndex, int elementCount,
+        Object elementColumns[])
+    {
+        if (columns[elementTypeIndex] != null)
+        {
+            throw new IllegalStateException("Element type '"
+                + descriptor.getElementName(elementTypeIndex)
+                + "' was already registered");
+        }
+        elementCounts[elementTypeIndex] = elementCount;
+        columns[elementTypeIndex] = elementColumns;
+    }
+
+    /**
+     * Returns the number of elements of the specified type
+     * 
+     * @param elementTypeIndex The element type index
+     * @return The number of elements
+     */
+    int getElementCount(int elementTypeIndex)
+    {
+        return elementCounts[elementTypeIndex];
+    }
+
+    /**
+     * Returns the columns for the specified element type, or
+     * <code>null</code> if the element type was not registered.
+     * 
+     * Each entry is either a primitive array or a function for a scalar
+     * property, or a {@link ListColumn} for a list property, or
+     * <code>null</code> if the property was not bound.
+     * 
+     * @param elementTypeIndex The element type index
+     * @return The columns
+     */
+    Object[] getColumns(int elementTypeIndex)
+    {
+        return columns[elementTypeIndex];
+    }
+
+    /**
+     * Make sure that all properties of all registered element types have
+     * been bound.
+     * 
+     * @throws IllegalStateException If a property was not bound
+     */
+    void validate()
+    {
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        for (int t = 0; t < elementDescriptors.size(); t++)
+        {
+            Object elementColumns[] = columns[t];
+            if (elementColumns == null)
+            {
+                continue;
+            }
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            List<PropertyDescriptor> propertyDescriptors =
+                elementDescriptor.getPropertyDescriptors();
+            for (int p = 0; p < elementColumns.length; p++)
+            {
+                if (elementColumns[p] == null)
+                {
+                    throw new IllegalStateException("No values have been "
+                        + "provided for property '"
+                        + propertyDescriptors.get(p).getName()
+                        + "' of element type '" + elementDescriptor.getName()
+                        + "'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the given column for the specified element
+     * 
+     * @param column The column, which is an array or a function
+     * @param index The element index
+     * @return The value
+     */
+    static byte getByte(Object column, int index)
+    {
+        if (column instanceof byte[])
+        {
+            return ((byte[]) column)[index];
+        }
+        return ((IntToByteFunction) column).applyAsByte(index);
+    }
+
+    /**
+     * Returns the value of the given column for the specified element
+     * 
+     * @param column The column, which is an array or a function
+     * @param index The element index
+     * @return The value
+     */
+    static short getShort(Object column, int index)
+    {
+        if (column instanceof short[])
+        {
+            return ((short[]) column)[index];
+        }
+        return ((IntToShortFunction) column).applyAsShort(index);
+    }
+
+    /**
+     * Returns the value of the given column for the specified element
+     * 
+     * @param column The column, which is an array or a function
+     * @param index The element index
+     * @return The value
+     */
+    static int getInt(Object column, int index)
+    {
+        if (column instanceof int[])
+        {
+            return ((int[]) column)[index];
+        }
+        return ((IntUnaryOperator) column).applyAsInt(index);
+    }
+
+    /**
+     * Returns the value of the given column for the specified element
+     * 
+     * @param column The column, which is an array or a function
+     * @param index The element index
+     * @return The value
+     */
+    static float getFloat(Object column, int index)
+    {
+        if (column instanceof float[])
+        {
+            return ((float[]) column)[index];
+        }
+        return ((IntToFloatFunction) column).applyAsFloat(index);
+    }
+
+    /**
+     * Returns the value of the given column for the specified element
+     * 
+     * @param column The column, which is an array or a function
+     * @param index The element index
+     * @return The value
+     */
+    static double getDouble(Object column, int index)
+    {
+        if (column instanceof double[])
+        {
+            return ((double[]) column)[index];
+        }
+        return ((IntToDoubleFunction) column).applyAsDouble(index);
+    }
+
+    @Override
+    public Descriptor getDescriptor()
+    {
+        return descriptor;
+    }
+
+    @Override
+    public List<Element> getElementList(String elementName)
+    {
+        Integer elementTypeIndex = elementTypeIndices.get(elementName);
+        if (elementTypeIndex == null)
+        {
+            return null;
+        }
+        return getElementList(elementTypeIndex);
+    }
+
+    @Override
+    public List<Element> getElementList(int elementTypeIndex)
+    {
+        Object elementColumns[] = columns[elementTypeIndex];
+        if (elementColumns == null)
+        {
+            return null;
+        }
+        Map<String, Integer> propertyIndices =
+            propertyIndexMaps.get(elementTypeIndex);
+        int elementCount = elementCounts[elementTypeIndex];
+        class Result extends AbstractList<Element> implements RandomAccess
+        {
+            @Override
+            public int size()
+            {
+                return elementCount;
+            }
+
+            @Override
+            public Element get(int index)
+            {
+                if (index < 0 || index >= elementCount)
+                {
+                    throw new IndexOutOfBoundsException(
+                        "Index " + index + ", size " + elementCount);
+                }
+                return new ArrayElement(propertyIndices, elementColumns,
+                    index);
+            }
+        }
+        return new Result();
+    }
+
+    /**
+     * Implementation of an {@link Element} that is a view on one entry of
+     * the columns of one element type
+     */
+    private static final class ArrayElement implements Element
+    {
+        /**
+         * The mapping from property names to indices
+         */
+        private final Map<String, Integer> propertyIndices;
+
+        /**
+         * The columns, one for each property
+         */
+        private final Object elementColumns[];
+
+        /**
+         * The index of the element
+         */
+        private final int index;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param propertyIndices The mapping from property names to indices
+         * @param elementColumns The columns
+         * @param index The element index
+         */
+        ArrayElement(Map<String, Integer> propertyIndices,
+            Object elementColumns[], int index)
+        {
+            this.propertyIndices = propertyIndices;
+            this.elementColumns = elementColumns;
+            this.index = index;
+        }
+
+        /**
+         * Returns the column for the specified property, or
+         * <code>null</code> if the property does not exist or was not bound.
+         * 
+         * @param name The property name
+         * @return The column
+         */
+        private Object getColumn(String name)
+        {
+            Integer propertyIndex = propertyIndices.get(name);
+            if (propertyIndex == null)
+            {
+                return null;
+            }
+            return elementColumns[propertyIndex];
+        }
+
+        @Override
+        public Byte getCharProperty(String name)
+        {
+            Object column = getColumn(name);
+            return column == null ? null : getByte(column, index);
+        }
+
+        @Override
+        public Short getShortProperty(String name)
+        {
+            Object column = getColumn(name);
+            return column == null ? null : getShort(column, index);
+        }
+
+        @Override
+        public Integer getIntProperty(String name)
+        {
+            Object column = getColumn(name);
+            return column == null ? null : getInt(column, index);
+        }
+
+        @Override
+        public Float getFloatProperty(String name)
+        {
+            Object column = getColumn(name);
+            return column == null ? null : getFloat(column, index);
+        }
+
+        @Override
+        public Double getDoubleProperty(String name)
+        {
+            Object column = getColumn(name);
+            return column == null ? null : getDouble(column, index);
+        }
+
+        @Override
+        public byte[] getCharListProperty(String name)
+        {
+            ListColumn column = (ListColumn) getColumn(name);
+            return column == null ? null : column.getCharList(index);
+        }
+
+        @Override
+        public short[] getShortListProperty(String name)
+        {
+            ListColumn column = (ListColumn) getColumn(name);
+            return column == null ? null : column.getShortList(index);
+        }
+
+        @Override
+        public int[] getIntListProperty(String name)
+        {
+            ListColumn column = (ListColumn) getColumn(name);
+            return column == null ? null : column.getIntList(index);
+        }
+
+        @Override
+        public float[] getFloatListProperty(String name)
+        {
+            ListColumn column = (ListColumn) getColumn(name);
+            return column == null ? null : column.getFloatList(index);
+        }
+
+        @Override
+        public double[] getDoubleListProperty(String name)
+        {
+            ListColumn column = (ListColumn) getColumn(name);
+            return column == null ? null : column.getDoubleList(index);
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder("Element[");
+            boolean first = true;
+            for (Entry<String, Integer> entry : propertyIndices.entrySet())
+            {
+                if (!first)
+                {
+                    sb.append(", ");
+                }
+                first = false;
+                String name = entry.getKey();
+                Object column = elementColumns[entry.getValue()];
+                Object value = null;
+                if (column instanceof ListColumn)
+                {
+                    value = ((ListColumn) column).getList(index);
+                }
+                else if (column != null)
+                {
+                    value = getValue(column, index);
+                }
+                sb.append(name + "=" + Elements.valueToString(value));
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Returns the boxed value of the given scalar column for the specified
+     * element
+     * 
+     * @param column The column, which is an array or a function
+     * @param index The element index
+     * @return The value
+     */
+    private static Object getValue(Object column, int index)
+    {
+        if (column instanceof byte[] || column instanceof IntToByteFunction)
+        {
+            return getByte(column, index);
+        }
+        if (column instanceof short[] || column instanceof IntToShortFunction)
+        {
+            return getShort(column, index);
+        }
+        if (column instanceof int[] || column instanceof IntUnaryOperator)
+        {
+            return getInt(column, index);
+        }
+        if (column instanceof float[] || column instanceof IntToFloatFunction)
+        {
+            return getFloat(column, index);
+        }
+        return getDouble(column, index);
+    }
+
+}
@@ -0,0 +1,340 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Internal class for decoding lines of ASCII PLY data into the columns of a
+ * {@link ColumnarPlySource}.
+ * 
+ * Each line contains the values of one element. The values of scalar
+ * properties are written into the column arrays at the index of the element.
+ * The values of list properties are either stored as new arrays in the
+ * column, or appended to a {@link ListColumn}. Since the lists of a
+ * {@link ListColumn} have to be appended in order, each call to
+ * {@link #decode} collects them in new {@link ListColumn} objects, which have
+ * to be appended to the actual columns in the order of the elements.
+ */
+final class AsciiColumnDecoder
+{
+    /**
+     * The types of the properties
+     */
+    private final PlyType types[];
+
+    /**
+     * Whether the properties are list properties
+     */
+    private final boolean lists[];
+
+    /**
+     * The indices of the columns of the properties, or negative values for
+     * properties that are skipped
+     */
+    private final int columnIndices[];
+
+    /**
+     * Creates a new instance.
+     * 
+     * The given array may be used to only decode selected properties. It
+     * contains one entry for each property of the given descriptor. This is
+     * the index of the column that the values of the
+     * property should be written to, or a negative value if the property
+     * should be skipped. If the array is <code>null</code>, then all
+     * properties are decoded into the columns with the same index.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param columnIndices The column indices
+     */
+    AsciiColumnDecoder(ElementDescriptor elementDescriptor,
+        int columnIndices[])
+    {
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int n = propertyDescriptors.size();
+        this.types = new PlyType[n];
+        this.lists = new boolean[n];
+        this.columnIndices = new int[n];
+        for (int p = 0; p < n; p++)
+        {
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
+            types[p] = propertyDescriptor.getType();
+            lists[p] = propertyDescriptor.getSizeType() != null;
+            this.columnIndices[p] =
+                columnIndices == null ? p : columnIndices[p];
+        }
+    }
+
+    /**
+     * Decode the given number of lines from the given tokenizer into the
+     * given columns.
+     * 
+     * For each column that is a {@link ListColumn}, the returned array will
+     * contain a new {@link ListColumn} that contains the lists of the decoded
+     * elements. The array will contain <code>null</code> for all other
+     * columns.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param firstElementIndex The index of the element of the first line
+     * @param n The number of lines
+     * @param columns The columns
+     * @return The list columns
+     * @throws IOException If the data could not be decoded
+     */
+    ListColumn[] decode(AsciiTokenizer tokenizer, int firstElementIndex,
+        int n, Object columns[]) throws IOException
+    {
+        ListColumn listColumns[] = new ListColumn[columns.length];
+        for (int p = 0; p < types.length; p++)
+        {
+            int c = columnIndices[p];
+            if (c >= 0 && columns[c] instanceof ListColumn)
+            {
+                listColumns[c] = new ListColumn(types[p], n);
+            }
+        }
+        ListBuffers listBuffers = new ListBuffers();
+        for (int i = 0; i < n; i++)
+        {
+            if (!tokenizer.nextLine())
+            {
+                throw new IOException("Unexpected end of input");
+            }
+            int e = firstElementIndex + i;
+            for (int p = 0; p < types.length; p++)
+            {
+                int c = columnIndices[p];
+                if (c < 0)
+                {
+                    skip(tokenizer, lists[p]);
+                }
+                else if (lists[p])
+                {
+                    decodeList(tokenizer, e, types[p], columns[c],
+                        listColumns[c], listBuffers);
+                }
+                else
+                {
+                    decodeScalar(tokenizer, e, types[p], columns[c]);
+                }
+            }
+            tokenizer.skipLine();
+        }
+        return listColumns;
+    }
+
+    /**
+     * Skip the tokens of a property. For list properties, only the size of
+     * the list is parsed.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param list Whether the property is a list property
+     * @throws IOException If the data could not be decoded
+     */
+    private static void skip(AsciiTokenizer tokenizer, boolean list)
+        throws IOException
+    {
+        if (!list)
+        {
+            tokenizer.skipToken();
+            return;
+        }
+        int n = tokenizer.nextInt();
+        if (n < 0)
+        {
+            throw new IOException("Invalid list size: " + n);
+        }
+        for (int i = 0; i < n; i++)
+        {
+            tokenizer.skipToken();
+        }
+    }
+
+    /**
+     * Decode the value of a scalar property
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param e The element index
+     * @param type The property type
+     * @param column The column
+     * @throws IOException If the data could not be decoded
+     */
+    private static void decodeScalar(AsciiTokenizer tokenizer, int e,
+        PlyType type, Object column) throws IOException
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                ((byte[]) column)[e] = (byte) tokenizer.nextInt();
+                break;
+            case USHORT:
+            case SHORT:
+                ((short[]) column)[e] = (short) tokenizer.nextInt();
+                break;
+            case UINT:
+                ((int[]) column)[e] = tokenizer.nextUnsignedInt();
+                break;
+            case INT:
+                ((int[]) column)[e] = tokenizer.nextInt();
+                break;
+            case FLOAT:
+                ((float[]) column)[e] = tokenizer.nextFloat();
+                break;
+            case DOUBLE:
+                ((double[]) column)[e] = tokenizer.nextDouble();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Decode the values of a list property
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param e The element index
+     * @param type The property type
+     * @param column The column
+     * @param listColumn The {@link ListColumn} that the values should be
+     *        appended to, or <code>null</code> if they should be stored in
+     *        a new array in the column
+     * @param listBuffers The buffers for the values
+     * @throws IOException If the data could not be decoded
+     */
+    private static void decodeList(AsciiTokenizer tokenizer, int e,
+        PlyType type, Object column, ListColumn listColumn,
+        ListBuffers listBuffers) throws IOException
+    {
+        int n = tokenizer.nextInt();
+        if (n < 0)
+        {
+            throw new IOException("Invalid list size: " + n);
+        }
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+            {
+                byte buffer[] = listBuffers.getCharBuffer(n);
+                for (int i = 0; i < n; i++)
+                {
+                    buffer[i] = (byte) tokenizer.nextInt();
+                }
+                if (listColumn != null)
+                {
+                    listColumn.addChars(buffer, n);
+                }
+                else
+                {
+                    ((byte[][]) column)[e] = Arrays.copyOf(buffer, n);
+                }
+                break;
+            }
+            case USHORT:
+            case SHORT:
+            {
+                short buffer[] = listBuffers.getShortBuffer(n);
+                for (int i = 0; i < n; i++)
+                {
+                    buffer[i] = (short) tokenizer.nextInt();
+                }
+                if (listColumn != null)
+                {
+                    listColumn.addShorts(buffer, n);
+                }
+                else
+                {
+                    ((short[][]) column)[e] = Arrays.copyOf(buffer, n);
+                }
+                break;
+            }
+            case UINT:
+            case INT:
+            {
+                int buffer[] = listBuffers.getIntBuffer(n);
+                boolean unsigned = type == PlyType.UINT;
+                for (int i = 0; i < n; i++)
+                {
+                    buffer[i] = unsigned
+                        ? tokenizer.nextUnsignedInt()
+                        : tokenizer.nextInt();
+                }
+                if (listColumn != null)
+                {
+                    listColumn.addInts(buffer, n);
+                }
+                else
+                {
+                    ((int[][]) column)[e] = Arrays.copyOf(buffer, n);
+                }
+                break;
+            }
+            case FLOAT:
+            {
+                float buffer[] = listBuffers.getFloatBuffer(n);
+                for (int i = 0; i < n; i++)
+                {
+                    buffer[i] = tokenizer.nextFloat();
+                }
+                if (listColumn != null)
+                {
+                    listColumn.addFloats(buffer, n);
+                }
+                else
+                {
+                    ((float[][]) column)[e] = Arrays.copyOf(buffer, n);
+                }
+                break;
+            }
+            case DOUBLE:
+            {
+                double buffer[] = listBuffers.getDoubleBuffer(n);
+                for (int i = 0; i < n; i++)
+                {
+                    buffer[i] = tokenizer.nextDouble();
+                }
+                if (listColumn != null)
+                {
+                    listColumn.addDoubles(buffer, n);
+                }
+                else
+                {
+                    ((double[][]) column)[e] = Arrays.copyOf(buffer, n);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Methods for parsing numbers from the bytes of ASCII PLY data, without
+ * creating intermediate strings.
+ * 
+ * Common inputs are parsed directly. For floating point values, this uses
+ * the fast path that is known from Clinger's algorithm: when the decimal
+ * significand and the power of ten are both exactly representable, then
+ * the result of a single multiplication or division is correctly rounded.
+ * All other inputs (like values with many digits, large exponents, or
+ * special values like <code>NaN</code>) are passed to the parsing methods
+ * of the JDK, so the results are always identical to those of
+ * <code>Long.parseLong</code>, <code>Float.parseFloat</code> and
+ * <code>Double.parseDouble</code>.
+ */
+class AsciiNumbers
+{
+    /**
+     * The powers of ten that are exactly representable as double values
+     */
+    private static final double DOUBLE_POWERS_OF_TEN[] =
+    {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The powers of ten that are exactly representable as float values
+     */
+    private static final float FLOAT_POWERS_OF_TEN[] =
+    {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    /**
+     * The maximum number of significant digits that are parsed directly.
+     * Numbers with 18 digits always fit into a long value.
+     */
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * Parse a long value from the given bytes
+     * 
+     * @param s The bytes
+     * @param length The number of bytes
+     * @return The value
+     * @throws NumberFormatException If the bytes do not represent a valid
+     *         long value
+     */
+    static long parseLong(byte s[], int length)
+    {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (s[0] == '-' || s[0] == '+'))
+        {
+            negative = s[0] == '-';
+            i = 1;
+        }
+        if (i == length || length - i > MAX_DIGITS)
+        {
+            return Long.parseLong(toString(s, length));
+        }
+        long value = 0;
+        for (; i < length; i++)
+        {
+            int d = s[i] - '0';
+            if (d < 0 || d > 9)
+            {
+                return Long.parseLong(toString(s, length));
+            }
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a double value from the given bytes
+     * 
+     * @param s The bytes
+     * @param length The number of bytes
+     * @return The value
+     * @throws NumberFormatException If the bytes do not represent a valid
+     *         double value
+     */
+    static double parseDouble(byte s[], int length)
+    {
+        return parseDecimal(s, length, false);
+    }
+
+    /**
+     * Parse a float value from the given bytes
+     * 
+     * @param s The bytes
+     * @param length The number of bytes
+     * @return The value
+     * @throws NumberFormatException If the bytes do not represent a valid
+     *         float value
+     */
+    static float parseFloat(byte s[], int length)
+    {
+        return (float) parseDecimal(s, length, true);
+    }
+
+    /**
+     * Parse a decimal floating point value from the given bytes.
+     * 
+     * If <code>toFloat</code> is <code>true</code>, then the result is the
+     * correctly rounded float value, converted to double.
+     * 
+     * @param s The bytes
+     * @param length The number of bytes
+     * @param toFloat Whether the result should be rounded to float
+     * @return The value
+     * @throws NumberFormatException If the bytes do not represent a valid
+     *         floating point value
+     */
+    private static double parseDecimal(byte s[], int length, boolean toFloat)
+    {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (s[0] == '-' || s[0] == '+'))
+        {
+            negative = s[0] == '-';
+            i = 1;
+        }
+
+        // Parse the significand, ignoring leading zeros, and compute the
+        // decimal exponent for the fractional digits
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        boolean fraction = false;
+        for (; i < length; i++)
+        {
+            byte b = s[i];
+            if (b == '.' && !fraction)
+            {
+                fraction = true;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9)
+            {
+                break;
+            }
+            anyDigits = true;
+            if (fraction)
+            {
+                exponent--;
+            }
+            if (significand == 0 && d == 0)
+            {
+                continue;
+            }
+            if (digits == MAX_DIGITS)
+            {
+                return fallback(s, length, toFloat);
+            }
+            significand = significand * 10 + d;
+            digits++;
+        }
+        if (!anyDigits)
+        {
+            return fallback(s, length, toFloat);
+        }
+
+        // Parse the exponent
+        if (i < length && (s[i] == 'e' || s[i] == 'E'))
+        {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (s[i] == '-' || s[i] == '+'))
+            {
+                negativeExponent = s[i] == '-';
+                i++;
+            }
+            if (i == length)
+            {
+                return fallback(s, length, toFloat);
+            }
+            int exponentValue = 0;
+            for (; i < length; i++)
+            {
+                int d = s[i] - '0';
+                if (d < 0 || d > 9)
+                {
+                    return fallback(s, length, toFloat);
+                }
+                if (exponentValue < 10000)
+                {
+                    exponentValue = exponentValue * 10 + d;
+                }
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if (i != length)
+        {
+            return fallback(s, length, toFloat);
+        }
+
+        if (significand == 0)
+        {
+            return negative ? -0.0 : 0.0;
+        }
+        if (toFloat && significand < (1L << 24) && exponent >= -10
+            && exponent <= 10)
+        {
+            float f = significand;
+            if (exponent < 0)
+            {
+                f /= FLOAT_POWERS_OF_TEN[-exponent];
+            }
+            else
+            {
+                f *= FLOAT_POWERS_OF_TEN[exponent];
+            }
+            return negative ? -f : f;
+        }
+        if (significand < (1L << 53) && exponent >= -22 && exponent <= 22)
+        {
+            double d = significand;
+            if (exponent < 0)
+            {
+                d /= DOUBLE_POWERS_OF_TEN[-exponent];
+            }
+            else
+            {
+                d *= DOUBLE_POWERS_OF_TEN[exponent];
+            }
+            if (toFloat && !isSafeForFloat(d))
+            {
+                return fallback(s, length, toFloat);
+            }
+            return negative ? -d : d;
+        }
+        return fallback(s, length, toFloat);
+    }
+
+    /**
+     * Returns whether rounding the given (positive) double value to float
+     * yields the same result as rounding the exact decimal value that the
+     * double was computed from.
+     * 
+     * This is the case unless the double value is exactly in the middle
+     * between two float values, or outside of the range of normal float
+     * values.
+     * 
+     * @param d The value
+     * @return Whether the value can safely be rounded to float
+     */
+    private static boolean isSafeForFloat(double d)
+    {
+        if (d < Float.MIN_NORMAL || d > Float.MAX_VALUE)
+        {
+            return false;
+        }
+        // The 29 low bits of the double significand are the ones that are
+        // dropped when rounding to float
+        long bits = Double.doubleToRawLongBits(d);
+        long dropped = bits & ((1L << 29) - 1);
+        return dropped != (1L << 28);
+    }
+
+    /**
+     * Parse the given bytes with the methods of the JDK
+     * 
+     * @param s The bytes
+     * @param length The number of bytes
+     * @param toFloat Whether the result should be rounded to float
+     * @return The value
+     * @throws NumberFormatException If the bytes do not represent a valid
+     *         floating point value
+     */
+    private static double fallback(byte s[], int length, boolean toFloat)
+    {
+        String string = toString(s, length);
+        if (toFloat)
+        {
+            return Float.parseFloat(string);
+        }
+        return Double.parseDouble(string);
+    }
+
+    /**
+     * Create a string from the given bytes
+     * 
+     * @param s The bytes
+     * @param length The number of bytes
+     * @return The string
+     */
+    private static String toString(byte s[], int length)
+    {
+        return new String(s, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private AsciiNumbers()
+    {
+        // Private constructor to prevent instantiation
+    }
+
+}
@@ -0,0 +1,527 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+
+/**
+ * Internal class for writing the values of ASCII PLY data into a
+ * {@link ByteOutput}.
+ * 
+ * The values are formatted directly into a byte array, without creating
+ * intermediate strings, and this array is written into the output when it
+ * is full, or when {@link #flush()} is called.
+ * 
+ * By default, float and double values are written in the same format as by
+ * <code>Float.toString</code> and <code>Double.toString</code>, using the
+ * shortest decimal representation that is parsed back into the same value.
+ * Optionally, they may be written with a fixed number of decimals.
+ * 
+ * Instances of this class are not thread-safe.
+ */
+final class AsciiOutput
+{
+    /**
+     * The maximum number of bytes that a formatted value may have. This is
+     * a conservative limit for long values (20 bytes) and for numbers in the
+     * format of <code>Double.toString</code> (24 bytes).
+     */
+    private static final int MAX_VALUE_BYTES = 32;
+
+    /**
+     * The size of the byte array that the values are formatted into
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The maximum number of decimals for a fixed number of decimals
+     */
+    static final int MAX_DECIMALS = 17;
+
+    /**
+     * The powers of ten up to 10^18
+     */
+    private static final long POWERS_OF_TEN[] =
+    {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+        100000000L, 1000000000L, 10000000000L, 100000000000L,
+        1000000000000L, 10000000000000L, 100000000000000L,
+        1000000000000000L, 10000000000000000L, 100000000000000000L,
+        1000000000000000000L
+    };
+
+    /**
+     * The ASCII digits of the numbers from 0 to 99, as pairs of bytes
+     */
+    private static final byte DIGIT_PAIRS[] = createDigitPairs();
+
+    /**
+     * The bytes for "NaN"
+     */
+    private static final byte NAN[] = { 'N', 'a', 'N' };
+
+    /**
+     * The bytes for "Infinity"
+     */
+    private static final byte INFINITY[] =
+        { 'I', 'n', 'f', 'i', 'n', 'i', 't', 'y' };
+
+    /**
+     * The {@link ByteOutput}
+     */
+    private final ByteOutput output;
+
+    /**
+     * The number of decimals for float and double values, or a negative
+     * value to use the shortest representation
+     */
+    private final int decimals;
+
+    /**
+     * The {@link ShortestDecimal} that is used for computing the shortest
+     * representation of float and double values
+     */
+    private final ShortestDecimal shortestDecimal;
+
+    /**
+     * The byte array that the values are formatted into
+     */
+    private final byte bytes[];
+
+    /**
+     * The position in the byte array
+     */
+    private int position;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param output The {@link ByteOutput}
+     * @param decimals The number of decimals for float and double values,
+     *        or a negative value to use the shortest representation. This
+     *        may not be larger than {@link #MAX_DECIMALS}.
+     */
+    AsciiOutput(ByteOutput output, int decimals)
+    {
+        this.output = output;
+        this.decimals = decimals;
+        this.shortestDecimal = new ShortestDecimal();
+        this.bytes = new byte[BUFFER_SIZE];
+        this.position = 0;
+    }
+
+    /**
+     * Create the {@link #DIGIT_PAIRS}
+     * 
+     * @return The digit pairs
+     */
+    private static byte[] createDigitPairs()
+    {
+        byte digitPairs[] = new byte[200];
+        for (int i = 0; i < 100; i++)
+        {
+            digitPairs[i * 2] = (byte) ('0' + i / 10);
+            digitPairs[i * 2 + 1] = (byte) ('0' + i % 10);
+        }
+        return digitPairs;
+    }
+
+    /**
+     * Write all formatted values into the {@link ByteOutput}. This does not
+     * flush the <code>ByteOutput</code> itself.
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    void flush() throws IOException
+    {
+        output.writeBytes(bytes, 0, position);
+        position = 0;
+    }
+
+    /**
+     * Make sure that the byte array has space for at least the given number
+     * of bytes
+     * 
+     * @param n The number of bytes
+     * @throws IOException If an IO error occurs
+     */
+    private void require(int n) throws IOException
+    {
+        if (bytes.length - position < n)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Write the given character, which must be an ASCII character
+     * 
+     * @param c The character
+     * @throws IOException If an IO error occurs
+     */
+    void writeChar(char c) throws IOException
+    {
+        if (position == bytes.length)
+        {
+            flush();
+        }
+        bytes[position++] = (byte) c;
+    }
+
+    /**
+     * Write the given int value
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    void writeInt(int value) throws IOException
+    {
+        writeLong(value);
+    }
+
+    /**
+     * Write the given long value, which may not be
+     * <code>Long.MIN_VALUE</code>
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    void writeLong(long value) throws IOException
+    {
+        require(MAX_VALUE_BYTES);
+        long v = value;
+        if (v < 0)
+        {
+            bytes[position++] = '-';
+            v = -v;
+        }
+        putDigits(v);
+    }
+
+    /**
+     * Write the given float value
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    void writeFloat(float value) throws IOException
+    {
+        if (decimals >= 0 && writeFixed(value))
+        {
+            return;
+        }
+        require(MAX_VALUE_BYTES);
+        if (putSpecial(value))
+        {
+            return;
+        }
+        if (value < 0)
+        {
+            bytes[position++] = '-';
+        }
+        shortestDecimal.compute(Math.abs(value));
+        putDecimal(shortestDecimal.getSignificand(),
+            shortestDecimal.getExponent());
+    }
+
+    /**
+     * Write the given double value
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    void writeDouble(double value) throws IOException
+    {
+        if (decimals >= 0 && writeFixed(value))
+        {
+            return;
+        }
+        require(MAX_VALUE_BYTES);
+        if (putSpecial(value))
+        {
+            return;
+        }
+        if (value < 0)
+        {
+            bytes[position++] = '-';
+        }
+        shortestDecimal.compute(Math.abs(value));
+        putDecimal(shortestDecimal.getSignificand(),
+            shortestDecimal.getExponent());
+    }
+
+    /**
+     * Write the given value with the fixed number of decimals, if possible.
+     * 
+     * The value is rounded to the nearest value with the given number of
+     * decimals, up to the precision of a double computation. Values that
+     * are too large to be represented with the given number of decimals in
+     * a long value (as well as infinite values and <code>NaN</code>) are
+     * not written, and <code>false</code> is returned.
+     * 
+     * @param value The value
+     * @return Whether the value was written
+     * @throws IOException If an IO error occurs
+     */
+    private boolean writeFixed(double value) throws IOException
+    {
+        double scaled = Math.abs(value) * POWERS_OF_TEN[decimals];
+        if (!(scaled < 1e18))
+        {
+            return false;
+        }
+        long rounded = Math.round(scaled);
+        require(MAX_VALUE_BYTES + MAX_DECIMALS);
+        if (value < 0 && rounded != 0)
+        {
+            bytes[position++] = '-';
+        }
+        long divisor = POWERS_OF_TEN[decimals];
+        long integerPart = rounded / divisor;
+        putDigits(integerPart);
+        if (decimals > 0)
+        {
+            bytes[position++] = '.';
+            long fractionalPart = rounded - integerPart * divisor;
+            int n = countDigits(fractionalPart);
+            for (int i = n; i < decimals; i++)
+            {
+                bytes[position++] = '0';
+            }
+            putDigits(fractionalPart, n, position);
+            position += n;
+        }
+        return true;
+    }
+
+    /**
+     * Put the representation of the given value into the byte array, if it
+     * is zero, infinite, or not a number, and return whether this was the
+     * case
+     * 
+     * @param value The value
+     * @return Whether the value was a special value
+     */
+    private boolean putSpecial(double value)
+    {
+        if (value != value)
+        {
+            putBytes(NAN, 0, NAN.length);
+            return true;
+        }
+        if (value == 0.0 || Double.isInfinite(value))
+        {
+            if (Double.doubleToRawLongBits(value) < 0)
+            {
+                bytes[position++] = '-';
+            }
+            if (value == 0.0)
+            {
+                bytes[position++] = '0';
+                bytes[position++] = '.';
+                bytes[position++] = '0';
+            }
+            else
+            {
+                putBytes(INFINITY, 0, INFINITY.length);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Put the specified range of the given array into the byte array
+     * 
+     * @param source The source array
+     * @param offset The offset in the source array
+     * @param length The length
+     */
+    private void putBytes(byte source[], int offset, int length)
+    {
+        System.arraycopy(source, offset, bytes, position, length);
+        position += length;
+    }
+
+    /**
+     * Put the digits of the given non-negative value into the byte array
+     * 
+     * @param value The value
+     */
+    private void putDigits(long value)
+    {
+        int n = countDigits(value);
+        putDigits(value, n, position);
+        position += n;
+    }
+
+    /**
+     * Returns the number of decimal digits of the given non-negative value
+     * 
+     * @param value The value
+     * @return The number of digits
+     */
+    private static int countDigits(long value)
+    {
+        int n = 1;
+        while (n < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[n])
+        {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Put the given number of digits of the given non-negative value into
+     * the byte array, starting at the given index. The position of this
+     * output is not changed.
+     * 
+     * @param value The value
+     * @param n The number of digits
+     * @param index The start index
+     */
+    private void putDigits(long value, int n, int index)
+    {
+        int i = index + n;
+        long v = value;
+        while (v > Integer.MAX_VALUE)
+        {
+            long q = v / 100;
+            int r = (int) (v - q * 100) << 1;
+            bytes[--i] = DIGIT_PAIRS[r + 1];
+            bytes[--i] = DIGIT_PAIRS[r];
+            v = q;
+        }
+        int iv = (int) v;
+        while (iv >= 100)
+        {
+            int q = iv / 100;
+            int r = (iv - q * 100) << 1;
+            bytes[--i] = DIGIT_PAIRS[r + 1];
+            bytes[--i] = DIGIT_PAIRS[r];
+            iv = q;
+        }
+        if (iv >= 10)
+        {
+            bytes[--i] = DIGIT_PAIRS[(iv << 1) + 1];
+            bytes[--i] = DIGIT_PAIRS[iv << 1];
+        }
+        else
+        {
+            bytes[--i] = (byte) ('0' + iv);
+        }
+    }
+
+    /**
+     * Put the given positive decimal value into the byte array, in the
+     * format of <code>Double.toString</code>: Values between 10^-3
+     * (inclusive) and 10^7 (exclusive) are written as plain decimals, with
+     * at least one digit after the decimal point. All other values are
+     * written in computerized scientific notation, like
+     * <code>1.25E-5</code>.
+     * 
+     * @param significand The decimal significand
+     * @param exponent The decimal exponent
+     */
+    private void putDecimal(long significand, int exponent)
+    {
+        // Omit the trailing zeros of the significand
+        long f = significand;
+        int e = exponent;
+        long q = f / 10;
+        while (q * 10 == f)
+        {
+            f = q;
+            e++;
+            q = f / 10;
+        }
+        int n = countDigits(f);
+
+        // The exponent of the value in scientific notation
+        int scientificExponent = e + n - 1;
+        int p = position;
+        if (scientificExponent >= 0 && scientificExponent < 7)
+        {
+            int integerDigits = scientificExponent + 1;
+            if (n <= integerDigits)
+            {
+                putDigits(f, n, p);
+                p += n;
+                for (int i = n; i < integerDigits; i++)
+                {
+                    bytes[p++] = '0';
+                }
+                bytes[p++] = '.';
+                bytes[p++] = '0';
+            }
+            else
+            {
+                // Put the digits behind the position, and move the integer
+                // digits to the front, to make space for the decimal point
+                putDigits(f, n, p + 1);
+                for (int i = 0; i < integerDigits; i++)
+                {
+                    bytes[p + i] = bytes[p + i + 1];
+                }
+                bytes[p + integerDigits] = '.';
+                p += n + 1;
+            }
+        }
+        else if (scientificExponent < 0 && scientificExponent >= -3)
+        {
+            bytes[p++] = '0';
+            bytes[p++] = '.';
+            for (int i = -1; i > scientificExponent; i--)
+            {
+                bytes[p++] = '0';
+            }
+            putDigits(f, n, p);
+            p += n;
+        }
+        else
+        {
+            putDigits(f, n, p + 1);
+            bytes[p] = bytes[p + 1];
+            bytes[p + 1] = '.';
+            p += n + 1;
+            if (n == 1)
+            {
+                bytes[p++] = '0';
+            }
+            bytes[p++] = 'E';
+            if (scientificExponent < 0)
+            {
+                bytes[p++] = '-';
+            }
+            int absoluteExponent = Math.abs(scientificExponent);
+            int exponentDigits = countDigits(absoluteExponent);
+            putDigits(absoluteExponent, exponentDigits, p);
+            p += exponentDigits;
+        }
+        position = p;
+    }
+}
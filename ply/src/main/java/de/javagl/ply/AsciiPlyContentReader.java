@@ -27,13 +27,16 @@
 
 package de.javagl.ply;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -47,6 +50,11 @@ class AsciiPlyContentReader
     private static final Logger logger =
         Logger.getLogger(AsciiPlyContentReader.class.getName());
 
+    /**
+     * The approximate number of bytes that are decoded in one parallel task
+     */
+    private static final int PARALLEL_CHUNK_BYTES = 1 << 23;
+
     /**
      * The {@link Descriptor} for the data structure
      */
@@ -57,6 +65,30 @@ class AsciiPlyContentReader
      */
     private List<Integer> counts;
 
+    /**
+     * The indices that the properties are passed to the target with, for
+     * each element type. See {@link #setPropertyIndices(int[][])}.
+     */
+    private int propertyIndices[][];
+
+    /**
+     * The indices that the element types are passed to the target with. See
+     * {@link #setElementTypeIndices(int[])}.
+     */
+    private int elementTypeIndices[];
+
+    /**
+     * The buffers for list properties, when the target is a
+     * {@link ListBufferPlyTarget}
+     */
+    private final ListBuffers listBuffers;
+
+    /**
+     * The executor service for decoding elements in parallel. This may be
+     * <code>null</code>.
+     */
+    private ExecutorService executorService;
+
     /**
      * Creates a new instance
      * 
@@ -65,6 +97,7 @@ class AsciiPlyContentReader
     AsciiPlyContentReader(Descriptor descriptor)
     {
         this.descriptor = descriptor;
+        this.listBuffers = new ListBuffers();
     }
 
     /**
@@ -77,6 +110,52 @@ class AsciiPlyContentReader
         this.counts = counts;
     }
 
+    /**
+     * Set the indices that the element types should be passed to the target
+     * with.
+     * 
+     * The given array contains one entry for each element type. This is the
+     * index that the element type should be passed to the target with, or a
+     * negative value if the elements of this type should be skipped. If the
+     * given array is <code>null</code>, then all elements are read.
+     * 
+     * @param elementTypeIndices The element type indices
+     */
+    void setElementTypeIndices(int elementTypeIndices[])
+    {
+        this.elementTypeIndices = elementTypeIndices;
+    }
+
+    /**
+     * Set the indices that the properties should be passed to the target
+     * with.
+     * 
+     * For each element type, the given array contains either
+     * <code>null</code>, if all properties should be read, or an array that
+     * contains one entry for each property. This is the index that the
+     * property should be passed to the target with, or a negative value if
+     * the property should be skipped. If the given array is
+     * <code>null</code>, then all properties of all elements are read.
+     * 
+     * @param propertyIndices The property indices
+     */
+    void setPropertyIndices(int propertyIndices[][])
+    {
+        this.propertyIndices = propertyIndices;
+    }
+
+    /**
+     * Set the executor service that should be used for decoding elements in
+     * parallel. If this is <code>null</code>, then all elements are decoded
+     * sequentially.
+     * 
+     * @param executorService The executor service
+     */
+    void setExecutorService(ExecutorService executorService)
+    {
+        this.executorService = executorService;
+    }
+
     /**
      * Read the data from the given input stream and pass it to the given
      * {@link PlyTarget}.
@@ -87,56 +166,323 @@ class AsciiPlyContentReader
      */
     void read(InputStream inputStream, PlyTarget plyTarget) throws IOException
     {
-        BufferedReader bufferedReader =
-            new BufferedReader(new InputStreamReader(inputStream));
+        ByteInput input = new StreamByteInput(inputStream,
+            ByteOrder.BIG_ENDIAN, ByteInput.DEFAULT_BUFFER_SIZE);
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input);
+        boolean useListBuffers = plyTarget instanceof ListBufferPlyTarget;
         List<ElementDescriptor> elementDescriptors =
             descriptor.getElementDescriptors();
         for (int t = 0; t < elementDescriptors.size(); t++)
         {
             ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            int count = counts.get(t);
+            int targetType =
+                elementTypeIndices == null ? t : elementTypeIndices[t];
+            if (targetType < 0)
+            {
+                for (int e = 0; e < count; e++)
+                {
+                    if (!tokenizer.nextLine())
+                    {
+                        throw new IOException("Expected " + count
+                            + " elements for " + elementDescriptor
+                            + ", but only found " + e);
+                    }
+                    tokenizer.skipLine();
+                }
+                continue;
+            }
+            int indices[] =
+                propertyIndices == null ? null : propertyIndices[t];
 
             List<AsciiPropertyReader> propertyReaders =
-                createAsciiPropertyReaders(elementDescriptor);
+                createAsciiPropertyReaders(elementDescriptor, useListBuffers,
+                    indices);
 
-            int count = counts.get(t);
-            plyTarget.startElementList(t, count);
-            int elementIndex = 0;
-            while (true)
+            plyTarget.startElementList(targetType, count);
+            for (int e = 0; e < count; e++)
             {
-                String line = bufferedReader.readLine();
-                if (line == null)
+                if (!tokenizer.nextLine())
                 {
                     throw new IOException("Expected " + count + " elements for "
-                        + elementDescriptor + ", but only found "
-                        + elementIndex);
+                        + elementDescriptor + ", but only found " + e);
                 }
-                line = line.trim();
-                if (line.isEmpty())
+
+                plyTarget.startElement(targetType, e);
+                for (int p = 0; p < propertyReaders.size(); p++)
                 {
-                    continue;
+                    AsciiPropertyReader propertyReader = propertyReaders.get(p);
+                    int targetIndex = indices == null ? p : indices[p];
+                    propertyReader.read(tokenizer, targetType, e, targetIndex,
+                        plyTarget);
                 }
+                plyTarget.endElement(targetType, e);
+                tokenizer.skipLine();
+            }
+            plyTarget.endElementList(targetType);
+        }
+    }
+
+    /**
+     * Read the data from the given file channel and pass it to the given
+     * {@link PlyTarget}.
+     * 
+     * If an executor service was set, and the target is a
+     * {@link ColumnarPlyTarget}, then the data is decoded in parallel.
+     * Otherwise, the data is read sequentially from the current position of
+     * the channel.
+     * 
+     * @param fileChannel The file channel
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    void read(FileChannel fileChannel, PlyTarget plyTarget) throws IOException
+    {
+        if (executorService != null && plyTarget instanceof ColumnarPlyTarget)
+        {
+            readParallel(fileChannel, (ColumnarPlyTarget) plyTarget);
+            return;
+        }
+        InputStream inputStream = Channels.newInputStream(fileChannel);
+        read(inputStream, plyTarget);
+    }
 
-                plyTarget.startElement(t, elementIndex);
+    /**
+     * Read the data from the given file channel, in parallel, and store it
+     * in the given {@link ColumnarPlyTarget}.
+     * 
+     * The data, starting at the current position of the channel, is split
+     * into chunks that consist of complete lines. In a first pass, the
+     * number of (non-empty) lines in each chunk is counted in parallel. This
+     * determines the index of the first line of each chunk, and thus, the
+     * element type and element index for each line. In a second pass, the
+     * lines of each element type are decoded in parallel, directly into the
+     * columns of the target. Afterwards, the position of the channel will be
+     * the end of the file.
+     * 
+     * @param fileChannel The file channel
+     * @param plyTarget The {@link ColumnarPlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readParallel(FileChannel fileChannel,
+        ColumnarPlyTarget plyTarget) throws IOException
+    {
+        long start = fileChannel.position();
+        long end = fileChannel.size();
+        long boundaries[] = computeChunkBoundaries(fileChannel, start, end);
+        int numChunks = boundaries.length - 1;
 
-                List<String> tokens = Arrays.asList(line.split("\\s+"));
-                int currentTokenIndex = 0;
-                for (int p = 0; p < propertyReaders.size(); p++)
+        List<Future<Integer>> countFutures = new ArrayList<Future<Integer>>();
+        for (int c = 0; c < numChunks; c++)
+        {
+            long chunkStart = boundaries[c];
+            long chunkEnd = boundaries[c + 1];
+            countFutures.add(executorService.submit(
+                () -> countLines(fileChannel, chunkStart, chunkEnd)));
+        }
+        List<Integer> lineCounts = ParallelTasks.await(countFutures);
+        long firstLines[] = new long[numChunks + 1];
+        for (int c = 0; c < numChunks; c++)
+        {
+            firstLines[c + 1] = firstLines[c] + lineCounts.get(c);
+        }
+        long totalLines = firstLines[numChunks];
+
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        long firstLine = 0;
+        for (int t = 0; t < elementDescriptors.size(); t++)
+        {
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            int count = counts.get(t);
+            if (firstLine + count > totalLines)
+            {
+                throw new IOException("Expected " + count + " elements for "
+                    + elementDescriptor + ", but only found "
+                    + Math.max(0, totalLines - firstLine));
+            }
+            long lastLine = firstLine + count;
+            int targetType =
+                elementTypeIndices == null ? t : elementTypeIndices[t];
+            if (targetType < 0)
+            {
+                firstLine = lastLine;
+                continue;
+            }
+            plyTarget.startElementList(targetType, count);
+            Object columns[] = plyTarget.getCurrentColumns();
+            int indices[] =
+                propertyIndices == null ? null : propertyIndices[t];
+            AsciiColumnDecoder decoder =
+                new AsciiColumnDecoder(elementDescriptor, indices);
+
+            List<Future<ListColumn[]>> futures =
+                new ArrayList<Future<ListColumn[]>>();
+            for (int c = 0; c < numChunks; c++)
+            {
+                long from = Math.max(firstLine, firstLines[c]);
+                long to = Math.min(lastLine, firstLines[c + 1]);
+                if (from >= to)
                 {
-                    AsciiPropertyReader propertyReader = propertyReaders.get(p);
-                    int readTokens = propertyReader.read(tokens,
-                        currentTokenIndex, t, elementIndex, p, plyTarget);
-                    currentTokenIndex += readTokens;
+                    continue;
                 }
+                long chunkStart = boundaries[c];
+                long chunkEnd = boundaries[c + 1];
+                int skippedLines = (int) (from - firstLines[c]);
+                int firstElementIndex = (int) (from - firstLine);
+                int n = (int) (to - from);
+                futures.add(executorService.submit(() -> decodeLines(
+                    fileChannel, chunkStart, chunkEnd, skippedLines, decoder,
+                    firstElementIndex, n, columns)));
+            }
+            List<ListColumn[]> listColumns = ParallelTasks.await(futures);
+            for (int p = 0; p < columns.length; p++)
+            {
+                if (columns[p] instanceof ListColumn)
+                {
+                    ListColumn column = (ListColumn) columns[p];
+                    for (ListColumn chunkListColumns[] : listColumns)
+                    {
+                        column.addAll(chunkListColumns[p]);
+                    }
+                }
+            }
+            plyTarget.endElementList(targetType);
+            firstLine = lastLine;
+        }
+        fileChannel.position(end);
+    }
+
+    /**
+     * Split the specified region of the given file channel into chunks that
+     * consist of complete lines, and return the positions where the chunks
+     * start, followed by the end of the region.
+     * 
+     * @param fileChannel The file channel
+     * @param start The start of the region
+     * @param end The end of the region (exclusive)
+     * @return The chunk boundaries
+     * @throws IOException If an IO error occurs
+     */
+    private static long[] computeChunkBoundaries(FileChannel fileChannel,
+        long start, long end) throws IOException
+    {
+        List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(start);
+        long position = start;
+        while (end - position > PARALLEL_CHUNK_BYTES)
+        {
+            position = findLineStart(fileChannel,
+                position + PARALLEL_CHUNK_BYTES, end);
+            if (position >= end)
+            {
+                break;
+            }
+            boundaries.add(position);
+        }
+        boundaries.add(end);
+        long result[] = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
 
-                plyTarget.endElement(t, elementIndex);
-                elementIndex++;
-                if (elementIndex == count)
+    /**
+     * Returns the position after the first line terminator that is found in
+     * the given file channel, starting at the given position, or the given
+     * end position if no line terminator is found.
+     * 
+     * @param fileChannel The file channel
+     * @param position The position where to start searching
+     * @param end The end position
+     * @return The start of the next line
+     * @throws IOException If an IO error occurs
+     */
+    private static long findLineStart(FileChannel fileChannel, long position,
+        long end) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long current = position;
+        while (current < end)
+        {
+            buffer.clear();
+            int read = fileChannel.read(buffer, current);
+            if (read <= 0)
+            {
+                break;
+            }
+            for (int i = 0; i < read; i++)
+            {
+                if (AsciiTokenizer.isLineTerminator(buffer.get(i)))
                 {
-                    break;
+                    return current + i + 1;
                 }
             }
-            plyTarget.endElementList(t);
+            current += read;
         }
+        return end;
+    }
+
+    /**
+     * Create a {@link ByteInput} for the specified region of the given file
+     * channel
+     * 
+     * @param fileChannel The file channel
+     * @param start The start of the region
+     * @param end The end of the region
+     * @return The {@link ByteInput}
+     */
+    private static ByteInput createInput(FileChannel fileChannel, long start,
+        long end)
+    {
+        return new MappedByteInput(fileChannel, start, end,
+            ByteOrder.BIG_ENDIAN, MappedByteInput.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Count the number of non-empty lines in the specified region of the
+     * given file channel
+     * 
+     * @param fileChannel The file channel
+     * @param start The start of the region
+     * @param end The end of the region
+     * @return The number of lines
+     * @throws IOException If an IO error occurs
+     */
+    private static int countLines(FileChannel fileChannel, long start,
+        long end) throws IOException
+    {
+        AsciiTokenizer tokenizer =
+            new AsciiTokenizer(createInput(fileChannel, start, end));
+        return tokenizer.countLines();
+    }
+
+    /**
+     * Decode lines from the specified region of the given file channel into
+     * the given columns.
+     * 
+     * @param fileChannel The file channel
+     * @param start The start of the region
+     * @param end The end of the region
+     * @param skippedLines The number of non-empty lines to skip at the
+     *        beginning of the region
+     * @param decoder The {@link AsciiColumnDecoder}
+     * @param firstElementIndex The index of the element of the first line
+     * @param n The number of lines to decode
+     * @param columns The columns
+     * @return The list columns, as returned by the decoder
+     * @throws IOException If an IO error occurs
+     */
+    private static ListColumn[] decodeLines(FileChannel fileChannel,
+        long start, long end, int skippedLines, AsciiColumnDecoder decoder,
+        int firstElementIndex, int n, Object columns[]) throws IOException
+    {
+        AsciiTokenizer tokenizer =
+            new AsciiTokenizer(createInput(fileChannel, start, end));
+        tokenizer.skipLines(skippedLines);
+        return decoder.decode(tokenizer, firstElementIndex, n, columns);
     }
 
     /**
@@ -144,10 +490,15 @@ class AsciiPlyContentReader
      * {@link ElementDescriptor}
      * 
      * @param elementDescriptor The {@link ElementDescriptor}
+     * @param useListBuffers Whether the list properties should be passed to
+     *        a {@link ListBufferPlyTarget} in reused buffers
+     * @param indices The property indices, or <code>null</code> if all
+     *        properties should be read
      * @return The {@link AsciiPropertyReader} objects
      */
-    private List<AsciiPropertyReader>
-        createAsciiPropertyReaders(ElementDescriptor elementDescriptor)
+    private List<AsciiPropertyReader> createAsciiPropertyReaders(
+        ElementDescriptor elementDescriptor, boolean useListBuffers,
+        int indices[])
     {
         List<AsciiPropertyReader> propertyReaders =
             new ArrayList<AsciiPropertyReader>();
@@ -159,14 +510,48 @@ class AsciiPlyContentReader
             PropertyDescriptor propertyDescriptor = propertyDescriptors.get(i);
             PlyType type = propertyDescriptor.getType();
             PlyType sizeType = propertyDescriptor.getSizeType();
+            if (indices != null && indices[i] < 0)
+            {
+                propertyReaders.add(createSkippingReader(sizeType));
+                continue;
+            }
             AsciiPropertyReader propertyReader =
-                createPropertyReader(type, sizeType);
+                createPropertyReader(type, sizeType, useListBuffers);
             propertyReaders.add(propertyReader);
         }
 
         return propertyReaders;
     }
 
+    /**
+     * Create an {@link AsciiPropertyReader} that skips the tokens of a
+     * property with the given size type, without parsing them or passing
+     * them to the target. For list properties, only the size of the list is
+     * parsed.
+     * 
+     * @param sizeType The size type
+     * @return The {@link AsciiPropertyReader}
+     */
+    private static AsciiPropertyReader createSkippingReader(PlyType sizeType)
+    {
+        if (sizeType == null)
+        {
+            return (tokenizer, t, e, p, plyTarget) -> tokenizer.skipToken();
+        }
+        return (tokenizer, t, e, p, plyTarget) ->
+        {
+            int numElements = tokenizer.nextInt();
+            if (numElements < 0)
+            {
+                throw new IOException("Invalid list size: " + numElements);
+            }
+            for (int i = 0; i < numElements; i++)
+            {
+                tokenizer.skipToken();
+            }
+        };
+    }
+
     /**
      * Create a {@link AsciiPropertyReader} for the given type and size type.
      * 
@@ -175,10 +560,12 @@ class AsciiPlyContentReader
      * 
      * @param type The type
      * @param sizeType The size type
+     * @param useListBuffers Whether the list properties should be passed to
+     *        a {@link ListBufferPlyTarget} in reused buffers
      * @return The {@link AsciiPropertyReader}
      */
-    private static AsciiPropertyReader createPropertyReader(PlyType type,
-        PlyType sizeType)
+    private AsciiPropertyReader createPropertyReader(PlyType type,
+        PlyType sizeType, boolean useListBuffers)
     {
         if (sizeType == null)
         {
@@ -191,6 +578,7 @@ class AsciiPlyContentReader
                 case SHORT:
                     return AsciiPlyContentReader::readShort;
                 case UINT:
+                    return AsciiPlyContentReader::readUnsignedInt;
                 case INT:
                     return AsciiPlyContentReader::readInt;
                 case FLOAT:
@@ -204,6 +592,31 @@ class AsciiPlyContentReader
             return null;
         }
 
+        if (useListBuffers)
+        {
+            switch (type)
+            {
+                case UCHAR:
+                case CHAR:
+                    return this::readCharListBuffer;
+                case USHORT:
+                case SHORT:
+                    return this::readShortListBuffer;
+                case UINT:
+                    return this::readUnsignedIntListBuffer;
+                case INT:
+                    return this::readIntListBuffer;
+                case FLOAT:
+                    return this::readFloatListBuffer;
+                case DOUBLE:
+                    return this::readDoubleListBuffer;
+                default:
+                    break;
+            }
+            logger.severe("Unknown property type: " + type);
+            return null;
+        }
+
         switch (type)
         {
             case UCHAR:
@@ -213,6 +626,7 @@ class AsciiPlyContentReader
             case SHORT:
                 return AsciiPlyContentReader::readShortList;
             case UINT:
+                return AsciiPlyContentReader::readUnsignedIntList;
             case INT:
                 return AsciiPlyContentReader::readIntList;
             case FLOAT:
@@ -227,363 +641,482 @@ class AsciiPlyContentReader
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readChar(List<String> tokens, int tokenIndex,
+    private static void readChar(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        byte value;
-        try
-        {
-            value = (byte) Integer.parseInt(tokens.get(tokenIndex));
-        }
-        catch (NumberFormatException e)
-        {
-            throw new IOException(e);
-        }
+        byte value = (byte) tokenizer.nextInt();
         plyTarget.handleCharProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readShort(List<String> tokens, int tokenIndex,
+    private static void readShort(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        short value;
-        try
-        {
-            value = (short) Integer.parseInt(tokens.get(tokenIndex));
-        }
-        catch (NumberFormatException e)
-        {
-            throw new IOException(e);
-        }
+        short value = (short) tokenizer.nextInt();
         plyTarget.handleShortProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readInt(List<String> tokens, int tokenIndex,
+    private static void readInt(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        int value;
-        try
-        {
-            value = (int) Long.parseLong(tokens.get(tokenIndex));
-        }
-        catch (NumberFormatException e)
-        {
-            throw new IOException(e);
-        }
+        int value = tokenizer.nextInt();
         plyTarget.handleIntProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readFloat(List<String> tokens, int tokenIndex,
+    private static void readUnsignedInt(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        float value;
-        try
+        int value = tokenizer.nextUnsignedInt();
+        plyTarget.handleIntProperty(elementTypeIndex, elementIndex,
+            propertyIndex, value);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readFloat(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        float value = tokenizer.nextFloat();
+        plyTarget.handleFloatProperty(elementTypeIndex, elementIndex,
+            propertyIndex, value);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readDouble(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        double value = tokenizer.nextDouble();
+        plyTarget.handleDoubleProperty(elementTypeIndex, elementIndex,
+            propertyIndex, value);
+    }
+
+    /**
+     * Read the size of a list from the given tokenizer
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @return The size
+     * @throws IOException If an IO error occurs, or the size is negative
+     */
+    private static int readSize(AsciiTokenizer tokenizer) throws IOException
+    {
+        int numElements = tokenizer.nextInt();
+        if (numElements < 0)
         {
-            value = Float.parseFloat(tokens.get(tokenIndex));
+            throw new IOException("Invalid list size: " + numElements);
         }
-        catch (NumberFormatException e)
+        return numElements;
+    }
+
+    /**
+     * Read the specified property from the given tokenizer.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readCharList(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        int numElements = readSize(tokenizer);
+        byte value[] = new byte[numElements];
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            value[i] = (byte) tokenizer.nextInt();
         }
-        plyTarget.handleFloatProperty(elementTypeIndex, elementIndex,
+        plyTarget.handleCharListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readDouble(List<String> tokens, int tokenIndex,
+    private static void readShortList(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        double value;
-        try
-        {
-            value = Double.parseDouble(tokens.get(tokenIndex));
-        }
-        catch (NumberFormatException e)
+        int numElements = readSize(tokenizer);
+        short value[] = new short[numElements];
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            value[i] = (short) tokenizer.nextInt();
         }
-        plyTarget.handleDoubleProperty(elementTypeIndex, elementIndex,
+        plyTarget.handleShortListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readCharList(List<String> tokens, int tokenIndex,
+    private static void readIntList(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        int numElements;
-        byte value[];
-        try
+        int numElements = readSize(tokenizer);
+        int value[] = new int[numElements];
+        for (int i = 0; i < numElements; i++)
         {
-            int currentTokenIndex = tokenIndex;
-            numElements = Integer.parseInt(tokens.get(currentTokenIndex++));
-            value = new byte[numElements];
-            for (int i = 0; i < numElements; i++)
-            {
-                String token = tokens.get(currentTokenIndex++);
-                value[i] = (byte) Integer.parseInt(token);
-            }
+            value[i] = tokenizer.nextInt();
         }
-        catch (NumberFormatException e)
+        plyTarget.handleIntListProperty(elementTypeIndex, elementIndex,
+            propertyIndex, value);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readUnsignedIntList(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        int numElements = readSize(tokenizer);
+        int value[] = new int[numElements];
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            value[i] = tokenizer.nextUnsignedInt();
         }
-        plyTarget.handleCharListProperty(elementTypeIndex, elementIndex,
+        plyTarget.handleIntListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return numElements + 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readShortList(List<String> tokens, int tokenIndex,
+    private static void readFloatList(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        int numElements;
-        short value[];
-        try
+        int numElements = readSize(tokenizer);
+        float value[] = new float[numElements];
+        for (int i = 0; i < numElements; i++)
         {
-            int currentTokenIndex = tokenIndex;
-            numElements = Integer.parseInt(tokens.get(currentTokenIndex++));
-            value = new short[numElements];
-            for (int i = 0; i < numElements; i++)
-            {
-                String token = tokens.get(currentTokenIndex++);
-                value[i] = (short) Integer.parseInt(token);
-            }
+            value[i] = tokenizer.nextFloat();
         }
-        catch (NumberFormatException e)
+        plyTarget.handleFloatListProperty(elementTypeIndex, elementIndex,
+            propertyIndex, value);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readDoubleList(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        int numElements = readSize(tokenizer);
+        double value[] = new double[numElements];
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            value[i] = tokenizer.nextDouble();
         }
-        plyTarget.handleShortListProperty(elementTypeIndex, elementIndex,
+        plyTarget.handleDoubleListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
-        return numElements + 1;
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer into a reused
+     * buffer, and pass it to the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readIntList(List<String> tokens, int tokenIndex,
+    private void readCharListBuffer(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        int numElements;
-        int value[];
-        try
+        int numElements = readSize(tokenizer);
+        byte buffer[] = listBuffers.getCharBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
         {
-            int currentTokenIndex = tokenIndex;
-            numElements = Integer.parseInt(tokens.get(currentTokenIndex++));
-            value = new int[numElements];
-            for (int i = 0; i < numElements; i++)
-            {
-                String token = tokens.get(currentTokenIndex++);
-                value[i] = (int) Long.parseLong(token);
-            }
+            buffer[i] = (byte) tokenizer.nextInt();
         }
-        catch (NumberFormatException e)
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleCharListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer into a reused
+     * buffer, and pass it to the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readShortListBuffer(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        int numElements = readSize(tokenizer);
+        short buffer[] = listBuffers.getShortBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            buffer[i] = (short) tokenizer.nextInt();
         }
-        plyTarget.handleIntListProperty(elementTypeIndex, elementIndex,
-            propertyIndex, value);
-        return numElements + 1;
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleShortListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer into a reused
+     * buffer, and pass it to the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readFloatList(List<String> tokens, int tokenIndex,
+    private void readIntListBuffer(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        int numElements;
-        float value[];
-        try
+        int numElements = readSize(tokenizer);
+        int buffer[] = listBuffers.getIntBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
         {
-            int currentTokenIndex = tokenIndex;
-            numElements = Integer.parseInt(tokens.get(currentTokenIndex++));
-            value = new float[numElements];
-            for (int i = 0; i < numElements; i++)
-            {
-                String token = tokens.get(currentTokenIndex++);
-                value[i] = Float.parseFloat(token);
-            }
+            buffer[i] = tokenizer.nextInt();
         }
-        catch (NumberFormatException e)
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleIntListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer into a reused
+     * buffer, and pass it to the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readUnsignedIntListBuffer(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        int numElements = readSize(tokenizer);
+        int buffer[] = listBuffers.getIntBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            buffer[i] = tokenizer.nextUnsignedInt();
         }
-        plyTarget.handleFloatListProperty(elementTypeIndex, elementIndex,
-            propertyIndex, value);
-        return numElements + 1;
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleIntListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
     }
 
     /**
-     * Read the specified tokens.
+     * Read the specified property from the given tokenizer into a reused
+     * buffer, and pass it to the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
      * 
      * To be used as an implementation of {@link AsciiPropertyReader}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    private static int readDoubleList(List<String> tokens, int tokenIndex,
+    private void readFloatListBuffer(AsciiTokenizer tokenizer,
         int elementTypeIndex, int elementIndex, int propertyIndex,
         PlyTarget plyTarget) throws IOException
     {
-        int numElements;
-        double value[];
-        try
+        int numElements = readSize(tokenizer);
+        float buffer[] = listBuffers.getFloatBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
         {
-            int currentTokenIndex = tokenIndex;
-            numElements = Integer.parseInt(tokens.get(currentTokenIndex++));
-            value = new double[numElements];
-            for (int i = 0; i < numElements; i++)
-            {
-                String token = tokens.get(currentTokenIndex++);
-                value[i] = Float.parseFloat(token);
-            }
+            buffer[i] = tokenizer.nextFloat();
         }
-        catch (NumberFormatException e)
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleFloatListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified property from the given tokenizer into a reused
+     * buffer, and pass it to the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link AsciiPropertyReader}.
+     * 
+     * @param tokenizer The {@link AsciiTokenizer}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readDoubleListBuffer(AsciiTokenizer tokenizer,
+        int elementTypeIndex, int elementIndex, int propertyIndex,
+        PlyTarget plyTarget) throws IOException
+    {
+        int numElements = readSize(tokenizer);
+        double buffer[] = listBuffers.getDoubleBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
         {
-            throw new IOException(e);
+            buffer[i] = tokenizer.nextDouble();
         }
-        plyTarget.handleDoubleListProperty(elementTypeIndex, elementIndex,
-            propertyIndex, value);
-        return numElements + 1;
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleDoubleListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
     }
 
-}
\ No newline at end of file
+}
@@ -26,12 +26,20 @@
  */
 package de.javagl.ply;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
 import java.util.logging.Logger;
 
 /**
@@ -45,26 +53,135 @@ class AsciiPlyWriter implements PlyWriter
     private static final Logger logger =
         Logger.getLogger(AsciiPlyWriter.class.getName());
 
+    /**
+     * The maximum number of raw elements that are decoded into columns at
+     * once, in {@link StreamWriter#writeRawElements}
+     */
+    private static final int RAW_BATCH_SIZE = 1 << 12;
+
+    /**
+     * The number of decimals for float and double values, or a negative
+     * value to use the shortest representation that is parsed back into the
+     * same value
+     */
+    private final int decimals;
+
+    /**
+     * Creates a new instance that writes float and double values with the
+     * shortest representation that is parsed back into the same value
+     */
+    AsciiPlyWriter()
+    {
+        this(-1);
+    }
+
+    /**
+     * Creates a new instance
+     * 
+     * @param decimals The number of decimals for float and double values,
+     *        or a negative value to use the shortest representation. This
+     *        may not be larger than {@link AsciiOutput#MAX_DECIMALS}.
+     */
+    AsciiPlyWriter(int decimals)
+    {
+        this.decimals = decimals;
+    }
+
     @Override
     public void write(PlySource plySource, OutputStream outputStream)
         throws IOException
     {
+        if (plySource instanceof ArrayPlySource)
+        {
+            ((ArrayPlySource) plySource).validate();
+        }
         PlyWriters.writeHeader(plySource, "ascii", outputStream);
-        writeContent(plySource, outputStream);
+        ByteOutput output = new StreamByteOutput(outputStream,
+            ByteOrder.BIG_ENDIAN, ByteOutput.DEFAULT_BUFFER_SIZE);
+        writeContent(plySource, output);
+        output.flush();
+    }
+
+    @Override
+    public void write(PlySource plySource, WritableByteChannel channel)
+        throws IOException
+    {
+        if (plySource instanceof ArrayPlySource)
+        {
+            ((ArrayPlySource) plySource).validate();
+        }
+        // The header is written into the staging buffer of the output, so
+        // that it is written to the channel together with the first content
+        ByteArrayOutputStream headerStream = new ByteArrayOutputStream();
+        PlyWriters.writeHeader(plySource, "ascii", headerStream);
+        byte header[] = headerStream.toByteArray();
+        ByteOutput output = new ChannelByteOutput(channel,
+            ByteOrder.BIG_ENDIAN, ByteOutput.DEFAULT_BUFFER_SIZE);
+        output.writeBytes(header, 0, header.length);
+        writeContent(plySource, output);
+        output.flush();
+    }
+
+    @Override
+    public void write(PlySource plySource, Path path) throws IOException
+    {
+        try (FileChannel fileChannel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE))
+        {
+            write(plySource, fileChannel);
+        }
+    }
+
+    @Override
+    public PlyStreamWriter open(Descriptor descriptor,
+        List<Integer> elementCounts, OutputStream outputStream)
+        throws IOException
+    {
+        Objects.requireNonNull(outputStream,
+            "The outputStream may not be null");
+        ByteOutput output = new StreamByteOutput(outputStream,
+            ByteOrder.BIG_ENDIAN, ByteOutput.DEFAULT_BUFFER_SIZE);
+        PlyStreamWriter plyStreamWriter =
+            new StreamWriter(descriptor, elementCounts, output);
+        PlyWriters.writeHeader(descriptor, elementCounts, "ascii",
+            outputStream);
+        return plyStreamWriter;
+    }
+
+    @Override
+    public PlyStreamWriter open(Descriptor descriptor, FileChannel fileChannel)
+        throws IOException
+    {
+        Objects.requireNonNull(descriptor, "The descriptor may not be null");
+        Objects.requireNonNull(fileChannel, "The fileChannel may not be null");
+        long countPositions[] =
+            new long[descriptor.getElementDescriptors().size()];
+        byte header[] = PlyWriters.createDeferredHeader(descriptor,
+            "ascii", countPositions);
+        long headerPosition = fileChannel.position();
+        for (int t = 0; t < countPositions.length; t++)
+        {
+            countPositions[t] += headerPosition;
+        }
+        ByteOutput output = new ChannelByteOutput(fileChannel,
+            ByteOrder.BIG_ENDIAN, ByteOutput.DEFAULT_BUFFER_SIZE);
+        output.writeBytes(header, 0, header.length);
+        return new StreamWriter(descriptor, fileChannel, countPositions,
+            output);
     }
 
     /**
      * Write the content of the given {@link PlySource} into the given output
-     * stream
      * 
      * @param plySource The {@link PlySource}
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeContent(PlySource plySource, OutputStream outputStream)
+    private void writeContent(PlySource plySource, ByteOutput output)
         throws IOException
     {
-        Writer writer = new OutputStreamWriter(outputStream);
+        AsciiOutput asciiOutput = new AsciiOutput(output, decimals);
 
         Descriptor descriptor = plySource.getDescriptor();
         List<ElementDescriptor> elementDescriptors =
@@ -72,63 +189,275 @@ class AsciiPlyWriter implements PlyWriter
         for (int t = 0; t < elementDescriptors.size(); t++)
         {
             ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            if (plySource instanceof ArrayPlySource)
+            {
+                ArrayPlySource arrayPlySource = (ArrayPlySource) plySource;
+                Object columns[] = arrayPlySource.getColumns(t);
+                if (columns != null)
+                {
+                    writeColumns(elementDescriptor,
+                        arrayPlySource.getElementCount(t), columns,
+                        asciiOutput);
+                }
+                continue;
+            }
+            if (plySource instanceof ObjectPlySource)
+            {
+                ObjectPlySource objectPlySource = (ObjectPlySource) plySource;
+                Object columns[] = objectPlySource.getColumns(t);
+                if (columns != null)
+                {
+                    writeColumns(elementDescriptor,
+                        objectPlySource.getElementCount(t), columns,
+                        asciiOutput);
+                    continue;
+                }
+            }
             String elementName = elementDescriptor.getName();
-
-            List<AsciiPropertyWriter> propertyWriters =
-                createAsciiPropertyWriters(elementDescriptor);
-
-            List<PropertyDescriptor> propertyDescriptors =
-                elementDescriptor.getPropertyDescriptors();
-
             List<Element> elementList = plySource.getElementList(elementName);
-            for (int e = 0; e < elementList.size(); e++)
+            if (elementList != null)
+            {
+                writeElements(elementDescriptor, elementList, asciiOutput);
+            }
+        }
+        asciiOutput.flush();
+    }
+
+    /**
+     * Write the elements that are given by the columns of an
+     * {@link ArrayPlySource} or an {@link ObjectPlySource} into the given
+     * output.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param elementCount The number of elements
+     * @param columns The columns
+     * @param output The {@link AsciiOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeColumns(ElementDescriptor elementDescriptor,
+        int elementCount, Object columns[], AsciiOutput output)
+        throws IOException
+    {
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int numProperties = propertyDescriptors.size();
+        PlyType types[] = new PlyType[numProperties];
+        boolean lists[] = new boolean[numProperties];
+        for (int p = 0; p < numProperties; p++)
+        {
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
+            types[p] = propertyDescriptor.getType();
+            lists[p] = propertyDescriptor.getSizeType() != null;
+        }
+        for (int e = 0; e < elementCount; e++)
+        {
+            for (int p = 0; p < numProperties; p++)
             {
-                Element element = elementList.get(e);
-                for (int p = 0; p < propertyDescriptors.size(); p++)
+                if (p > 0)
+                {
+                    output.writeChar(' ');
+                }
+                if (lists[p])
                 {
-                    if (p > 0)
-                    {
-                        writer.write(" ");
-                    }
-                    PropertyDescriptor propertyDescriptor =
-                        propertyDescriptors.get(p);
-                    String propertyName = propertyDescriptor.getName();
-
-                    AsciiPropertyWriter propertyWriter = propertyWriters.get(p);
-                    propertyWriter.write(element, propertyName, writer);
+                    writeList(types[p], (ListColumn) columns[p], e, output);
+                }
+                else
+                {
+                    writeScalar(types[p], columns[p], e, output);
                 }
-                writer.write("\n");
             }
+            output.writeChar('\n');
         }
-        writer.flush();
     }
 
     /**
-     * Create one {@link AsciiPropertyWriter} for each property of the given
-     * {@link ElementDescriptor}
+     * Write the value of the given column for the specified element into the
+     * given output
      * 
-     * @param elementDescriptor The {@link ElementDescriptor}
-     * @return The {@link AsciiPropertyWriter} objects
+     * @param type The type
+     * @param column The column, which is an array or a function, as it is
+     *        stored in an {@link ArrayPlySource}
+     * @param elementIndex The element index
+     * @param output The {@link AsciiOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeScalar(PlyType type, Object column,
+        int elementIndex, AsciiOutput output) throws IOException
+    {
+        switch (type)
+        {
+            case UCHAR:
+                output.writeInt(Byte.toUnsignedInt(
+                    ArrayPlySource.getByte(column, elementIndex)));
+                break;
+            case CHAR:
+                output.writeInt(ArrayPlySource.getByte(column, elementIndex));
+                break;
+            case USHORT:
+                output.writeInt(Short.toUnsignedInt(
+                    ArrayPlySource.getShort(column, elementIndex)));
+                break;
+            case SHORT:
+                output.writeInt(ArrayPlySource.getShort(column, elementIndex));
+                break;
+            case UINT:
+                output.writeLong(Integer.toUnsignedLong(
+                    ArrayPlySource.getInt(column, elementIndex)));
+                break;
+            case INT:
+                output.writeInt(ArrayPlySource.getInt(column, elementIndex));
+                break;
+            case FLOAT:
+                output.writeFloat(
+                    ArrayPlySource.getFloat(column, elementIndex));
+                break;
+            case DOUBLE:
+                output.writeDouble(
+                    ArrayPlySource.getDouble(column, elementIndex));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Write the list of the specified element from the given
+     * {@link ListColumn} into the given output
+     * 
+     * @param type The type of the list elements
+     * @param listColumn The {@link ListColumn}
+     * @param elementIndex The element index
+     * @param output The {@link AsciiOutput}
+     * @throws IOException If an IO error occurs
      */
-    private List<AsciiPropertyWriter>
-        createAsciiPropertyWriters(ElementDescriptor elementDescriptor)
+    private static void writeList(PlyType type, ListColumn listColumn,
+        int elementIndex, AsciiOutput output) throws IOException
     {
-        List<AsciiPropertyWriter> propertyWriters =
-            new ArrayList<AsciiPropertyWriter>();
+        int offset = listColumn.getOffset(elementIndex);
+        int length = listColumn.getLength(elementIndex);
+        output.writeInt(length);
+        output.writeChar(' ');
+        for (int i = 0; i < length; i++)
+        {
+            if (i > 0)
+            {
+                output.writeChar(' ');
+            }
+            int index = offset + i;
+            switch (type)
+            {
+                case UCHAR:
+                    output.writeInt(
+                        Byte.toUnsignedInt(listColumn.getCharData()[index]));
+                    break;
+                case CHAR:
+                    output.writeInt(listColumn.getCharData()[index]);
+                    break;
+                case USHORT:
+                    output.writeInt(
+                        Short.toUnsignedInt(listColumn.getShortData()[index]));
+                    break;
+                case SHORT:
+                    output.writeInt(listColumn.getShortData()[index]);
+                    break;
+                case UINT:
+                    output.writeLong(
+                        Integer.toUnsignedLong(listColumn.getIntData()[index]));
+                    break;
+                case INT:
+                    output.writeInt(listColumn.getIntData()[index]);
+                    break;
+                case FLOAT:
+                    output.writeFloat(listColumn.getFloatData()[index]);
+                    break;
+                case DOUBLE:
+                    output.writeDouble(listColumn.getDoubleData()[index]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
 
+    /**
+     * Write the given elements into the given output.
+     * 
+     * When the elements are {@link DefaultIndexedElement} instances that
+     * share the same property indices, as it is the case for the elements
+     * that have been read with a {@link PlyReader}, then the property values
+     * are obtained by their index. Otherwise, they are obtained by their
+     * name.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param elementList The elements
+     * @param output The {@link AsciiOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeElements(ElementDescriptor elementDescriptor,
+        List<Element> elementList, AsciiOutput output) throws IOException
+    {
         List<PropertyDescriptor> propertyDescriptors =
             elementDescriptor.getPropertyDescriptors();
-        for (int i = 0; i < propertyDescriptors.size(); i++)
+        int numProperties = propertyDescriptors.size();
+        String propertyNames[] = new String[numProperties];
+        AsciiPropertyWriter propertyWriters[] =
+            new AsciiPropertyWriter[numProperties];
+        List<BiFunction<Element, String, ?>> propertyGetters =
+            new ArrayList<BiFunction<Element, String, ?>>();
+        for (int p = 0; p < numProperties; p++)
         {
-            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(i);
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
             PlyType type = propertyDescriptor.getType();
             PlyType sizeType = propertyDescriptor.getSizeType();
-            AsciiPropertyWriter propertyWriter =
-                createPropertyWriter(type, sizeType);
-            propertyWriters.add(propertyWriter);
+            propertyNames[p] = propertyDescriptor.getName();
+            propertyWriters[p] = createPropertyWriter(type, sizeType);
+            propertyGetters.add(
+                PlyWriters.createPropertyGetter(type, sizeType));
         }
 
-        return propertyWriters;
+        Map<String, Integer> propertyIndices = null;
+        int indices[] = null;
+        for (int e = 0; e < elementList.size(); e++)
+        {
+            Element element = elementList.get(e);
+            if (element instanceof DefaultIndexedElement)
+            {
+                DefaultIndexedElement indexedElement =
+                    (DefaultIndexedElement) element;
+                if (indexedElement.getPropertyIndices() != propertyIndices)
+                {
+                    propertyIndices = indexedElement.getPropertyIndices();
+                    indices = PlyWriters.computeIndices(propertyIndices,
+                        propertyNames);
+                }
+            }
+            else
+            {
+                indices = null;
+                propertyIndices = null;
+            }
+            for (int p = 0; p < numProperties; p++)
+            {
+                if (p > 0)
+                {
+                    output.writeChar(' ');
+                }
+                Object value;
+                if (indices != null)
+                {
+                    DefaultIndexedElement indexedElement =
+                        (DefaultIndexedElement) element;
+                    value = indexedElement.getProperty(indices[p]);
+                }
+                else
+                {
+                    value =
+                        propertyGetters.get(p).apply(element, propertyNames[p]);
+                }
+                propertyWriters[p].write(value, output);
+            }
+            output.writeChar('\n');
+        }
     }
 
     /**
@@ -197,353 +526,450 @@ class AsciiPlyWriter implements PlyWriter
     }
 
     /**
-     * Write the specified element into the given writer.
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeChar(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeChar(Object value, AsciiOutput output)
+        throws IOException
     {
-        Byte value = element.getCharProperty(propertyName);
-        writer.write(String.valueOf(value));
+        Byte v = (Byte) value;
+        output.writeInt(v);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeUnsignedChar(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeUnsignedChar(Object value, AsciiOutput output)
+        throws IOException
     {
-        Byte value = element.getCharProperty(propertyName);
-        int unsignedValue = Byte.toUnsignedInt(value);
-        writer.write(String.valueOf(unsignedValue));
+        Byte v = (Byte) value;
+        output.writeInt(Byte.toUnsignedInt(v));
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeShort(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeShort(Object value, AsciiOutput output)
+        throws IOException
     {
-        Short value = element.getShortProperty(propertyName);
-        writer.write(String.valueOf(value));
+        Short v = (Short) value;
+        output.writeInt(v);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeUnsignedShort(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeUnsignedShort(Object value, AsciiOutput output)
+        throws IOException
     {
-        Short value = element.getShortProperty(propertyName);
-        int unsignedValue = Short.toUnsignedInt(value);
-        writer.write(String.valueOf(unsignedValue));
+        Short v = (Short) value;
+        output.writeInt(Short.toUnsignedInt(v));
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeInt(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeInt(Object value, AsciiOutput output)
+        throws IOException
     {
-        Integer value = element.getIntProperty(propertyName);
-        writer.write(String.valueOf(value));
+        Integer v = (Integer) value;
+        output.writeInt(v);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeUnsignedInt(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeUnsignedInt(Object value, AsciiOutput output)
+        throws IOException
     {
-        Integer value = element.getIntProperty(propertyName);
-        long unsignedValue = Integer.toUnsignedLong(value);
-        writer.write(String.valueOf(unsignedValue));
+        Integer v = (Integer) value;
+        output.writeLong(Integer.toUnsignedLong(v));
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeFloat(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeFloat(Object value, AsciiOutput output)
+        throws IOException
     {
-        Float value = element.getFloatProperty(propertyName);
-        writer.write(String.valueOf(value));
+        Float v = (Float) value;
+        output.writeFloat(v);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeDouble(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeDouble(Object value, AsciiOutput output)
+        throws IOException
     {
-        Double value = element.getDoubleProperty(propertyName);
-        writer.write(String.valueOf(value));
+        Double v = (Double) value;
+        output.writeDouble(v);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeCharList(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeCharList(Object value, AsciiOutput output)
+        throws IOException
     {
-        byte value[] = element.getCharListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        byte v[] = (byte[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            writer.write(String.valueOf(value[i]));
+            output.writeInt(v[i]);
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeUnsignedCharList(Element element,
-        String propertyName, Writer writer) throws IOException
+    private static void writeUnsignedCharList(Object value, AsciiOutput output)
+        throws IOException
     {
-        byte value[] = element.getCharListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        byte v[] = (byte[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            int unsignedValue = Byte.toUnsignedInt(value[i]);
-            writer.write(String.valueOf(unsignedValue));
+            output.writeInt(Byte.toUnsignedInt(v[i]));
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeShortList(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeShortList(Object value, AsciiOutput output)
+        throws IOException
     {
-        short value[] = element.getShortListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        short v[] = (short[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            writer.write(String.valueOf(value[i]));
+            output.writeInt(v[i]);
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeUnsignedShortList(Element element,
-        String propertyName, Writer writer) throws IOException
+    private static void writeUnsignedShortList(Object value, AsciiOutput output)
+        throws IOException
     {
-        short value[] = element.getShortListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        short v[] = (short[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            int unsignedValue = Short.toUnsignedInt(value[i]);
-            writer.write(String.valueOf(unsignedValue));
+            output.writeInt(Short.toUnsignedInt(v[i]));
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeIntList(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeIntList(Object value, AsciiOutput output)
+        throws IOException
     {
-        int value[] = element.getIntListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        int v[] = (int[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            writer.write(String.valueOf(value[i]));
+            output.writeInt(v[i]);
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeUnsignedIntList(Element element,
-        String propertyName, Writer writer) throws IOException
+    private static void writeUnsignedIntList(Object value, AsciiOutput output)
+        throws IOException
     {
-        int value[] = element.getIntListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        int v[] = (int[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            long unsignedValue = Integer.toUnsignedLong(value[i]);
-            writer.write(String.valueOf(unsignedValue));
+            output.writeLong(Integer.toUnsignedLong(v[i]));
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeFloatList(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeFloatList(Object value, AsciiOutput output)
+        throws IOException
     {
-        float value[] = element.getFloatListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        float v[] = (float[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            writer.write(String.valueOf(value[i]));
+            output.writeFloat(v[i]);
         }
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output.
      * 
      * To be used as an implementation of {@link AsciiPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
-     * @param writer The writer
+     * @param value The value
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    private static void writeDoubleList(Element element, String propertyName,
-        Writer writer) throws IOException
+    private static void writeDoubleList(Object value, AsciiOutput output)
+        throws IOException
     {
-        double value[] = element.getDoubleListProperty(propertyName);
-        writer.write(String.valueOf(value.length));
-        writer.write(" ");
-        for (int i = 0; i < value.length; i++)
+        double v[] = (double[]) value;
+        output.writeInt(v.length);
+        output.writeChar(' ');
+        for (int i = 0; i < v.length; i++)
         {
             if (i > 0)
             {
-                writer.write(" ");
+                output.writeChar(' ');
             }
-            writer.write(String.valueOf(value[i]));
+            output.writeDouble(v[i]);
         }
     }
 
+
+    /**
+     * Implementation of a {@link PlyStreamWriter} that writes ASCII data
+     */
+    private final class StreamWriter extends AbstractPlyStreamWriter
+    {
+        /**
+         * The {@link ByteOutput}
+         */
+        private final ByteOutput output;
+
+        /**
+         * The {@link AsciiOutput}
+         */
+        private final AsciiOutput asciiOutput;
+
+        /**
+         * The index of the element type that the {@link #rawDecoder} and
+         * the {@link #rawColumns} have been created for, or -1 if they
+         * have not been created yet
+         */
+        private int rawElementTypeIndex;
+
+        /**
+         * The {@link FixedStrideDecoder} for raw elements
+         */
+        private FixedStrideDecoder rawDecoder;
+
+        /**
+         * The columns that raw elements are decoded into
+         */
+        private Object rawColumns[];
+
+        /**
+         * Creates a new instance
+         * 
+         * @param descriptor The {@link Descriptor}
+         * @param elementCounts The element counts
+         * @param output The {@link ByteOutput}
+         */
+        StreamWriter(Descriptor descriptor, List<Integer> elementCounts,
+            ByteOutput output)
+        {
+            super(descriptor, elementCounts);
+            this.output = output;
+            this.asciiOutput = new AsciiOutput(output, decimals);
+            this.rawElementTypeIndex = -1;
+        }
+
+        /**
+         * Creates a new instance for element counts that are not known in
+         * advance
+         * 
+         * @param descriptor The {@link Descriptor}
+         * @param fileChannel The file channel
+         * @param countPositions The positions of the element counts in the
+         *        file channel
+         * @param output The {@link ByteOutput}
+         */
+        StreamWriter(Descriptor descriptor, FileChannel fileChannel,
+            long countPositions[], ByteOutput output)
+        {
+            super(descriptor, fileChannel, countPositions);
+            this.output = output;
+            this.asciiOutput = new AsciiOutput(output, decimals);
+            this.rawElementTypeIndex = -1;
+        }
+
+        @Override
+        void writeElements(int elementTypeIndex, List<Element> elements)
+            throws IOException
+        {
+            AsciiPlyWriter.writeElements(
+                getElementDescriptor(elementTypeIndex), elements,
+                asciiOutput);
+        }
+
+        @Override
+        void writeColumns(int elementTypeIndex, int elementCount,
+            Object columns[]) throws IOException
+        {
+            AsciiPlyWriter.writeColumns(
+                getElementDescriptor(elementTypeIndex), elementCount, columns,
+                asciiOutput);
+        }
+
+        @Override
+        void writeRawElements(int elementTypeIndex, int elementCount,
+            ByteBuffer buffer, int position) throws IOException
+        {
+            ElementDescriptor elementDescriptor =
+                getElementDescriptor(elementTypeIndex);
+            if (rawElementTypeIndex != elementTypeIndex)
+            {
+                rawDecoder = FixedStrideDecoder.create(elementDescriptor);
+                rawColumns = Batches.createColumns(rawDecoder.getTypes(),
+                    RAW_BATCH_SIZE);
+                rawElementTypeIndex = elementTypeIndex;
+            }
+            int stride = rawDecoder.getStride();
+            int i = 0;
+            while (i < elementCount)
+            {
+                int n = Math.min(elementCount - i, RAW_BATCH_SIZE);
+                rawDecoder.decode(buffer, position + i * stride, 0, n,
+                    rawColumns);
+                AsciiPlyWriter.writeColumns(elementDescriptor, n, rawColumns,
+                    asciiOutput);
+                i += n;
+            }
+        }
+
+        @Override
+        void finishContent() throws IOException
+        {
+            asciiOutput.flush();
+            output.flush();
+        }
+    }
 }
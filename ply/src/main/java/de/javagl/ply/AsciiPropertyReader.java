@@ -27,11 +27,10 @@
 package de.javagl.ply;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Interface for classes that can parse information about a single PLY property
- * from a list of tokens.
+ * from an {@link AsciiTokenizer}.
  * 
  * Instances of this class are created by the {@link AsciiPlyContentReader} via
  * method references, to read the property values of an {@link Element}.
@@ -39,19 +38,17 @@ import java.util.List;
 interface AsciiPropertyReader
 {
     /**
-     * Read the specified property by parsing the specified tokens and passing
-     * the result to the given {@link PlyTarget}.
+     * Read the specified property by parsing the next tokens of the given
+     * tokenizer and passing the result to the given {@link PlyTarget}.
      * 
-     * @param tokens The list of tokens
-     * @param tokenIndex The token index where to start reading
+     * @param tokenizer The {@link AsciiTokenizer}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
      * @param plyTarget The {@link PlyTarget}
-     * @return How many tokens have been processed
      * @throws IOException If an IO error occurs
      */
-    int read(List<String> tokens, int tokenIndex, int elementTypeIndex,
+    void read(AsciiTokenizer tokenizer, int elementTypeIndex,
         int elementIndex, int propertyIndex, PlyTarget plyTarget)
         throws IOException;
-}
\ No newline at end of file
+}
@@ -27,7 +27,6 @@
 package de.javagl.ply;
 
 import java.io.IOException;
-import java.io.Writer;
 
 /**
  * Interface for classes that can write information about a single PLY property.
@@ -38,13 +37,12 @@ import java.io.Writer;
 interface AsciiPropertyWriter
 {
     /**
-     * Write the specified property value into the given writer
+     * Write the given property value into the given output
      * 
-     * @param element The element
-     * @param propertyName The name of the property
-     * @param writer The writer
+     * @param value The value, which is a boxed primitive value for scalar
+     *        properties, and a primitive array for list properties
+     * @param output The {@link AsciiOutput}
      * @throws IOException If an IO error occurs
      */
-    void write(Element element, String propertyName, Writer writer)
-        throws IOException;
+    void write(Object value, AsciiOutput output) throws IOException;
 }
\ No newline at end of file
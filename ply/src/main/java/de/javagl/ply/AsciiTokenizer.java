@@ -0,0 +1,369 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Internal class for splitting ASCII PLY data into lines and tokens, and
+ * parsing the tokens as numbers.
+ * 
+ * The data is read from a {@link ByteInput}. The bytes of each token are
+ * copied into a reused array, and parsed with the {@link AsciiNumbers}
+ * methods, so that no objects are created for common inputs.
+ * 
+ * Lines are terminated by <code>'\n'</code> or <code>'\r'</code>. Lines that
+ * only consist of whitespace are skipped. Tokens are separated by spaces,
+ * tabs, form feeds or vertical tabs.
+ */
+final class AsciiTokenizer
+{
+    /**
+     * The initial size of the token array
+     */
+    private static final int INITIAL_TOKEN_SIZE = 64;
+
+    /**
+     * The {@link ByteInput}
+     */
+    private final ByteInput input;
+
+    /**
+     * The bytes of the current token
+     */
+    private byte token[];
+
+    /**
+     * The length of the current token
+     */
+    private int tokenLength;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param input The {@link ByteInput}
+     */
+    AsciiTokenizer(ByteInput input)
+    {
+        this.input = input;
+        this.token = new byte[INITIAL_TOKEN_SIZE];
+        this.tokenLength = 0;
+    }
+
+    /**
+     * Returns whether the given byte is a line terminator
+     * 
+     * @param b The byte
+     * @return Whether the byte is a line terminator
+     */
+    static boolean isLineTerminator(byte b)
+    {
+        return b == '\n' || b == '\r';
+    }
+
+    /**
+     * Returns whether the given byte is a whitespace that separates tokens
+     * 
+     * @param b The byte
+     * @return Whether the byte is a separator
+     */
+    private static boolean isSeparator(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+
+    /**
+     * Make sure that the buffer of the input has remaining bytes
+     * 
+     * @return Whether there are remaining bytes. If this is
+     *         <code>false</code>, then the end of the input was reached.
+     * @throws IOException If an IO error occurs
+     */
+    private boolean available() throws IOException
+    {
+        return input.buffer.hasRemaining() || input.refill();
+    }
+
+    /**
+     * Move to the first token of the next line that is not empty.
+     * 
+     * @return Whether such a line was found. If this is <code>false</code>,
+     *         then the end of the input was reached.
+     * @throws IOException If an IO error occurs
+     */
+    boolean nextLine() throws IOException
+    {
+        while (available())
+        {
+            ByteBuffer buffer = input.buffer;
+            int position = buffer.position();
+            int limit = buffer.limit();
+            while (position < limit)
+            {
+                byte b = buffer.get(position);
+                if (!isSeparator(b) && !isLineTerminator(b))
+                {
+                    buffer.position(position);
+                    return true;
+                }
+                position++;
+            }
+            buffer.position(position);
+        }
+        return false;
+    }
+
+    /**
+     * Move to the position after the end of the current line, ignoring all
+     * remaining tokens of the line
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    void skipLine() throws IOException
+    {
+        while (available())
+        {
+            ByteBuffer buffer = input.buffer;
+            int position = buffer.position();
+            int limit = buffer.limit();
+            while (position < limit)
+            {
+                byte b = buffer.get(position);
+                position++;
+                if (isLineTerminator(b))
+                {
+                    buffer.position(position);
+                    return;
+                }
+            }
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * Skip the given number of lines that are not empty
+     * 
+     * @param n The number of lines
+     * @throws IOException If an IO error occurs
+     */
+    void skipLines(int n) throws IOException
+    {
+        for (int i = 0; i < n; i++)
+        {
+            if (!nextLine())
+            {
+                return;
+            }
+            skipLine();
+        }
+    }
+
+    /**
+     * Count the number of lines that are not empty, until the end of the
+     * input is reached
+     * 
+     * @return The number of lines
+     * @throws IOException If an IO error occurs
+     */
+    int countLines() throws IOException
+    {
+        int count = 0;
+        while (nextLine())
+        {
+            count++;
+            skipLine();
+        }
+        return count;
+    }
+
+    /**
+     * Read the next token of the current line into the {@link #token} array
+     * 
+     * @throws IOException If there is no further token in the current line
+     */
+    private void readToken() throws IOException
+    {
+        // Skip the separators before the token
+        while (true)
+        {
+            if (!available())
+            {
+                throw new IOException("Expected more values in line");
+            }
+            ByteBuffer buffer = input.buffer;
+            byte b = buffer.get(buffer.position());
+            if (isLineTerminator(b))
+            {
+                throw new IOException("Expected more values in line");
+            }
+            if (!isSeparator(b))
+            {
+                break;
+            }
+            buffer.position(buffer.position() + 1);
+        }
+
+        // Copy the bytes of the token
+        tokenLength = 0;
+        while (available())
+        {
+            ByteBuffer buffer = input.buffer;
+            int position = buffer.position();
+            int limit = buffer.limit();
+            while (position < limit)
+            {
+                byte b = buffer.get(position);
+                if (isSeparator(b) || isLineTerminator(b))
+                {
+                    buffer.position(position);
+                    return;
+                }
+                if (tokenLength == token.length)
+                {
+                    token = Arrays.copyOf(token, token.length * 2);
+                }
+                token[tokenLength++] = b;
+                position++;
+            }
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * Skip the next token of the current line
+     * 
+     * @throws IOException If there is no further token in the current line
+     */
+    void skipToken() throws IOException
+    {
+        readToken();
+    }
+
+    /**
+     * Parse the next token of the current line as a signed int value
+     * 
+     * @return The value
+     * @throws IOException If there is no further token in the current line,
+     *         or the token is not a valid number, or the number is not in
+     *         the range of a signed int value
+     */
+    int nextInt() throws IOException
+    {
+        return nextInt(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parse the next token of the current line as an unsigned int value.
+     * 
+     * Values that are larger than <code>Integer.MAX_VALUE</code> are
+     * represented with the same bits, as negative int values. For
+     * compatibility, negative values are accepted as well.
+     * 
+     * @return The value
+     * @throws IOException If there is no further token in the current line,
+     *         or the token is not a valid number, or the number is neither
+     *         in the range of a signed nor of an unsigned int value
+     */
+    int nextUnsignedInt() throws IOException
+    {
+        return nextInt(0xFFFFFFFFL);
+    }
+
+    /**
+     * Parse the next token of the current line as a long value, and return
+     * it as an int value
+     * 
+     * @param max The maximum value
+     * @return The value
+     * @throws IOException If there is no further token in the current line,
+     *         or the token is not a valid number, or the number is smaller
+     *         than <code>Integer.MIN_VALUE</code> or larger than the given
+     *         maximum
+     */
+    private int nextInt(long max) throws IOException
+    {
+        readToken();
+        long value;
+        try
+        {
+            value = AsciiNumbers.parseLong(token, tokenLength);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException(e);
+        }
+        if (value < Integer.MIN_VALUE || value > max)
+        {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse the next token of the current line as a float value
+     * 
+     * @return The value
+     * @throws IOException If there is no further token in the current line,
+     *         or the token is not a valid number
+     */
+    float nextFloat() throws IOException
+    {
+        readToken();
+        try
+        {
+            return AsciiNumbers.parseFloat(token, tokenLength);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Parse the next token of the current line as a double value
+     * 
+     * @return The value
+     * @throws IOException If there is no further token in the current line,
+     *         or the token is not a valid number
+     */
+    double nextDouble() throws IOException
+    {
+        readToken();
+        try
+        {
+            return AsciiNumbers.parseDouble(token, tokenLength);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+}
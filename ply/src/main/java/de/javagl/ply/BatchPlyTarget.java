@@ -0,0 +1,142 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+/**
+ * Extension of the {@link PlyTarget} interface for targets that receive the
+ * values of scalar properties in batches.
+ * 
+ * When a {@link PlyReader} passes binary data to a target that implements
+ * this interface, then the elements of types that only contain scalar
+ * properties are delivered in batches, instead of calling the
+ * <code>startElement</code>, <code>handle...Property</code> and
+ * <code>endElement</code> methods for each element. For each batch, one
+ * <code>handle...Column</code> method is called for each property, with a
+ * slice of an array that contains the values of this property for all
+ * elements of the batch. Afterwards,
+ * {@link #endBatch(int, int, int)} is called. For these element types, the
+ * batches are only preceded by a call to
+ * {@link #startElementList(int, int)} and followed by a call to
+ * {@link #endElementList(int)}.
+ * 
+ * All other element types, and ASCII data, are passed to the methods of the
+ * {@link PlyTarget} interface. The {@link AbstractBatchPlyTarget} may be
+ * used to receive scalar properties in batches in these cases as well.
+ * 
+ * The arrays are owned by the reader, and may be reused for subsequent
+ * batches. Their contents are only valid for the duration of the call.
+ * Implementations that want to keep the values have to copy them into their
+ * own data structures.
+ */
+public interface BatchPlyTarget extends PlyTarget
+{
+    /**
+     * Will be called to handle the values of the specified property for a
+     * batch of elements.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param propertyIndex The index of the property
+     * @param values The array containing the values
+     * @param offset The index of the value of the first element in the
+     *        array
+     * @param length The number of elements in the batch
+     */
+    void handleCharColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, byte values[], int offset, int length);
+
+    /**
+     * Will be called to handle the values of the specified property for a
+     * batch of elements.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param propertyIndex The index of the property
+     * @param values The array containing the values
+     * @param offset The index of the value of the first element in the
+     *        array
+     * @param length The number of elements in the batch
+     */
+    void handleShortColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, short values[], int offset, int length);
+
+    /**
+     * Will be called to handle the values of the specified property for a
+     * batch of elements.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param propertyIndex The index of the property
+     * @param values The array containing the values
+     * @param offset The index of the value of the first element in the
+     *        array
+     * @param length The number of elements in the batch
+     */
+    void handleIntColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, int values[], int offset, int length);
+
+    /**
+     * Will be called to handle the values of the specified property for a
+     * batch of elements.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param propertyIndex The index of the property
+     * @param values The array containing the values
+     * @param offset The index of the value of the first element in the
+     *        array
+     * @param length The number of elements in the batch
+     */
+    void handleFloatColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, float values[], int offset, int length);
+
+    /**
+     * Will be called to handle the values of the specified property for a
+     * batch of elements.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param propertyIndex The index of the property
+     * @param values The array containing the values
+     * @param offset The index of the value of the first element in the
+     *        array
+     * @param length The number of elements in the batch
+     */
+    void handleDoubleColumn(int elementTypeIndex, int firstElementIndex,
+        int propertyIndex, double values[], int offset, int length);
+
+    /**
+     * Will be called after the values of all properties of a batch of
+     * elements have been passed to the <code>handle...Column</code>
+     * methods.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param length The number of elements in the batch
+     */
+    void endBatch(int elementTypeIndex, int firstElementIndex, int length);
+}
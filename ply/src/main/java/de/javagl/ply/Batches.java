@@ -0,0 +1,114 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+/**
+ * Internal utility methods for passing batches of elements to a
+ * {@link BatchPlyTarget}
+ */
+class Batches
+{
+    /**
+     * Create the columns for a batch of elements with the given property
+     * types. These are primitive arrays with the given length, with types
+     * that match the property types.
+     * 
+     * @param types The property types
+     * @param length The length of the arrays
+     * @return The columns
+     */
+    static Object[] createColumns(PlyType types[], int length)
+    {
+        Object columns[] = new Object[types.length];
+        for (int p = 0; p < types.length; p++)
+        {
+            columns[p] = ListColumn.createData(types[p], length);
+        }
+        return columns;
+    }
+
+    /**
+     * Pass the given columns, which contain the values of the specified
+     * batch of elements, to the given {@link BatchPlyTarget}, and end the
+     * batch.
+     * 
+     * @param batchPlyTarget The {@link BatchPlyTarget}
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element of the batch
+     * @param types The property types
+     * @param columns The columns, as created with
+     *        {@link #createColumns(PlyType[], int)}
+     * @param length The number of elements in the batch
+     */
+    static void handleColumns(BatchPlyTarget batchPlyTarget,
+        int elementTypeIndex, int firstElementIndex, PlyType types[],
+        Object columns[], int length)
+    {
+        int t = elementTypeIndex;
+        int e = firstElementIndex;
+        for (int p = 0; p < types.length; p++)
+        {
+            switch (types[p])
+            {
+                case UCHAR:
+                case CHAR:
+                    batchPlyTarget.handleCharColumn(t, e, p,
+                        (byte[]) columns[p], 0, length);
+                    break;
+                case USHORT:
+                case SHORT:
+                    batchPlyTarget.handleShortColumn(t, e, p,
+                        (short[]) columns[p], 0, length);
+                    break;
+                case UINT:
+                case INT:
+                    batchPlyTarget.handleIntColumn(t, e, p,
+                        (int[]) columns[p], 0, length);
+                    break;
+                case FLOAT:
+                    batchPlyTarget.handleFloatColumn(t, e, p,
+                        (float[]) columns[p], 0, length);
+                    break;
+                case DOUBLE:
+                    batchPlyTarget.handleDoubleColumn(t, e, p,
+                        (double[]) columns[p], 0, length);
+                    break;
+                default:
+                    break;
+            }
+        }
+        batchPlyTarget.endBatch(t, e, length);
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Batches()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
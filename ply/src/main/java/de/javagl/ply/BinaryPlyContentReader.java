@@ -29,12 +29,14 @@ package de.javagl.ply;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -48,6 +50,11 @@ class BinaryPlyContentReader
     private static final Logger logger =
         Logger.getLogger(BinaryPlyContentReader.class.getName());
 
+    /**
+     * The number of bytes that are decoded in one parallel task
+     */
+    private static final int PARALLEL_CHUNK_BYTES = 1 << 22;
+
     /**
      * The {@link Descriptor} for the data structure
      */
@@ -59,14 +66,33 @@ class BinaryPlyContentReader
     private List<Integer> counts;
 
     /**
-     * A byte buffer for reading property values
+     * The indices that the properties are passed to the target with, for
+     * each element type. See {@link #setPropertyIndices(int[][])}.
+     */
+    private int propertyIndices[][];
+
+    /**
+     * The indices that the element types are passed to the target with. See
+     * {@link #setElementTypeIndices(int[])}.
+     */
+    private int elementTypeIndices[];
+
+    /**
+     * The byte order of the data
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * The buffers for list properties, when the target is a
+     * {@link ListBufferPlyTarget}
      */
-    private final byte byteArray[];
+    private final ListBuffers listBuffers;
 
     /**
-     * A byte buffer wrapped around the byte array, to handle the endianness.
+     * The executor service for decoding elements in parallel. This may be
+     * <code>null</code>.
      */
-    private final ByteBuffer byteBuffer;
+    private ExecutorService executorService;
 
     /**
      * Creates a new instance
@@ -77,12 +103,9 @@ class BinaryPlyContentReader
     BinaryPlyContentReader(Descriptor descriptor, boolean littleEndian)
     {
         this.descriptor = descriptor;
-        this.byteArray = new byte[8];
-        this.byteBuffer = ByteBuffer.wrap(byteArray);
-        if (littleEndian)
-        {
-            this.byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        }
+        this.byteOrder =
+            littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        this.listBuffers = new ListBuffers();
     }
 
     /**
@@ -95,6 +118,52 @@ class BinaryPlyContentReader
         this.counts = counts;
     }
 
+    /**
+     * Set the indices that the element types should be passed to the target
+     * with.
+     * 
+     * The given array contains one entry for each element type. This is the
+     * index that the element type should be passed to the target with, or a
+     * negative value if the elements of this type should be skipped. If the
+     * given array is <code>null</code>, then all elements are read.
+     * 
+     * @param elementTypeIndices The element type indices
+     */
+    void setElementTypeIndices(int elementTypeIndices[])
+    {
+        this.elementTypeIndices = elementTypeIndices;
+    }
+
+    /**
+     * Set the indices that the properties should be passed to the target
+     * with.
+     * 
+     * For each element type, the given array contains either
+     * <code>null</code>, if all properties should be read, or an array that
+     * contains one entry for each property. This is the index that the
+     * property should be passed to the target with, or a negative value if
+     * the property should be skipped. If the given array is
+     * <code>null</code>, then all properties of all elements are read.
+     * 
+     * @param propertyIndices The property indices
+     */
+    void setPropertyIndices(int propertyIndices[][])
+    {
+        this.propertyIndices = propertyIndices;
+    }
+
+    /**
+     * Set the executor service that should be used for decoding elements in
+     * parallel. If this is <code>null</code>, then all elements are decoded
+     * sequentially.
+     * 
+     * @param executorService The executor service
+     */
+    void setExecutorService(ExecutorService executorService)
+    {
+        this.executorService = executorService;
+    }
+
     /**
      * Read the data from the given input stream and pass it to the given
      * {@link PlyTarget}.
@@ -105,50 +174,357 @@ class BinaryPlyContentReader
      */
     void read(InputStream inputStream, PlyTarget plyTarget) throws IOException
     {
+        ByteInput input = new StreamByteInput(inputStream, byteOrder,
+            ByteInput.DEFAULT_BUFFER_SIZE);
+        read(input, plyTarget);
+    }
+
+    /**
+     * Read the data from the given file channel and pass it to the given
+     * {@link PlyTarget}.
+     * 
+     * The data is read starting at the current position of the file channel,
+     * via memory-mapped windows. Afterwards, the position of the file channel
+     * will be the position after the last element.
+     * 
+     * If an executor service was set, and the target is a
+     * {@link ColumnarPlyTarget}, then large blocks of elements with a fixed
+     * stride are decoded in parallel.
+     * 
+     * @param fileChannel The file channel
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    void read(FileChannel fileChannel, PlyTarget plyTarget) throws IOException
+    {
+        MappedByteInput input = new MappedByteInput(fileChannel,
+            fileChannel.position(), fileChannel.size(), byteOrder,
+            MappedByteInput.DEFAULT_WINDOW_SIZE);
+        read(input, plyTarget);
+        fileChannel.position(input.position());
+    }
+
+    /**
+     * Read the data from the given {@link ByteInput} and pass it to the given
+     * {@link PlyTarget}.
+     * 
+     * @param input The {@link ByteInput}
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    void read(ByteInput input, PlyTarget plyTarget) throws IOException
+    {
+        boolean useListBuffers = plyTarget instanceof ListBufferPlyTarget;
         List<ElementDescriptor> elementDescriptors =
             descriptor.getElementDescriptors();
         for (int t = 0; t < elementDescriptors.size(); t++)
         {
             ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            int count = counts.get(t);
+            int targetType =
+                elementTypeIndices == null ? t : elementTypeIndices[t];
+            if (targetType < 0)
+            {
+                skipElements(input, elementDescriptor, count);
+                continue;
+            }
+            int indices[] =
+                propertyIndices == null ? null : propertyIndices[t];
 
-            List<BinaryPropertyReader> propertyReaders =
-                createPropertyReaders(elementDescriptor);
-            List<Function<InputStream, Number>> sizeReaders =
+            FixedStrideDecoder decoder =
+                FixedStrideDecoder.create(elementDescriptor, indices);
+            if (decoder != null && decoder.getStride() <= input.capacity())
+            {
+                long size = (long) count * decoder.getStride();
+                if (executorService != null
+                    && input instanceof MappedByteInput
+                    && plyTarget instanceof ColumnarPlyTarget
+                    && size > PARALLEL_CHUNK_BYTES)
+                {
+                    readFixedStrideParallel((MappedByteInput) input,
+                        targetType, count, decoder,
+                        (ColumnarPlyTarget) plyTarget);
+                }
+                else
+                {
+                    readFixedStride(input, targetType, count, decoder,
+                        indices != null, plyTarget);
+                }
+                continue;
+            }
+
+            List<BinaryPropertyReader> propertyReaders = createPropertyReaders(
+                elementDescriptor, useListBuffers, indices);
+            List<BinarySizeReader> sizeReaders =
                 createSizeReaders(elementDescriptor);
 
-            int count = counts.get(t);
-            plyTarget.startElementList(t, count);
+            plyTarget.startElementList(targetType, count);
             for (int e = 0; e < count; e++)
             {
-                plyTarget.startElement(t, e);
+                plyTarget.startElement(targetType, e);
 
                 for (int p = 0; p < propertyReaders.size(); p++)
                 {
                     BinaryPropertyReader propertyReader =
                         propertyReaders.get(p);
-                    Function<InputStream, Number> sizeReader =
-                        sizeReaders.get(p);
-                    propertyReader.read(inputStream, t, e, p, sizeReader,
-                        plyTarget);
+                    BinarySizeReader sizeReader = sizeReaders.get(p);
+                    int targetIndex = indices == null ? p : indices[p];
+                    propertyReader.read(input, targetType, e, targetIndex,
+                        sizeReader, plyTarget);
+                }
+                plyTarget.endElement(targetType, e);
+            }
+            plyTarget.endElementList(targetType);
+        }
+    }
+
+    /**
+     * Skip the given number of elements with the given
+     * {@link ElementDescriptor}, without decoding them.
+     * 
+     * If the element type only contains scalar properties, then the bytes
+     * of all elements are skipped at once. Otherwise, only the sizes of the
+     * lists are read, and all other bytes are skipped.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param count The number of elements
+     * @throws IOException If an IO error occurs
+     */
+    private static void skipElements(ByteInput input,
+        ElementDescriptor elementDescriptor, int count) throws IOException
+    {
+        int stride = ElementDescriptors.computeStride(elementDescriptor);
+        if (stride >= 0)
+        {
+            input.skip((long) count * stride);
+            return;
+        }
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int numProperties = propertyDescriptors.size();
+        int sizes[] = new int[numProperties];
+        BinarySizeReader sizeReaders[] = new BinarySizeReader[numProperties];
+        for (int p = 0; p < numProperties; p++)
+        {
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
+            sizes[p] = PlyType.getSize(propertyDescriptor.getType());
+            PlyType sizeType = propertyDescriptor.getSizeType();
+            if (sizeType != null)
+            {
+                sizeReaders[p] = createSizeReader(sizeType);
+            }
+        }
+        for (int e = 0; e < count; e++)
+        {
+            long skipped = 0;
+            for (int p = 0; p < numProperties; p++)
+            {
+                if (sizeReaders[p] == null)
+                {
+                    skipped += sizes[p];
+                    continue;
+                }
+                input.skip(skipped);
+                int numElements = sizeReaders[p].read(input);
+                if (numElements < 0)
+                {
+                    throw new IOException("Invalid list size: " + numElements);
                 }
-                plyTarget.endElement(t, e);
+                skipped = (long) numElements * sizes[p];
+            }
+            input.skip(skipped);
+        }
+    }
+
+    /**
+     * Read the elements of the specified type, which only contains scalar
+     * properties, with the given {@link FixedStrideDecoder}, and pass them
+     * to the given {@link PlyTarget}.
+     * 
+     * The elements are decoded in blocks, directly from the buffer of the
+     * given input. If the target is a {@link ColumnarPlyTarget}, then the
+     * values are written directly into its columns. If the target is an
+     * {@link ObjectPlyTarget}, then the values are passed directly to the
+     * setters of its objects. If the target is a {@link RawPlyTarget}, and
+     * not only selected properties are decoded, then the blocks are passed
+     * to the target without being decoded. If the target is a
+     * {@link BatchPlyTarget}, then each block is decoded into reused
+     * columns, which are passed to the target as one batch.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementTypeIndex The element type index
+     * @param count The number of elements
+     * @param decoder The {@link FixedStrideDecoder}
+     * @param selected Whether the decoder only decodes selected properties
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readFixedStride(ByteInput input, int elementTypeIndex,
+        int count, FixedStrideDecoder decoder, boolean selected,
+        PlyTarget plyTarget) throws IOException
+    {
+        int t = elementTypeIndex;
+        plyTarget.startElementList(t, count);
+        Object columns[] = null;
+        if (plyTarget instanceof ColumnarPlyTarget)
+        {
+            ColumnarPlyTarget columnarPlyTarget = (ColumnarPlyTarget) plyTarget;
+            columns = columnarPlyTarget.getCurrentColumns();
+        }
+        ObjectPlyTarget objectPlyTarget = null;
+        if (plyTarget instanceof ObjectPlyTarget)
+        {
+            objectPlyTarget = (ObjectPlyTarget) plyTarget;
+        }
+        RawPlyTarget rawPlyTarget = null;
+        if (plyTarget instanceof RawPlyTarget && !selected)
+        {
+            rawPlyTarget = (RawPlyTarget) plyTarget;
+        }
+        int stride = decoder.getStride();
+        int maxBlockSize = decoder.getMaxBlockSize();
+        BatchPlyTarget batchPlyTarget = null;
+        Object batchColumns[] = null;
+        if (plyTarget instanceof BatchPlyTarget)
+        {
+            batchPlyTarget = (BatchPlyTarget) plyTarget;
+            batchColumns =
+                Batches.createColumns(decoder.getTypes(), maxBlockSize);
+        }
+        int e = 0;
+        while (e < count)
+        {
+            if (input.buffer.remaining() < stride)
+            {
+                input.require(stride);
+            }
+            ByteBuffer buffer = input.buffer;
+            int n = Math.min(count - e,
+                Math.min(maxBlockSize, buffer.remaining() / stride));
+            int position = buffer.position();
+            if (rawPlyTarget != null)
+            {
+                rawPlyTarget.handleRawElements(t, e, n, buffer, position);
+            }
+            else if (columns != null)
+            {
+                decoder.decode(buffer, position, e, n, columns);
+            }
+            else if (objectPlyTarget != null)
+            {
+                objectPlyTarget.decodeRecords(decoder, buffer, position, t, e,
+                    n);
+            }
+            else if (batchPlyTarget != null)
+            {
+                decoder.decode(buffer, position, 0, n, batchColumns);
+                Batches.handleColumns(batchPlyTarget, t, e,
+                    decoder.getTypes(), batchColumns, n);
+            }
+            else
+            {
+                decoder.decode(buffer, position, t, e, n, plyTarget);
+            }
+            buffer.position(position + n * stride);
+            e += n;
+        }
+        plyTarget.endElementList(t);
+    }
+
+    /**
+     * Read the elements of the specified type, which only contains scalar
+     * properties, with the given {@link FixedStrideDecoder}, and store them
+     * in the columns of the given {@link ColumnarPlyTarget}.
+     * 
+     * The region of the file that contains the elements is mapped in
+     * windows, and each window is split into chunks that are decoded in
+     * parallel, using the executor service. Afterwards, the position of the
+     * given input will be the position after the last element.
+     * 
+     * @param input The {@link MappedByteInput}
+     * @param elementTypeIndex The element type index
+     * @param count The number of elements
+     * @param decoder The {@link FixedStrideDecoder}
+     * @param plyTarget The {@link ColumnarPlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private void readFixedStrideParallel(MappedByteInput input,
+        int elementTypeIndex, int count, FixedStrideDecoder decoder,
+        ColumnarPlyTarget plyTarget) throws IOException
+    {
+        int t = elementTypeIndex;
+        int stride = decoder.getStride();
+        long start = input.position();
+        input.skip((long) count * stride);
+
+        plyTarget.startElementList(t, count);
+        Object columns[] = plyTarget.getCurrentColumns();
+        FileChannel fileChannel = input.getFileChannel();
+        int windowElements = input.capacity() / stride;
+        int chunkElements = Math.max(1, PARALLEL_CHUNK_BYTES / stride);
+        for (int w = 0; w < count; w += windowElements)
+        {
+            int windowStartElement = w;
+            int windowCount = Math.min(windowElements, count - w);
+            ByteBuffer buffer = fileChannel.map(MapMode.READ_ONLY,
+                start + (long) w * stride, (long) windowCount * stride);
+            buffer.order(byteOrder);
+
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int c = 0; c < windowCount; c += chunkElements)
+            {
+                int position = c * stride;
+                int firstElementIndex = windowStartElement + c;
+                int n = Math.min(chunkElements, windowCount - c);
+                futures.add(executorService.submit(() -> decodeBlocks(
+                    decoder, buffer, position, firstElementIndex, n, columns)));
             }
-            plyTarget.endElementList(t);
+            ParallelTasks.await(futures);
+        }
+        plyTarget.endElementList(t);
+    }
+
+    /**
+     * Decode the specified elements from the given buffer into the given
+     * columns, in blocks of the maximum block size of the given decoder.
+     * 
+     * @param decoder The {@link FixedStrideDecoder}
+     * @param buffer The buffer
+     * @param position The position of the first element in the buffer
+     * @param firstElementIndex The index of the first element
+     * @param n The number of elements
+     * @param columns The columns
+     */
+    private static void decodeBlocks(FixedStrideDecoder decoder,
+        ByteBuffer buffer, int position, int firstElementIndex, int n,
+        Object columns[])
+    {
+        int stride = decoder.getStride();
+        int maxBlockSize = decoder.getMaxBlockSize();
+        int i = 0;
+        while (i < n)
+        {
+            int blockSize = Math.min(maxBlockSize, n - i);
+            decoder.decode(buffer, position + i * stride,
+                firstElementIndex + i, blockSize, columns);
+            i += blockSize;
         }
     }
 
     /**
-     * Create functions for reading the size of each property of the given
-     * {@link ElementDescriptor} from an input stream
+     * Create {@link BinarySizeReader} instances for reading the size of each
+     * property of the given {@link ElementDescriptor}. The resulting list will
+     * contain <code>null</code> for all properties that are not list
+     * properties.
      * 
      * @param elementDescriptor The {@link ElementDescriptor}
-     * @return The functions
+     * @return The {@link BinarySizeReader} objects
      */
-    private List<Function<InputStream, Number>>
+    private static List<BinarySizeReader>
         createSizeReaders(ElementDescriptor elementDescriptor)
     {
-        List<Function<InputStream, Number>> sizeReaders =
-            new ArrayList<Function<InputStream, Number>>();
+        List<BinarySizeReader> sizeReaders = new ArrayList<BinarySizeReader>();
 
         List<PropertyDescriptor> propertyDescriptors =
             elementDescriptor.getPropertyDescriptors();
@@ -158,8 +534,7 @@ class BinaryPlyContentReader
             PlyType sizeType = propertyDescriptor.getSizeType();
             if (sizeType != null)
             {
-                Function<InputStream, Number> sizeReader =
-                    createSizeReader(sizeType);
+                BinarySizeReader sizeReader = createSizeReader(sizeType);
                 sizeReaders.add(sizeReader);
             }
             else
@@ -171,75 +546,51 @@ class BinaryPlyContentReader
     }
 
     /**
-     * Creates a function that reads a value from an input stream that matches
-     * the given size type.
+     * Creates a {@link BinarySizeReader} that reads a value that matches the
+     * given size type.
      * 
      * If the given type is not a valid size type, then a warning will be
      * printed and <code>null</code> will be returned.
      * 
-     * The function will re-throw any IO exception as an unchecked IO exception.
-     * 
      * @param sizeType The size type
-     * @return The function
+     * @return The {@link BinarySizeReader}
      */
-    private Function<InputStream, Number> createSizeReader(PlyType sizeType)
+    static BinarySizeReader createSizeReader(PlyType sizeType)
     {
         if (sizeType == PlyType.UCHAR || sizeType == PlyType.CHAR)
         {
-            return inputStream ->
-            {
-                try
-                {
-                    return Byte.toUnsignedInt(readByte(inputStream));
-                }
-                catch (IOException e)
-                {
-                    throw new UncheckedIOException(e);
-                }
-            };
+            return ByteInput::readUnsignedByte;
         }
         if (sizeType == PlyType.USHORT || sizeType == PlyType.SHORT)
         {
-            return inputStream ->
-            {
-                try
-                {
-                    return Short.toUnsignedInt(readShort(inputStream));
-                }
-                catch (IOException e)
-                {
-                    throw new UncheckedIOException(e);
-                }
-            };
+            return ByteInput::readUnsignedShort;
         }
         if (sizeType == PlyType.UINT || sizeType == PlyType.INT)
         {
-            return inputStream ->
-            {
-                try
-                {
-                    return readInt(inputStream);
-                }
-                catch (IOException e)
-                {
-                    throw new UncheckedIOException(e);
-                }
-            };
+            return ByteInput::readInt;
         }
         logger.severe("Invalid size type: " + sizeType);
         return null;
-
     }
 
     /**
      * Create one {@link BinaryPropertyReader} for each property of the given
-     * {@link ElementDescriptor}
+     * {@link ElementDescriptor}.
+     * 
+     * For properties that should be skipped, as indicated by a negative
+     * value in the given property indices, the reader only skips the bytes
+     * of the property.
      * 
      * @param elementDescriptor The {@link ElementDescriptor}
+     * @param useListBuffers Whether the list properties should be passed to
+     *        a {@link ListBufferPlyTarget} in reused buffers
+     * @param indices The property indices, or <code>null</code> if all
+     *        properties should be read
      * @return The {@link BinaryPropertyReader} objects
      */
-    private List<BinaryPropertyReader>
-        createPropertyReaders(ElementDescriptor elementDescriptor)
+    private List<BinaryPropertyReader> createPropertyReaders(
+        ElementDescriptor elementDescriptor, boolean useListBuffers,
+        int indices[])
     {
         List<BinaryPropertyReader> propertyReaders =
             new ArrayList<BinaryPropertyReader>();
@@ -251,14 +602,43 @@ class BinaryPlyContentReader
             PropertyDescriptor propertyDescriptor = propertyDescriptors.get(i);
             PlyType type = propertyDescriptor.getType();
             PlyType sizeType = propertyDescriptor.getSizeType();
+            if (indices != null && indices[i] < 0)
+            {
+                propertyReaders.add(createSkippingReader(type, sizeType));
+                continue;
+            }
             BinaryPropertyReader propertyReader =
-                createPropertyReader(type, sizeType);
+                createPropertyReader(type, sizeType, useListBuffers);
             propertyReaders.add(propertyReader);
         }
 
         return propertyReaders;
     }
 
+    /**
+     * Create a {@link BinaryPropertyReader} that skips a property with the
+     * given type and size type, without passing it to the target. For list
+     * properties, only the size of the list is read.
+     * 
+     * @param type The type
+     * @param sizeType The size type
+     * @return The {@link BinaryPropertyReader}
+     */
+    private static BinaryPropertyReader createSkippingReader(PlyType type,
+        PlyType sizeType)
+    {
+        int size = PlyType.getSize(type);
+        if (sizeType == null)
+        {
+            return (input, t, e, p, sizeReader, plyTarget) -> input.skip(size);
+        }
+        return (input, t, e, p, sizeReader, plyTarget) ->
+        {
+            int numElements = readSize(input, sizeReader);
+            input.skip((long) numElements * size);
+        };
+    }
+
     /**
      * Create a {@link BinaryPropertyReader} for the given type and size type.
      * 
@@ -267,10 +647,12 @@ class BinaryPlyContentReader
      * 
      * @param type The type
      * @param sizeType The size type
+     * @param useListBuffers Whether the list properties should be passed to
+     *        a {@link ListBufferPlyTarget} in reused buffers
      * @return The {@link BinaryPropertyReader}
      */
     private BinaryPropertyReader createPropertyReader(PlyType type,
-        PlyType sizeType)
+        PlyType sizeType, boolean useListBuffers)
     {
         if (sizeType == null)
         {
@@ -278,17 +660,41 @@ class BinaryPlyContentReader
             {
                 case UCHAR:
                 case CHAR:
-                    return this::readChar;
+                    return BinaryPlyContentReader::readChar;
+                case USHORT:
+                case SHORT:
+                    return BinaryPlyContentReader::readShort;
+                case UINT:
+                case INT:
+                    return BinaryPlyContentReader::readInt;
+                case FLOAT:
+                    return BinaryPlyContentReader::readFloat;
+                case DOUBLE:
+                    return BinaryPlyContentReader::readDouble;
+                default:
+                    break;
+            }
+            logger.severe("Unknown property type: " + type);
+            return null;
+        }
+
+        if (useListBuffers)
+        {
+            switch (type)
+            {
+                case UCHAR:
+                case CHAR:
+                    return this::readCharListBuffer;
                 case USHORT:
                 case SHORT:
-                    return this::readShort;
+                    return this::readShortListBuffer;
                 case UINT:
                 case INT:
-                    return this::readInt;
+                    return this::readIntListBuffer;
                 case FLOAT:
-                    return this::readFloat;
+                    return this::readFloatListBuffer;
                 case DOUBLE:
-                    return this::readDouble;
+                    return this::readDoubleListBuffer;
                 default:
                     break;
             }
@@ -300,17 +706,17 @@ class BinaryPlyContentReader
         {
             case UCHAR:
             case CHAR:
-                return this::readCharList;
+                return BinaryPlyContentReader::readCharList;
             case USHORT:
             case SHORT:
-                return this::readShortList;
+                return BinaryPlyContentReader::readShortList;
             case UINT:
             case INT:
-                return this::readIntList;
+                return BinaryPlyContentReader::readIntList;
             case FLOAT:
-                return this::readFloatList;
+                return BinaryPlyContentReader::readFloatList;
             case DOUBLE:
-                return this::readDoubleList;
+                return BinaryPlyContentReader::readDoubleList;
             default:
                 break;
         }
@@ -318,76 +724,12 @@ class BinaryPlyContentReader
         return null;
     }
 
-    /**
-     * Read a byte from the given input stream.
-     * 
-     * @param inputStream The input stream
-     * @return The result
-     * @throws IOException If an IO error occurs
-     */
-    private byte readByte(InputStream inputStream) throws IOException
-    {
-        return (byte) inputStream.read();
-    }
-
-    /**
-     * Read a short from the given input stream.
-     * 
-     * @param inputStream The input stream
-     * @return The result
-     * @throws IOException If an IO error occurs
-     */
-    private short readShort(InputStream inputStream) throws IOException
-    {
-        IO.read(inputStream, byteArray, 2);
-        return byteBuffer.getShort(0);
-    }
-
-    /**
-     * Read an int from the given input stream.
-     * 
-     * @param inputStream The input stream
-     * @return The result
-     * @throws IOException If an IO error occurs
-     */
-    private int readInt(InputStream inputStream) throws IOException
-    {
-        IO.read(inputStream, byteArray, 4);
-        return byteBuffer.getInt(0);
-    }
-
-    /**
-     * Read a float from the given input stream.
-     * 
-     * @param inputStream The input stream
-     * @return The result
-     * @throws IOException If an IO error occurs
-     */
-    private float readFloat(InputStream inputStream) throws IOException
-    {
-        IO.read(inputStream, byteArray, 4);
-        return byteBuffer.getFloat(0);
-    }
-
-    /**
-     * Read a double from the given input stream.
-     * 
-     * @param inputStream The input stream
-     * @return The result
-     * @throws IOException If an IO error occurs
-     */
-    private double readDouble(InputStream inputStream) throws IOException
-    {
-        IO.read(inputStream, byteArray, 8);
-        return byteBuffer.getDouble(0);
-    }
-
     /**
      * Read the specified element data.
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -395,11 +737,11 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readChar(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex, Object sizeReader,
+    private static void readChar(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
         PlyTarget plyTarget) throws IOException
     {
-        byte value = readByte(inputStream);
+        byte value = input.readByte();
         plyTarget.handleCharProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
     }
@@ -409,7 +751,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -417,11 +759,11 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readShort(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex, Object sizeReader,
+    private static void readShort(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
         PlyTarget plyTarget) throws IOException
     {
-        short value = readShort(inputStream);
+        short value = input.readShort();
         plyTarget.handleShortProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
     }
@@ -431,7 +773,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -439,11 +781,11 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readInt(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex, Object sizeReader,
+    private static void readInt(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
         PlyTarget plyTarget) throws IOException
     {
-        int value = readInt(inputStream);
+        int value = input.readInt();
         plyTarget.handleIntProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
     }
@@ -453,7 +795,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -461,11 +803,11 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readFloat(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex, Object sizeReader,
+    private static void readFloat(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
         PlyTarget plyTarget) throws IOException
     {
-        float value = readFloat(inputStream);
+        float value = input.readFloat();
         plyTarget.handleFloatProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
     }
@@ -475,7 +817,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -483,11 +825,11 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readDouble(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex, Object sizeReader,
+    private static void readDouble(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
         PlyTarget plyTarget) throws IOException
     {
-        double value = readDouble(inputStream);
+        double value = input.readDouble();
         plyTarget.handleDoubleProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
     }
@@ -497,7 +839,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -505,17 +847,16 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readCharList(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex,
-        Function<InputStream, Number> sizeReader, PlyTarget plyTarget)
+    private static void readCharList(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
         throws IOException
     {
-        Number n = sizeReader.apply(inputStream);
-        int numElements = n.intValue();
+        int numElements = readSize(input, sizeReader);
         byte value[] = new byte[numElements];
         for (int i = 0; i < numElements; i++)
         {
-            value[i] = readByte(inputStream);
+            value[i] = input.readByte();
         }
         plyTarget.handleCharListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
@@ -526,7 +867,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -534,17 +875,16 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readShortList(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex,
-        Function<InputStream, Number> sizeReader, PlyTarget plyTarget)
+    private static void readShortList(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
         throws IOException
     {
-        Number n = sizeReader.apply(inputStream);
-        int numElements = n.intValue();
+        int numElements = readSize(input, sizeReader);
         short value[] = new short[numElements];
         for (int i = 0; i < numElements; i++)
         {
-            value[i] = readShort(inputStream);
+            value[i] = input.readShort();
         }
         plyTarget.handleShortListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
@@ -555,7 +895,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -563,17 +903,16 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readIntList(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex,
-        Function<InputStream, Number> sizeReader, PlyTarget plyTarget)
+    private static void readIntList(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
         throws IOException
     {
-        Number n = sizeReader.apply(inputStream);
-        int numElements = n.intValue();
+        int numElements = readSize(input, sizeReader);
         int value[] = new int[numElements];
         for (int i = 0; i < numElements; i++)
         {
-            value[i] = readInt(inputStream);
+            value[i] = input.readInt();
         }
         plyTarget.handleIntListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
@@ -584,7 +923,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -592,17 +931,16 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readFloatList(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex,
-        Function<InputStream, Number> sizeReader, PlyTarget plyTarget)
+    private static void readFloatList(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
         throws IOException
     {
-        Number n = sizeReader.apply(inputStream);
-        int numElements = n.intValue();
+        int numElements = readSize(input, sizeReader);
         float value[] = new float[numElements];
         for (int i = 0; i < numElements; i++)
         {
-            value[i] = readFloat(inputStream);
+            value[i] = input.readFloat();
         }
         plyTarget.handleFloatListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
@@ -613,7 +951,7 @@ class BinaryPlyContentReader
      * 
      * To be used as an implementation of {@link BinaryPropertyReader}.
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -621,20 +959,198 @@ class BinaryPlyContentReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    private void readDoubleList(InputStream inputStream, int elementTypeIndex,
-        int elementIndex, int propertyIndex,
-        Function<InputStream, Number> sizeReader, PlyTarget plyTarget)
+    private static void readDoubleList(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
         throws IOException
     {
-        Number n = sizeReader.apply(inputStream);
-        int numElements = n.intValue();
+        int numElements = readSize(input, sizeReader);
         double value[] = new double[numElements];
         for (int i = 0; i < numElements; i++)
         {
-            value[i] = readDouble(inputStream);
+            value[i] = input.readDouble();
         }
         plyTarget.handleDoubleListProperty(elementTypeIndex, elementIndex,
             propertyIndex, value);
     }
 
+    /**
+     * Read the size of a list with the given {@link BinarySizeReader}
+     * 
+     * @param input The {@link ByteInput}
+     * @param sizeReader The {@link BinarySizeReader}
+     * @return The size
+     * @throws IOException If an IO error occurs, or the size is negative
+     */
+    private static int readSize(ByteInput input, BinarySizeReader sizeReader)
+        throws IOException
+    {
+        int numElements = sizeReader.read(input);
+        if (numElements < 0)
+        {
+            throw new IOException("Invalid list size: " + numElements);
+        }
+        return numElements;
+    }
+
+    /**
+     * Read the specified element data into a reused buffer, and pass it to
+     * the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link BinaryPropertyReader}.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param sizeReader A function for reading the size of lists
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException if an IO error occurs
+     */
+    private void readCharListBuffer(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
+        throws IOException
+    {
+        int numElements = readSize(input, sizeReader);
+        byte buffer[] = listBuffers.getCharBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
+        {
+            buffer[i] = input.readByte();
+        }
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleCharListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified element data into a reused buffer, and pass it to
+     * the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link BinaryPropertyReader}.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param sizeReader A function for reading the size of lists
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException if an IO error occurs
+     */
+    private void readShortListBuffer(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
+        throws IOException
+    {
+        int numElements = readSize(input, sizeReader);
+        short buffer[] = listBuffers.getShortBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
+        {
+            buffer[i] = input.readShort();
+        }
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleShortListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified element data into a reused buffer, and pass it to
+     * the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link BinaryPropertyReader}.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param sizeReader A function for reading the size of lists
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException if an IO error occurs
+     */
+    private void readIntListBuffer(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
+        throws IOException
+    {
+        int numElements = readSize(input, sizeReader);
+        int buffer[] = listBuffers.getIntBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
+        {
+            buffer[i] = input.readInt();
+        }
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleIntListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified element data into a reused buffer, and pass it to
+     * the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link BinaryPropertyReader}.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param sizeReader A function for reading the size of lists
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException if an IO error occurs
+     */
+    private void readFloatListBuffer(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
+        throws IOException
+    {
+        int numElements = readSize(input, sizeReader);
+        float buffer[] = listBuffers.getFloatBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
+        {
+            buffer[i] = input.readFloat();
+        }
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleFloatListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
+    /**
+     * Read the specified element data into a reused buffer, and pass it to
+     * the given {@link PlyTarget}, which must be a
+     * {@link ListBufferPlyTarget}.
+     * 
+     * To be used as an implementation of {@link BinaryPropertyReader}.
+     * 
+     * @param input The {@link ByteInput}
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The element index
+     * @param propertyIndex The property index
+     * @param sizeReader A function for reading the size of lists
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException if an IO error occurs
+     */
+    private void readDoubleListBuffer(ByteInput input, int elementTypeIndex,
+        int elementIndex, int propertyIndex, BinarySizeReader sizeReader,
+        PlyTarget plyTarget)
+        throws IOException
+    {
+        int numElements = readSize(input, sizeReader);
+        double buffer[] = listBuffers.getDoubleBuffer(numElements);
+        for (int i = 0; i < numElements; i++)
+        {
+            buffer[i] = input.readDouble();
+        }
+        ListBufferPlyTarget listBufferPlyTarget =
+            (ListBufferPlyTarget) plyTarget;
+        listBufferPlyTarget.handleDoubleListProperty(elementTypeIndex,
+            elementIndex, propertyIndex, buffer, numElements);
+    }
+
 }
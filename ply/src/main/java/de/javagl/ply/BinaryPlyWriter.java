@@ -26,14 +26,27 @@
  */
 package de.javagl.ply;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.function.BiConsumer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 import java.util.logging.Logger;
 
 /**
@@ -47,56 +60,184 @@ class BinaryPlyWriter implements PlyWriter
     private static final Logger logger =
         Logger.getLogger(BinaryPlyWriter.class.getName());
 
+    /**
+     * The minimum number of bytes for one chunk of elements that is encoded
+     * by one task when encoding in parallel
+     */
+    private static final int PARALLEL_CHUNK_BYTES = 1 << 22;
+
+    /**
+     * The maximum number of chunks that may be encoded or waiting to be
+     * written at the same time when encoding in parallel. This limits the
+     * memory that is required for the chunk buffers.
+     */
+    private static final int MAX_PENDING_CHUNKS = 16;
+
+    /**
+     * Interface for the tasks that encode one chunk of elements into a
+     * buffer when encoding in parallel
+     */
+    private interface ChunkEncoder
+    {
+        /**
+         * Encode the specified elements into the given buffer, starting at
+         * index 0 of the buffer.
+         * 
+         * @param firstElementIndex The index of the first element
+         * @param n The number of elements
+         * @param buffer The buffer
+         * @throws IOException If an IO error occurs
+         */
+        void encode(int firstElementIndex, int n, ByteBuffer buffer)
+            throws IOException;
+    }
+
     /**
      * Whether little-endian byte order should be used
      */
     private final boolean littleEndian;
 
     /**
-     * A byte buffer for writing property values
+     * The executor service that is used for encoding elements in parallel.
+     * This may be <code>null</code>, causing all elements to be encoded
+     * sequentially.
      */
-    private final byte byteArray[];
+    private final ExecutorService executorService;
 
     /**
-     * A byte buffer wrapped around the byte array, to handle the endianness.
+     * Creates a new instance
+     * 
+     * @param littleEndian Whether little-endian should be used
      */
-    private final ByteBuffer byteBuffer;
+    BinaryPlyWriter(boolean littleEndian)
+    {
+        this(littleEndian, null);
+    }
 
     /**
      * Creates a new instance
      * 
      * @param littleEndian Whether little-endian should be used
+     * @param executorService The optional executor service for encoding
+     *        elements in parallel
      */
-    BinaryPlyWriter(boolean littleEndian)
+    BinaryPlyWriter(boolean littleEndian, ExecutorService executorService)
     {
         this.littleEndian = littleEndian;
-        this.byteArray = new byte[8];
-        this.byteBuffer = ByteBuffer.wrap(byteArray);
-        if (littleEndian)
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void write(PlySource plySource, OutputStream outputStream)
+        throws IOException
+    {
+        if (plySource instanceof ArrayPlySource)
         {
-            this.byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            ((ArrayPlySource) plySource).validate();
         }
+        PlyWriters.writeHeader(plySource, getFormat(), outputStream);
+        ByteOutput output = new StreamByteOutput(outputStream, getByteOrder(),
+            ByteOutput.DEFAULT_BUFFER_SIZE);
+        writeContent(plySource, output);
+        output.flush();
     }
 
     @Override
-    public void write(PlySource plySource, OutputStream outputStream)
+    public void write(PlySource plySource, WritableByteChannel channel)
+        throws IOException
+    {
+        if (plySource instanceof ArrayPlySource)
+        {
+            ((ArrayPlySource) plySource).validate();
+        }
+        // The header is written into the staging buffer of the output, so
+        // that it is written to the channel together with the first content
+        ByteArrayOutputStream headerStream = new ByteArrayOutputStream();
+        PlyWriters.writeHeader(plySource, getFormat(), headerStream);
+        byte header[] = headerStream.toByteArray();
+        ByteOutput output = new ChannelByteOutput(channel, getByteOrder(),
+            ByteOutput.DEFAULT_BUFFER_SIZE);
+        output.writeBytes(header, 0, header.length);
+        writeContent(plySource, output);
+        output.flush();
+    }
+
+    @Override
+    public void write(PlySource plySource, Path path) throws IOException
+    {
+        try (FileChannel fileChannel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE))
+        {
+            write(plySource, fileChannel);
+        }
+    }
+
+    /**
+     * Returns the format string for the header
+     * 
+     * @return The format string
+     */
+    private String getFormat()
+    {
+        return littleEndian ? "binary_little_endian" : "binary_big_endian";
+    }
+
+    /**
+     * Returns the byte order of the binary data
+     * 
+     * @return The byte order
+     */
+    private ByteOrder getByteOrder()
+    {
+        return littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public PlyStreamWriter open(Descriptor descriptor,
+        List<Integer> elementCounts, OutputStream outputStream)
+        throws IOException
+    {
+        Objects.requireNonNull(outputStream,
+            "The outputStream may not be null");
+        PlyStreamWriter plyStreamWriter =
+            new StreamWriter(descriptor, elementCounts, new StreamByteOutput(
+                outputStream, getByteOrder(), ByteOutput.DEFAULT_BUFFER_SIZE));
+        PlyWriters.writeHeader(descriptor, elementCounts, getFormat(),
+            outputStream);
+        return plyStreamWriter;
+    }
+
+    @Override
+    public PlyStreamWriter open(Descriptor descriptor, FileChannel fileChannel)
         throws IOException
     {
-        String format =
-            littleEndian ? "binary_little_endian" : "binary_big_endian";
-        PlyWriters.writeHeader(plySource, format, outputStream);
-        writeContent(plySource, outputStream);
+        Objects.requireNonNull(descriptor, "The descriptor may not be null");
+        Objects.requireNonNull(fileChannel, "The fileChannel may not be null");
+        long countPositions[] =
+            new long[descriptor.getElementDescriptors().size()];
+        byte header[] = PlyWriters.createDeferredHeader(descriptor,
+            getFormat(), countPositions);
+        long headerPosition = fileChannel.position();
+        for (int t = 0; t < countPositions.length; t++)
+        {
+            countPositions[t] += headerPosition;
+        }
+        ByteOutput output = new ChannelByteOutput(fileChannel,
+            getByteOrder(), ByteOutput.DEFAULT_BUFFER_SIZE);
+        output.writeBytes(header, 0, header.length);
+        return new StreamWriter(descriptor, fileChannel, countPositions,
+            output);
     }
 
     /**
      * Write the content of the given {@link PlySource} into the given output
-     * stream
      * 
      * @param plySource The {@link PlySource}
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeContent(PlySource plySource, OutputStream outputStream)
+    private void writeContent(PlySource plySource, ByteOutput output)
         throws IOException
     {
         Descriptor descriptor = plySource.getDescriptor();
@@ -105,161 +246,549 @@ class BinaryPlyWriter implements PlyWriter
         for (int t = 0; t < elementDescriptors.size(); t++)
         {
             ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            FixedStrideEncoder encoder =
+                FixedStrideEncoder.create(elementDescriptor);
+            if (plySource instanceof ArrayPlySource)
+            {
+                ArrayPlySource arrayPlySource = (ArrayPlySource) plySource;
+                Object columns[] = arrayPlySource.getColumns(t);
+                if (columns != null)
+                {
+                    writeColumns(elementDescriptor, encoder,
+                        arrayPlySource.getElementCount(t), columns, output);
+                }
+                continue;
+            }
+            if (plySource instanceof ObjectPlySource)
+            {
+                ObjectPlySource objectPlySource = (ObjectPlySource) plySource;
+                Object columns[] = objectPlySource.getColumns(t);
+                if (columns != null)
+                {
+                    writeColumns(elementDescriptor, encoder,
+                        objectPlySource.getElementCount(t), columns, output);
+                    continue;
+                }
+            }
             String elementName = elementDescriptor.getName();
+            List<Element> elementList = plySource.getElementList(elementName);
+            if (elementList != null)
+            {
+                writeElements(elementDescriptor, encoder, elementList,
+                    output);
+            }
+        }
+    }
 
-            List<BinaryPropertyWriter> propertyWriters =
-                createBinaryPropertyWriters(elementDescriptor);
+    /**
+     * Write the elements that are given by the columns of an
+     * {@link ArrayPlySource} or an {@link ObjectPlySource} into the given
+     * output, encoding them in parallel if possible
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param encoder The {@link FixedStrideEncoder}, or <code>null</code> if
+     *        the element type contains list properties
+     * @param elementCount The number of elements
+     * @param columns The columns
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private void writeColumns(ElementDescriptor elementDescriptor,
+        FixedStrideEncoder encoder, int elementCount, Object columns[],
+        ByteOutput output) throws IOException
+    {
+        if (isParallel(encoder, elementCount))
+        {
+            writeParallel(encoder.getStride(), elementCount,
+                (first, n, buffer) -> encoder.encode(
+                    buffer, 0, first, n, columns),
+                output);
+        }
+        else
+        {
+            encodeColumns(elementDescriptor, encoder, elementCount,
+                columns, output);
+        }
+    }
 
-            List<BiConsumer<Integer, OutputStream>> sizeWriters =
-                createSizeWriters(elementDescriptor);
+    /**
+     * Write the given elements into the given output, encoding them in
+     * parallel if possible
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param encoder The {@link FixedStrideEncoder}, or <code>null</code> if
+     *        the element type contains list properties
+     * @param elementList The elements
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private void writeElements(ElementDescriptor elementDescriptor,
+        FixedStrideEncoder encoder, List<Element> elementList,
+        ByteOutput output) throws IOException
+    {
+        if (elementList instanceof RandomAccess
+            && isParallel(encoder, elementList.size()))
+        {
+            writeParallel(encoder.getStride(), elementList.size(),
+                (first, n, buffer) -> encodeElements(elementDescriptor,
+                    elementList.subList(first, first + n),
+                    new BufferByteOutput(buffer)),
+                output);
+        }
+        else
+        {
+            encodeElements(elementDescriptor, elementList, output);
+        }
+    }
 
-            List<PropertyDescriptor> propertyDescriptors =
-                elementDescriptor.getPropertyDescriptors();
+    /**
+     * Returns whether the elements of a type with the given encoder should
+     * be encoded in parallel. This is the case when an executor service was
+     * given, the element type only contains scalar properties, and the
+     * elements occupy more than one chunk.
+     * 
+     * @param encoder The {@link FixedStrideEncoder}, or <code>null</code> if
+     *        the element type contains list properties
+     * @param elementCount The number of elements
+     * @return Whether the elements should be encoded in parallel
+     */
+    private boolean isParallel(FixedStrideEncoder encoder, int elementCount)
+    {
+        if (executorService == null || encoder == null)
+        {
+            return false;
+        }
+        long bytes = (long) elementCount * encoder.getStride();
+        return bytes > PARALLEL_CHUNK_BYTES;
+    }
 
-            List<Element> elementList = plySource.getElementList(elementName);
-            for (int e = 0; e < elementList.size(); e++)
+    /**
+     * Encode the specified elements in parallel, and write them into the
+     * given output.
+     * 
+     * The elements are split into chunks that are encoded by tasks of the
+     * executor service, each into its own buffer. The buffers are written
+     * into the output in the order of the chunks, and re-used for later
+     * chunks. At most {@link #MAX_PENDING_CHUNKS} chunks are pending at the
+     * same time.
+     * 
+     * @param stride The number of bytes of one element
+     * @param elementCount The number of elements
+     * @param chunkEncoder The {@link ChunkEncoder}
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs, or one of the tasks failed
+     */
+    private void writeParallel(int stride, int elementCount,
+        ChunkEncoder chunkEncoder, ByteOutput output) throws IOException
+    {
+        int chunkSize = Math.max(1, PARALLEL_CHUNK_BYTES / stride);
+        ByteOrder byteOrder = getByteOrder();
+        Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+        Deque<Future<ByteBuffer>> futures =
+            new ArrayDeque<Future<ByteBuffer>>();
+        try
+        {
+            int next = 0;
+            while (next < elementCount || !futures.isEmpty())
             {
-                Element element = elementList.get(e);
-                for (int p = 0; p < propertyDescriptors.size(); p++)
+                while (next < elementCount
+                    && futures.size() < MAX_PENDING_CHUNKS)
                 {
-                    PropertyDescriptor propertyDescriptor =
-                        propertyDescriptors.get(p);
-                    String propertyName = propertyDescriptor.getName();
-
-                    BinaryPropertyWriter propertyWriter =
-                        propertyWriters.get(p);
-                    BiConsumer<Integer, OutputStream> sizeWriter =
-                        sizeWriters.get(p);
-
-                    propertyWriter.write(element, propertyName, sizeWriter,
-                        outputStream);
+                    int first = next;
+                    int n = Math.min(chunkSize, elementCount - first);
+                    futures.add(executorService.submit(() ->
+                    {
+                        ByteBuffer buffer = buffers.poll();
+                        if (buffer == null)
+                        {
+                            buffer = ByteBuffer.allocate(chunkSize * stride);
+                            buffer.order(byteOrder);
+                        }
+                        buffer.clear();
+                        chunkEncoder.encode(first, n, buffer);
+                        buffer.limit(n * stride);
+                        return buffer;
+                    }));
+                    next += n;
                 }
+                ByteBuffer buffer = ParallelTasks.await(futures.poll());
+                output.writeBytes(buffer.array(), buffer.arrayOffset(),
+                    buffer.limit());
+                buffers.add(buffer);
             }
         }
+        finally
+        {
+            ParallelTasks.cancel(futures);
+        }
     }
 
     /**
-     * Create consumers for writing the size of each property of the given
-     * {@link ElementDescriptor} to an output stream
+     * Sequentially encode the elements that are given by the columns of an
+     * {@link ArrayPlySource} into the given output.
+     * 
+     * If the element type only contains scalar properties, then the
+     * elements are encoded in blocks with a {@link FixedStrideEncoder}.
+     * Otherwise, they are written element by element, where list properties
+     * are written directly from the data arrays of the {@link ListColumn}
+     * objects.
      * 
      * @param elementDescriptor The {@link ElementDescriptor}
-     * @return The consumers
+     * @param encoder The {@link FixedStrideEncoder}, or <code>null</code> if
+     *        the element type contains list properties
+     * @param elementCount The number of elements
+     * @param columns The columns
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
      */
-    private List<BiConsumer<Integer, OutputStream>>
-        createSizeWriters(ElementDescriptor elementDescriptor)
+    private static void encodeColumns(ElementDescriptor elementDescriptor,
+        FixedStrideEncoder encoder, int elementCount, Object columns[],
+        ByteOutput output) throws IOException
     {
-        List<BiConsumer<Integer, OutputStream>> sizeWriters =
-            new ArrayList<BiConsumer<Integer, OutputStream>>();
+        if (encoder != null && encoder.getStride() <= output.buffer.capacity())
+        {
+            int stride = encoder.getStride();
+            int maxBlockSize = Math.min(encoder.getMaxBlockSize(),
+                output.buffer.capacity() / stride);
+            int e = 0;
+            while (e < elementCount)
+            {
+                int n = Math.min(elementCount - e, maxBlockSize);
+                output.require(n * stride);
+                ByteBuffer buffer = output.buffer;
+                int position = buffer.position();
+                encoder.encode(buffer, position, e, n, columns);
+                buffer.position(position + n * stride);
+                e += n;
+            }
+            return;
+        }
 
         List<PropertyDescriptor> propertyDescriptors =
             elementDescriptor.getPropertyDescriptors();
-        for (int i = 0; i < propertyDescriptors.size(); i++)
+        int numProperties = propertyDescriptors.size();
+        PlyType types[] = new PlyType[numProperties];
+        BinarySizeWriter sizeWriters[] = new BinarySizeWriter[numProperties];
+        for (int p = 0; p < numProperties; p++)
         {
-            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(i);
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
             PlyType sizeType = propertyDescriptor.getSizeType();
+            types[p] = propertyDescriptor.getType();
             if (sizeType != null)
             {
-                BiConsumer<Integer, OutputStream> sizeWriter =
-                    createSizeWriter(sizeType);
-                sizeWriters.add(sizeWriter);
+                sizeWriters[p] = createSizeWriter(sizeType);
             }
-            else
+        }
+        for (int e = 0; e < elementCount; e++)
+        {
+            for (int p = 0; p < numProperties; p++)
             {
-                sizeWriters.add(null);
+                if (sizeWriters[p] != null)
+                {
+                    writeList((ListColumn) columns[p], e, sizeWriters[p],
+                        output);
+                }
+                else
+                {
+                    writeScalar(types[p], columns[p], e, output);
+                }
             }
         }
-        return sizeWriters;
     }
 
     /**
-     * Creates a consumer that writes an integer value into an output stream,
-     * based on the given size type.
+     * Write the given elements, which are given as raw binary data, into the
+     * given output.
      * 
-     * If the given type is not a valid size type, then a warning will be
-     * printed and <code>null</code> will be returned.
-     * 
-     * The function will re-throw any IO exception as an unchecked IO exception.
+     * The element type may only contain scalar properties. If the order of
+     * the given buffer is the same as the order of the output, then the
+     * bytes are copied directly. Otherwise, the bytes of each property value
+     * are swapped, without decoding the values.
      * 
-     * @param sizeType The size type
-     * @return The function
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param elementCount The number of elements
+     * @param buffer The buffer
+     * @param position The position of the first element in the buffer
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
      */
-    private BiConsumer<Integer, OutputStream> createSizeWriter(PlyType sizeType)
+    private static void writeRaw(ElementDescriptor elementDescriptor,
+        int elementCount, ByteBuffer buffer, int position, ByteOutput output)
+        throws IOException
     {
-        if (sizeType == PlyType.UCHAR || sizeType == PlyType.CHAR)
+        int stride = ElementDescriptors.computeStride(elementDescriptor);
+        if (buffer.order() == output.buffer.order())
+        {
+            output.writeBytes(buffer, position, elementCount * stride);
+            return;
+        }
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int numProperties = propertyDescriptors.size();
+        int sizes[] = new int[numProperties];
+        for (int p = 0; p < numProperties; p++)
+        {
+            sizes[p] = PlyType.getSize(propertyDescriptors.get(p).getType());
+        }
+        int index = position;
+        for (int e = 0; e < elementCount; e++)
         {
-            return (value, outputStream) ->
+            output.require(stride);
+            ByteBuffer target = output.buffer;
+            for (int p = 0; p < numProperties; p++)
             {
-                try
+                switch (sizes[p])
                 {
-                    outputStream.write(value.byteValue());
+                    case 1:
+                        target.put(buffer.get(index));
+                        break;
+                    case 2:
+                        target.putShort(buffer.getShort(index));
+                        break;
+                    case 4:
+                        target.putInt(buffer.getInt(index));
+                        break;
+                    case 8:
+                        target.putLong(buffer.getLong(index));
+                        break;
+                    default:
+                        break;
                 }
-                catch (IOException e)
-                {
-                    throw new UncheckedIOException(e);
-                }
-            };
+                index += sizes[p];
+            }
         }
-        if (sizeType == PlyType.USHORT || sizeType == PlyType.SHORT)
+    }
+
+    /**
+     * Write the value of the given column for the specified element into the
+     * given output
+     * 
+     * @param type The type
+     * @param column The column, which is an array or a function, as it is
+     *        stored in an {@link ArrayPlySource}
+     * @param elementIndex The element index
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeScalar(PlyType type, Object column,
+        int elementIndex, ByteOutput output) throws IOException
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                output.writeByte(ArrayPlySource.getByte(column, elementIndex));
+                break;
+            case USHORT:
+            case SHORT:
+                output.writeShort(
+                    ArrayPlySource.getShort(column, elementIndex));
+                break;
+            case UINT:
+            case INT:
+                output.writeInt(ArrayPlySource.getInt(column, elementIndex));
+                break;
+            case FLOAT:
+                output.writeFloat(
+                    ArrayPlySource.getFloat(column, elementIndex));
+                break;
+            case DOUBLE:
+                output.writeDouble(
+                    ArrayPlySource.getDouble(column, elementIndex));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Write the list of the specified element from the given
+     * {@link ListColumn} into the given output
+     * 
+     * @param listColumn The {@link ListColumn}
+     * @param elementIndex The element index
+     * @param sizeWriter The {@link BinarySizeWriter}
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeList(ListColumn listColumn, int elementIndex,
+        BinarySizeWriter sizeWriter, ByteOutput output) throws IOException
+    {
+        int offset = listColumn.getOffset(elementIndex);
+        int length = listColumn.getLength(elementIndex);
+        sizeWriter.write(length, output);
+        switch (listColumn.getType())
+        {
+            case UCHAR:
+            case CHAR:
+                output.writeBytes(listColumn.getCharData(), offset, length);
+                break;
+            case USHORT:
+            case SHORT:
+                output.writeShorts(listColumn.getShortData(), offset, length);
+                break;
+            case UINT:
+            case INT:
+                output.writeInts(listColumn.getIntData(), offset, length);
+                break;
+            case FLOAT:
+                output.writeFloats(listColumn.getFloatData(), offset, length);
+                break;
+            case DOUBLE:
+                output.writeDoubles(
+                    listColumn.getDoubleData(), offset, length);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Sequentially encode the given elements into the given output.
+     * 
+     * When the elements are {@link DefaultIndexedElement} instances that
+     * share the same property indices, as it is the case for the elements
+     * that have been read with a {@link PlyReader}, then the property values
+     * are obtained by their index. Otherwise, they are obtained by their
+     * name.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param elementList The elements
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void encodeElements(ElementDescriptor elementDescriptor,
+        List<Element> elementList, ByteOutput output) throws IOException
+    {
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int numProperties = propertyDescriptors.size();
+        String propertyNames[] = new String[numProperties];
+        BinaryPropertyWriter propertyWriters[] =
+            new BinaryPropertyWriter[numProperties];
+        BinarySizeWriter sizeWriters[] = new BinarySizeWriter[numProperties];
+        List<BiFunction<Element, String, ?>> propertyGetters =
+            new ArrayList<BiFunction<Element, String, ?>>();
+        for (int p = 0; p < numProperties; p++)
         {
-            return (value, outputStream) ->
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
+            PlyType type = propertyDescriptor.getType();
+            PlyType sizeType = propertyDescriptor.getSizeType();
+            propertyNames[p] = propertyDescriptor.getName();
+            propertyWriters[p] = createPropertyWriter(type, sizeType);
+            propertyGetters.add(
+                PlyWriters.createPropertyGetter(type, sizeType));
+            if (sizeType != null)
             {
-                try
-                {
-                    byteBuffer.putShort(0, value.shortValue());
-                    outputStream.write(byteArray, 0, 2);
-                }
-                catch (IOException e)
-                {
-                    throw new UncheckedIOException(e);
-                }
-            };
+                sizeWriters[p] = createSizeWriter(sizeType);
+            }
         }
-        if (sizeType == PlyType.UINT || sizeType == PlyType.INT)
+
+        Map<String, Integer> propertyIndices = null;
+        int indices[] = null;
+        for (int e = 0; e < elementList.size(); e++)
         {
-            return (value, outputStream) ->
+            Element element = elementList.get(e);
+            if (element instanceof DefaultIndexedElement)
             {
-                try
+                DefaultIndexedElement indexedElement =
+                    (DefaultIndexedElement) element;
+                if (indexedElement.getPropertyIndices() != propertyIndices)
                 {
-                    byteBuffer.putInt(0, value);
-                    outputStream.write(byteArray, 0, 4);
+                    propertyIndices = indexedElement.getPropertyIndices();
+                    indices = PlyWriters.computeIndices(propertyIndices,
+                        propertyNames);
                 }
-                catch (IOException e)
+                if (indices != null)
                 {
-                    throw new UncheckedIOException(e);
+                    for (int p = 0; p < numProperties; p++)
+                    {
+                        Object value = indexedElement.getProperty(indices[p]);
+                        propertyWriters[p].write(value, sizeWriters[p],
+                            output);
+                    }
+                    continue;
                 }
-            };
+            }
+            for (int p = 0; p < numProperties; p++)
+            {
+                Object value =
+                    propertyGetters.get(p).apply(element, propertyNames[p]);
+                propertyWriters[p].write(value, sizeWriters[p], output);
+            }
+        }
+    }
+
+    /**
+     * Creates a {@link BinarySizeWriter} for the given size type.
+     * 
+     * If the given type is not a valid size type, then a warning will be
+     * printed and <code>null</code> will be returned.
+     * 
+     * @param sizeType The size type
+     * @return The {@link BinarySizeWriter}
+     */
+    private static BinarySizeWriter createSizeWriter(PlyType sizeType)
+    {
+        if (sizeType == PlyType.UCHAR || sizeType == PlyType.CHAR)
+        {
+            return BinaryPlyWriter::writeByteSize;
+        }
+        if (sizeType == PlyType.USHORT || sizeType == PlyType.SHORT)
+        {
+            return BinaryPlyWriter::writeShortSize;
+        }
+        if (sizeType == PlyType.UINT || sizeType == PlyType.INT)
+        {
+            return BinaryPlyWriter::writeIntSize;
         }
         logger.severe("Invalid size type: " + sizeType);
         return null;
-
     }
 
     /**
-     * Create one {@link BinaryPropertyWriter} for each property of the given
-     * {@link ElementDescriptor}
+     * Write the given size as a byte.
      * 
-     * @param elementDescriptor The {@link ElementDescriptor}
-     * @return The {@link BinaryPropertyWriter} objects
+     * To be used as an implementation of {@link BinarySizeWriter}
+     * 
+     * @param size The size
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
      */
-    private List<BinaryPropertyWriter>
-        createBinaryPropertyWriters(ElementDescriptor elementDescriptor)
+    private static void writeByteSize(int size, ByteOutput output)
+        throws IOException
     {
-        List<BinaryPropertyWriter> propertyWriters =
-            new ArrayList<BinaryPropertyWriter>();
+        output.writeByte((byte) size);
+    }
 
-        List<PropertyDescriptor> propertyDescriptors =
-            elementDescriptor.getPropertyDescriptors();
-        for (int i = 0; i < propertyDescriptors.size(); i++)
-        {
-            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(i);
-            PlyType type = propertyDescriptor.getType();
-            PlyType sizeType = propertyDescriptor.getSizeType();
-            BinaryPropertyWriter propertyWriter =
-                createPropertyWriter(type, sizeType);
-            propertyWriters.add(propertyWriter);
-        }
+    /**
+     * Write the given size as a short.
+     * 
+     * To be used as an implementation of {@link BinarySizeWriter}
+     * 
+     * @param size The size
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeShortSize(int size, ByteOutput output)
+        throws IOException
+    {
+        output.writeShort((short) size);
+    }
 
-        return propertyWriters;
+    /**
+     * Write the given size as an int.
+     * 
+     * To be used as an implementation of {@link BinarySizeWriter}
+     * 
+     * @param size The size
+     * @param output The {@link ByteOutput}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeIntSize(int size, ByteOutput output)
+        throws IOException
+    {
+        output.writeInt(size);
     }
 
     /**
@@ -272,7 +801,7 @@ class BinaryPlyWriter implements PlyWriter
      * @param sizeType The size type
      * @return The {@link BinaryPropertyWriter}
      */
-    private BinaryPropertyWriter createPropertyWriter(PlyType type,
+    private static BinaryPropertyWriter createPropertyWriter(PlyType type,
         PlyType sizeType)
     {
         if (sizeType == null)
@@ -281,17 +810,17 @@ class BinaryPlyWriter implements PlyWriter
             {
                 case UCHAR:
                 case CHAR:
-                    return this::writeChar;
+                    return BinaryPlyWriter::writeChar;
                 case USHORT:
                 case SHORT:
-                    return this::writeShort;
+                    return BinaryPlyWriter::writeShort;
                 case UINT:
                 case INT:
-                    return this::writeInt;
+                    return BinaryPlyWriter::writeInt;
                 case FLOAT:
-                    return this::writeFloat;
+                    return BinaryPlyWriter::writeFloat;
                 case DOUBLE:
-                    return this::writeDouble;
+                    return BinaryPlyWriter::writeDouble;
                 default:
                     break;
             }
@@ -303,17 +832,17 @@ class BinaryPlyWriter implements PlyWriter
         {
             case UCHAR:
             case CHAR:
-                return this::writeCharList;
+                return BinaryPlyWriter::writeCharList;
             case USHORT:
             case SHORT:
-                return this::writeShortList;
+                return BinaryPlyWriter::writeShortList;
             case UINT:
             case INT:
-                return this::writeIntList;
+                return BinaryPlyWriter::writeIntList;
             case FLOAT:
-                return this::writeFloatList;
+                return BinaryPlyWriter::writeFloatList;
             case DOUBLE:
-                return this::writeDoubleList;
+                return BinaryPlyWriter::writeDoubleList;
             default:
                 break;
         }
@@ -322,221 +851,279 @@ class BinaryPlyWriter implements PlyWriter
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeChar(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeChar(Object value, BinarySizeWriter sizeWriter,
+        ByteOutput output) throws IOException
     {
-        Byte value = element.getCharProperty(propertyName);
-        outputStream.write(value);
+        output.writeByte((Byte) value);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeShort(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeShort(Object value, BinarySizeWriter sizeWriter,
+        ByteOutput output) throws IOException
     {
-        Short value = element.getShortProperty(propertyName);
-        byteBuffer.putShort(0, value);
-        outputStream.write(byteArray, 0, 2);
+        output.writeShort((Short) value);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeInt(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeInt(Object value, BinarySizeWriter sizeWriter,
+        ByteOutput output) throws IOException
     {
-        Integer value = element.getIntProperty(propertyName);
-        byteBuffer.putInt(0, value);
-        outputStream.write(byteArray, 0, 4);
+        output.writeInt((Integer) value);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeFloat(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeFloat(Object value, BinarySizeWriter sizeWriter,
+        ByteOutput output) throws IOException
     {
-        Float value = element.getFloatProperty(propertyName);
-        byteBuffer.putFloat(0, value);
-        outputStream.write(byteArray, 0, 4);
+        output.writeFloat((Float) value);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeDouble(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeDouble(Object value, BinarySizeWriter sizeWriter,
+        ByteOutput output) throws IOException
     {
-        Double value = element.getDoubleProperty(propertyName);
-        byteBuffer.putDouble(0, value);
-        outputStream.write(byteArray, 0, 8);
+        output.writeDouble((Double) value);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeCharList(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeCharList(Object value,
+        BinarySizeWriter sizeWriter, ByteOutput output) throws IOException
     {
-        byte value[] = element.getCharListProperty(propertyName);
-        sizeWriter.accept(value.length, outputStream);
-        for (int i = 0; i < value.length; i++)
-        {
-            outputStream.write(value[i]);
-        }
+        byte array[] = (byte[]) value;
+        sizeWriter.write(array.length, output);
+        output.writeBytes(array, 0, array.length);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeShortList(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeShortList(Object value,
+        BinarySizeWriter sizeWriter, ByteOutput output) throws IOException
     {
-        short value[] = element.getShortListProperty(propertyName);
-        sizeWriter.accept(value.length, outputStream);
-        for (int i = 0; i < value.length; i++)
-        {
-            byteBuffer.putShort(0, value[i]);
-            outputStream.write(byteArray, 0, 2);
-        }
+        short array[] = (short[]) value;
+        sizeWriter.write(array.length, output);
+        output.writeShorts(array, 0, array.length);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeIntList(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeIntList(Object value,
+        BinarySizeWriter sizeWriter, ByteOutput output) throws IOException
     {
-        int value[] = element.getIntListProperty(propertyName);
-        sizeWriter.accept(value.length, outputStream);
-        for (int i = 0; i < value.length; i++)
-        {
-            byteBuffer.putInt(0, value[i]);
-            outputStream.write(byteArray, 0, 4);
-        }
+        int array[] = (int[]) value;
+        sizeWriter.write(array.length, output);
+        output.writeInts(array, 0, array.length);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeFloatList(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeFloatList(Object value,
+        BinarySizeWriter sizeWriter, ByteOutput output) throws IOException
     {
-        float value[] = element.getFloatListProperty(propertyName);
-        sizeWriter.accept(value.length, outputStream);
-        for (int i = 0; i < value.length; i++)
-        {
-            byteBuffer.putFloat(0, value[i]);
-            outputStream.write(byteArray, 0, 4);
-        }
+        float array[] = (float[]) value;
+        sizeWriter.write(array.length, output);
+        output.writeFloats(array, 0, array.length);
     }
 
     /**
-     * Write the specified element into the given writer
+     * Write the given property value into the given output
      * 
      * To be used as an implementation of {@link BinaryPropertyWriter}
      * 
-     * @param element The {@link Element}
-     * @param propertyName The property name
+     * @param value The value
      * @param sizeWriter The size writer
-     * @param outputStream The output stream
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    private void writeDoubleList(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
-        throws IOException
+    private static void writeDoubleList(Object value,
+        BinarySizeWriter sizeWriter, ByteOutput output) throws IOException
     {
-        double value[] = element.getDoubleListProperty(propertyName);
-        sizeWriter.accept(value.length, outputStream);
-        for (int i = 0; i < value.length; i++)
+        double array[] = (double[]) value;
+        sizeWriter.write(array.length, output);
+        output.writeDoubles(array, 0, array.length);
+    }
+
+
+    /**
+     * Create the {@link FixedStrideEncoder} objects for the element types of
+     * the given {@link Descriptor}. The entries are <code>null</code> for
+     * element types that contain list properties.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @return The {@link FixedStrideEncoder} objects
+     */
+    private static FixedStrideEncoder[] createEncoders(Descriptor descriptor)
+    {
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        FixedStrideEncoder encoders[] =
+            new FixedStrideEncoder[elementDescriptors.size()];
+        for (int t = 0; t < encoders.length; t++)
         {
-            byteBuffer.putDouble(0, value[i]);
-            outputStream.write(byteArray, 0, 8);
+            encoders[t] = FixedStrideEncoder.create(elementDescriptors.get(t));
         }
+        return encoders;
     }
 
+    /**
+     * Implementation of a {@link PlyStreamWriter} that writes binary data
+     */
+    private final class StreamWriter extends AbstractPlyStreamWriter
+    {
+        /**
+         * The {@link ByteOutput}
+         */
+        private final ByteOutput output;
+
+        /**
+         * The {@link FixedStrideEncoder} objects for the element types. The
+         * entries are <code>null</code> for element types that contain list
+         * properties.
+         */
+        private final FixedStrideEncoder encoders[];
+
+        /**
+         * Creates a new instance
+         * 
+         * @param descriptor The {@link Descriptor}
+         * @param elementCounts The element counts
+         * @param output The {@link ByteOutput}
+         */
+        StreamWriter(Descriptor descriptor, List<Integer> elementCounts,
+            ByteOutput output)
+        {
+            super(descriptor, elementCounts);
+            this.output = output;
+            this.encoders = createEncoders(descriptor);
+        }
+
+        /**
+         * Creates a new instance for element counts that are not known in
+         * advance
+         * 
+         * @param descriptor The {@link Descriptor}
+         * @param fileChannel The file channel
+         * @param countPositions The positions of the element counts in the
+         *        file channel
+         * @param output The {@link ByteOutput}
+         */
+        StreamWriter(Descriptor descriptor, FileChannel fileChannel,
+            long countPositions[], ByteOutput output)
+        {
+            super(descriptor, fileChannel, countPositions);
+            this.output = output;
+            this.encoders = createEncoders(descriptor);
+        }
+
+        @Override
+        void writeElements(int elementTypeIndex, List<Element> elements)
+            throws IOException
+        {
+            BinaryPlyWriter.this.writeElements(
+                getElementDescriptor(elementTypeIndex),
+                encoders[elementTypeIndex], elements, output);
+        }
+
+        @Override
+        void writeColumns(int elementTypeIndex, int elementCount,
+            Object columns[]) throws IOException
+        {
+            BinaryPlyWriter.this.writeColumns(
+                getElementDescriptor(elementTypeIndex),
+                encoders[elementTypeIndex], elementCount, columns, output);
+        }
+
+        @Override
+        void writeRawElements(int elementTypeIndex, int elementCount,
+            ByteBuffer buffer, int position) throws IOException
+        {
+            ElementDescriptor elementDescriptor =
+                getElementDescriptor(elementTypeIndex);
+            BinaryPlyWriter.writeRaw(elementDescriptor, elementCount, buffer,
+                position, output);
+        }
+
+        @Override
+        void finishContent() throws IOException
+        {
+            output.flush();
+        }
+    }
 }
@@ -27,12 +27,10 @@
 package de.javagl.ply;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.function.Function;
 
 /**
  * Interface for classes that can read information about a single PLY property
- * from an input stream.
+ * from a {@link ByteInput}.
  * 
  * Instances of this class are created by the {@link BinaryPlyContentReader} via
  * method references, to read the property values of an {@link Element}.
@@ -41,9 +39,9 @@ interface BinaryPropertyReader
 {
     /**
      * Handle the specified property by reading the information from the given
-     * input stream and passing the result to the given {@link PlyTarget}
+     * input and passing the result to the given {@link PlyTarget}
      * 
-     * @param inputStream The input stream
+     * @param input The {@link ByteInput}
      * @param elementTypeIndex The element type index
      * @param elementIndex The element index
      * @param propertyIndex The property index
@@ -51,7 +49,7 @@ interface BinaryPropertyReader
      * @param plyTarget The {@link PlyTarget}
      * @throws IOException if an IO error occurs
      */
-    void read(InputStream inputStream, int elementTypeIndex, int elementIndex,
-        int propertyIndex, Function<InputStream, Number> sizeReader,
-        PlyTarget plyTarget) throws IOException;
+    void read(ByteInput input, int elementTypeIndex, int elementIndex,
+        int propertyIndex, BinarySizeReader sizeReader, PlyTarget plyTarget)
+        throws IOException;
 }
\ No newline at end of file
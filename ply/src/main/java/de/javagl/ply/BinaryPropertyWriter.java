@@ -27,8 +27,6 @@
 package de.javagl.ply;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.util.function.BiConsumer;
 
 /**
  * Interface for classes that can write information about a single PLY property.
@@ -39,16 +37,15 @@ import java.util.function.BiConsumer;
 interface BinaryPropertyWriter
 {
     /**
-     * Write the specified property value into the given output stream.
+     * Write the given property value into the given output.
      * 
-     * @param element The element
-     * @param propertyName The name of the property
-     * @param sizeWriter A consumer that writes a size into the output stream
-     *        for list properties
-     * @param outputStream The output stream
+     * @param value The value. This is the boxed value for scalar properties,
+     *        and the array for list properties.
+     * @param sizeWriter The {@link BinarySizeWriter} that writes the size of
+     *        list properties
+     * @param output The {@link ByteOutput}
      * @throws IOException If an IO error occurs
      */
-    void write(Element element, String propertyName,
-        BiConsumer<Integer, OutputStream> sizeWriter, OutputStream outputStream)
+    void write(Object value, BinarySizeWriter sizeWriter, ByteOutput output)
         throws IOException;
-}
\ No newline at end of file
+}
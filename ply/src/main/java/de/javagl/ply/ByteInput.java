@@ -0,0 +1,215 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Internal class for reading primitive values from a byte buffer that is
+ * refilled from an underlying source when necessary.
+ * 
+ * The values are decoded directly from the buffer, using the byte order of
+ * the buffer. Subclasses are responsible for refilling the buffer from the
+ * actual source.
+ */
+abstract class ByteInput
+{
+    /**
+     * The default size for the buffers of the subclasses
+     */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The buffer that the values are read from. The bytes between the
+     * position and the limit of this buffer are the bytes that have not been
+     * read yet.
+     */
+    ByteBuffer buffer;
+
+    /**
+     * Refill the {@link #buffer}.
+     * 
+     * Implementations have to make sure that the bytes that are remaining in
+     * the current buffer are preserved, and that the number of remaining bytes
+     * is increased, if possible.
+     * 
+     * @return Whether any bytes have been added. If this is
+     *         <code>false</code>, then the end of the input was reached.
+     * @throws IOException If an IO error occurs
+     */
+    abstract boolean refill() throws IOException;
+
+    /**
+     * Returns the maximum number of bytes that may be remaining in the
+     * {@link #buffer} after it was refilled. Calls to {@link #require(int)}
+     * with larger values will fail.
+     * 
+     * @return The capacity
+     */
+    abstract int capacity();
+
+    /**
+     * Make sure that the {@link #buffer} contains at least the given number of
+     * remaining bytes.
+     * 
+     * @param n The number of bytes
+     * @throws IOException If an IO error occurs, or the end of the input was
+     *         reached before the given number of bytes was available
+     */
+    final void require(int n) throws IOException
+    {
+        while (buffer.remaining() < n)
+        {
+            if (!refill())
+            {
+                throw new IOException("Unexpected end of input");
+            }
+        }
+    }
+
+    /**
+     * Skip the given number of bytes
+     * 
+     * @param n The number of bytes
+     * @throws IOException If an IO error occurs, or the end of the input was
+     *         reached before the given number of bytes was skipped
+     */
+    void skip(long n) throws IOException
+    {
+        long remaining = n;
+        while (remaining > 0)
+        {
+            if (!buffer.hasRemaining())
+            {
+                require(1);
+            }
+            int step = (int) Math.min(remaining, buffer.remaining());
+            buffer.position(buffer.position() + step);
+            remaining -= step;
+        }
+    }
+
+    /**
+     * Read a byte
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final byte readByte() throws IOException
+    {
+        if (!buffer.hasRemaining())
+        {
+            require(1);
+        }
+        return buffer.get();
+    }
+
+    /**
+     * Read a short
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final short readShort() throws IOException
+    {
+        if (buffer.remaining() < 2)
+        {
+            require(2);
+        }
+        return buffer.getShort();
+    }
+
+    /**
+     * Read an int
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final int readInt() throws IOException
+    {
+        if (buffer.remaining() < 4)
+        {
+            require(4);
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * Read a float
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final float readFloat() throws IOException
+    {
+        if (buffer.remaining() < 4)
+        {
+            require(4);
+        }
+        return buffer.getFloat();
+    }
+
+    /**
+     * Read a double
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final double readDouble() throws IOException
+    {
+        if (buffer.remaining() < 8)
+        {
+            require(8);
+        }
+        return buffer.getDouble();
+    }
+
+    /**
+     * Read a byte, and return it as an unsigned value.
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final int readUnsignedByte() throws IOException
+    {
+        return Byte.toUnsignedInt(readByte());
+    }
+
+    /**
+     * Read a short, and return it as an unsigned value.
+     * 
+     * @return The value
+     * @throws IOException If an IO error occurs
+     */
+    final int readUnsignedShort() throws IOException
+    {
+        return Short.toUnsignedInt(readShort());
+    }
+
+}
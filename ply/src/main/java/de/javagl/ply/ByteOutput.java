@@ -0,0 +1,320 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Internal class for writing primitive values into a staging byte buffer
+ * that is drained into an underlying destination when it is full.
+ * 
+ * The values are encoded directly into the buffer, using the byte order of
+ * the buffer. Subclasses are responsible for draining the buffer into the
+ * actual destination.
+ */
+abstract class ByteOutput
+{
+    /**
+     * The default size for the buffers of the subclasses
+     */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The buffer that the values are written to. The bytes between zero and
+     * the position of this buffer are the bytes that have not been drained
+     * yet.
+     */
+    ByteBuffer buffer;
+
+    /**
+     * Drain the {@link #buffer}.
+     * 
+     * Implementations have to write all bytes between zero and the position
+     * of the buffer to the destination, and then clear the buffer.
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    abstract void drain() throws IOException;
+
+    /**
+     * Drain the {@link #buffer}, and flush the destination, if applicable.
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    void flush() throws IOException
+    {
+        drain();
+    }
+
+    /**
+     * Make sure that the {@link #buffer} has space for at least the given
+     * number of bytes, which may not be larger than the capacity of the
+     * buffer.
+     * 
+     * @param n The number of bytes
+     * @throws IOException If an IO error occurs
+     */
+    final void require(int n) throws IOException
+    {
+        if (buffer.remaining() < n)
+        {
+            drain();
+        }
+    }
+
+    /**
+     * Write a byte
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    final void writeByte(byte value) throws IOException
+    {
+        if (!buffer.hasRemaining())
+        {
+            drain();
+        }
+        buffer.put(value);
+    }
+
+    /**
+     * Write a short
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    final void writeShort(short value) throws IOException
+    {
+        if (buffer.remaining() < 2)
+        {
+            drain();
+        }
+        buffer.putShort(value);
+    }
+
+    /**
+     * Write an int
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    final void writeInt(int value) throws IOException
+    {
+        if (buffer.remaining() < 4)
+        {
+            drain();
+        }
+        buffer.putInt(value);
+    }
+
+    /**
+     * Write a float
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    final void writeFloat(float value) throws IOException
+    {
+        if (buffer.remaining() < 4)
+        {
+            drain();
+        }
+        buffer.putFloat(value);
+    }
+
+    /**
+     * Write a double
+     * 
+     * @param value The value
+     * @throws IOException If an IO error occurs
+     */
+    final void writeDouble(double value) throws IOException
+    {
+        if (buffer.remaining() < 8)
+        {
+            drain();
+        }
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Write the specified range of the given array
+     * 
+     * @param values The values
+     * @param offset The offset
+     * @param length The length
+     * @throws IOException If an IO error occurs
+     */
+    final void writeBytes(byte values[], int offset, int length)
+        throws IOException
+    {
+        int i = 0;
+        while (i < length)
+        {
+            if (!buffer.hasRemaining())
+            {
+                drain();
+            }
+            int n = Math.min(length - i, buffer.remaining());
+            buffer.put(values, offset + i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * Write the specified range of the given buffer. The position and limit
+     * of the given buffer are not modified.
+     * 
+     * @param values The buffer containing the values
+     * @param offset The offset
+     * @param length The length
+     * @throws IOException If an IO error occurs
+     */
+    final void writeBytes(ByteBuffer values, int offset, int length)
+        throws IOException
+    {
+        ByteBuffer source = values.duplicate();
+        int i = 0;
+        while (i < length)
+        {
+            if (!buffer.hasRemaining())
+            {
+                drain();
+            }
+            int n = Math.min(length - i, buffer.remaining());
+            source.limit(offset + i + n);
+            source.position(offset + i);
+            buffer.put(source);
+            i += n;
+        }
+    }
+
+    /**
+     * Write the specified range of the given array
+     * 
+     * @param values The values
+     * @param offset The offset
+     * @param length The length
+     * @throws IOException If an IO error occurs
+     */
+    final void writeShorts(short values[], int offset, int length)
+        throws IOException
+    {
+        int i = 0;
+        while (i < length)
+        {
+            if (buffer.remaining() < 2)
+            {
+                drain();
+            }
+            int end = i + Math.min(length - i, buffer.remaining() / 2);
+            for (; i < end; i++)
+            {
+                buffer.putShort(values[offset + i]);
+            }
+        }
+    }
+
+    /**
+     * Write the specified range of the given array
+     * 
+     * @param values The values
+     * @param offset The offset
+     * @param length The length
+     * @throws IOException If an IO error occurs
+     */
+    final void writeInts(int values[], int offset, int length)
+        throws IOException
+    {
+        int i = 0;
+        while (i < length)
+        {
+            if (buffer.remaining() < 4)
+            {
+                drain();
+            }
+            int end = i + Math.min(length - i, buffer.remaining() / 4);
+            for (; i < end; i++)
+            {
+                buffer.putInt(values[offset + i]);
+            }
+        }
+    }
+
+    /**
+     * Write the specified range of the given array
+     * 
+     * @param values The values
+     * @param offset The offset
+     * @param length The length
+     * @throws IOException If an IO error occurs
+     */
+    final void writeFloats(float values[], int offset, int length)
+        throws IOException
+    {
+        int i = 0;
+        while (i < length)
+        {
+            if (buffer.remaining() < 4)
+            {
+                drain();
+            }
+            int end = i + Math.min(length - i, buffer.remaining() / 4);
+            for (; i < end; i++)
+            {
+                buffer.putFloat(values[offset + i]);
+            }
+        }
+    }
+
+    /**
+     * Write the specified range of the given array
+     * 
+     * @param values The values
+     * @param offset The offset
+     * @param length The length
+     * @throws IOException If an IO error occurs
+     */
+    final void writeDoubles(double values[], int offset, int length)
+        throws IOException
+    {
+        int i = 0;
+        while (i < length)
+        {
+            if (buffer.remaining() < 8)
+            {
+                drain();
+            }
+            int end = i + Math.min(length - i, buffer.remaining() / 8);
+            for (; i < end; i++)
+            {
+                buffer.putDouble(values[offset + i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Implementation of a {@link ByteOutput} that writes the data into a
+ * channel, in chunks of the size of the internal buffer.
+ * 
+ * The internal buffer is a direct buffer, so that the channel can write it
+ * without copying it into a temporary direct buffer first.
+ */
+final class ChannelByteOutput extends ByteOutput
+{
+    /**
+     * The channel
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param channel The channel
+     * @param byteOrder The byte order
+     * @param bufferSize The size of the internal buffer
+     */
+    ChannelByteOutput(WritableByteChannel channel, ByteOrder byteOrder,
+        int bufferSize)
+    {
+        this.channel = Objects.requireNonNull(channel,
+            "The channel may not be null");
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.order(byteOrder);
+    }
+
+    @Override
+    void drain() throws IOException
+    {
+        buffer.flip();
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        finally
+        {
+            buffer.clear();
+        }
+    }
+
+}
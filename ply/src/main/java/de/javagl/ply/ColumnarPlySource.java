@@ -0,0 +1,654 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Implementation of a {@link PlySource} that stores the property values in
+ * columns.
+ * 
+ * Each scalar property of an element type is stored in a single primitive
+ * array, with one entry for each element. Each list property is either stored
+ * as an array of primitive arrays, with one array for each element, or as a
+ * {@link ListColumn} that contains the lists of all elements in a single
+ * primitive array, depending on how the {@link ColumnarPlyTarget} was
+ * created.
+ * 
+ * The columns can be accessed with the typed <code>get...Column</code>
+ * methods, and the {@link #getListColumn(String, String)} method. These
+ * methods return references to the internal arrays. The
+ * {@link #getElementList(String)} methods return views on these columns, for
+ * compatibility with code that expects {@link Element} objects.
+ * 
+ * Instances of this class are created with a {@link ColumnarPlyTarget}.
+ */
+public final class ColumnarPlySource implements PlySource
+{
+    /**
+     * The {@link Descriptor}
+     */
+    private final Descriptor descriptor;
+
+    /**
+     * The mapping from element names to element type indices
+     */
+    private final Map<String, Integer> elementTypeIndices;
+
+    /**
+     * A list containing one map for each element type, mapping the property
+     * names to the indices that they have in that element.
+     */
+    private final List<Map<String, Integer>> propertyIndexMaps;
+
+    /**
+     * The number of elements, for each element type
+     */
+    private final int elementCounts[];
+
+    /**
+     * The columns. For each element type, this contains one array for each
+     * property, or <code>null</code> if the columns for the element type have
+     * not been allocated yet.
+     */
+    private final Object columns[][];
+
+    /**
+     * Whether list properties are stored in {@link ListColumn} objects
+     */
+    private final boolean useListColumns;
+
+    /**
+     * Creates a new instance with the given {@link Descriptor}
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param useListColumns Whether list properties should be stored in
+     *        {@link ListColumn} objects
+     */
+    ColumnarPlySource(Descriptor descriptor, boolean useListColumns)
+    {
+        this.descriptor = Objects.requireNonNull(descriptor,
+            "The descriptor may not be null");
+        this.elementTypeIndices =
+            Descriptors.computeElementTypeIndices(descriptor);
+
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        int n = elementDescriptors.size();
+        this.propertyIndexMaps = new ArrayList<Map<String, Integer>>();
+        for (int t = 0; t < n; t++)
+        {
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            Map<String, Integer> propertyIndices =
+                ElementDescriptors.computePropertyIndices(elementDescriptor);
+            propertyIndexMaps.add(propertyIndices);
+        }
+        this.elementCounts = new int[n];
+        this.columns = new Object[n][];
+        this.useListColumns = useListColumns;
+    }
+
+    /**
+     * Allocate the columns for the specified element type
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementCount The number of elements
+     * @return The columns
+     */
+    Object[] allocate(int elementTypeIndex, int elementCount)
+    {
+        ElementDescriptor elementDescriptor =
+            descriptor.getElementDescriptors().get(elementTypeIndex);
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        Object elementColumns[] = new Object[propertyDescriptors.size()];
+        for (int p = 0; p < propertyDescriptors.size(); p++)
+        {
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
+            elementColumns[p] = createColumn(propertyDescriptor.getType(),
+                propertyDescriptor.getSizeType(), elementCount);
+        }
+        elementCounts[elementTypeIndex] = elementCount;
+        columns[elementTypeIndex] = elementColumns;
+        return elementColumns;
+    }
+
+    /**
+     * Create a column for a property with the given type and size type
+     * 
+     * @param type The type
+     * @param sizeType The size type, or <code>null</code> for scalar
+     *        properties
+     * @param elementCount The number of elements
+     * @return The column
+     */
+    private Object createColumn(PlyType type, PlyType sizeType,
+        int elementCount)
+    {
+        if (sizeType != null && useListColumns)
+        {
+            return new ListColumn(type, elementCount);
+        }
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return sizeType == null ? new byte[elementCount]
+                    : new byte[elementCount][];
+            case USHORT:
+            case SHORT:
+                return sizeType == null ? new short[elementCount]
+                    : new short[elementCount][];
+            case UINT:
+            case INT:
+                return sizeType == null ? new int[elementCount]
+                    : new int[elementCount][];
+            case FLOAT:
+                return sizeType == null ? new float[elementCount]
+                    : new float[elementCount][];
+            case DOUBLE:
+                return sizeType == null ? new double[elementCount]
+                    : new double[elementCount][];
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown property type: " + type);
+    }
+
+    /**
+     * Returns the specified column, or <code>null</code> if the specified
+     * element type or property does not exist, or no elements of the
+     * specified type have been read.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     */
+    private Object getColumn(String elementName, String propertyName)
+    {
+        Integer elementTypeIndex = elementTypeIndices.get(elementName);
+        if (elementTypeIndex == null)
+        {
+            return null;
+        }
+        Map<String, Integer> propertyIndices =
+            propertyIndexMaps.get(elementTypeIndex);
+        Integer propertyIndex = propertyIndices.get(propertyName);
+        if (propertyIndex == null)
+        {
+            return null;
+        }
+        return getColumn(elementTypeIndex, propertyIndex);
+    }
+
+    /**
+     * Returns the specified column, or <code>null</code> if no elements of
+     * the specified type have been read.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param propertyIndex The property index
+     * @return The column
+     */
+    Object getColumn(int elementTypeIndex, int propertyIndex)
+    {
+        Object elementColumns[] = columns[elementTypeIndex];
+        if (elementColumns == null)
+        {
+            return null;
+        }
+        return elementColumns[propertyIndex];
+    }
+
+    /**
+     * Returns the number of elements of the specified type
+     * 
+     * @param elementName The element name
+     * @return The number of elements, or 0 if there are no elements with the
+     *         given name
+     */
+    public int getElementCount(String elementName)
+    {
+        Integer elementTypeIndex = elementTypeIndices.get(elementName);
+        if (elementTypeIndex == null)
+        {
+            return 0;
+        }
+        return elementCounts[elementTypeIndex];
+    }
+
+    /**
+     * Returns the column for the specified property, or <code>null</code> if
+     * the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type
+     */
+    public byte[] getCharColumn(String elementName, String propertyName)
+    {
+        return (byte[]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified property, or <code>null</code> if
+     * the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type
+     */
+    public short[] getShortColumn(String elementName, String propertyName)
+    {
+        return (short[]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified property, or <code>null</code> if
+     * the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type
+     */
+    public int[] getIntColumn(String elementName, String propertyName)
+    {
+        return (int[]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified property, or <code>null</code> if
+     * the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type
+     */
+    public float[] getFloatColumn(String elementName, String propertyName)
+    {
+        return (float[]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified property, or <code>null</code> if
+     * the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type
+     */
+    public double[] getDoubleColumn(String elementName, String propertyName)
+    {
+        return (double[]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified list property, or
+     * <code>null</code> if the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type, or the list properties are stored in {@link ListColumn}
+     *         objects
+     */
+    public byte[][] getCharListColumn(String elementName, String propertyName)
+    {
+        return (byte[][]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified list property, or
+     * <code>null</code> if the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type, or the list properties are stored in {@link ListColumn}
+     *         objects
+     */
+    public short[][] getShortListColumn(String elementName,
+        String propertyName)
+    {
+        return (short[][]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified list property, or
+     * <code>null</code> if the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type, or the list properties are stored in {@link ListColumn}
+     *         objects
+     */
+    public int[][] getIntListColumn(String elementName, String propertyName)
+    {
+        return (int[][]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified list property, or
+     * <code>null</code> if the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type, or the list properties are stored in {@link ListColumn}
+     *         objects
+     */
+    public float[][] getFloatListColumn(String elementName,
+        String propertyName)
+    {
+        return (float[][]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the column for the specified list property, or
+     * <code>null</code> if the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The column
+     * @throws ClassCastException If the property does not have a matching
+     *         type, or the list properties are stored in {@link ListColumn}
+     *         objects
+     */
+    public double[][] getDoubleListColumn(String elementName,
+        String propertyName)
+    {
+        return (double[][]) getColumn(elementName, propertyName);
+    }
+
+    /**
+     * Returns the {@link ListColumn} for the specified list property, or
+     * <code>null</code> if the specified property does not exist.
+     * 
+     * @param elementName The element name
+     * @param propertyName The property name
+     * @return The {@link ListColumn}
+     * @throws ClassCastException If the property is not a list property, or
+     *         the list properties are not stored in {@link ListColumn}
+     *         objects
+     */
+    public ListColumn getListColumn(String elementName, String propertyName)
+    {
+        return (ListColumn) getColumn(elementName, propertyName);
+    }
+
+    @Override
+    public Descriptor getDescriptor()
+    {
+        return descriptor;
+    }
+
+    @Override
+    public List<Element> getElementList(String elementName)
+    {
+        Integer elementTypeIndex = elementTypeIndices.get(elementName);
+        if (elementTypeIndex == null)
+        {
+            return null;
+        }
+        return getElementList(elementTypeIndex);
+    }
+
+    @Override
+    public List<Element> getElementList(int elementTypeIndex)
+    {
+        Object elementColumns[] = columns[elementTypeIndex];
+        if (elementColumns == null)
+        {
+            return null;
+        }
+        Map<String, Integer> propertyIndices =
+            propertyIndexMaps.get(elementTypeIndex);
+        int elementCount = elementCounts[elementTypeIndex];
+        class Result extends AbstractList<Element> implements RandomAccess
+        {
+            @Override
+            public int size()
+            {
+                return elementCount;
+            }
+
+            @Override
+            public Element get(int index)
+            {
+                if (index < 0 || index >= elementCount)
+                {
+                    throw new IndexOutOfBoundsException(
+                        "Index " + index + ", size " + elementCount);
+                }
+                return new ColumnElement(propertyIndices, elementColumns,
+                    index);
+            }
+        }
+        return new Result();
+    }
+
+    /**
+     * Implementation of an {@link Element} that is a view on one entry of
+     * the columns of one element type
+     */
+    private static final class ColumnElement implements Element
+    {
+        /**
+         * The mapping from property names to indices
+         */
+        private final Map<String, Integer> propertyIndices;
+
+        /**
+         * The columns, one for each property
+         */
+        private final Object elementColumns[];
+
+        /**
+         * The index of the element
+         */
+        private final int index;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param propertyIndices The mapping from property names to indices
+         * @param elementColumns The columns
+         * @param index The element index
+         */
+        ColumnElement(Map<String, Integer> propertyIndices,
+            Object elementColumns[], int index)
+        {
+            this.propertyIndices = propertyIndices;
+            this.elementColumns = elementColumns;
+            this.index = index;
+        }
+
+        /**
+         * Returns the column for the specified property, or
+         * <code>null</code> if the property does not exist.
+         * 
+         * @param name The property name
+         * @return The column
+         */
+        private Object getColumn(String name)
+        {
+            Integer propertyIndex = propertyIndices.get(name);
+            if (propertyIndex == null)
+            {
+                return null;
+            }
+            return elementColumns[propertyIndex];
+        }
+
+        @Override
+        public Byte getCharProperty(String name)
+        {
+            byte column[] = (byte[]) getColumn(name);
+            return column == null ? null : column[index];
+        }
+
+        @Override
+        public Short getShortProperty(String name)
+        {
+            short column[] = (short[]) getColumn(name);
+            return column == null ? null : column[index];
+        }
+
+        @Override
+        public Integer getIntProperty(String name)
+        {
+            int column[] = (int[]) getColumn(name);
+            return column == null ? null : column[index];
+        }
+
+        @Override
+        public Float getFloatProperty(String name)
+        {
+            float column[] = (float[]) getColumn(name);
+            return column == null ? null : column[index];
+        }
+
+        @Override
+        public Double getDoubleProperty(String name)
+        {
+            double column[] = (double[]) getColumn(name);
+            return column == null ? null : column[index];
+        }
+
+        @Override
+        public byte[] getCharListProperty(String name)
+        {
+            Object column = getColumn(name);
+            if (column instanceof ListColumn)
+            {
+                return ((ListColumn) column).getCharList(index);
+            }
+            byte c[][] = (byte[][]) column;
+            return c == null ? null : c[index];
+        }
+
+        @Override
+        public short[] getShortListProperty(String name)
+        {
+            Object column = getColumn(name);
+            if (column instanceof ListColumn)
+            {
+                return ((ListColumn) column).getShortList(index);
+            }
+            short c[][] = (short[][]) column;
+            return c == null ? null : c[index];
+        }
+
+        @Override
+        public int[] getIntListProperty(String name)
+        {
+            Object column = getColumn(name);
+            if (column instanceof ListColumn)
+            {
+                return ((ListColumn) column).getIntList(index);
+            }
+            int c[][] = (int[][]) column;
+            return c == null ? null : c[index];
+        }
+
+        @Override
+        public float[] getFloatListProperty(String name)
+        {
+            Object column = getColumn(name);
+            if (column instanceof ListColumn)
+            {
+                return ((ListColumn) column).getFloatList(index);
+            }
+            float c[][] = (float[][]) column;
+            return c == null ? null : c[index];
+        }
+
+        @Override
+        public double[] getDoubleListProperty(String name)
+        {
+            Object column = getColumn(name);
+            if (column instanceof ListColumn)
+            {
+                return ((ListColumn) column).getDoubleList(index);
+            }
+            double c[][] = (double[][]) column;
+            return c == null ? null : c[index];
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder("Element[");
+            boolean first = true;
+            for (Entry<String, Integer> entry : propertyIndices.entrySet())
+            {
+                if (!first)
+                {
+                    sb.append(", ");
+                }
+                first = false;
+                String name = entry.getKey();
+                Object column = elementColumns[entry.getValue()];
+                Object value = null;
+                if (column instanceof ListColumn)
+                {
+                    value = ((ListColumn) column).getList(index);
+                }
+                else
+                {
+                    value = Array.get(column, index);
+                }
+                sb.append(name + "=" + Elements.valueToString(value));
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+
+}
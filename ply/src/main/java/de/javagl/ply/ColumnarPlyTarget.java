@@ -0,0 +1,336 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a {@link PlyTarget} that stores the data in a
+ * {@link ColumnarPlySource}.
+ * 
+ * The columns for an element type are allocated when the list of elements of
+ * this type starts, based on the number of elements, and the property values
+ * are stored directly in these columns, without creating an object for each
+ * element.
+ * 
+ * By default, list properties are stored as arrays of primitive arrays, with
+ * one array for each element. When the target is created with
+ * {@link #ColumnarPlyTarget(boolean)} and the argument <code>true</code>,
+ * then the lists are appended to a single growing primitive array that is
+ * stored in a {@link ListColumn}, together with the offsets of the lists of
+ * the elements. For large meshes, this avoids creating one small array for
+ * each face.
+ * 
+ * This class implements the {@link ListBufferPlyTarget} interface, so that
+ * the lists are received in reused buffers when they are stored in a
+ * {@link ListColumn}.
+ */
+public final class ColumnarPlyTarget implements ListBufferPlyTarget
+{
+    /**
+     * The current {@link ColumnarPlySource}
+     */
+    private ColumnarPlySource plySource;
+
+    /**
+     * The columns of the element type that is currently being read
+     */
+    private Object currentColumns[];
+
+    /**
+     * Whether list properties are stored in {@link ListColumn} objects
+     */
+    private final boolean useListColumns;
+
+    /**
+     * Default constructor. List properties will be stored as arrays of
+     * primitive arrays.
+     */
+    public ColumnarPlyTarget()
+    {
+        this(false);
+    }
+
+    /**
+     * Creates a new instance
+     * 
+     * @param useListColumns Whether list properties should be stored in
+     *        {@link ListColumn} objects
+     */
+    public ColumnarPlyTarget(boolean useListColumns)
+    {
+        this.plySource = null;
+        this.currentColumns = null;
+        this.useListColumns = useListColumns;
+    }
+
+    /**
+     * Returns the {@link ColumnarPlySource} that contains the data that was
+     * received by this target, or <code>null</code> if no data was received
+     * yet.
+     * 
+     * @return The {@link ColumnarPlySource}
+     */
+    public ColumnarPlySource getPlySource()
+    {
+        return plySource;
+    }
+
+    /**
+     * Returns the columns of the element type that is currently being read,
+     * or <code>null</code> if no element type is currently being read.
+     * 
+     * @return The columns
+     */
+    Object[] getCurrentColumns()
+    {
+        return currentColumns;
+    }
+
+    @Override
+    public void setDescriptor(Descriptor descriptor)
+    {
+        this.plySource = new ColumnarPlySource(descriptor, useListColumns);
+    }
+
+    @Override
+    public void startElementList(int elementTypeIndex, int elementCount)
+    {
+        this.currentColumns =
+            plySource.allocate(elementTypeIndex, elementCount);
+    }
+
+    @Override
+    public void startElement(int elementTypeIndex, int elementIndex)
+    {
+        // Nothing to do here
+    }
+
+    @Override
+    public void handleCharProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte value)
+    {
+        byte column[] = (byte[]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleShortProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short value)
+    {
+        short column[] = (short[]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleIntProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int value)
+    {
+        int column[] = (int[]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleFloatProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float value)
+    {
+        float column[] = (float[]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleDoubleProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double value)
+    {
+        double column[] = (double[]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleCharListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte[] value)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addChars(value, value.length);
+            return;
+        }
+        byte column[][] = (byte[][]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleShortListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short[] value)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addShorts(value, value.length);
+            return;
+        }
+        short column[][] = (short[][]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleIntListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int[] value)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addInts(value, value.length);
+            return;
+        }
+        int column[][] = (int[][]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleFloatListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float[] value)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addFloats(value, value.length);
+            return;
+        }
+        float column[][] = (float[][]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleDoubleListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double[] value)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addDoubles(value, value.length);
+            return;
+        }
+        double column[][] = (double[][]) currentColumns[propertyIndex];
+        column[elementIndex] = value;
+    }
+
+    @Override
+    public void handleCharListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte[] buffer, int length)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addChars(buffer, length);
+            return;
+        }
+        byte column[][] = (byte[][]) currentColumns[propertyIndex];
+        column[elementIndex] = Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public void handleShortListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short[] buffer, int length)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addShorts(buffer, length);
+            return;
+        }
+        short column[][] = (short[][]) currentColumns[propertyIndex];
+        column[elementIndex] = Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public void handleIntListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int[] buffer, int length)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addInts(buffer, length);
+            return;
+        }
+        int column[][] = (int[][]) currentColumns[propertyIndex];
+        column[elementIndex] = Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public void handleFloatListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float[] buffer, int length)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addFloats(buffer, length);
+            return;
+        }
+        float column[][] = (float[][]) currentColumns[propertyIndex];
+        column[elementIndex] = Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public void handleDoubleListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double[] buffer, int length)
+    {
+        if (useListColumns)
+        {
+            ListColumn column = (ListColumn) currentColumns[propertyIndex];
+            column.addDoubles(buffer, length);
+            return;
+        }
+        double column[][] = (double[][]) currentColumns[propertyIndex];
+        column[elementIndex] = Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public void endElement(int elementTypeIndex, int elementIndex)
+    {
+        // Nothing to do here
+    }
+
+    @Override
+    public void endElementList(int elementTypeIndex)
+    {
+        if (useListColumns)
+        {
+            for (Object column : currentColumns)
+            {
+                if (column instanceof ListColumn)
+                {
+                    ((ListColumn) column).trim();
+                }
+            }
+        }
+        this.currentColumns = null;
+    }
+
+}
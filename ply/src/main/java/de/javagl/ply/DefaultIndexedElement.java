@@ -61,6 +61,30 @@ class DefaultIndexedElement implements MutableElement
         this.properties = new Object[propertyIndices.size()];
     }
 
+    /**
+     * Returns the mapping from property names to indices that was given in
+     * the constructor. This is the same instance for all elements that have
+     * been created for the same element type by the same target.
+     * 
+     * @return The property indices
+     */
+    Map<String, Integer> getPropertyIndices()
+    {
+        return propertyIndices;
+    }
+
+    /**
+     * Returns the value of the property with the given index, or
+     * <code>null</code> if it was not set.
+     * 
+     * @param index The index
+     * @return The value
+     */
+    Object getProperty(int index)
+    {
+        return properties[index];
+    }
+
     @Override
     public Byte getCharProperty(String name)
     {
@@ -27,10 +27,22 @@
 
 package de.javagl.ply;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
 /**
@@ -49,6 +61,23 @@ class DefaultPlyReader implements PlyReader
      */
     private Descriptor descriptor;
 
+    /**
+     * The names of the selected properties, for the element names for which
+     * properties have been selected
+     */
+    private final Map<String, Set<String>> selectedPropertyNames;
+
+    /**
+     * The names of the element types that are skipped
+     */
+    private final Set<String> skippedElementNames;
+
+    /**
+     * The element counts from the last header that was read, for the
+     * element types that are not skipped
+     */
+    private List<Integer> elementCounts;
+
     /**
      * The {@link AsciiPlyContentReader}
      */
@@ -60,13 +89,35 @@ class DefaultPlyReader implements PlyReader
     private BinaryPlyContentReader binaryContentReader;
 
     /**
-     * Creates a new instance
+     * The executor service for decoding data in parallel. This may be
+     * <code>null</code>.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * Creates a new instance that reads all data sequentially
      */
     DefaultPlyReader()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates a new instance that uses the given executor service for
+     * decoding data in parallel, where possible.
+     * 
+     * @param executorService The executor service. If this is
+     *        <code>null</code>, then all data is read sequentially.
+     */
+    DefaultPlyReader(ExecutorService executorService)
     {
         this.descriptor = null;
+        this.selectedPropertyNames = new HashMap<String, Set<String>>();
+        this.skippedElementNames = new HashSet<String>();
+        this.elementCounts = null;
         this.asciiContentReader = null;
         this.binaryContentReader = null;
+        this.executorService = executorService;
     }
 
     @Override
@@ -79,13 +130,56 @@ class DefaultPlyReader implements PlyReader
         return plyTarget.getPlySource();
     }
 
+    @Override
+    public PlySource read(Path path) throws IOException
+    {
+        try (FileChannel fileChannel =
+            FileChannel.open(path, StandardOpenOption.READ))
+        {
+            Descriptor descriptor = readDescriptor(fileChannel);
+            DefaultPlyTarget plyTarget = new DefaultPlyTarget();
+            plyTarget.setDescriptor(descriptor);
+            readContent(fileChannel, plyTarget);
+            return plyTarget.getPlySource();
+        }
+    }
+
     @Override
     public Descriptor readDescriptor(InputStream inputStream) throws IOException
+    {
+        LineReader headerLineReader = new LineReader(inputStream);
+        return readDescriptor(headerLineReader);
+    }
+
+    @Override
+    public Descriptor readDescriptor(FileChannel fileChannel)
+        throws IOException
+    {
+        // The header is read from a buffered stream, which may read beyond
+        // the end of the header. The position of the channel is afterwards
+        // set to the position directly after the header.
+        long start = fileChannel.position();
+        InputStream inputStream =
+            new BufferedInputStream(Channels.newInputStream(fileChannel));
+        LineReader headerLineReader = new LineReader(inputStream);
+        Descriptor descriptor = readDescriptor(headerLineReader);
+        fileChannel.position(start + headerLineReader.getBytesRead());
+        return descriptor;
+    }
+
+    /**
+     * Read the {@link Descriptor} from the given {@link LineReader}
+     * 
+     * @param headerLineReader The {@link LineReader}
+     * @return The {@link Descriptor}
+     * @throws IOException If an IO error occurs
+     */
+    private Descriptor readDescriptor(LineReader headerLineReader)
+        throws IOException
     {
         this.asciiContentReader = null;
         this.binaryContentReader = null;
 
-        LineReader headerLineReader = new LineReader(inputStream);
 
         DefaultDescriptor descriptor = new DefaultDescriptor();
         DefaultElementDescriptor currentElementDescriptor = null;
@@ -163,18 +257,237 @@ class DefaultPlyReader implements PlyReader
                 break;
             }
         }
-        this.descriptor = descriptor;
+        int elementTypeIndices[] = computeElementTypeIndices(descriptor);
+        int propertyIndices[][] = computePropertyIndices(descriptor);
+        this.descriptor =
+            project(descriptor, elementTypeIndices, propertyIndices);
+        this.elementCounts = new ArrayList<Integer>();
+        for (int t = 0; t < elementCounts.size(); t++)
+        {
+            if (elementTypeIndices == null || elementTypeIndices[t] >= 0)
+            {
+                this.elementCounts.add(elementCounts.get(t));
+            }
+        }
 
         if (asciiContentReader != null)
         {
             asciiContentReader.setCounts(elementCounts);
+            asciiContentReader.setElementTypeIndices(elementTypeIndices);
+            asciiContentReader.setPropertyIndices(propertyIndices);
+            asciiContentReader.setExecutorService(executorService);
         }
         if (binaryContentReader != null)
         {
             binaryContentReader.setCounts(elementCounts);
+            binaryContentReader.setElementTypeIndices(elementTypeIndices);
+            binaryContentReader.setPropertyIndices(propertyIndices);
+            binaryContentReader.setExecutorService(executorService);
         }
 
-        return descriptor;
+        return this.descriptor;
+    }
+
+    @Override
+    public void setSelectedProperties(String elementName,
+        Collection<String> propertyNames)
+    {
+        Objects.requireNonNull(elementName, "The elementName may not be null");
+        if (propertyNames == null)
+        {
+            selectedPropertyNames.remove(elementName);
+        }
+        else
+        {
+            selectedPropertyNames.put(elementName,
+                new HashSet<String>(propertyNames));
+        }
+    }
+
+    @Override
+    public void setSkippedElements(Collection<String> elementNames)
+    {
+        skippedElementNames.clear();
+        if (elementNames != null)
+        {
+            skippedElementNames.addAll(elementNames);
+        }
+    }
+
+    /**
+     * Compute the indices that the element types of the given
+     * {@link Descriptor} are passed to the target with, based on the skipped
+     * elements.
+     * 
+     * The result contains one entry for each element type. This is the
+     * index of the element type in the projected descriptor, or -1 for
+     * element types that are skipped. If no element type is skipped, then
+     * <code>null</code> is returned.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @return The element type indices
+     */
+    private int[] computeElementTypeIndices(Descriptor descriptor)
+    {
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        int elementTypeIndices[] = new int[elementDescriptors.size()];
+        int index = 0;
+        boolean skipped = false;
+        for (int t = 0; t < elementDescriptors.size(); t++)
+        {
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            if (skippedElementNames.contains(elementDescriptor.getName()))
+            {
+                elementTypeIndices[t] = -1;
+                skipped = true;
+            }
+            else
+            {
+                elementTypeIndices[t] = index++;
+            }
+        }
+        if (!skipped)
+        {
+            return null;
+        }
+        return elementTypeIndices;
+    }
+
+    /**
+     * Compute the indices that the properties of the given {@link Descriptor}
+     * are passed to the target with, based on the selected properties.
+     * 
+     * The result contains one entry for each element type. This is
+     * <code>null</code> if all properties of the element type are read.
+     * Otherwise, it is an array that contains the index of each property in
+     * the projected descriptor, or -1 for properties that are skipped. If no
+     * properties have been selected for any element type, then
+     * <code>null</code> is returned.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @return The property indices
+     */
+    private int[][] computePropertyIndices(Descriptor descriptor)
+    {
+        if (selectedPropertyNames.isEmpty())
+        {
+            return null;
+        }
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        int propertyIndices[][] = new int[elementDescriptors.size()][];
+        boolean selected = false;
+        for (int t = 0; t < elementDescriptors.size(); t++)
+        {
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            Set<String> propertyNames =
+                selectedPropertyNames.get(elementDescriptor.getName());
+            if (propertyNames == null)
+            {
+                continue;
+            }
+            List<PropertyDescriptor> propertyDescriptors =
+                elementDescriptor.getPropertyDescriptors();
+            int indices[] = new int[propertyDescriptors.size()];
+            int index = 0;
+            for (int p = 0; p < propertyDescriptors.size(); p++)
+            {
+                String propertyName = propertyDescriptors.get(p).getName();
+                if (propertyNames.contains(propertyName))
+                {
+                    indices[p] = index++;
+                }
+                else
+                {
+                    indices[p] = -1;
+                }
+            }
+            propertyIndices[t] = indices;
+            selected = true;
+        }
+        if (!selected)
+        {
+            return null;
+        }
+        return propertyIndices;
+    }
+
+    /**
+     * Create a {@link Descriptor} that only contains the element types and
+     * properties of the given {@link Descriptor} that are not skipped,
+     * according to the given indices. If the given indices are both
+     * <code>null</code>, then the given descriptor is returned.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param elementTypeIndices The element type indices, as computed with
+     *        {@link #computeElementTypeIndices(Descriptor)}
+     * @param propertyIndices The property indices, as computed with
+     *        {@link #computePropertyIndices(Descriptor)}
+     * @return The projected {@link Descriptor}
+     */
+    private static Descriptor project(Descriptor descriptor,
+        int elementTypeIndices[], int propertyIndices[][])
+    {
+        if (elementTypeIndices == null && propertyIndices == null)
+        {
+            return descriptor;
+        }
+        DefaultDescriptor projected = new DefaultDescriptor();
+        for (String comment : descriptor.getComments())
+        {
+            projected.addComment(comment);
+        }
+        List<ElementDescriptor> elementDescriptors =
+            descriptor.getElementDescriptors();
+        for (int t = 0; t < elementDescriptors.size(); t++)
+        {
+            if (elementTypeIndices != null && elementTypeIndices[t] < 0)
+            {
+                continue;
+            }
+            ElementDescriptor elementDescriptor = elementDescriptors.get(t);
+            DefaultElementDescriptor projectedElementDescriptor =
+                new DefaultElementDescriptor(elementDescriptor.getName());
+            List<PropertyDescriptor> propertyDescriptors =
+                elementDescriptor.getPropertyDescriptors();
+            for (int p = 0; p < propertyDescriptors.size(); p++)
+            {
+                if (propertyIndices != null && propertyIndices[t] != null
+                    && propertyIndices[t][p] < 0)
+                {
+                    continue;
+                }
+                PropertyDescriptor propertyDescriptor =
+                    propertyDescriptors.get(p);
+                String name = propertyDescriptor.getName();
+                PlyType type = propertyDescriptor.getType();
+                PlyType sizeType = propertyDescriptor.getSizeType();
+                if (sizeType == null)
+                {
+                    projectedElementDescriptor.addProperty(name, type);
+                }
+                else
+                {
+                    projectedElementDescriptor.addListProperty(name,
+                        sizeType, type);
+                }
+            }
+            projected.addElementDescriptor(projectedElementDescriptor);
+        }
+        return projected;
+    }
+
+    /**
+     * Returns the number of elements of each type of the {@link Descriptor}
+     * that was returned for the last header, or <code>null</code> if no
+     * header was read yet.
+     * 
+     * @return The element counts
+     */
+    List<Integer> getElementCounts()
+    {
+        return elementCounts;
     }
 
     /**
@@ -300,4 +613,23 @@ class DefaultPlyReader implements PlyReader
         }
     }
 
+    @Override
+    public void readContent(FileChannel fileChannel, PlyTarget plyTarget)
+        throws IOException
+    {
+        if (descriptor == null)
+        {
+            throw new IOException("The descriptor has not been read");
+        }
+        plyTarget.setDescriptor(descriptor);
+        if (asciiContentReader != null)
+        {
+            asciiContentReader.read(fileChannel, plyTarget);
+        }
+        else
+        {
+            binaryContentReader.read(fileChannel, plyTarget);
+        }
+    }
+
 }
\ No newline at end of file
@@ -58,6 +58,33 @@ class ElementDescriptors
         return propertyIndices;
     }
 
+    /**
+     * Compute the number of bytes that one element of the given
+     * {@link ElementDescriptor} occupies in binary PLY data.
+     * 
+     * If the element has any list properties, then the size of the elements
+     * is not fixed, and -1 will be returned.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @return The stride, or -1 if the element contains list properties
+     */
+    static int computeStride(ElementDescriptor elementDescriptor)
+    {
+        int stride = 0;
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        for (int p = 0; p < propertyDescriptors.size(); p++)
+        {
+            PropertyDescriptor propertyDescriptor = propertyDescriptors.get(p);
+            if (propertyDescriptor.getSizeType() != null)
+            {
+                return -1;
+            }
+            stride += PlyType.getSize(propertyDescriptor.getType());
+        }
+        return stride;
+    }
+
     /**
      * Private constructor to prevent instantiation
      */
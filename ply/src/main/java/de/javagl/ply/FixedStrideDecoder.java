@@ -0,0 +1,332 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Internal class for decoding blocks of elements from binary PLY data, for
+ * element types that only contain scalar properties.
+ * 
+ * Each element of such a type occupies a fixed number of bytes (the stride),
+ * and each property has a fixed offset inside the element. This allows
+ * decoding the values of a block of elements with absolute reads from a
+ * buffer, without dispatching through one {@link BinaryPropertyReader} for
+ * each property of each element.
+ */
+final class FixedStrideDecoder
+{
+    /**
+     * The maximum number of bytes that are decoded in one block. This limits
+     * the number of bytes that are touched when a block is decoded column by
+     * column.
+     */
+    private static final int MAX_BLOCK_BYTES = 1 << 16;
+
+    /**
+     * The number of bytes of one element
+     */
+    private final int stride;
+
+    /**
+     * The types of the properties
+     */
+    private final PlyType types[];
+
+    /**
+     * The offsets of the properties, in bytes, relative to the start of the
+     * element
+     */
+    private final int offsets[];
+
+    /**
+     * Creates a new instance
+     * 
+     * @param stride The stride
+     * @param types The property types
+     * @param offsets The property offsets
+     */
+    private FixedStrideDecoder(int stride, PlyType types[], int offsets[])
+    {
+        this.stride = stride;
+        this.types = types;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Creates a new decoder for the given {@link ElementDescriptor}.
+     * 
+     * If the given descriptor contains list properties, or does not contain
+     * any properties, then <code>null</code> is returned.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @return The decoder
+     */
+    static FixedStrideDecoder create(ElementDescriptor elementDescriptor)
+    {
+        return create(elementDescriptor, null);
+    }
+
+    /**
+     * Creates a new decoder for the given {@link ElementDescriptor}, that
+     * only decodes the selected properties.
+     * 
+     * The given array contains one entry for each property of the given
+     * descriptor. This is the index that the property should be passed to
+     * the target with, or a negative value if the property should be
+     * skipped. The indices of the selected properties must be 0, 1, 2...
+     * in the order of the properties. If the array is <code>null</code>,
+     * then all properties are decoded.
+     * 
+     * If the given descriptor contains list properties, or does not contain
+     * any properties, then <code>null</code> is returned.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @param propertyIndices The property indices
+     * @return The decoder
+     */
+    static FixedStrideDecoder create(ElementDescriptor elementDescriptor,
+        int propertyIndices[])
+    {
+        int stride = ElementDescriptors.computeStride(elementDescriptor);
+        if (stride <= 0)
+        {
+            return null;
+        }
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int n = propertyDescriptors.size();
+        PlyType types[] = new PlyType[n];
+        int offsets[] = new int[n];
+        int selected = 0;
+        int offset = 0;
+        for (int p = 0; p < n; p++)
+        {
+            PlyType type = propertyDescriptors.get(p).getType();
+            if (propertyIndices == null || propertyIndices[p] >= 0)
+            {
+                types[selected] = type;
+                offsets[selected] = offset;
+                selected++;
+            }
+            offset += PlyType.getSize(type);
+        }
+        return new FixedStrideDecoder(stride,
+            Arrays.copyOf(types, selected), Arrays.copyOf(offsets, selected));
+    }
+
+    /**
+     * Returns the number of bytes of one element
+     * 
+     * @return The stride
+     */
+    int getStride()
+    {
+        return stride;
+    }
+
+    /**
+     * Returns the types of the properties that are decoded. The returned
+     * array may not be modified.
+     * 
+     * @return The types
+     */
+    PlyType[] getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * Returns the offsets of the properties that are decoded, in bytes,
+     * relative to the start of the element. The returned array may not be
+     * modified.
+     * 
+     * @return The offsets
+     */
+    int[] getOffsets()
+    {
+        return offsets;
+    }
+
+    /**
+     * Returns the maximum number of elements that should be decoded in one
+     * block
+     * 
+     * @return The maximum block size
+     */
+    int getMaxBlockSize()
+    {
+        return Math.max(1, MAX_BLOCK_BYTES / stride);
+    }
+
+    /**
+     * Decode the specified block of elements from the given buffer, and pass
+     * the values to the given {@link PlyTarget}.
+     * 
+     * The position of the buffer is not modified.
+     * 
+     * @param buffer The buffer
+     * @param position The position in the buffer where the first element
+     *        starts
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element
+     * @param n The number of elements
+     * @param plyTarget The {@link PlyTarget}
+     */
+    void decode(ByteBuffer buffer, int position, int elementTypeIndex,
+        int firstElementIndex, int n, PlyTarget plyTarget)
+    {
+        int t = elementTypeIndex;
+        int elementStart = position;
+        for (int i = 0; i < n; i++)
+        {
+            int e = firstElementIndex + i;
+            plyTarget.startElement(t, e);
+            for (int p = 0; p < types.length; p++)
+            {
+                int index = elementStart + offsets[p];
+                switch (types[p])
+                {
+                    case UCHAR:
+                    case CHAR:
+                        plyTarget.handleCharProperty(t, e, p,
+                            buffer.get(index));
+                        break;
+                    case USHORT:
+                    case SHORT:
+                        plyTarget.handleShortProperty(t, e, p,
+                            buffer.getShort(index));
+                        break;
+                    case UINT:
+                    case INT:
+                        plyTarget.handleIntProperty(t, e, p,
+                            buffer.getInt(index));
+                        break;
+                    case FLOAT:
+                        plyTarget.handleFloatProperty(t, e, p,
+                            buffer.getFloat(index));
+                        break;
+                    case DOUBLE:
+                        plyTarget.handleDoubleProperty(t, e, p,
+                            buffer.getDouble(index));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            plyTarget.endElement(t, e);
+            elementStart += stride;
+        }
+    }
+
+    /**
+     * Decode the specified block of elements from the given buffer, and store
+     * the values in the given columns.
+     * 
+     * The columns are primitive arrays with types that match the property
+     * types, as they are stored in a {@link ColumnarPlySource}. The position
+     * of the buffer is not modified.
+     * 
+     * @param buffer The buffer
+     * @param position The position in the buffer where the first element
+     *        starts
+     * @param firstElementIndex The index of the first element
+     * @param n The number of elements
+     * @param columns The columns
+     */
+    void decode(ByteBuffer buffer, int position, int firstElementIndex,
+        int n, Object columns[])
+    {
+        for (int p = 0; p < types.length; p++)
+        {
+            int index = position + offsets[p];
+            int end = firstElementIndex + n;
+            switch (types[p])
+            {
+                case UCHAR:
+                case CHAR:
+                {
+                    byte column[] = (byte[]) columns[p];
+                    for (int e = firstElementIndex; e < end; e++)
+                    {
+                        column[e] = buffer.get(index);
+                        index += stride;
+                    }
+                    break;
+                }
+                case USHORT:
+                case SHORT:
+                {
+                    short column[] = (short[]) columns[p];
+                    for (int e = firstElementIndex; e < end; e++)
+                    {
+                        column[e] = buffer.getShort(index);
+                        index += stride;
+                    }
+                    break;
+                }
+                case UINT:
+                case INT:
+                {
+                    int column[] = (int[]) columns[p];
+                    for (int e = firstElementIndex; e < end; e++)
+                    {
+                        column[e] = buffer.getInt(index);
+                        index += stride;
+                    }
+                    break;
+                }
+                case FLOAT:
+                {
+                    float column[] = (float[]) columns[p];
+                    for (int e = firstElementIndex; e < end; e++)
+                    {
+                        column[e] = buffer.getFloat(index);
+                        index += stride;
+                    }
+                    break;
+                }
+                case DOUBLE:
+                {
+                    double column[] = (double[]) columns[p];
+                    for (int e = firstElementIndex; e < end; e++)
+                    {
+                        column[e] = buffer.getDouble(index);
+                        index += stride;
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+    }
+
+}
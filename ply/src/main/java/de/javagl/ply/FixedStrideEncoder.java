@@ -0,0 +1,339 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Internal class for encoding blocks of elements into binary PLY data, for
+ * element types that only contain scalar properties.
+ * 
+ * This is the counterpart of the {@link FixedStrideDecoder}: Each element of
+ * such a type occupies a fixed number of bytes (the stride), and each
+ * property has a fixed offset inside the element. This allows encoding the
+ * values of a block of elements column by column, with absolute writes into
+ * a buffer.
+ */
+final class FixedStrideEncoder
+{
+    /**
+     * The maximum number of bytes that are encoded in one block. This limits
+     * the number of bytes that are touched when a block is encoded column by
+     * column.
+     */
+    private static final int MAX_BLOCK_BYTES = 1 << 16;
+
+    /**
+     * The number of bytes of one element
+     */
+    private final int stride;
+
+    /**
+     * The types of the properties
+     */
+    private final PlyType types[];
+
+    /**
+     * The offsets of the properties, in bytes, relative to the start of the
+     * element
+     */
+    private final int offsets[];
+
+    /**
+     * Creates a new instance
+     * 
+     * @param stride The stride
+     * @param types The property types
+     * @param offsets The property offsets
+     */
+    private FixedStrideEncoder(int stride, PlyType types[], int offsets[])
+    {
+        this.stride = stride;
+        this.types = types;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Creates a new encoder for the given {@link ElementDescriptor}.
+     * 
+     * If the given descriptor contains list properties, or does not contain
+     * any properties, then <code>null</code> is returned.
+     * 
+     * @param elementDescriptor The {@link ElementDescriptor}
+     * @return The encoder
+     */
+    static FixedStrideEncoder create(ElementDescriptor elementDescriptor)
+    {
+        int stride = ElementDescriptors.computeStride(elementDescriptor);
+        if (stride <= 0)
+        {
+            return null;
+        }
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        int n = propertyDescriptors.size();
+        PlyType types[] = new PlyType[n];
+        int offsets[] = new int[n];
+        int offset = 0;
+        for (int p = 0; p < n; p++)
+        {
+            PlyType type = propertyDescriptors.get(p).getType();
+            types[p] = type;
+            offsets[p] = offset;
+            offset += PlyType.getSize(type);
+        }
+        return new FixedStrideEncoder(stride, types, offsets);
+    }
+
+    /**
+     * Returns the number of bytes of one element
+     * 
+     * @return The stride
+     */
+    int getStride()
+    {
+        return stride;
+    }
+
+    /**
+     * Returns the maximum number of elements that should be encoded in one
+     * block
+     * 
+     * @return The maximum block size
+     */
+    int getMaxBlockSize()
+    {
+        return Math.max(1, MAX_BLOCK_BYTES / stride);
+    }
+
+    /**
+     * Encode the specified block of elements from the given columns into the
+     * given buffer.
+     * 
+     * The columns are primitive arrays with types that match the property
+     * types, or functions that compute the values from the element index, as
+     * they are stored in an {@link ArrayPlySource}. The position of the
+     * buffer is not modified.
+     * 
+     * @param buffer The buffer
+     * @param position The position in the buffer where the first element
+     *        starts
+     * @param firstElementIndex The index of the first element
+     * @param n The number of elements
+     * @param columns The columns
+     */
+    void encode(ByteBuffer buffer, int position, int firstElementIndex,
+        int n, Object columns[])
+    {
+        if (types.length == 1)
+        {
+            if (encodeContiguous(buffer, position, firstElementIndex, n,
+                columns[0]))
+            {
+                return;
+            }
+        }
+        for (int p = 0; p < types.length; p++)
+        {
+            int index = position + offsets[p];
+            int end = firstElementIndex + n;
+            Object column = columns[p];
+            switch (types[p])
+            {
+                case UCHAR:
+                case CHAR:
+                {
+                    if (column instanceof byte[])
+                    {
+                        byte values[] = (byte[]) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.put(index, values[e]);
+                            index += stride;
+                        }
+                    }
+                    else
+                    {
+                        IntToByteFunction f = (IntToByteFunction) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.put(index, f.applyAsByte(e));
+                            index += stride;
+                        }
+                    }
+                    break;
+                }
+                case USHORT:
+                case SHORT:
+                {
+                    if (column instanceof short[])
+                    {
+                        short values[] = (short[]) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putShort(index, values[e]);
+                            index += stride;
+                        }
+                    }
+                    else
+                    {
+                        IntToShortFunction f = (IntToShortFunction) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putShort(index, f.applyAsShort(e));
+                            index += stride;
+                        }
+                    }
+                    break;
+                }
+                case UINT:
+                case INT:
+                {
+                    if (column instanceof int[])
+                    {
+                        int values[] = (int[]) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putInt(index, values[e]);
+                            index += stride;
+                        }
+                    }
+                    else
+                    {
+                        IntUnaryOperator f = (IntUnaryOperator) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putInt(index, f.applyAsInt(e));
+                            index += stride;
+                        }
+                    }
+                    break;
+                }
+                case FLOAT:
+                {
+                    if (column instanceof float[])
+                    {
+                        float values[] = (float[]) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putFloat(index, values[e]);
+                            index += stride;
+                        }
+                    }
+                    else
+                    {
+                        IntToFloatFunction f = (IntToFloatFunction) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putFloat(index, f.applyAsFloat(e));
+                            index += stride;
+                        }
+                    }
+                    break;
+                }
+                case DOUBLE:
+                {
+                    if (column instanceof double[])
+                    {
+                        double values[] = (double[]) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putDouble(index, values[e]);
+                            index += stride;
+                        }
+                    }
+                    else
+                    {
+                        IntToDoubleFunction f = (IntToDoubleFunction) column;
+                        for (int e = firstElementIndex; e < end; e++)
+                        {
+                            buffer.putDouble(index, f.applyAsDouble(e));
+                            index += stride;
+                        }
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Encode the specified block of elements of an element type that only
+     * has a single property. If the given column is an array, then the
+     * values are contiguous in the buffer, and written with a single bulk
+     * operation into a view of the buffer. Otherwise, <code>false</code> is
+     * returned.
+     * 
+     * @param buffer The buffer
+     * @param position The position in the buffer where the first element
+     *        starts
+     * @param firstElementIndex The index of the first element
+     * @param n The number of elements
+     * @param column The column
+     * @return Whether the values have been written
+     */
+    private static boolean encodeContiguous(ByteBuffer buffer, int position,
+        int firstElementIndex, int n, Object column)
+    {
+        ByteBuffer view = buffer.duplicate();
+        view.order(buffer.order());
+        view.position(position);
+        if (column instanceof byte[])
+        {
+            view.put((byte[]) column, firstElementIndex, n);
+            return true;
+        }
+        if (column instanceof short[])
+        {
+            view.asShortBuffer().put((short[]) column, firstElementIndex, n);
+            return true;
+        }
+        if (column instanceof int[])
+        {
+            view.asIntBuffer().put((int[]) column, firstElementIndex, n);
+            return true;
+        }
+        if (column instanceof float[])
+        {
+            view.asFloatBuffer().put((float[]) column, firstElementIndex, n);
+            return true;
+        }
+        if (column instanceof double[])
+        {
+            view.asDoubleBuffer().put(
+                (double[]) column, firstElementIndex, n);
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -47,6 +47,11 @@ class LineReader
      */
     private final InputStream inputStream;
 
+    /**
+     * The number of bytes that have been read from the input stream
+     */
+    private long bytesRead;
+
     /**
      * Create a LineReader that reads from the given InputStream.
      * 
@@ -58,6 +63,17 @@ class LineReader
             "The inputStream may not be null");
     }
 
+    /**
+     * Returns the number of bytes that have been read from the underlying
+     * InputStream, including the line separators.
+     * 
+     * @return The number of bytes
+     */
+    long getBytesRead()
+    {
+        return bytesRead;
+    }
+
     /**
      * Read a single line from the underlying InputStream.
      * 
@@ -79,7 +95,8 @@ class LineReader
                 }
                 return sb.toString();
             }
-            else if (i == '\r')
+            bytesRead++;
+            if (i == '\r')
             {
                 continue;
             }
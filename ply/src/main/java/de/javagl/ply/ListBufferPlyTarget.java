@@ -0,0 +1,110 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+/**
+ * Extension of the {@link PlyTarget} interface for targets that receive the
+ * values of list properties in reused buffers.
+ * 
+ * When a {@link PlyReader} passes data to a target that implements this
+ * interface, then it will call the <code>handle...ListProperty</code>
+ * methods that receive a buffer and a length, instead of the methods that
+ * receive a new array for each list property of each element. The buffer
+ * is owned by the reader, and may be reused for subsequent calls. Its
+ * contents are only valid for the duration of the call, and only the first
+ * <code>length</code> entries are valid. Implementations that want to keep
+ * the values have to copy them into their own data structures.
+ */
+public interface ListBufferPlyTarget extends PlyTarget
+{
+    /**
+     * Will be called to handle the specified list property of the specified
+     * element.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The index of the element
+     * @param propertyIndex The index of the property
+     * @param buffer The buffer containing the values of the property
+     * @param length The number of values
+     */
+    void handleCharListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte buffer[], int length);
+
+    /**
+     * Will be called to handle the specified list property of the specified
+     * element.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The index of the element
+     * @param propertyIndex The index of the property
+     * @param buffer The buffer containing the values of the property
+     * @param length The number of values
+     */
+    void handleShortListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short buffer[], int length);
+
+    /**
+     * Will be called to handle the specified list property of the specified
+     * element.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The index of the element
+     * @param propertyIndex The index of the property
+     * @param buffer The buffer containing the values of the property
+     * @param length The number of values
+     */
+    void handleIntListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int buffer[], int length);
+
+    /**
+     * Will be called to handle the specified list property of the specified
+     * element.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The index of the element
+     * @param propertyIndex The index of the property
+     * @param buffer The buffer containing the values of the property
+     * @param length The number of values
+     */
+    void handleFloatListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float buffer[], int length);
+
+    /**
+     * Will be called to handle the specified list property of the specified
+     * element.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The index of the element
+     * @param propertyIndex The index of the property
+     * @param buffer The buffer containing the values of the property
+     * @param length The number of values
+     */
+    void handleDoubleListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double buffer[], int length);
+
+}
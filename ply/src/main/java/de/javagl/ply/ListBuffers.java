@@ -0,0 +1,156 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+/**
+ * Internal class holding the buffers that are passed to a
+ * {@link ListBufferPlyTarget}. The buffers grow as necessary, and are reused
+ * for all list properties of one type.
+ */
+class ListBuffers
+{
+    /**
+     * The initial length of the buffers
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * The buffer for byte values
+     */
+    private byte charBuffer[] = new byte[INITIAL_LENGTH];
+
+    /**
+     * The buffer for short values
+     */
+    private short shortBuffer[] = new short[INITIAL_LENGTH];
+
+    /**
+     * The buffer for int values
+     */
+    private int intBuffer[] = new int[INITIAL_LENGTH];
+
+    /**
+     * The buffer for float values
+     */
+    private float floatBuffer[] = new float[INITIAL_LENGTH];
+
+    /**
+     * The buffer for double values
+     */
+    private double doubleBuffer[] = new double[INITIAL_LENGTH];
+
+    /**
+     * Compute the new length for a buffer that has the given length, but
+     * must have at least the given minimum length
+     * 
+     * @param length The current length
+     * @param minLength The minimum length
+     * @return The new length
+     */
+    private static int newLength(int length, int minLength)
+    {
+        return (int) Math.min(Integer.MAX_VALUE - 8,
+            Math.max(minLength, (long) length * 2));
+    }
+
+    /**
+     * Returns a buffer with at least the given length
+     * 
+     * @param minLength The minimum length
+     * @return The buffer
+     */
+    byte[] getCharBuffer(int minLength)
+    {
+        if (charBuffer.length < minLength)
+        {
+            charBuffer = new byte[newLength(charBuffer.length, minLength)];
+        }
+        return charBuffer;
+    }
+
+    /**
+     * Returns a buffer with at least the given length
+     * 
+     * @param minLength The minimum length
+     * @return The buffer
+     */
+    short[] getShortBuffer(int minLength)
+    {
+        if (shortBuffer.length < minLength)
+        {
+            shortBuffer = new short[newLength(shortBuffer.length, minLength)];
+        }
+        return shortBuffer;
+    }
+
+    /**
+     * Returns a buffer with at least the given length
+     * 
+     * @param minLength The minimum length
+     * @return The buffer
+     */
+    int[] getIntBuffer(int minLength)
+    {
+        if (intBuffer.length < minLength)
+        {
+            intBuffer = new int[newLength(intBuffer.length, minLength)];
+        }
+        return intBuffer;
+    }
+
+    /**
+     * Returns a buffer with at least the given length
+     * 
+     * @param minLength The minimum length
+     * @return The buffer
+     */
+    float[] getFloatBuffer(int minLength)
+    {
+        if (floatBuffer.length < minLength)
+        {
+            floatBuffer = new float[newLength(floatBuffer.length, minLength)];
+        }
+        return floatBuffer;
+    }
+
+    /**
+     * Returns a buffer with at least the given length
+     * 
+     * @param minLength The minimum length
+     * @return The buffer
+     */
+    double[] getDoubleBuffer(int minLength)
+    {
+        if (doubleBuffer.length < minLength)
+        {
+            doubleBuffer =
+                new double[newLength(doubleBuffer.length, minLength)];
+        }
+        return doubleBuffer;
+    }
+}
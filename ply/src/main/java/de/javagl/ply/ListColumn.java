@@ -0,0 +1,623 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.util.Arrays;
+
+/**
+ * A column for the values of a list property.
+ * 
+ * The contents of the lists of all elements are stored in a single primitive
+ * data array. An offsets array with <code>elementCount+1</code> entries
+ * contains the position in the data array where the list of each element
+ * starts. The list of element <code>i</code> consists of the data array
+ * entries from <code>offsets[i]</code> (inclusive) to
+ * <code>offsets[i+1]</code> (exclusive). This corresponds to the
+ * "compressed sparse row" layout.
+ * 
+ * The data array has the type that corresponds to the property type, and can
+ * be obtained with the <code>get...Data</code> method of the respective type.
+ * 
+ * Instances of this class are created by a {@link ColumnarPlyTarget}. They
+ * can be passed to an {@link ArrayPlySource} to write the lists.
+ */
+public final class ListColumn
+{
+    /**
+     * The minimum capacity of the data array
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The maximum capacity of the data array. Some VMs can not allocate
+     * arrays that are larger than this.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    /**
+     * The type of the list elements
+     */
+    private final PlyType type;
+
+    /**
+     * The offsets. The list of element <code>i</code> starts at
+     * <code>offsets[i]</code> and ends at <code>offsets[i+1]</code>.
+     */
+    private final int offsets[];
+
+    /**
+     * The data array. This is a primitive array with a type that corresponds
+     * to the {@link #type}.
+     */
+    private Object data;
+
+    /**
+     * The number of elements that have been added
+     */
+    private int elementCount;
+
+    /**
+     * The number of entries of the data array that are used
+     */
+    private int size;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param type The type of the list elements
+     * @param maxElementCount The maximum number of elements
+     */
+    ListColumn(PlyType type, int maxElementCount)
+    {
+        this.type = type;
+        this.offsets = new int[maxElementCount + 1];
+        this.data = createData(type, Math.max(MIN_CAPACITY, maxElementCount));
+        this.elementCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Creates a new instance that wraps the given arrays, which are not
+     * copied.
+     * 
+     * @param type The type of the list elements
+     * @param data The data array, with a type that matches the given type
+     * @param offsets The offsets, with at least <code>elementCount+1</code>
+     *        entries
+     * @param elementCount The number of elements
+     */
+    ListColumn(PlyType type, Object data, int offsets[], int elementCount)
+    {
+        this.type = type;
+        this.offsets = offsets;
+        this.data = data;
+        this.elementCount = elementCount;
+        this.size = offsets[elementCount];
+    }
+
+    /**
+     * Create a primitive array for the given type
+     * 
+     * @param type The type
+     * @param length The length of the array
+     * @return The array
+     * @throws IllegalArgumentException If the type is not known
+     */
+    static Object createData(PlyType type, int length)
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return new byte[length];
+            case USHORT:
+            case SHORT:
+                return new short[length];
+            case UINT:
+            case INT:
+                return new int[length];
+            case FLOAT:
+                return new float[length];
+            case DOUBLE:
+                return new double[length];
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown property type: " + type);
+    }
+
+    /**
+     * Make sure that the data array can store the given number of additional
+     * entries, resizing it if necessary.
+     * 
+     * @param n The number of additional entries
+     */
+    private void ensureCapacity(int n)
+    {
+        long required = (long) size + n;
+        if (required > MAX_CAPACITY)
+        {
+            throw new IllegalStateException(
+                "The list column can not store more than "
+                    + MAX_CAPACITY + " values");
+        }
+        int capacity = capacity();
+        if (required <= capacity)
+        {
+            return;
+        }
+        long doubledCapacity = Math.min((long) capacity * 2, MAX_CAPACITY);
+        resize((int) Math.max(required, doubledCapacity));
+    }
+
+    /**
+     * Returns the length of the data array
+     * 
+     * @return The length
+     */
+    private int capacity()
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return ((byte[]) data).length;
+            case USHORT:
+            case SHORT:
+                return ((short[]) data).length;
+            case UINT:
+            case INT:
+                return ((int[]) data).length;
+            case FLOAT:
+                return ((float[]) data).length;
+            case DOUBLE:
+                return ((double[]) data).length;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown property type: " + type);
+    }
+
+    /**
+     * Resize the data array to the given length
+     * 
+     * @param length The new length
+     */
+    private void resize(int length)
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                data = Arrays.copyOf((byte[]) data, length);
+                return;
+            case USHORT:
+            case SHORT:
+                data = Arrays.copyOf((short[]) data, length);
+                return;
+            case UINT:
+            case INT:
+                data = Arrays.copyOf((int[]) data, length);
+                return;
+            case FLOAT:
+                data = Arrays.copyOf((float[]) data, length);
+                return;
+            case DOUBLE:
+                data = Arrays.copyOf((double[]) data, length);
+                return;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown property type: " + type);
+    }
+
+    /**
+     * Trim the data array so that its length is the number of entries that
+     * are actually used.
+     */
+    void trim()
+    {
+        if (capacity() != size)
+        {
+            resize(size);
+        }
+    }
+
+    /**
+     * Remove all lists from this column, so that it can be filled with the
+     * lists of other elements. The data array is kept.
+     */
+    void clear()
+    {
+        elementCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Finish the list of the next element, after <code>length</code> values
+     * have been added to the data array
+     * 
+     * @param length The length of the list
+     */
+    private void finishElement(int length)
+    {
+        size += length;
+        elementCount++;
+        offsets[elementCount] = size;
+    }
+
+    /**
+     * Add the given values as the list of the next element
+     * 
+     * @param values The values
+     * @param length The number of values
+     */
+    void addChars(byte values[], int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(values, 0, data, size, length);
+        finishElement(length);
+    }
+
+    /**
+     * Add the given values as the list of the next element
+     * 
+     * @param values The values
+     * @param length The number of values
+     */
+    void addShorts(short values[], int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(values, 0, data, size, length);
+        finishElement(length);
+    }
+
+    /**
+     * Add the given values as the list of the next element
+     * 
+     * @param values The values
+     * @param length The number of values
+     */
+    void addInts(int values[], int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(values, 0, data, size, length);
+        finishElement(length);
+    }
+
+    /**
+     * Add the given values as the list of the next element
+     * 
+     * @param values The values
+     * @param length The number of values
+     */
+    void addFloats(float values[], int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(values, 0, data, size, length);
+        finishElement(length);
+    }
+
+    /**
+     * Add the given values as the list of the next element
+     * 
+     * @param values The values
+     * @param length The number of values
+     */
+    void addDoubles(double values[], int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(values, 0, data, size, length);
+        finishElement(length);
+    }
+
+    /**
+     * Add the lists of all elements of the given column as the lists of the
+     * next elements of this column
+     * 
+     * @param other The other column, which must have the same type
+     */
+    void addAll(ListColumn other)
+    {
+        int n = other.size;
+        ensureCapacity(n);
+        System.arraycopy(other.data, 0, data, size, n);
+        for (int i = 0; i < other.elementCount; i++)
+        {
+            offsets[elementCount + 1 + i] = size + other.offsets[i + 1];
+        }
+        size += n;
+        elementCount += other.elementCount;
+    }
+
+    /**
+     * Returns the type of the list elements
+     * 
+     * @return The type
+     */
+    public PlyType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Returns the number of elements that this column contains lists for
+     * 
+     * @return The number of elements
+     */
+    public int getElementCount()
+    {
+        return elementCount;
+    }
+
+    /**
+     * Returns the offsets array.
+     * 
+     * This is a reference to the internal array. It contains
+     * <code>getElementCount()+1</code> entries, where entry <code>i</code>
+     * is the position in the data array where the list of element
+     * <code>i</code> starts, and the last entry is the total number of values.
+     * 
+     * @return The offsets
+     */
+    public int[] getOffsets()
+    {
+        return offsets;
+    }
+
+    /**
+     * Returns the position in the data array where the list of the specified
+     * element starts
+     * 
+     * @param elementIndex The element index
+     * @return The offset
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     */
+    public int getOffset(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return offsets[elementIndex];
+    }
+
+    /**
+     * Returns the length of the list of the specified element
+     * 
+     * @param elementIndex The element index
+     * @return The length
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     */
+    public int getLength(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return offsets[elementIndex + 1] - offsets[elementIndex];
+    }
+
+    /**
+     * Make sure that the given element index is valid
+     * 
+     * @param elementIndex The element index
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     */
+    private void checkIndex(int elementIndex)
+    {
+        if (elementIndex < 0 || elementIndex >= elementCount)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index " + elementIndex + ", size " + elementCount);
+        }
+    }
+
+    /**
+     * Returns the data array.
+     * 
+     * This is a reference to the internal array.
+     * 
+     * @return The data
+     * @throws ClassCastException If the type of the list elements is not
+     *         {@link PlyType#CHAR} or {@link PlyType#UCHAR}
+     */
+    public byte[] getCharData()
+    {
+        return (byte[]) data;
+    }
+
+    /**
+     * Returns the data array.
+     * 
+     * This is a reference to the internal array.
+     * 
+     * @return The data
+     * @throws ClassCastException If the type of the list elements is not
+     *         {@link PlyType#SHORT} or {@link PlyType#USHORT}
+     */
+    public short[] getShortData()
+    {
+        return (short[]) data;
+    }
+
+    /**
+     * Returns the data array.
+     * 
+     * This is a reference to the internal array.
+     * 
+     * @return The data
+     * @throws ClassCastException If the type of the list elements is not
+     *         {@link PlyType#INT} or {@link PlyType#UINT}
+     */
+    public int[] getIntData()
+    {
+        return (int[]) data;
+    }
+
+    /**
+     * Returns the data array.
+     * 
+     * This is a reference to the internal array.
+     * 
+     * @return The data
+     * @throws ClassCastException If the type of the list elements is not
+     *         {@link PlyType#FLOAT}
+     */
+    public float[] getFloatData()
+    {
+        return (float[]) data;
+    }
+
+    /**
+     * Returns the data array.
+     * 
+     * This is a reference to the internal array.
+     * 
+     * @return The data
+     * @throws ClassCastException If the type of the list elements is not
+     *         {@link PlyType#DOUBLE}
+     */
+    public double[] getDoubleData()
+    {
+        return (double[]) data;
+    }
+
+    /**
+     * Returns a new array containing the list of the specified element
+     * 
+     * @param elementIndex The element index
+     * @return The list
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     * @throws ClassCastException If the type of the list elements does not
+     *         match
+     */
+    public byte[] getCharList(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return Arrays.copyOfRange((byte[]) data, offsets[elementIndex],
+            offsets[elementIndex + 1]);
+    }
+
+    /**
+     * Returns a new array containing the list of the specified element
+     * 
+     * @param elementIndex The element index
+     * @return The list
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     * @throws ClassCastException If the type of the list elements does not
+     *         match
+     */
+    public short[] getShortList(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return Arrays.copyOfRange((short[]) data, offsets[elementIndex],
+            offsets[elementIndex + 1]);
+    }
+
+    /**
+     * Returns a new array containing the list of the specified element
+     * 
+     * @param elementIndex The element index
+     * @return The list
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     * @throws ClassCastException If the type of the list elements does not
+     *         match
+     */
+    public int[] getIntList(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return Arrays.copyOfRange((int[]) data, offsets[elementIndex],
+            offsets[elementIndex + 1]);
+    }
+
+    /**
+     * Returns a new array containing the list of the specified element
+     * 
+     * @param elementIndex The element index
+     * @return The list
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     * @throws ClassCastException If the type of the list elements does not
+     *         match
+     */
+    public float[] getFloatList(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return Arrays.copyOfRange((float[]) data, offsets[elementIndex],
+            offsets[elementIndex + 1]);
+    }
+
+    /**
+     * Returns a new array containing the list of the specified element
+     * 
+     * @param elementIndex The element index
+     * @return The list
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     *         smaller than the number of elements
+     * @throws ClassCastException If the type of the list elements does not
+     *         match
+     */
+    public double[] getDoubleList(int elementIndex)
+    {
+        checkIndex(elementIndex);
+        return Arrays.copyOfRange((double[]) data, offsets[elementIndex],
+            offsets[elementIndex + 1]);
+    }
+
+    /**
+     * Returns a new array containing the list of the specified element. The
+     * type of the array corresponds to the type of the list elements.
+     * 
+     * @param elementIndex The element index
+     * @return The list
+     */
+    Object getList(int elementIndex)
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return getCharList(elementIndex);
+            case USHORT:
+            case SHORT:
+                return getShortList(elementIndex);
+            case UINT:
+            case INT:
+                return getIntList(elementIndex);
+            case FLOAT:
+                return getFloatList(elementIndex);
+            case DOUBLE:
+                return getDoubleList(elementIndex);
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown property type: " + type);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Objects;
+
+/**
+ * Implementation of a {@link ByteInput} that reads the data from a region of
+ * a file channel, via memory-mapped windows.
+ * 
+ * Each window covers at most {@link #windowSize} bytes of the file, so that
+ * files that are larger than 2 GB are handled by a sequence of mappings.
+ * When a value crosses the end of a window, a new window is mapped that
+ * starts at the first byte that has not been read yet.
+ */
+final class MappedByteInput extends ByteInput
+{
+    /**
+     * The default size of a single mapped window
+     */
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The file channel
+     */
+    private final FileChannel fileChannel;
+
+    /**
+     * The byte order
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * The position in the file where the readable region ends (exclusive)
+     */
+    private final long end;
+
+    /**
+     * The maximum size of a single window
+     */
+    private final int windowSize;
+
+    /**
+     * The position in the file where the current window starts
+     */
+    private long windowStart;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param fileChannel The file channel
+     * @param start The position in the file where reading should start
+     * @param end The position in the file where reading should end
+     *        (exclusive)
+     * @param byteOrder The byte order
+     * @param windowSize The maximum size of a single window
+     */
+    MappedByteInput(FileChannel fileChannel, long start, long end,
+        ByteOrder byteOrder, int windowSize)
+    {
+        this.fileChannel = Objects.requireNonNull(fileChannel,
+            "The fileChannel may not be null");
+        this.byteOrder = byteOrder;
+        this.end = end;
+        this.windowSize = windowSize;
+        this.windowStart = start;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Returns the file channel that the data is read from
+     * 
+     * @return The file channel
+     */
+    FileChannel getFileChannel()
+    {
+        return fileChannel;
+    }
+
+    /**
+     * Returns the position in the file that the next value will be read from
+     * 
+     * @return The position
+     */
+    long position()
+    {
+        return windowStart + buffer.position();
+    }
+
+    @Override
+    int capacity()
+    {
+        return windowSize;
+    }
+
+    @Override
+    boolean refill() throws IOException
+    {
+        long position = position();
+        long windowEnd = windowStart + buffer.limit();
+        long newWindowEnd = Math.min(end, position + windowSize);
+        if (newWindowEnd <= windowEnd)
+        {
+            return false;
+        }
+        map(position, newWindowEnd);
+        return true;
+    }
+
+    @Override
+    void skip(long n) throws IOException
+    {
+        long newPosition = position() + n;
+        if (newPosition > end)
+        {
+            throw new IOException("Unexpected end of input");
+        }
+        if (newPosition <= windowStart + buffer.limit())
+        {
+            buffer.position((int) (newPosition - windowStart));
+        }
+        else
+        {
+            this.windowStart = newPosition;
+            this.buffer = ByteBuffer.allocate(0);
+        }
+    }
+
+    /**
+     * Map the specified region of the file into the {@link #buffer}
+     * 
+     * @param start The start position
+     * @param windowEnd The end position (exclusive)
+     * @throws IOException If an IO error occurs
+     */
+    private void map(long start, long windowEnd) throws IOException
+    {
+        ByteBuffer newBuffer =
+            fileChannel.map(MapMode.READ_ONLY, start, windowEnd - start);
+        newBuffer.order(byteOrder);
+        this.windowStart = start;
+        this.buffer = newBuffer;
+    }
+
+}
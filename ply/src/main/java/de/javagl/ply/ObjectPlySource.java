@@ -33,9 +33,23 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.RandomAccess;
 import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
 
 /**
- * Implementation of a {@link PlySource} that can be backed by list of objects
+ * Implementation of a {@link PlySource} that can be backed by list of objects.
+ * 
+ * The properties are provided by getters that are applied to the objects.
+ * When all properties of an element type only have scalar types, the object
+ * list implements <code>RandomAccess</code>, and the getters match the
+ * property types, then a {@link PlyWriter} reads the values directly from
+ * the objects, without creating {@link Element} objects. The primitive
+ * getters, like the ones that are passed to
+ * {@link Handle#withPrimitiveFloat(String, ToFloatFunction)}, additionally
+ * avoid boxing the values. Note that the getters may then be called from
+ * multiple threads, if the writer was created with an executor service.
  */
 public final class ObjectPlySource implements PlySource
 {
@@ -97,6 +111,36 @@ public final class ObjectPlySource implements PlySource
         return elementHandle;
     }
 
+    /**
+     * Register the given objects, whose class has a {@link PlyElement}
+     * annotation, to be provided by this instance.
+     * 
+     * This registers the element type with the name that is given by the
+     * {@link PlyElement} annotation. The values of the properties are
+     * obtained from the fields that have a {@link PlyProperty} annotation.
+     * The configuration is derived from the annotations only once for each
+     * class.
+     * 
+     * @param <T> The element type
+     * @param type The class
+     * @param objects The objects
+     * @return The {@link Handle}
+     * @throws IllegalArgumentException If the class does not have a
+     *         {@link PlyElement} annotation, or one of its fields with a
+     *         {@link PlyProperty} annotation is static or has an
+     *         unsupported type
+     * @throws IllegalStateException If the element type was already
+     *         registered
+     */
+    public <T> Handle<T> register(Class<T> type, List<T> objects)
+    {
+        PlyMapping plyMapping = PlyMapping.get(type);
+        Handle<T> elementHandle =
+            register(plyMapping.getElementName(), objects);
+        elementHandle.propertyProviders.putAll(plyMapping.getGetters());
+        return elementHandle;
+    }
+
     /**
      * The handle that is returned from
      * {@link ObjectPlySource#register(String, List)} and that allows
@@ -113,9 +157,11 @@ public final class ObjectPlySource implements PlySource
 
         /**
          * The mapping from property names to the providers for the property
-         * values.
+         * values. These are either <code>Function</code> instances that
+         * return boxed values or arrays, or one of the primitive getter
+         * types, like {@link ToFloatFunction}.
          */
-        private final Map<String, Function<T, ?>> propertyProviders;
+        private final Map<String, Object> propertyProviders;
 
         /**
          * Creates a new instance with the given objects
@@ -125,8 +171,7 @@ public final class ObjectPlySource implements PlySource
         Handle(List<T> objects)
         {
             this.objects = objects;
-            this.propertyProviders =
-                new LinkedHashMap<String, Function<T, ?>>();
+            this.propertyProviders = new LinkedHashMap<String, Object>();
         }
 
         /**
@@ -214,6 +259,96 @@ public final class ObjectPlySource implements PlySource
             return this;
         }
 
+        /**
+         * Provide the specified property with the given primitive getter.
+         * 
+         * Unlike the getter that is passed to {@link #withByte}, this
+         * getter provides the values without boxing them. It may only be
+         * used for <code>char</code> or <code>uchar</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param getter The getter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveByte(String propertyName,
+            ToByteFunction<T> getter)
+        {
+            this.propertyProviders.put(propertyName, getter);
+            return this;
+        }
+
+        /**
+         * Provide the specified property with the given primitive getter.
+         * 
+         * Unlike the getter that is passed to {@link #withShort}, this
+         * getter provides the values without boxing them. It may only be
+         * used for <code>short</code> or <code>ushort</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param getter The getter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveShort(String propertyName,
+            ToShortFunction<T> getter)
+        {
+            this.propertyProviders.put(propertyName, getter);
+            return this;
+        }
+
+        /**
+         * Provide the specified property with the given primitive getter.
+         * 
+         * Unlike the getter that is passed to {@link #withInt}, this
+         * getter provides the values without boxing them. It may only be
+         * used for <code>int</code> or <code>uint</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param getter The getter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveInt(String propertyName,
+            ToIntFunction<T> getter)
+        {
+            this.propertyProviders.put(propertyName, getter);
+            return this;
+        }
+
+        /**
+         * Provide the specified property with the given primitive getter.
+         * 
+         * Unlike the getter that is passed to {@link #withFloat}, this
+         * getter provides the values without boxing them. It may only be
+         * used for <code>float</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param getter The getter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveFloat(String propertyName,
+            ToFloatFunction<T> getter)
+        {
+            this.propertyProviders.put(propertyName, getter);
+            return this;
+        }
+
+        /**
+         * Provide the specified property with the given primitive getter.
+         * 
+         * Unlike the getter that is passed to {@link #withDouble}, this
+         * getter provides the values without boxing them. It may only be
+         * used for <code>double</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param getter The getter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveDouble(String propertyName,
+            ToDoubleFunction<T> getter)
+        {
+            this.propertyProviders.put(propertyName, getter);
+            return this;
+        }
+
         /**
          * Provide the specified property with the given getter.
          * 
@@ -321,95 +456,287 @@ public final class ObjectPlySource implements PlySource
                 @Override
                 public Byte getCharProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    Byte typedResult = (Byte) result;
-                    return typedResult;
+                    return (Byte) getValue(name, object);
                 }
 
                 @Override
                 public Short getShortProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    Short typedResult = (Short) result;
-                    return typedResult;
+                    return (Short) getValue(name, object);
                 }
 
                 @Override
                 public Integer getIntProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    Integer typedResult = (Integer) result;
-                    return typedResult;
+                    return (Integer) getValue(name, object);
                 }
 
                 @Override
                 public Float getFloatProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    Float typedResult = (Float) result;
-                    return typedResult;
+                    return (Float) getValue(name, object);
                 }
 
                 @Override
                 public Double getDoubleProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    Double typedResult = (Double) result;
-                    return typedResult;
+                    return (Double) getValue(name, object);
                 }
 
                 @Override
                 public byte[] getCharListProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    byte[] typedResult = (byte[]) result;
-                    return typedResult;
+                    return (byte[]) getValue(name, object);
                 }
 
                 @Override
                 public short[] getShortListProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    short[] typedResult = (short[]) result;
-                    return typedResult;
+                    return (short[]) getValue(name, object);
                 }
 
                 @Override
                 public int[] getIntListProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    int[] typedResult = (int[]) result;
-                    return typedResult;
+                    return (int[]) getValue(name, object);
                 }
 
                 @Override
                 public float[] getFloatListProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    float[] typedResult = (float[]) result;
-                    return typedResult;
+                    return (float[]) getValue(name, object);
                 }
 
                 @Override
                 public double[] getDoubleListProperty(String name)
                 {
-                    Function<T, ?> getter = propertyProviders.get(name);
-                    Object result = getter.apply(object);
-                    double[] typedResult = (double[]) result;
-                    return typedResult;
+                    return (double[]) getValue(name, object);
                 }
 
             };
         }
+
+        /**
+         * Returns the value of the specified property for the given object,
+         * boxing it if it is provided by a primitive getter
+         * 
+         * @param name The property name
+         * @param object The object
+         * @return The value
+         */
+        @SuppressWarnings("unchecked")
+        private Object getValue(String name, T object)
+        {
+            Object provider = propertyProviders.get(name);
+            if (provider instanceof ToByteFunction<?>)
+            {
+                return ((ToByteFunction<T>) provider).applyAsByte(object);
+            }
+            if (provider instanceof ToShortFunction<?>)
+            {
+                return ((ToShortFunction<T>) provider).applyAsShort(object);
+            }
+            if (provider instanceof ToIntFunction<?>)
+            {
+                return ((ToIntFunction<T>) provider).applyAsInt(object);
+            }
+            if (provider instanceof ToFloatFunction<?>)
+            {
+                return ((ToFloatFunction<T>) provider).applyAsFloat(object);
+            }
+            if (provider instanceof ToDoubleFunction<?>)
+            {
+                return ((ToDoubleFunction<T>) provider).applyAsDouble(object);
+            }
+            return ((Function<T, ?>) provider).apply(object);
+        }
+
+        /**
+         * Create the columns for the elements of the given type, as they
+         * are stored in an {@link ArrayPlySource}. These are functions that
+         * receive the element index, and apply the getters to the
+         * corresponding object.
+         * 
+         * This returns <code>null</code> if the element type contains a list
+         * property, a property for which no getter was given, or a property
+         * whose type does not match its getter, or if the objects do not
+         * implement <code>RandomAccess</code>.
+         * 
+         * @param elementDescriptor The {@link ElementDescriptor}
+         * @return The columns
+         */
+        private Object[] createColumns(ElementDescriptor elementDescriptor)
+        {
+            if (!(objects instanceof RandomAccess))
+            {
+                return null;
+            }
+            List<PropertyDescriptor> propertyDescriptors =
+                elementDescriptor.getPropertyDescriptors();
+            Object columns[] = new Object[propertyDescriptors.size()];
+            for (int p = 0; p < propertyDescriptors.size(); p++)
+            {
+                PropertyDescriptor propertyDescriptor =
+                    propertyDescriptors.get(p);
+                if (propertyDescriptor.isList())
+                {
+                    return null;
+                }
+                Object provider =
+                    propertyProviders.get(propertyDescriptor.getName());
+                if (provider == null)
+                {
+                    return null;
+                }
+                columns[p] =
+                    createColumn(propertyDescriptor.getType(), provider);
+                if (columns[p] == null)
+                {
+                    return null;
+                }
+            }
+            return columns;
+        }
+
+        /**
+         * Create the column for a scalar property with the given type, from
+         * the given getter.
+         * 
+         * This returns <code>null</code> if the getter is a primitive getter
+         * that does not match the given type.
+         * 
+         * @param type The property type
+         * @param provider The getter
+         * @return The column
+         */
+        @SuppressWarnings("unchecked")
+        private Object createColumn(PlyType type, Object provider)
+        {
+            boolean boxed = provider instanceof Function<?, ?>;
+            switch (type)
+            {
+                case UCHAR:
+                case CHAR:
+                    if (provider instanceof ToByteFunction<?>)
+                    {
+                        ToByteFunction<T> f = (ToByteFunction<T>) provider;
+                        return (IntToByteFunction) i ->
+                            f.applyAsByte(objects.get(i));
+                    }
+                    if (boxed)
+                    {
+                        Function<T, Byte> f = (Function<T, Byte>) provider;
+                        return (IntToByteFunction) i ->
+                            f.apply(objects.get(i));
+                    }
+                    break;
+                case USHORT:
+                case SHORT:
+                    if (provider instanceof ToShortFunction<?>)
+                    {
+                        ToShortFunction<T> f = (ToShortFunction<T>) provider;
+                        return (IntToShortFunction) i ->
+                            f.applyAsShort(objects.get(i));
+                    }
+                    if (boxed)
+                    {
+                        Function<T, Short> f = (Function<T, Short>) provider;
+                        return (IntToShortFunction) i ->
+                            f.apply(objects.get(i));
+                    }
+                    break;
+                case UINT:
+                case INT:
+                    if (provider instanceof ToIntFunction<?>)
+                    {
+                        ToIntFunction<T> f = (ToIntFunction<T>) provider;
+                        return (IntUnaryOperator) i ->
+                            f.applyAsInt(objects.get(i));
+                    }
+                    if (boxed)
+                    {
+                        Function<T, Integer> f =
+                            (Function<T, Integer>) provider;
+                        return (IntUnaryOperator) i ->
+                            f.apply(objects.get(i));
+                    }
+                    break;
+                case FLOAT:
+                    if (provider instanceof ToFloatFunction<?>)
+                    {
+                        ToFloatFunction<T> f = (ToFloatFunction<T>) provider;
+                        return (IntToFloatFunction) i ->
+                            f.applyAsFloat(objects.get(i));
+                    }
+                    if (boxed)
+                    {
+                        Function<T, Float> f = (Function<T, Float>) provider;
+                        return (IntToFloatFunction) i ->
+                            f.apply(objects.get(i));
+                    }
+                    break;
+                case DOUBLE:
+                    if (provider instanceof ToDoubleFunction<?>)
+                    {
+                        ToDoubleFunction<T> f =
+                            (ToDoubleFunction<T>) provider;
+                        return (IntToDoubleFunction) i ->
+                            f.applyAsDouble(objects.get(i));
+                    }
+                    if (boxed)
+                    {
+                        Function<T, Double> f =
+                            (Function<T, Double>) provider;
+                        return (IntToDoubleFunction) i ->
+                            f.apply(objects.get(i));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of elements of the specified type, or 0 if the
+     * element type was not registered
+     * 
+     * @param elementTypeIndex The element type index
+     * @return The number of elements
+     */
+    int getElementCount(int elementTypeIndex)
+    {
+        String elementName = descriptor.getElementName(elementTypeIndex);
+        Handle<?> handle = elementHandles.get(elementName);
+        if (handle == null)
+        {
+            return 0;
+        }
+        return handle.objects.size();
+    }
+
+    /**
+     * Returns the columns for the specified element type, as they are
+     * stored in an {@link ArrayPlySource}, or <code>null</code> if the
+     * element type was not registered, or its values can not be provided
+     * as columns. In the latter case, the elements have to be obtained
+     * from the {@link #getElementList(int)}.
+     * 
+     * @param elementTypeIndex The element type index
+     * @return The columns
+     */
+    Object[] getColumns(int elementTypeIndex)
+    {
+        String elementName = descriptor.getElementName(elementTypeIndex);
+        Handle<?> handle = elementHandles.get(elementName);
+        if (handle == null)
+        {
+            return null;
+        }
+        ElementDescriptor elementDescriptor =
+            descriptor.getElementDescriptors().get(elementTypeIndex);
+        return handle.createColumns(elementDescriptor);
     }
 
     @Override
@@ -26,13 +26,17 @@
  */
 package de.javagl.ply;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 
@@ -66,22 +70,255 @@ public final class ObjectPlyTarget implements PlyTarget
          */
         private List<BiConsumer<Object, ?>> propertyConsumers;
 
+        /**
+         * The primitive consumers, one for each property. Each of them is
+         * an {@link ObjByteConsumer}, {@link ObjShortConsumer},
+         * <code>ObjIntConsumer</code>, {@link ObjFloatConsumer} or
+         * <code>ObjDoubleConsumer</code> that matches the type of the
+         * property. Some of them may be null.
+         */
+        private Object primitiveConsumers[];
+
         /**
          * The consumer for the final elements
          */
         private Consumer<Object> consumer;
 
+        /**
+         * The {@link RecordBinding}, which is created when elements of this
+         * type are first decoded from binary records
+         */
+        private RecordBinding recordBinding;
+
         /**
          * Creates a new instance
+         * 
+         * @param numProperties The number of properties
          */
-        private ElementProcessor()
+        private ElementProcessor(int numProperties)
         {
             this.supplier = null;
             this.propertyConsumers = new ArrayList<BiConsumer<Object, ?>>();
+            this.primitiveConsumers = new Object[numProperties];
             this.consumer = null;
         }
     }
 
+    /**
+     * Internal structure that binds the properties of one element type, as
+     * they are stored in binary records with a fixed stride, to the setters
+     * of an {@link ElementProcessor}.
+     * 
+     * This only contains the properties for which a setter was registered,
+     * so that all other properties are not even read from the records.
+     */
+    private static final class RecordBinding
+    {
+        /**
+         * The offsets of the bound properties, in bytes, relative to the
+         * start of the record
+         */
+        private final int offsets[];
+
+        /**
+         * The types of the bound properties
+         */
+        private final PlyType types[];
+
+        /**
+         * The setters of the bound properties. Each of them is either a
+         * primitive consumer that matches the type, or a
+         * <code>BiConsumer</code> that receives the boxed value.
+         */
+        private final Object setters[];
+
+        /**
+         * Whether the setters of the bound properties are
+         * <code>BiConsumer</code> instances that receive boxed values
+         */
+        private final boolean boxed[];
+
+        /**
+         * The objects of the block of records that is currently decoded
+         */
+        private Object objects[];
+
+        /**
+         * Creates a new instance
+         * 
+         * @param elementProcessor The {@link ElementProcessor}
+         * @param decoder The {@link FixedStrideDecoder} that describes the
+         *        layout of the records
+         */
+        private RecordBinding(ElementProcessor elementProcessor,
+            FixedStrideDecoder decoder)
+        {
+            PlyType decoderTypes[] = decoder.getTypes();
+            int decoderOffsets[] = decoder.getOffsets();
+            int n = decoderTypes.length;
+            int bound = 0;
+            int localOffsets[] = new int[n];
+            PlyType localTypes[] = new PlyType[n];
+            Object localSetters[] = new Object[n];
+            boolean localBoxed[] = new boolean[n];
+            for (int p = 0; p < n; p++)
+            {
+                Object setter = elementProcessor.primitiveConsumers[p];
+                boolean isBoxed = false;
+                if (setter == null)
+                {
+                    setter = elementProcessor.propertyConsumers.get(p);
+                    isBoxed = true;
+                }
+                if (setter != null)
+                {
+                    localOffsets[bound] = decoderOffsets[p];
+                    localTypes[bound] = decoderTypes[p];
+                    localSetters[bound] = setter;
+                    localBoxed[bound] = isBoxed;
+                    bound++;
+                }
+            }
+            this.offsets = Arrays.copyOf(localOffsets, bound);
+            this.types = Arrays.copyOf(localTypes, bound);
+            this.setters = Arrays.copyOf(localSetters, bound);
+            this.boxed = Arrays.copyOf(localBoxed, bound);
+            this.objects = new Object[0];
+        }
+
+        /**
+         * Decode the values of the bound properties from the given number
+         * of records, which start at the given index in the given buffer,
+         * and pass them to the setters, together with the corresponding
+         * objects.
+         * 
+         * The records are decoded property by property. This way, the type
+         * of each property is only examined once for the whole block, and
+         * each setter is called for all objects before the next setter is
+         * called. The setters of all element types are still called from
+         * the same call sites, so these calls can not be inlined, but the
+         * target of each call is the same as for the previous one.
+         * 
+         * @param objects The objects
+         * @param n The number of records
+         * @param buffer The buffer
+         * @param position The index where the first record starts
+         * @param stride The stride of the records
+         */
+        @SuppressWarnings("unchecked")
+        private void decode(Object objects[], int n, ByteBuffer buffer,
+            int position, int stride)
+        {
+            for (int k = 0; k < setters.length; k++)
+            {
+                int index = position + offsets[k];
+                Object setter = setters[k];
+                if (boxed[k])
+                {
+                    BiConsumer<Object, Object> c =
+                        (BiConsumer<Object, Object>) setter;
+                    for (int i = 0; i < n; i++, index += stride)
+                    {
+                        c.accept(objects[i],
+                            decodeBoxed(types[k], buffer, index));
+                    }
+                    continue;
+                }
+                switch (types[k])
+                {
+                    case UCHAR:
+                    case CHAR:
+                    {
+                        ObjByteConsumer<Object> c =
+                            (ObjByteConsumer<Object>) setter;
+                        for (int i = 0; i < n; i++, index += stride)
+                        {
+                            c.accept(objects[i], buffer.get(index));
+                        }
+                        break;
+                    }
+                    case USHORT:
+                    case SHORT:
+                    {
+                        ObjShortConsumer<Object> c =
+                            (ObjShortConsumer<Object>) setter;
+                        for (int i = 0; i < n; i++, index += stride)
+                        {
+                            c.accept(objects[i], buffer.getShort(index));
+                        }
+                        break;
+                    }
+                    case UINT:
+                    case INT:
+                    {
+                        ObjIntConsumer<Object> c =
+                            (ObjIntConsumer<Object>) setter;
+                        for (int i = 0; i < n; i++, index += stride)
+                        {
+                            c.accept(objects[i], buffer.getInt(index));
+                        }
+                        break;
+                    }
+                    case FLOAT:
+                    {
+                        ObjFloatConsumer<Object> c =
+                            (ObjFloatConsumer<Object>) setter;
+                        for (int i = 0; i < n; i++, index += stride)
+                        {
+                            c.accept(objects[i], buffer.getFloat(index));
+                        }
+                        break;
+                    }
+                    case DOUBLE:
+                    {
+                        ObjDoubleConsumer<Object> c =
+                            (ObjDoubleConsumer<Object>) setter;
+                        for (int i = 0; i < n; i++, index += stride)
+                        {
+                            c.accept(objects[i], buffer.getDouble(index));
+                        }
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Decode the value with the given type from the given index of the
+         * given buffer, and return it as a boxed value
+         * 
+         * @param type The type
+         * @param buffer The buffer
+         * @param index The index
+         * @return The value
+         */
+        private static Object decodeBoxed(PlyType type, ByteBuffer buffer,
+            int index)
+        {
+            switch (type)
+            {
+                case UCHAR:
+                case CHAR:
+                    return buffer.get(index);
+                case USHORT:
+                case SHORT:
+                    return buffer.getShort(index);
+                case UINT:
+                case INT:
+                    return buffer.getInt(index);
+                case FLOAT:
+                    return buffer.getFloat(index);
+                case DOUBLE:
+                    return buffer.getDouble(index);
+                default:
+                    break;
+            }
+            return null;
+        }
+    }
+
     /**
      * A handle for a specific type of element.
      * 
@@ -101,9 +338,11 @@ public final class ObjectPlyTarget implements PlyTarget
 
         /**
          * The mapping from property names to the consumers for the property
-         * values.
+         * values. These are either <code>BiConsumer</code> instances that
+         * receive boxed values or arrays, or one of the primitive consumer
+         * types, like {@link ObjFloatConsumer}.
          */
-        private Map<String, BiConsumer<Object, Object>> propertyConsumers;
+        private Map<String, Object> propertyConsumers;
 
         /**
          * The consumer for the final element objects
@@ -120,8 +359,7 @@ public final class ObjectPlyTarget implements PlyTarget
             @SuppressWarnings("unchecked")
             Supplier<Object> internalSupplier = (Supplier<Object>) supplier;
             this.supplier = internalSupplier;
-            this.propertyConsumers =
-                new LinkedHashMap<String, BiConsumer<Object, Object>>();
+            this.propertyConsumers = new LinkedHashMap<String, Object>();
         }
 
         /**
@@ -204,6 +442,96 @@ public final class ObjectPlyTarget implements PlyTarget
             return withImpl(propertyName, setter);
         }
 
+        /**
+         * Handle the specified property with the given primitive setter.
+         * 
+         * Unlike the setter that is passed to {@link #withByte}, this
+         * setter receives the values without boxing them. It is only called
+         * for <code>char</code> or <code>uchar</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param setter The setter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveByte(String propertyName,
+            ObjByteConsumer<T> setter)
+        {
+            this.propertyConsumers.put(propertyName, setter);
+            return this;
+        }
+
+        /**
+         * Handle the specified property with the given primitive setter.
+         * 
+         * Unlike the setter that is passed to {@link #withShort}, this
+         * setter receives the values without boxing them. It is only called
+         * for <code>short</code> or <code>ushort</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param setter The setter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveShort(String propertyName,
+            ObjShortConsumer<T> setter)
+        {
+            this.propertyConsumers.put(propertyName, setter);
+            return this;
+        }
+
+        /**
+         * Handle the specified property with the given primitive setter.
+         * 
+         * Unlike the setter that is passed to {@link #withInt}, this
+         * setter receives the values without boxing them. It is only called
+         * for <code>int</code> or <code>uint</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param setter The setter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveInt(String propertyName,
+            ObjIntConsumer<T> setter)
+        {
+            this.propertyConsumers.put(propertyName, setter);
+            return this;
+        }
+
+        /**
+         * Handle the specified property with the given primitive setter.
+         * 
+         * Unlike the setter that is passed to {@link #withFloat}, this
+         * setter receives the values without boxing them. It is only called
+         * for <code>float</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param setter The setter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveFloat(String propertyName,
+            ObjFloatConsumer<T> setter)
+        {
+            this.propertyConsumers.put(propertyName, setter);
+            return this;
+        }
+
+        /**
+         * Handle the specified property with the given primitive setter.
+         * 
+         * Unlike the setter that is passed to {@link #withDouble}, this
+         * setter receives the values without boxing them. It is only called
+         * for <code>double</code> properties.
+         * 
+         * @param propertyName The property name
+         * @param setter The setter
+         * @return This handle
+         */
+        public Handle<T> withPrimitiveDouble(String propertyName,
+            ObjDoubleConsumer<T> setter)
+        {
+            this.propertyConsumers.put(propertyName, setter);
+            return this;
+        }
+
         /**
          * Handle the specified property with the given setter.
          * 
@@ -279,10 +607,7 @@ public final class ObjectPlyTarget implements PlyTarget
          */
         private Handle<T> withImpl(String propertyName, BiConsumer<T, ?> setter)
         {
-            @SuppressWarnings("unchecked")
-            BiConsumer<Object, Object> internalSetter =
-                (BiConsumer<Object, Object>) setter;
-            this.propertyConsumers.put(propertyName, internalSetter);
+            this.propertyConsumers.put(propertyName, setter);
             return this;
         }
 
@@ -388,7 +713,10 @@ public final class ObjectPlyTarget implements PlyTarget
     private static ElementProcessor createElementProcessor(
         ElementDescriptor elementDescriptor, Handle<Object> elementHandle)
     {
-        ElementProcessor elementProcessor = new ElementProcessor();
+        List<PropertyDescriptor> propertyDescriptors =
+            elementDescriptor.getPropertyDescriptors();
+        ElementProcessor elementProcessor =
+            new ElementProcessor(propertyDescriptors.size());
         elementProcessor.supplier = elementHandle.supplier;
         if (elementHandle.consumer == null)
         {
@@ -398,22 +726,90 @@ public final class ObjectPlyTarget implements PlyTarget
         }
         elementProcessor.consumer = elementHandle.consumer;
 
-        List<PropertyDescriptor> propertyDescriptors =
-            elementDescriptor.getPropertyDescriptors();
-        elementProcessor.propertyConsumers =
-            new ArrayList<BiConsumer<Object, ?>>();
-
         for (int i = 0; i < propertyDescriptors.size(); i++)
         {
             PropertyDescriptor propertyDescriptor = propertyDescriptors.get(i);
             String propertyName = propertyDescriptor.getName();
-            BiConsumer<Object, Object> propertyConsumer =
+            Object propertyConsumer =
                 elementHandle.propertyConsumers.get(propertyName);
-            elementProcessor.propertyConsumers.add(propertyConsumer);
+            if (propertyConsumer instanceof BiConsumer<?, ?>)
+            {
+                @SuppressWarnings("unchecked")
+                BiConsumer<Object, Object> biConsumer =
+                    (BiConsumer<Object, Object>) propertyConsumer;
+                elementProcessor.propertyConsumers.add(biConsumer);
+            }
+            else
+            {
+                elementProcessor.propertyConsumers.add(null);
+                if (propertyConsumer != null)
+                {
+                    assignPrimitiveConsumer(elementProcessor, i,
+                        propertyDescriptor, propertyConsumer);
+                }
+            }
         }
         return elementProcessor;
     }
 
+    /**
+     * Assign the given primitive consumer to the given
+     * {@link ElementProcessor}, if it matches the type of the given
+     * property.
+     * 
+     * If the type of the consumer does not match the type of the property,
+     * then a warning is printed and the consumer is ignored.
+     * 
+     * @param elementProcessor The {@link ElementProcessor}
+     * @param propertyIndex The property index
+     * @param propertyDescriptor The {@link PropertyDescriptor}
+     * @param propertyConsumer The primitive consumer
+     */
+    private static void assignPrimitiveConsumer(
+        ElementProcessor elementProcessor, int propertyIndex,
+        PropertyDescriptor propertyDescriptor, Object propertyConsumer)
+    {
+        int i = propertyIndex;
+        PlyType type = propertyDescriptor.getType();
+        if (!propertyDescriptor.isList())
+        {
+            if ((type == PlyType.CHAR || type == PlyType.UCHAR)
+                && propertyConsumer instanceof ObjByteConsumer<?>)
+            {
+                elementProcessor.primitiveConsumers[i] = propertyConsumer;
+                return;
+            }
+            if ((type == PlyType.SHORT || type == PlyType.USHORT)
+                && propertyConsumer instanceof ObjShortConsumer<?>)
+            {
+                elementProcessor.primitiveConsumers[i] = propertyConsumer;
+                return;
+            }
+            if ((type == PlyType.INT || type == PlyType.UINT)
+                && propertyConsumer instanceof ObjIntConsumer<?>)
+            {
+                elementProcessor.primitiveConsumers[i] = propertyConsumer;
+                return;
+            }
+            if (type == PlyType.FLOAT
+                && propertyConsumer instanceof ObjFloatConsumer<?>)
+            {
+                elementProcessor.primitiveConsumers[i] = propertyConsumer;
+                return;
+            }
+            if (type == PlyType.DOUBLE
+                && propertyConsumer instanceof ObjDoubleConsumer<?>)
+            {
+                elementProcessor.primitiveConsumers[i] = propertyConsumer;
+                return;
+            }
+        }
+        logger.warning("The setter for property '"
+            + propertyDescriptor.getName() + "' does not match the type "
+            + type + (propertyDescriptor.isList() ? " list" : "")
+            + ", ignoring");
+    }
+
     @Override
     public void startElementList(int elementTypeIndex, int elementCount)
     {
@@ -437,6 +833,20 @@ public final class ObjectPlyTarget implements PlyTarget
     public void handleCharProperty(int elementTypeIndex, int elementIndex,
         int propertyIndex, byte value)
     {
+        ElementProcessor elementProcessor =
+            this.elementProcessors.get(elementTypeIndex);
+        if (elementProcessor == null)
+        {
+            return;
+        }
+        Object c = elementProcessor.primitiveConsumers[propertyIndex];
+        if (c != null)
+        {
+            @SuppressWarnings("unchecked")
+            ObjByteConsumer<Object> consumer = (ObjByteConsumer<Object>) c;
+            consumer.accept(currentElement, value);
+            return;
+        }
         consumeImpl(elementTypeIndex, propertyIndex, value);
     }
 
@@ -444,6 +854,20 @@ public final class ObjectPlyTarget implements PlyTarget
     public void handleShortProperty(int elementTypeIndex, int elementIndex,
         int propertyIndex, short value)
     {
+        ElementProcessor elementProcessor =
+            this.elementProcessors.get(elementTypeIndex);
+        if (elementProcessor == null)
+        {
+            return;
+        }
+        Object c = elementProcessor.primitiveConsumers[propertyIndex];
+        if (c != null)
+        {
+            @SuppressWarnings("unchecked")
+            ObjShortConsumer<Object> consumer = (ObjShortConsumer<Object>) c;
+            consumer.accept(currentElement, value);
+            return;
+        }
         consumeImpl(elementTypeIndex, propertyIndex, value);
     }
 
@@ -451,6 +875,20 @@ public final class ObjectPlyTarget implements PlyTarget
     public void handleIntProperty(int elementTypeIndex, int elementIndex,
         int propertyIndex, int value)
     {
+        ElementProcessor elementProcessor =
+            this.elementProcessors.get(elementTypeIndex);
+        if (elementProcessor == null)
+        {
+            return;
+        }
+        Object c = elementProcessor.primitiveConsumers[propertyIndex];
+        if (c != null)
+        {
+            @SuppressWarnings("unchecked")
+            ObjIntConsumer<Object> consumer = (ObjIntConsumer<Object>) c;
+            consumer.accept(currentElement, value);
+            return;
+        }
         consumeImpl(elementTypeIndex, propertyIndex, value);
     }
 
@@ -458,6 +896,20 @@ public final class ObjectPlyTarget implements PlyTarget
     public void handleFloatProperty(int elementTypeIndex, int elementIndex,
         int propertyIndex, float value)
     {
+        ElementProcessor elementProcessor =
+            this.elementProcessors.get(elementTypeIndex);
+        if (elementProcessor == null)
+        {
+            return;
+        }
+        Object c = elementProcessor.primitiveConsumers[propertyIndex];
+        if (c != null)
+        {
+            @SuppressWarnings("unchecked")
+            ObjFloatConsumer<Object> consumer = (ObjFloatConsumer<Object>) c;
+            consumer.accept(currentElement, value);
+            return;
+        }
         consumeImpl(elementTypeIndex, propertyIndex, value);
     }
 
@@ -465,6 +917,20 @@ public final class ObjectPlyTarget implements PlyTarget
     public void handleDoubleProperty(int elementTypeIndex, int elementIndex,
         int propertyIndex, double value)
     {
+        ElementProcessor elementProcessor =
+            this.elementProcessors.get(elementTypeIndex);
+        if (elementProcessor == null)
+        {
+            return;
+        }
+        Object c = elementProcessor.primitiveConsumers[propertyIndex];
+        if (c != null)
+        {
+            @SuppressWarnings("unchecked")
+            ObjDoubleConsumer<Object> consumer = (ObjDoubleConsumer<Object>) c;
+            consumer.accept(currentElement, value);
+            return;
+        }
         consumeImpl(elementTypeIndex, propertyIndex, value);
     }
 
@@ -539,6 +1005,61 @@ public final class ObjectPlyTarget implements PlyTarget
         localConsumer.accept(currentElement, value);
     }
 
+    /**
+     * Decode the specified block of elements, which are stored as binary
+     * records in the given buffer, and pass the resulting objects to the
+     * consumer.
+     * 
+     * This is called by the {@link BinaryPlyContentReader} for element
+     * types that only contain scalar properties, instead of passing the
+     * values to the <code>handle...</code> methods. The values are read
+     * directly from the records, and passed to the setters, without
+     * boxing them if primitive setters have been registered. Properties for
+     * which no setter has been registered are not read at all.
+     * 
+     * @param decoder The {@link FixedStrideDecoder} that describes the
+     *        layout of the records
+     * @param buffer The buffer. Its position is not modified.
+     * @param position The position of the first element in the buffer
+     * @param elementTypeIndex The element type index
+     * @param firstElementIndex The index of the first element
+     * @param n The number of elements
+     */
+    void decodeRecords(FixedStrideDecoder decoder, ByteBuffer buffer,
+        int position, int elementTypeIndex, int firstElementIndex, int n)
+    {
+        ElementProcessor elementProcessor =
+            this.elementProcessors.get(elementTypeIndex);
+        if (elementProcessor == null)
+        {
+            return;
+        }
+        RecordBinding recordBinding = elementProcessor.recordBinding;
+        if (recordBinding == null)
+        {
+            recordBinding = new RecordBinding(elementProcessor, decoder);
+            elementProcessor.recordBinding = recordBinding;
+        }
+        Object objects[] = recordBinding.objects;
+        if (objects.length < n)
+        {
+            objects = new Object[n];
+            recordBinding.objects = objects;
+        }
+        Supplier<Object> supplier = elementProcessor.supplier;
+        for (int i = 0; i < n; i++)
+        {
+            objects[i] = supplier.get();
+        }
+        recordBinding.decode(objects, n, buffer, position, decoder.getStride());
+        Consumer<Object> consumer = elementProcessor.consumer;
+        for (int i = 0; i < n; i++)
+        {
+            consumer.accept(objects[i]);
+            objects[i] = null;
+        }
+    }
+
     @Override
     public void endElement(int elementTypeIndex, int elementIndex)
     {
@@ -590,4 +1111,41 @@ public final class ObjectPlyTarget implements PlyTarget
         return elementHandle;
     }
 
+    /**
+     * Register the given class, which has a {@link PlyElement} annotation,
+     * to be handled by this instance.
+     * 
+     * This registers the element type with the name that is given by the
+     * {@link PlyElement} annotation. The elements are created with the
+     * constructor without arguments of the class, and the values of the
+     * properties are assigned to the fields that have a {@link PlyProperty}
+     * annotation. The configuration is derived from the annotations only
+     * once for each class.
+     * 
+     * The returned {@link Handle} allows further configuration. In
+     * particular, the {@link Handle#consume(Consumer)} method has to be
+     * called to receive the elements.
+     * 
+     * @param <T> The element type
+     * @param type The class
+     * @return The {@link Handle}
+     * @throws IllegalArgumentException If the class does not have a
+     *         {@link PlyElement} annotation or a constructor without
+     *         arguments, or one of its fields with a {@link PlyProperty}
+     *         annotation is static or final, or has an unsupported type
+     * @throws IllegalStateException If the element type was already
+     *         registered
+     */
+    public <T> Handle<T> register(Class<T> type)
+    {
+        PlyMapping plyMapping = PlyMapping.get(type);
+        Map<String, Object> setters = plyMapping.getSetters();
+        @SuppressWarnings("unchecked")
+        Supplier<T> supplier = (Supplier<T>) plyMapping.getSupplier();
+        Handle<T> elementHandle =
+            register(plyMapping.getElementName(), supplier);
+        elementHandle.propertyConsumers.putAll(setters);
+        return elementHandle;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Methods for waiting for the results of tasks that decode or encode PLY
+ * data in parallel
+ */
+class ParallelTasks
+{
+    /**
+     * Wait until all the given futures are done, and return their results.
+     * 
+     * If one of the tasks failed, or the calling thread is interrupted, then
+     * all remaining tasks are cancelled and an exception is thrown.
+     * 
+     * @param <T> The result type
+     * @param futures The futures
+     * @return The results, in the order of the given futures
+     * @throws IOException If one of the tasks failed
+     * @throws InterruptedIOException If the calling thread was interrupted
+     */
+    static <T> List<T> await(List<? extends Future<? extends T>> futures)
+        throws IOException
+    {
+        List<T> results = new ArrayList<T>();
+        boolean completed = false;
+        try
+        {
+            for (Future<? extends T> future : futures)
+            {
+                results.add(await(future));
+            }
+            completed = true;
+        }
+        finally
+        {
+            if (!completed)
+            {
+                cancel(futures);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Wait until the given future is done, and return its result.
+     * 
+     * @param <T> The result type
+     * @param future The future
+     * @return The result
+     * @throws IOException If the task failed
+     * @throws InterruptedIOException If the calling thread was interrupted
+     */
+    static <T> T await(Future<? extends T> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                "Interrupted while waiting for tasks");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Cancel all the given futures
+     * 
+     * @param futures The futures
+     */
+    static void cancel(Collection<? extends Future<?>> futures)
+    {
+        for (Future<?> future : futures)
+        {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ParallelTasks()
+    {
+        // Private constructor to prevent instantiation
+    }
+
+}
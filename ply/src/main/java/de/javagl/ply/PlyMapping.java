@@ -0,0 +1,549 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Internal class describing how the fields of a class with the
+ * {@link PlyElement} annotation are mapped to the properties of an element
+ * type.
+ * 
+ * The mapping is created once for each class, with {@link #get(Class)}, and
+ * contains the setters and getters for the fields that are annotated with
+ * {@link PlyProperty}. These are created from method handles for the
+ * fields, and have the same types as the ones that are passed to the
+ * <code>withPrimitive...</code> and <code>with...List</code> methods of the
+ * handles of an {@link ObjectPlyTarget} and an {@link ObjectPlySource}.
+ * 
+ * Each setter and getter invokes a method handle that is not a constant,
+ * which is not inlined as well as a lambda that accesses the field
+ * directly. This does not affect reading and writing as a whole, because
+ * the setters and getters of the different properties are invoked from
+ * the same call sites in both cases, and these call sites are megamorphic
+ * anyway.
+ */
+final class PlyMapping
+{
+    /**
+     * The mappings, computed lazily for each class
+     */
+    private static final ClassValue<PlyMapping> mappings =
+        new ClassValue<PlyMapping>()
+        {
+            @Override
+            protected PlyMapping computeValue(Class<?> type)
+            {
+                return new PlyMapping(type);
+            }
+        };
+
+    /**
+     * Returns the mapping for the given class
+     * 
+     * @param type The class
+     * @return The mapping
+     * @throws IllegalArgumentException If the class does not have a
+     *         {@link PlyElement} annotation, or one of the annotated fields
+     *         is static, has an unsupported type, or has the same property
+     *         name as another field
+     */
+    static PlyMapping get(Class<?> type)
+    {
+        return mappings.get(type);
+    }
+
+    /**
+     * The class
+     */
+    private final Class<?> type;
+
+    /**
+     * The name of the element type
+     */
+    private final String elementName;
+
+    /**
+     * The supplier for new instances, or <code>null</code> if the class
+     * does not have an accessible constructor without arguments
+     */
+    private final Supplier<Object> supplier;
+
+    /**
+     * The mapping from property names to the setters for the fields, or to
+     * <code>null</code> if the field is final
+     */
+    private final Map<String, Object> setters;
+
+    /**
+     * The mapping from property names to the getters for the fields
+     */
+    private final Map<String, Object> getters;
+
+    /**
+     * Creates the mapping for the given class
+     * 
+     * @param type The class
+     * @throws IllegalArgumentException If the mapping can not be created
+     */
+    private PlyMapping(Class<?> type)
+    {
+        PlyElement plyElement = type.getAnnotation(PlyElement.class);
+        if (plyElement == null)
+        {
+            throw new IllegalArgumentException("The class " + type.getName()
+                + " does not have a @PlyElement annotation");
+        }
+        this.type = type;
+        this.elementName = plyElement.value();
+        this.supplier = createSupplier(type);
+
+        Map<String, Object> localSetters = new LinkedHashMap<String, Object>();
+        Map<String, Object> localGetters = new LinkedHashMap<String, Object>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : collectFields(type))
+        {
+            PlyProperty plyProperty = field.getAnnotation(PlyProperty.class);
+            String propertyName = plyProperty.value().isEmpty()
+                ? field.getName() : plyProperty.value();
+            if (Modifier.isStatic(field.getModifiers()))
+            {
+                throw new IllegalArgumentException("The field " + field
+                    + " for property '" + propertyName + "' is static");
+            }
+            if (localGetters.containsKey(propertyName))
+            {
+                throw new IllegalArgumentException("The class "
+                    + type.getName() + " contains multiple fields for "
+                    + "property '" + propertyName + "'");
+            }
+            field.setAccessible(true);
+            try
+            {
+                localGetters.put(propertyName, createGetter(field.getType(),
+                    lookup.unreflectGetter(field)));
+                Object setter = null;
+                if (!Modifier.isFinal(field.getModifiers()))
+                {
+                    setter = createSetter(field.getType(),
+                        lookup.unreflectSetter(field));
+                }
+                localSetters.put(propertyName, setter);
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new IllegalArgumentException(
+                    "The field " + field + " is not accessible", e);
+            }
+        }
+        this.setters = Collections.unmodifiableMap(localSetters);
+        this.getters = Collections.unmodifiableMap(localGetters);
+    }
+
+    /**
+     * Returns the element name
+     * 
+     * @return The element name
+     */
+    String getElementName()
+    {
+        return elementName;
+    }
+
+    /**
+     * Returns the supplier for new instances of the class
+     * 
+     * @return The supplier
+     * @throws IllegalArgumentException If the class does not have an
+     *         accessible constructor without arguments
+     */
+    Supplier<Object> getSupplier()
+    {
+        if (supplier == null)
+        {
+            throw new IllegalArgumentException("The class " + type.getName()
+                + " does not have a constructor without arguments");
+        }
+        return supplier;
+    }
+
+    /**
+     * Returns an unmodifiable map from property names to the setters.
+     * 
+     * Each setter is an {@link ObjByteConsumer}, {@link ObjShortConsumer},
+     * <code>ObjIntConsumer</code>, {@link ObjFloatConsumer} or
+     * <code>ObjDoubleConsumer</code> for scalar fields, or a
+     * <code>BiConsumer</code> for array fields.
+     * 
+     * @return The setters
+     * @throws IllegalArgumentException If one of the fields is final
+     */
+    Map<String, Object> getSetters()
+    {
+        for (Map.Entry<String, Object> entry : setters.entrySet())
+        {
+            if (entry.getValue() == null)
+            {
+                throw new IllegalArgumentException("The field for property '"
+                    + entry.getKey() + "' of class " + type.getName()
+                    + " is final");
+            }
+        }
+        return setters;
+    }
+
+    /**
+     * Returns an unmodifiable map from property names to the getters.
+     * 
+     * Each getter is a {@link ToByteFunction}, {@link ToShortFunction},
+     * <code>ToIntFunction</code>, {@link ToFloatFunction} or
+     * <code>ToDoubleFunction</code> for scalar fields, or a
+     * <code>Function</code> for array fields.
+     * 
+     * @return The getters
+     */
+    Map<String, Object> getGetters()
+    {
+        return getters;
+    }
+
+    /**
+     * Collect all fields of the given class and its superclasses that have
+     * a {@link PlyProperty} annotation, starting with the fields of the
+     * topmost superclass
+     * 
+     * @param type The class
+     * @return The fields
+     */
+    private static List<Field> collectFields(Class<?> type)
+    {
+        List<Field> fields = new ArrayList<Field>();
+        Class<?> superclass = type.getSuperclass();
+        if (superclass != null)
+        {
+            fields.addAll(collectFields(superclass));
+        }
+        for (Field field : type.getDeclaredFields())
+        {
+            if (field.isAnnotationPresent(PlyProperty.class))
+            {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Create a supplier that creates new instances of the given class with
+     * its constructor without arguments, or return <code>null</code> if
+     * there is no such constructor
+     * 
+     * @param type The class
+     * @return The supplier
+     */
+    private static Supplier<Object> createSupplier(Class<?> type)
+    {
+        MethodHandle constructor = null;
+        try
+        {
+            Constructor<?> c = type.getDeclaredConstructor();
+            c.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(c)
+                .asType(MethodType.methodType(Object.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException
+            | SecurityException e)
+        {
+            return null;
+        }
+        MethodHandle h = constructor;
+        return () ->
+        {
+            try
+            {
+                return (Object) h.invokeExact();
+            }
+            catch (Throwable t)
+            {
+                throw propagate(t);
+            }
+        };
+    }
+
+    /**
+     * Create the setter for a field with the given type, from the given
+     * setter method handle
+     * 
+     * @param fieldType The field type
+     * @param setter The setter method handle
+     * @return The setter
+     * @throws IllegalArgumentException If the field type is not supported
+     */
+    private static Object createSetter(Class<?> fieldType, MethodHandle setter)
+    {
+        MethodHandle h = setter.asType(
+            MethodType.methodType(void.class, Object.class, fieldType));
+        if (fieldType == byte.class)
+        {
+            return (ObjByteConsumer<Object>) (object, value) ->
+            {
+                try
+                {
+                    h.invokeExact(object, value);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == short.class)
+        {
+            return (ObjShortConsumer<Object>) (object, value) ->
+            {
+                try
+                {
+                    h.invokeExact(object, value);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == int.class)
+        {
+            return (ObjIntConsumer<Object>) (object, value) ->
+            {
+                try
+                {
+                    h.invokeExact(object, value);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == float.class)
+        {
+            return (ObjFloatConsumer<Object>) (object, value) ->
+            {
+                try
+                {
+                    h.invokeExact(object, value);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == double.class)
+        {
+            return (ObjDoubleConsumer<Object>) (object, value) ->
+            {
+                try
+                {
+                    h.invokeExact(object, value);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        checkArrayType(fieldType);
+        MethodHandle a = setter.asType(
+            MethodType.methodType(void.class, Object.class, Object.class));
+        return (BiConsumer<Object, Object>) (object, value) ->
+        {
+            try
+            {
+                a.invokeExact(object, value);
+            }
+            catch (Throwable t)
+            {
+                throw propagate(t);
+            }
+        };
+    }
+
+    /**
+     * Create the getter for a field with the given type, from the given
+     * getter method handle
+     * 
+     * @param fieldType The field type
+     * @param getter The getter method handle
+     * @return The getter
+     * @throws IllegalArgumentException If the field type is not supported
+     */
+    private static Object createGetter(Class<?> fieldType, MethodHandle getter)
+    {
+        MethodHandle h = getter.asType(
+            MethodType.methodType(fieldType, Object.class));
+        if (fieldType == byte.class)
+        {
+            return (ToByteFunction<Object>) object ->
+            {
+                try
+                {
+                    return (byte) h.invokeExact(object);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == short.class)
+        {
+            return (ToShortFunction<Object>) object ->
+            {
+                try
+                {
+                    return (short) h.invokeExact(object);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == int.class)
+        {
+            return (ToIntFunction<Object>) object ->
+            {
+                try
+                {
+                    return (int) h.invokeExact(object);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == float.class)
+        {
+            return (ToFloatFunction<Object>) object ->
+            {
+                try
+                {
+                    return (float) h.invokeExact(object);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        if (fieldType == double.class)
+        {
+            return (ToDoubleFunction<Object>) object ->
+            {
+                try
+                {
+                    return (double) h.invokeExact(object);
+                }
+                catch (Throwable t)
+                {
+                    throw propagate(t);
+                }
+            };
+        }
+        checkArrayType(fieldType);
+        MethodHandle a = getter.asType(
+            MethodType.methodType(Object.class, Object.class));
+        return (Function<Object, Object>) object ->
+        {
+            try
+            {
+                return (Object) a.invokeExact(object);
+            }
+            catch (Throwable t)
+            {
+                throw propagate(t);
+            }
+        };
+    }
+
+    /**
+     * Make sure that the given field type is an array type that can be
+     * mapped to a list property
+     * 
+     * @param fieldType The field type
+     * @throws IllegalArgumentException If the field type is not supported
+     */
+    private static void checkArrayType(Class<?> fieldType)
+    {
+        if (fieldType != byte[].class && fieldType != short[].class
+            && fieldType != int[].class && fieldType != float[].class
+            && fieldType != double[].class)
+        {
+            throw new IllegalArgumentException(
+                "Unsupported field type: " + fieldType);
+        }
+    }
+
+    /**
+     * Returns the given throwable as an unchecked exception, to be thrown
+     * by the caller. Errors are thrown directly.
+     * 
+     * @param t The throwable
+     * @return The unchecked exception
+     */
+    private static RuntimeException propagate(Throwable t)
+    {
+        if (t instanceof Error)
+        {
+            throw (Error) t;
+        }
+        if (t instanceof RuntimeException)
+        {
+            return (RuntimeException) t;
+        }
+        return new IllegalStateException(t);
+    }
+}
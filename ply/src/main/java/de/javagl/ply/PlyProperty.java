@@ -0,0 +1,61 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for fields of a class with the {@link PlyElement} annotation,
+ * which are mapped to a property of the element type.
+ * 
+ * The type of the field must match the type of the property: It must be
+ * <code>byte</code> for <code>char</code> and <code>uchar</code>
+ * properties, <code>short</code> for <code>short</code> and
+ * <code>ushort</code> properties, <code>int</code> for <code>int</code> and
+ * <code>uint</code> properties, and <code>float</code> or
+ * <code>double</code> for <code>float</code> or <code>double</code>
+ * properties, respectively. For list properties, it must be an array of
+ * the corresponding type. The field may not be static. When the objects
+ * are created by an {@link ObjectPlyTarget}, it may not be final.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface PlyProperty
+{
+    /**
+     * Returns the name of the property. If this is empty, then the name of
+     * the field is used.
+     * 
+     * @return The property name
+     */
+    String value() default "";
+}
@@ -27,8 +27,14 @@
 
 package de.javagl.ply;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 
 /**
  * Interface for classes that can read PLY data
@@ -80,4 +86,135 @@ public interface PlyReader
     void readContent(InputStream inputStream, PlyTarget plyTarget)
         throws IOException;
 
+    /**
+     * Read the data from the specified file and return it as a
+     * {@link PlySource}.
+     * 
+     * The default implementation reads the data from an input stream for
+     * the file, with {@link #read(InputStream)}. Implementations may open
+     * the file as a file channel instead, and read binary content directly
+     * from memory-mapped regions of the file.
+     * 
+     * @param path The path of the file
+     * @return The resulting data as a {@link PlySource}
+     * @throws IOException If an IO error occurs
+     */
+    default PlySource read(Path path) throws IOException
+    {
+        try (InputStream inputStream =
+            new BufferedInputStream(Files.newInputStream(path)))
+        {
+            return read(inputStream);
+        }
+    }
+
+    /**
+     * Read the {@link Descriptor} from the given file channel.
+     * 
+     * This will read the header, starting at the current position of the
+     * given channel. Afterwards, the position of the channel will be the
+     * position where the main content starts, so that the channel may be
+     * passed to {@link #readContent(FileChannel, PlyTarget)}.
+     * 
+     * The caller is responsible for closing the given channel.
+     * 
+     * The default implementation passes an input stream for the channel to
+     * {@link #readDescriptor(InputStream)}, which reads the header byte by
+     * byte, so that the channel is not read beyond the end of the header.
+     * 
+     * @param fileChannel The file channel
+     * @return The {@link Descriptor}
+     * @throws IOException If an IO error occurs
+     */
+    default Descriptor readDescriptor(FileChannel fileChannel)
+        throws IOException
+    {
+        return readDescriptor(Channels.newInputStream(fileChannel));
+    }
+
+    /**
+     * Read the main content from the given file channel and pass it to the
+     * given {@link PlyTarget}.
+     * 
+     * This assumes that the {@link Descriptor} was already read from the given
+     * file channel, and the current position of the channel is the position
+     * where the main content starts.
+     * 
+     * The caller is responsible for closing the given channel.
+     * 
+     * The default implementation passes an input stream for the channel to
+     * {@link #readContent(InputStream, PlyTarget)}. Implementations may read
+     * binary content directly from memory-mapped regions of the file
+     * instead.
+     * 
+     * @param fileChannel The file channel
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    default void readContent(FileChannel fileChannel, PlyTarget plyTarget)
+        throws IOException
+    {
+        InputStream inputStream =
+            new BufferedInputStream(Channels.newInputStream(fileChannel));
+        readContent(inputStream, plyTarget);
+    }
+
+    /**
+     * Set the names of the properties that should be read for the elements
+     * with the given name.
+     * 
+     * By default, all properties of all elements are read. When properties
+     * have been selected for an element type, then the {@link Descriptor}
+     * that is returned when reading a header will only contain the selected
+     * properties of this element type that are actually contained in the
+     * data, in the order in which they appear in the data. The property
+     * indices that are passed to a {@link PlyTarget} refer to this
+     * {@link Descriptor}. All other properties are skipped without being
+     * decoded.
+     * 
+     * The selection affects all headers that are read afterwards.
+     * 
+     * @param elementName The element name
+     * @param propertyNames The names of the properties that should be read.
+     *        If this is <code>null</code>, then all properties of the
+     *        elements will be read.
+     * @throws UnsupportedOperationException If this reader does not support
+     *         selecting properties. This is the case for the default
+     *         implementation.
+     */
+    default void setSelectedProperties(String elementName,
+        Collection<String> propertyNames)
+    {
+        throw new UnsupportedOperationException(
+            "This reader does not support selecting properties");
+    }
+
+    /**
+     * Set the names of the element types that should be skipped.
+     * 
+     * By default, all elements are read. When element types are skipped,
+     * then the {@link Descriptor} that is returned when reading a header
+     * will not contain these element types. The element type indices that
+     * are passed to a {@link PlyTarget} refer to this {@link Descriptor}.
+     * The elements of the skipped types are not decoded. For binary data,
+     * elements that only contain scalar properties are skipped at once, and
+     * for elements that contain list properties, only the sizes of the
+     * lists are read.
+     * 
+     * The given names replace any names that have been set previously, and
+     * affect all headers that are read afterwards.
+     * 
+     * @param elementNames The names of the element types that should be
+     *        skipped. If this is <code>null</code>, then all elements will
+     *        be read.
+     * @throws UnsupportedOperationException If this reader does not support
+     *         skipping elements. This is the case for the default
+     *         implementation.
+     */
+    default void setSkippedElements(Collection<String> elementNames)
+    {
+        throw new UnsupportedOperationException(
+            "This reader does not support skipping elements");
+    }
+
 }
@@ -26,6 +26,10 @@
  */
 package de.javagl.ply;
 
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Methods to create {@link PlyReader} instances
  */
@@ -41,6 +45,45 @@ public class PlyReaders
         return new DefaultPlyReader();
     }
 
+    /**
+     * Creates a new {@link PlyReader} that decodes data in parallel, using
+     * the given executor service.
+     * 
+     * This only affects data that is read from a file channel (with
+     * {@link PlyReader#readContent(java.nio.channels.FileChannel, PlyTarget)})
+     * into a {@link ColumnarPlyTarget}. For binary data, large blocks of
+     * elements that only have scalar properties are split into chunks that
+     * are decoded concurrently. For ASCII data, the lines of all elements are
+     * split into chunks that are decoded concurrently. All other data is read
+     * sequentially.
+     * 
+     * The caller is responsible for shutting down the given executor service.
+     * 
+     * @param executorService The executor service
+     * @return The {@link PlyReader}
+     * @throws NullPointerException If the given executor service is
+     *         <code>null</code>
+     */
+    public static PlyReader createParallel(ExecutorService executorService)
+    {
+        Objects.requireNonNull(executorService,
+            "The executorService may not be null");
+        return new DefaultPlyReader(executorService);
+    }
+
+    /**
+     * Creates a new {@link PlyReader} that decodes data in parallel, using
+     * the common fork-join pool.
+     * 
+     * See {@link #createParallel(ExecutorService)} for details.
+     * 
+     * @return The {@link PlyReader}
+     */
+    public static PlyReader createParallel()
+    {
+        return createParallel(ForkJoinPool.commonPool());
+    }
+
     /**
      * Private constructor to prevent instantiation
      */
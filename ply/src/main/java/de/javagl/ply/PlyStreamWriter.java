@@ -0,0 +1,115 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface for classes that write PLY data incrementally.
+ * 
+ * Instances of this class are created with
+ * {@link PlyWriter#open(Descriptor, List, java.io.OutputStream)}. The header
+ * is written when the instance is created. Afterwards, the elements are
+ * written, one element type after the other, in the order in which the
+ * element types appear in the {@link Descriptor}. The elements of one
+ * element type may be written with any number of calls. When all elements
+ * have been written, {@link #finish()} has to be called.
+ * 
+ * This allows writing PLY data that does not fit into memory, because only
+ * the elements that are passed to the writer have to be kept in memory.
+ * 
+ * The methods of this interface throw an <code>IllegalStateException</code>
+ * when they are called in a way that does not match the element counts
+ * that have been declared when the writer was opened.
+ */
+public interface PlyStreamWriter
+{
+    /**
+     * Write the given element, as an element of the specified type
+     * 
+     * @param elementName The element name
+     * @param element The {@link Element}
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the descriptor does not contain
+     *         the specified element type
+     * @throws IllegalStateException If the elements of the specified type
+     *         can not be written at this point, because elements of a later
+     *         element type have already been written, not all elements of
+     *         an earlier element type have been written, or the declared
+     *         number of elements of the specified type would be exceeded,
+     *         or this writer was already finished
+     */
+    void write(String elementName, Element element) throws IOException;
+
+    /**
+     * Write the given elements, as elements of the specified type.
+     * 
+     * See {@link #write(String, Element)} for details.
+     * 
+     * @param elementName The element name
+     * @param elements The {@link Element} objects
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the descriptor does not contain
+     *         the specified element type
+     * @throws IllegalStateException If the elements can not be written
+     */
+    void write(String elementName, List<Element> elements) throws IOException;
+
+    /**
+     * Write the elements from the given {@link ArrayPlySource}.
+     * 
+     * The given source must have been created with the same
+     * {@link Descriptor} instance that was used for opening this writer.
+     * The elements of all element types that are registered in the given
+     * source are written, in the order of the element types. This allows
+     * writing batches of elements from primitive arrays, which are encoded
+     * directly from the arrays.
+     * 
+     * @param batch The {@link ArrayPlySource}
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the given source was not created
+     *         with the descriptor of this writer
+     * @throws IllegalStateException If not all properties of a registered
+     *         element type have been bound in the given source, or the
+     *         elements can not be written, as described in
+     *         {@link #write(String, Element)}
+     */
+    void write(ArrayPlySource batch) throws IOException;
+
+    /**
+     * Finish writing.
+     * 
+     * This writes all pending data to the output. It does not close the
+     * output.
+     * 
+     * @throws IOException If an IO error occurs
+     * @throws IllegalStateException If not all elements have been written,
+     *         or this writer was already finished
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,140 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Methods for converting PLY data into a different format.
+ * 
+ * The data is read and passed to a {@link PlyStreamWriter} in batches of
+ * elements, without creating a {@link PlySource} that contains all
+ * elements. The memory that is required for the conversion therefore does
+ * not depend on the number of elements.
+ * 
+ * The elements are written with the {@link PlyStreamWriter} that is
+ * opened with the given {@link PlyWriter}. When binary data is converted
+ * into binary data, with one of the writers that are created with
+ * {@link PlyWriters}, then elements of types that only contain scalar
+ * properties are not decoded at all: When the byte order is the same, they
+ * are copied directly. Otherwise, the bytes of each property value are
+ * swapped. Other writers receive the elements in batches, with
+ * {@link PlyStreamWriter#write(ArrayPlySource)}.
+ */
+public class PlyTranscoders
+{
+    /**
+     * Read the PLY data from the given input stream, and write it to the
+     * given output stream, using the given {@link PlyWriter}.
+     * 
+     * The caller is responsible for closing the given streams.
+     * 
+     * @param inputStream The input stream
+     * @param plyWriter The {@link PlyWriter}
+     * @param outputStream The output stream
+     * @throws IOException If an IO error occurs
+     * @throws UnsupportedOperationException If the given writer does not
+     *         support writing elements incrementally
+     */
+    public static void transcode(InputStream inputStream, PlyWriter plyWriter,
+        OutputStream outputStream) throws IOException
+    {
+        Objects.requireNonNull(inputStream, "The inputStream may not be null");
+        Objects.requireNonNull(plyWriter, "The plyWriter may not be null");
+        Objects.requireNonNull(outputStream,
+            "The outputStream may not be null");
+        DefaultPlyReader plyReader = new DefaultPlyReader();
+        Descriptor descriptor = plyReader.readDescriptor(inputStream);
+        PlyStreamWriter streamWriter = plyWriter.open(descriptor,
+            plyReader.getElementCounts(), outputStream);
+        try
+        {
+            plyReader.readContent(inputStream,
+                new TranscodingPlyTarget(descriptor, streamWriter));
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        streamWriter.finish();
+    }
+
+    /**
+     * Read the PLY data from the specified input file, and write it to the
+     * specified output file, using the given {@link PlyWriter}.
+     * 
+     * @param inputPath The path of the input file
+     * @param plyWriter The {@link PlyWriter}
+     * @param outputPath The path of the output file
+     * @throws IOException If an IO error occurs
+     * @throws UnsupportedOperationException If the given writer does not
+     *         support writing elements incrementally
+     */
+    public static void transcode(Path inputPath, PlyWriter plyWriter,
+        Path outputPath) throws IOException
+    {
+        Objects.requireNonNull(inputPath, "The inputPath may not be null");
+        Objects.requireNonNull(plyWriter, "The plyWriter may not be null");
+        Objects.requireNonNull(outputPath, "The outputPath may not be null");
+        try (FileChannel fileChannel =
+            FileChannel.open(inputPath, StandardOpenOption.READ);
+            OutputStream outputStream = Files.newOutputStream(outputPath))
+        {
+            DefaultPlyReader plyReader = new DefaultPlyReader();
+            Descriptor descriptor = plyReader.readDescriptor(fileChannel);
+            PlyStreamWriter streamWriter = plyWriter.open(descriptor,
+                plyReader.getElementCounts(), outputStream);
+            try
+            {
+                plyReader.readContent(fileChannel,
+                    new TranscodingPlyTarget(descriptor, streamWriter));
+            }
+            catch (UncheckedIOException e)
+            {
+                throw e.getCause();
+            }
+            streamWriter.finish();
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private PlyTranscoders()
+    {
+        // Private constructor to prevent instantiation
+    }
+
+}
@@ -210,6 +210,35 @@ public enum PlyType
         return isValidSize(t);
     }
 
+    /**
+     * Returns the number of bytes that a value of the given type occupies
+     * in binary PLY data
+     * 
+     * @param type The type
+     * @return The size, in bytes
+     */
+    static int getSize(PlyType type)
+    {
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return 1;
+            case USHORT:
+            case SHORT:
+                return 2;
+            case UINT:
+            case INT:
+            case FLOAT:
+                return 4;
+            case DOUBLE:
+                return 8;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown type: " + type);
+    }
+
     /**
      * Creates a map that maps types to their default string representation
      * (e.g. <code>"uchar"</code>
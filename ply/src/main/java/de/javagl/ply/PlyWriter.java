@@ -27,8 +27,15 @@
 
 package de.javagl.ply;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Interface for classes that can write PLY data
@@ -47,4 +54,117 @@ public interface PlyWriter
      */
     void write(PlySource plySource, OutputStream outputStream)
         throws IOException;
+
+    /**
+     * Write the data from the given {@link PlySource} to the given channel.
+     * 
+     * The caller is responsible for closing the given channel.
+     * 
+     * The default implementation passes a buffered output stream for the
+     * channel to {@link #write(PlySource, OutputStream)}. The writers that
+     * are created with {@link PlyWriters} encode the data into a byte
+     * buffer instead, which is written to the channel in large chunks.
+     * 
+     * @param plySource The {@link PlySource}
+     * @param channel The channel
+     * @throws IOException If an IO error occurs
+     */
+    default void write(PlySource plySource, WritableByteChannel channel)
+        throws IOException
+    {
+        OutputStream outputStream =
+            new BufferedOutputStream(Channels.newOutputStream(channel));
+        write(plySource, outputStream);
+        outputStream.flush();
+    }
+
+    /**
+     * Write the data from the given {@link PlySource} to the specified file.
+     * 
+     * The file will be created if it does not exist, or truncated if it
+     * exists.
+     * 
+     * The default implementation passes a buffered output stream for the
+     * file to {@link #write(PlySource, OutputStream)}. The writers that are
+     * created with {@link PlyWriters} write the file as a file channel
+     * instead, as described in {@link #write(PlySource, WritableByteChannel)}.
+     * 
+     * @param plySource The {@link PlySource}
+     * @param path The path of the file
+     * @throws IOException If an IO error occurs
+     */
+    default void write(PlySource plySource, Path path) throws IOException
+    {
+        try (OutputStream outputStream =
+            new BufferedOutputStream(Files.newOutputStream(path)))
+        {
+            write(plySource, outputStream);
+        }
+    }
+
+    /**
+     * Open a {@link PlyStreamWriter} that writes PLY data incrementally into
+     * the given output stream.
+     * 
+     * The header, with the given element counts, is written immediately.
+     * The elements have to be passed to the returned writer, as described
+     * in the {@link PlyStreamWriter} documentation. The given element counts
+     * must match the number of elements that are written.
+     * 
+     * The caller is responsible for closing the given stream, after
+     * {@link PlyStreamWriter#finish()} was called.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param elementCounts The number of elements for each element type of
+     *        the given descriptor
+     * @param outputStream The output stream
+     * @return The {@link PlyStreamWriter}
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the number of element counts does
+     *         not match the number of element types, or any element count
+     *         is negative
+     * @throws UnsupportedOperationException If this writer does not support
+     *         writing elements incrementally. This is the case for the
+     *         default implementation.
+     */
+    default PlyStreamWriter open(Descriptor descriptor,
+        List<Integer> elementCounts, OutputStream outputStream)
+        throws IOException
+    {
+        throw new UnsupportedOperationException(
+            "This writer does not support writing elements incrementally");
+    }
+
+    /**
+     * Open a {@link PlyStreamWriter} that writes PLY data incrementally into
+     * the given file channel, for element counts that are not known in
+     * advance.
+     * 
+     * The header is written immediately, starting at the current position
+     * of the given channel. The element counts in the header are padded with
+     * spaces to a fixed width, as in <code>element vertex          0</code>,
+     * and replaced with the actual element counts when
+     * {@link PlyStreamWriter#finish()} is called. In contrast to the
+     * {@link #open(Descriptor, List, OutputStream)} method, any number of
+     * elements of each element type may be written, as long as the element
+     * types are written in the order in which they appear in the
+     * {@link Descriptor}.
+     * 
+     * The caller is responsible for closing the given channel, after
+     * {@link PlyStreamWriter#finish()} was called.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param fileChannel The file channel
+     * @return The {@link PlyStreamWriter}
+     * @throws IOException If an IO error occurs
+     * @throws UnsupportedOperationException If this writer does not support
+     *         writing elements incrementally. This is the case for the
+     *         default implementation.
+     */
+    default PlyStreamWriter open(Descriptor descriptor,
+        FileChannel fileChannel) throws IOException
+    {
+        throw new UnsupportedOperationException(
+            "This writer does not support writing elements incrementally");
+    }
 }
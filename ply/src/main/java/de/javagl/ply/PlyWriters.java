@@ -26,19 +26,37 @@
  */
 package de.javagl.ply;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
 
 /**
  * Methods to create {@link PlyWriter} instances
  */
 public class PlyWriters
 {
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+        Logger.getLogger(PlyWriters.class.getName());
+
+    /**
+     * The width of the element counts in a header where the element counts
+     * are written after the content
+     */
+    static final int DEFERRED_COUNT_WIDTH = 10;
+
     /**
      * Creates a new ASCII {@link PlyWriter}
      * 
@@ -49,6 +67,34 @@ public class PlyWriters
         return new AsciiPlyWriter();
     }
 
+    /**
+     * Creates a new ASCII {@link PlyWriter} that writes float and double
+     * values with the given number of decimals, like <code>1.500000</code>
+     * for 6 decimals.
+     * 
+     * This is faster than writing the shortest representation of the values
+     * that is parsed back into the same value, as it is done by the writer
+     * that is returned by {@link #createAscii()}, but may lose precision.
+     * Values that are too large to be written with the given number of
+     * decimals, as well as infinite values and <code>NaN</code>, are written
+     * with their shortest representation.
+     * 
+     * @param decimals The number of decimals
+     * @return The {@link PlyWriter}
+     * @throws IllegalArgumentException If the number of decimals is negative
+     *         or larger than 17
+     */
+    public static PlyWriter createAscii(int decimals)
+    {
+        if (decimals < 0 || decimals > AsciiOutput.MAX_DECIMALS)
+        {
+            throw new IllegalArgumentException(
+                "The number of decimals must be between 0 and "
+                    + AsciiOutput.MAX_DECIMALS + ", but is " + decimals);
+        }
+        return new AsciiPlyWriter(decimals);
+    }
+
     /**
      * Creates a new binary (big-endian) {@link PlyWriter}
      * 
@@ -69,6 +115,52 @@ public class PlyWriters
         return new BinaryPlyWriter(true);
     }
 
+    /**
+     * Creates a new binary (big-endian) {@link PlyWriter} that encodes data
+     * in parallel, using the given executor service.
+     * 
+     * See {@link #createBinaryLittleEndian(ExecutorService)} for details.
+     * 
+     * @param executorService The executor service
+     * @return The {@link PlyWriter}
+     * @throws NullPointerException If the given executor service is
+     *         <code>null</code>
+     */
+    public static PlyWriter createBinaryBigEndian(
+        ExecutorService executorService)
+    {
+        Objects.requireNonNull(executorService,
+            "The executorService may not be null");
+        return new BinaryPlyWriter(false, executorService);
+    }
+
+    /**
+     * Creates a new binary (little-endian) {@link PlyWriter} that encodes
+     * data in parallel, using the given executor service.
+     * 
+     * Large blocks of elements that only have scalar properties are split
+     * into chunks that are encoded concurrently, and written in order. This
+     * means that the elements of the {@link PlySource} are accessed from
+     * multiple threads, so the <code>PlySource</code> and its elements must
+     * support concurrent reads. For an {@link ArrayPlySource}, this means
+     * that all functions that provide property values must be thread-safe.
+     * All other elements are encoded sequentially.
+     * 
+     * The caller is responsible for shutting down the given executor service.
+     * 
+     * @param executorService The executor service
+     * @return The {@link PlyWriter}
+     * @throws NullPointerException If the given executor service is
+     *         <code>null</code>
+     */
+    public static PlyWriter createBinaryLittleEndian(
+        ExecutorService executorService)
+    {
+        Objects.requireNonNull(executorService,
+            "The executorService may not be null");
+        return new BinaryPlyWriter(true, executorService);
+    }
+
     /**
      * Compute the number of elements of each type in the given
      * {@link PlySource}
@@ -112,6 +204,30 @@ public class PlyWriters
      */
     static void writeHeader(PlySource plySource, String format,
         OutputStream outputStream) throws IOException
+    {
+        writeHeader(plySource.getDescriptor(),
+            computeElementCounts(plySource), format, outputStream);
+    }
+
+    /**
+     * Write the header for the given {@link Descriptor} and element counts
+     * into the given output stream.
+     * 
+     * If the given element counts are <code>null</code>, then the element
+     * counts are written as zeros, padded with spaces to the
+     * {@link #DEFERRED_COUNT_WIDTH}, so that they may later be replaced
+     * with the actual element counts.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param elementCounts The element counts
+     * @param format The format, <code>"ascii"</code>,
+     *        <code>"binary_little_endian"</code>, or
+     *        <code>"binary_big_endian"</code>
+     * @param outputStream The output stream
+     * @throws IOException If an IO error occurs
+     */
+    static void writeHeader(Descriptor descriptor, List<Integer> elementCounts,
+        String format, OutputStream outputStream) throws IOException
     {
         Map<PlyType, String> typeStrings = PlyType.createDefaultStrings();
 
@@ -119,21 +235,21 @@ public class PlyWriters
         writer.write("ply" + "\n");
         writer.write("format " + format + " 1.0" + "\n");
 
-        Descriptor descriptor = plySource.getDescriptor();
         List<String> comments = descriptor.getComments();
         for (String comment : comments)
         {
             writer.write("comment " + comment + "\n");
         }
 
-        List<Integer> elementCounts = computeElementCounts(plySource);
         List<ElementDescriptor> elementDescriptors =
             descriptor.getElementDescriptors();
         for (int t = 0; t < elementDescriptors.size(); t++)
         {
             ElementDescriptor elementDescriptor = elementDescriptors.get(t);
             String elementName = elementDescriptor.getName();
-            int elementCount = elementCounts.get(t);
+            String elementCount = elementCounts == null
+                ? formatDeferredCount(0)
+                : String.valueOf(elementCounts.get(t));
 
             writer.write("element " + elementName + " " + elementCount + "\n");
 
@@ -165,6 +281,183 @@ public class PlyWriters
         writer.flush();
     }
 
+    /**
+     * Creates the header for the given {@link Descriptor}, with element
+     * counts that are not known yet.
+     * 
+     * The element counts are written as zeros, padded with spaces to the
+     * {@link #DEFERRED_COUNT_WIDTH}. The given array will be filled with
+     * the positions of the element counts in the returned header, so that
+     * they may later be replaced with the actual element counts.
+     * 
+     * @param descriptor The {@link Descriptor}
+     * @param format The format
+     * @param countPositions The array that will store the positions of the
+     *        element counts. Its length must be the number of element types.
+     * @return The header
+     * @throws IOException If an IO error occurs
+     */
+    static byte[] createDeferredHeader(Descriptor descriptor, String format,
+        long countPositions[]) throws IOException
+    {
+        ByteArrayOutputStream headerStream = new ByteArrayOutputStream();
+        writeHeader(descriptor, null, format, headerStream);
+        byte header[] = headerStream.toByteArray();
+
+        // The element counts are at the end of the lines that start with
+        // "element", in the order of the element types
+        byte prefix[] = "element ".getBytes(StandardCharsets.US_ASCII);
+        int t = 0;
+        int lineStart = 0;
+        for (int i = 0; i < header.length; i++)
+        {
+            if (header[i] != '\n')
+            {
+                continue;
+            }
+            if (startsWith(header, lineStart, prefix))
+            {
+                countPositions[t] = i - DEFERRED_COUNT_WIDTH;
+                t++;
+            }
+            lineStart = i + 1;
+        }
+        return header;
+    }
+
+    /**
+     * Returns whether the given array contains the given prefix at the
+     * given position
+     * 
+     * @param array The array
+     * @param position The position
+     * @param prefix The prefix
+     * @return Whether the array contains the prefix
+     */
+    private static boolean startsWith(byte array[], int position,
+        byte prefix[])
+    {
+        if (position + prefix.length > array.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++)
+        {
+            if (array[position + i] != prefix[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Format the given element count for a header where the element counts
+     * are written after the content, by padding it with spaces to the
+     * {@link #DEFERRED_COUNT_WIDTH}
+     * 
+     * @param elementCount The element count
+     * @return The formatted element count
+     */
+    static String formatDeferredCount(int elementCount)
+    {
+        StringBuilder sb = new StringBuilder();
+        String s = String.valueOf(elementCount);
+        for (int i = s.length(); i < DEFERRED_COUNT_WIDTH; i++)
+        {
+            sb.append(' ');
+        }
+        sb.append(s);
+        return sb.toString();
+    }
+
+    /**
+     * Compute the indices that the given properties have in the given
+     * mapping from property names to indices.
+     * 
+     * If any of the properties is not contained in the given mapping, then
+     * <code>null</code> is returned.
+     * 
+     * @param propertyIndices The property indices
+     * @param propertyNames The property names
+     * @return The indices
+     */
+    static int[] computeIndices(Map<String, Integer> propertyIndices,
+        String propertyNames[])
+    {
+        int indices[] = new int[propertyNames.length];
+        for (int p = 0; p < propertyNames.length; p++)
+        {
+            Integer index = propertyIndices.get(propertyNames[p]);
+            if (index == null)
+            {
+                return null;
+            }
+            indices[p] = index;
+        }
+        return indices;
+    }
+
+    /**
+     * Create a function that obtains the value of a property with the given
+     * type and size type from an {@link Element}, by its name.
+     * 
+     * If the type is invalid, a warning will be printed and <code>null</code>
+     * will be returned.
+     * 
+     * @param type The type
+     * @param sizeType The size type
+     * @return The function
+     */
+    static BiFunction<Element, String, ?> createPropertyGetter(PlyType type,
+        PlyType sizeType)
+    {
+        if (sizeType == null)
+        {
+            switch (type)
+            {
+                case UCHAR:
+                case CHAR:
+                    return Element::getCharProperty;
+                case USHORT:
+                case SHORT:
+                    return Element::getShortProperty;
+                case UINT:
+                case INT:
+                    return Element::getIntProperty;
+                case FLOAT:
+                    return Element::getFloatProperty;
+                case DOUBLE:
+                    return Element::getDoubleProperty;
+                default:
+                    break;
+            }
+            logger.severe("Unknown property type: " + type);
+            return null;
+        }
+
+        switch (type)
+        {
+            case UCHAR:
+            case CHAR:
+                return Element::getCharListProperty;
+            case USHORT:
+            case SHORT:
+                return Element::getShortListProperty;
+            case UINT:
+            case INT:
+                return Element::getIntListProperty;
+            case FLOAT:
+                return Element::getFloatListProperty;
+            case DOUBLE:
+                return Element::getDoubleListProperty;
+            default:
+                break;
+        }
+        logger.severe("Unknown property type: " + type);
+        return null;
+    }
+
     /**
      * Private constructor to prevent instantiation
      */
@@ -0,0 +1,62 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Internal extension of the {@link PlyTarget} interface for targets that
+ * receive elements of binary PLY data as raw bytes.
+ * 
+ * When binary PLY data is passed to a target that implements this
+ * interface, then elements of types that only contain scalar properties
+ * are not decoded. Instead, blocks of these elements are passed to
+ * {@link #handleRawElements(int, int, int, ByteBuffer, int)}, as they are
+ * stored in the input. For these element types, the calls to this method
+ * are only preceded by a call to {@link #startElementList(int, int)} and
+ * followed by a call to {@link #endElementList(int)}.
+ */
+interface RawPlyTarget extends PlyTarget
+{
+    /**
+     * Will be called to handle a block of elements of the specified type.
+     * 
+     * The elements are stored in the given buffer, starting at the given
+     * position, with the stride that is implied by the property types. The
+     * order of the buffer is the byte order of the input. The buffer is
+     * owned by the reader. Its contents are only valid for the duration of
+     * the call, and its position may not be modified.
+     * 
+     * @param elementTypeIndex The element type index
+     * @param elementIndex The index of the first element
+     * @param count The number of elements
+     * @param buffer The buffer
+     * @param position The position of the first element in the buffer
+     */
+    void handleRawElements(int elementTypeIndex, int elementIndex, int count,
+        ByteBuffer buffer, int position);
+}
@@ -0,0 +1,477 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.math.BigInteger;
+
+/**
+ * Internal class for computing the shortest decimal representation of
+ * float and double values.
+ * 
+ * For a positive, finite value, this computes a decimal significand and
+ * exponent, so that <code>significand * 10^exponent</code> is a decimal
+ * with the fewest digits that rounds to the given value (and among those,
+ * the one that is closest to the value). The result is the same as that of
+ * <code>Float.toString</code> and <code>Double.toString</code> in recent
+ * JDKs, and it is always parsed back into the original value by
+ * <code>Float.parseFloat</code> and <code>Double.parseDouble</code>.
+ * 
+ * The implementation is based on the Schubfach algorithm by Raffaello
+ * Giulietti. The required 128-bit approximations of the powers of ten are
+ * computed when this class is initialized.
+ * 
+ * Instances of this class store the result of the last computation, and
+ * are not thread-safe.
+ */
+final class ShortestDecimal
+{
+    /**
+     * The minimum exponent of a double value
+     */
+    private static final int DOUBLE_Q_MIN = -1074;
+
+    /**
+     * The minimum significand of a normal double value
+     */
+    private static final long DOUBLE_C_MIN = 1L << 52;
+
+    /**
+     * The significands of subnormal double values that are smaller than this
+     * have to be scaled, to obtain two digits
+     */
+    private static final long DOUBLE_C_TINY = 3;
+
+    /**
+     * The number of significand bits of a double value
+     */
+    private static final int DOUBLE_P = 53;
+
+    /**
+     * The minimum exponent of a float value
+     */
+    private static final int FLOAT_Q_MIN = -149;
+
+    /**
+     * The minimum significand of a normal float value
+     */
+    private static final int FLOAT_C_MIN = 1 << 23;
+
+    /**
+     * The significands of subnormal float values that are smaller than this
+     * have to be scaled, to obtain two digits
+     */
+    private static final int FLOAT_C_TINY = 8;
+
+    /**
+     * The number of significand bits of a float value
+     */
+    private static final int FLOAT_P = 24;
+
+    /**
+     * The minimum power of ten for which an approximation is stored
+     */
+    private static final int K_MIN = -324;
+
+    /**
+     * The maximum power of ten for which an approximation is stored
+     */
+    private static final int K_MAX = 292;
+
+    /**
+     * A mask for the lower 63 bits of a long value
+     */
+    private static final long MASK_63 = 0x7FFFFFFFFFFFFFFFL;
+
+    /**
+     * A mask for the lower 32 bits of a long value
+     */
+    private static final long MASK_32 = 0xFFFFFFFFL;
+
+    /**
+     * The approximations of the powers of ten. For each k between
+     * {@link #K_MIN} and {@link #K_MAX}, this contains the upper and the lower
+     * 63 bits of <code>floor(10^-k * 2^(125 - floor(log2(10^-k)))) + 1</code>.
+     */
+    private static final long G[] = computeG();
+
+    /**
+     * The decimal significand of the last result
+     */
+    private long significand;
+
+    /**
+     * The decimal exponent of the last result
+     */
+    private int exponent;
+
+    /**
+     * Returns the decimal significand of the last result. This may contain
+     * trailing zeros.
+     * 
+     * @return The significand
+     */
+    long getSignificand()
+    {
+        return significand;
+    }
+
+    /**
+     * Returns the decimal exponent of the last result
+     * 
+     * @return The exponent
+     */
+    int getExponent()
+    {
+        return exponent;
+    }
+
+    /**
+     * Compute the shortest decimal for the given value, which must be
+     * positive and finite.
+     * 
+     * @param v The value
+     */
+    void compute(double v)
+    {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & (DOUBLE_C_MIN - 1);
+        int bq = (int) (bits >>> 52) & 0x7FF;
+        if (bq != 0)
+        {
+            int mq = -DOUBLE_Q_MIN + 1 - bq;
+            long c = DOUBLE_C_MIN | t;
+            // Integer values are represented directly
+            if (0 < mq && mq < DOUBLE_P)
+            {
+                long f = c >> mq;
+                if (f << mq == c)
+                {
+                    set(f, 0);
+                    return;
+                }
+            }
+            compute(-mq, c, 0);
+            return;
+        }
+        if (t < DOUBLE_C_TINY)
+        {
+            compute(DOUBLE_Q_MIN, 10 * t, -1);
+            return;
+        }
+        compute(DOUBLE_Q_MIN, t, 0);
+    }
+
+    /**
+     * Compute the shortest decimal for the given value, which must be
+     * positive and finite.
+     * 
+     * @param v The value
+     */
+    void compute(float v)
+    {
+        int bits = Float.floatToRawIntBits(v);
+        int t = bits & (FLOAT_C_MIN - 1);
+        int bq = (bits >>> 23) & 0xFF;
+        if (bq != 0)
+        {
+            int mq = -FLOAT_Q_MIN + 1 - bq;
+            int c = FLOAT_C_MIN | t;
+            // Integer values are represented directly
+            if (0 < mq && mq < FLOAT_P)
+            {
+                int f = c >> mq;
+                if (f << mq == c)
+                {
+                    set(f, 0);
+                    return;
+                }
+            }
+            compute(-mq, c, 0);
+            return;
+        }
+        if (t < FLOAT_C_TINY)
+        {
+            compute(FLOAT_Q_MIN, 10 * t, -1);
+            return;
+        }
+        compute(FLOAT_Q_MIN, t, 0);
+    }
+
+    /**
+     * Compute the shortest decimal for the double value
+     * <code>c * 2^q</code>, where the result is scaled with
+     * <code>10^dk</code>
+     * 
+     * @param q The binary exponent
+     * @param c The binary significand
+     * @param dk The decimal exponent adjustment
+     */
+    private void compute(int q, long c, int dk)
+    {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != DOUBLE_C_MIN || q == DOUBLE_Q_MIN)
+        {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }
+        else
+        {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G[(k - K_MIN) << 1];
+        long g0 = G[(k - K_MIN) << 1 | 1];
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100)
+        {
+            // Check whether s/10 or s/10+1 are in the rounding interval
+            long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin)
+            {
+                set(upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win)
+        {
+            set(uin ? s : t, k + dk);
+            return;
+        }
+        long cmp = vb - (s + t << 1);
+        boolean useS = cmp < 0 || cmp == 0 && (s & 0x1) == 0;
+        set(useS ? s : t, k + dk);
+    }
+
+    /**
+     * Compute the shortest decimal for the float value
+     * <code>c * 2^q</code>, where the result is scaled with
+     * <code>10^dk</code>
+     * 
+     * @param q The binary exponent
+     * @param c The binary significand
+     * @param dk The decimal exponent adjustment
+     */
+    private void compute(int q, int c, int dk)
+    {
+        int out = c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != FLOAT_C_MIN || q == FLOAT_Q_MIN)
+        {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }
+        else
+        {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 33;
+        long g = G[(k - K_MIN) << 1] + 1;
+        int vb = rop(g, cb << h);
+        int vbl = rop(g, cbl << h);
+        int vbr = rop(g, cbr << h);
+
+        int s = vb >> 2;
+        if (s >= 100)
+        {
+            // Check whether s/10 or s/10+1 are in the rounding interval
+            int sp10 = 10 * (int) (s * 1717986919L >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin)
+            {
+                set(upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win)
+        {
+            set(uin ? s : t, k + dk);
+            return;
+        }
+        int cmp = vb - (s + t << 1);
+        boolean useS = cmp < 0 || cmp == 0 && (s & 0x1) == 0;
+        set(useS ? s : t, k + dk);
+    }
+
+    /**
+     * Set the result
+     * 
+     * @param significand The significand
+     * @param exponent The exponent
+     */
+    private void set(long significand, int exponent)
+    {
+        this.significand = significand;
+        this.exponent = exponent;
+    }
+
+    /**
+     * Computes the rounded-to-odd upper bits of the product of the 126 bit
+     * value <code>g1 * 2^63 + g0</code> and the given value
+     * 
+     * @param g1 The upper bits of the first factor
+     * @param g0 The lower bits of the first factor
+     * @param cp The second factor
+     * @return The result
+     */
+    private static long rop(long g1, long g0, long cp)
+    {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Computes the rounded-to-odd upper bits of the product of the given
+     * values
+     * 
+     * @param g The first factor
+     * @param cp The second factor
+     * @return The result
+     */
+    private static int rop(long g, long cp)
+    {
+        long x1 = multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+
+    /**
+     * Returns the upper 64 bits of the 128 bit product of the given values.
+     * 
+     * This is equivalent to <code>Math.multiplyHigh</code>, which is not
+     * available in Java 8.
+     * 
+     * @param x The first value
+     * @param y The second value
+     * @return The result
+     */
+    private static long multiplyHigh(long x, long y)
+    {
+        long x1 = x >> 32;
+        long x2 = x & MASK_32;
+        long y1 = y >> 32;
+        long y2 = y & MASK_32;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & MASK_32;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * Returns <code>floor(e * log10(2))</code>, for
+     * <code>abs(e) &lt;= 5456721</code>
+     * 
+     * @param e The exponent
+     * @return The result
+     */
+    private static int flog10pow2(int e)
+    {
+        return (int) (e * 661971961083L >> 41);
+    }
+
+    /**
+     * Returns <code>floor(log10(3/4 * 2^e))</code>, for
+     * <code>abs(e) &lt;= 1838394</code>
+     * 
+     * @param e The exponent
+     * @return The result
+     */
+    private static int flog10threeQuartersPow2(int e)
+    {
+        return (int) (e * 661971961083L + -274743187321L >> 41);
+    }
+
+    /**
+     * Returns <code>floor(e * log2(10))</code>, for
+     * <code>abs(e) &lt;= 1233110</code>
+     * 
+     * @param e The exponent
+     * @return The result
+     */
+    private static int flog2pow10(int e)
+    {
+        return (int) (e * 913124641741L >> 38);
+    }
+
+    /**
+     * Compute the approximations of the powers of ten
+     * 
+     * @return The approximations
+     */
+    private static long[] computeG()
+    {
+        long g[] = new long[(K_MAX - K_MIN + 1) * 2];
+        for (int k = K_MIN; k <= K_MAX; k++)
+        {
+            int shift = 125 - flog2pow10(-k);
+            BigInteger p;
+            if (k <= 0)
+            {
+                p = BigInteger.TEN.pow(-k);
+                p = shift >= 0 ? p.shiftLeft(shift) : p.shiftRight(-shift);
+            }
+            else
+            {
+                p = BigInteger.ONE.shiftLeft(shift).divide(
+                    BigInteger.TEN.pow(k));
+            }
+            p = p.add(BigInteger.ONE);
+            g[(k - K_MIN) << 1] = p.shiftRight(63).longValue();
+            g[(k - K_MIN) << 1 | 1] = p.longValue() & MASK_63;
+        }
+        return g;
+    }
+}
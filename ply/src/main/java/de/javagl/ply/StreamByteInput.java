@@ -0,0 +1,95 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Implementation of a {@link ByteInput} that reads the data from an input
+ * stream, in chunks of the size of the internal buffer.
+ */
+final class StreamByteInput extends ByteInput
+{
+    /**
+     * The input stream
+     */
+    private final InputStream inputStream;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param inputStream The input stream
+     * @param byteOrder The byte order
+     * @param bufferSize The size of the internal buffer
+     */
+    StreamByteInput(InputStream inputStream, ByteOrder byteOrder,
+        int bufferSize)
+    {
+        this.inputStream = Objects.requireNonNull(inputStream,
+            "The inputStream may not be null");
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.order(byteOrder);
+        this.buffer.limit(0);
+    }
+
+    @Override
+    int capacity()
+    {
+        return buffer.capacity();
+    }
+
+    @Override
+    boolean refill() throws IOException
+    {
+        buffer.compact();
+        int read = 0;
+        try
+        {
+            while (read == 0 && buffer.hasRemaining())
+            {
+                read = inputStream.read(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+                if (read > 0)
+                {
+                    buffer.position(buffer.position() + read);
+                }
+            }
+        }
+        finally
+        {
+            buffer.flip();
+        }
+        return read > 0;
+    }
+
+}
@@ -0,0 +1,357 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.ply;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Internal implementation of a {@link PlyTarget} that passes all elements
+ * that it receives to a {@link PlyStreamWriter}.
+ * 
+ * The elements are collected in batches of columns, as they are used in an
+ * {@link ArrayPlySource}, and each batch is written when it is full, or
+ * when the element list ends. When the writer is an
+ * {@link AbstractPlyStreamWriter}, then the columns and raw elements are
+ * passed to the writer directly, without being decoded. Otherwise, raw
+ * elements are decoded into the columns of the current batch, and the
+ * batches are passed to {@link PlyStreamWriter#write(ArrayPlySource)}.
+ * 
+ * The methods of the {@link PlyTarget} interface do not allow throwing an
+ * <code>IOException</code>. When writing a batch causes an IO error, then
+ * an <code>UncheckedIOException</code> is thrown.
+ */
+final class TranscodingPlyTarget implements ListBufferPlyTarget, RawPlyTarget
+{
+    /**
+     * The maximum number of elements in one batch
+     */
+    private static final int BATCH_SIZE = 1 << 12;
+
+    /**
+     * The {@link PlyStreamWriter}
+     */
+    private final PlyStreamWriter streamWriter;
+
+    /**
+     * The {@link AbstractPlyStreamWriter}, if the {@link #streamWriter} is
+     * one, or <code>null</code> otherwise
+     */
+    private final AbstractPlyStreamWriter abstractStreamWriter;
+
+    /**
+     * The {@link Descriptor} that the {@link #streamWriter} was opened with
+     */
+    private final Descriptor descriptor;
+
+    /**
+     * The {@link ColumnarPlySource} that allocates the columns of the
+     * batches
+     */
+    private final ColumnarPlySource batchPlySource;
+
+    /**
+     * The columns of the current batch
+     */
+    private Object currentColumns[];
+
+    /**
+     * The maximum number of elements in the current batch
+     */
+    private int currentCapacity;
+
+    /**
+     * The number of elements in the current batch
+     */
+    private int currentCount;
+
+    /**
+     * The {@link FixedStrideDecoder} for decoding raw elements of the
+     * current element type. This is created when it is needed.
+     */
+    private FixedStrideDecoder currentDecoder;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param descriptor The {@link Descriptor} that the given writer was
+     *        opened with
+     * @param streamWriter The {@link PlyStreamWriter}
+     */
+    TranscodingPlyTarget(Descriptor descriptor, PlyStreamWriter streamWriter)
+    {
+        this.descriptor = Objects.requireNonNull(descriptor,
+            "The descriptor may not be null");
+        this.streamWriter = Objects.requireNonNull(streamWriter,
+            "The streamWriter may not be null");
+        this.abstractStreamWriter =
+            streamWriter instanceof AbstractPlyStreamWriter
+                ? (AbstractPlyStreamWriter) streamWriter : null;
+        this.batchPlySource = new ColumnarPlySource(descriptor, true);
+    }
+
+    /**
+     * Write the current batch, if it is not empty, and clear it
+     * 
+     * @param elementTypeIndex The element type index
+     * @throws UncheckedIOException If an IO error occurs
+     */
+    private void flush(int elementTypeIndex)
+    {
+        if (currentCount == 0)
+        {
+            return;
+        }
+        try
+        {
+            if (abstractStreamWriter != null)
+            {
+                abstractStreamWriter.write(elementTypeIndex, currentCount,
+                    currentColumns);
+            }
+            else
+            {
+                ArrayPlySource batch = new ArrayPlySource(descriptor);
+                batch.register(elementTypeIndex, currentCount, currentColumns);
+                streamWriter.write(batch);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        for (Object column : currentColumns)
+        {
+            if (column instanceof ListColumn)
+            {
+                ((ListColumn) column).clear();
+            }
+        }
+        currentCount = 0;
+    }
+
+    @Override
+    public void setDescriptor(Descriptor descriptor)
+    {
+        // The descriptor is passed to the constructor
+    }
+
+    @Override
+    public void startElementList(int elementTypeIndex, int elementCount)
+    {
+        this.currentCapacity = Math.max(1, Math.min(BATCH_SIZE, elementCount));
+        this.currentColumns =
+            batchPlySource.allocate(elementTypeIndex, currentCapacity);
+        this.currentCount = 0;
+        this.currentDecoder = null;
+    }
+
+    @Override
+    public void startElement(int elementTypeIndex, int elementIndex)
+    {
+        // Nothing to do here
+    }
+
+    @Override
+    public void handleCharProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte value)
+    {
+        byte column[] = (byte[]) currentColumns[propertyIndex];
+        column[currentCount] = value;
+    }
+
+    @Override
+    public void handleShortProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short value)
+    {
+        short column[] = (short[]) currentColumns[propertyIndex];
+        column[currentCount] = value;
+    }
+
+    @Override
+    public void handleIntProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int value)
+    {
+        int column[] = (int[]) currentColumns[propertyIndex];
+        column[currentCount] = value;
+    }
+
+    @Override
+    public void handleFloatProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float value)
+    {
+        float column[] = (float[]) currentColumns[propertyIndex];
+        column[currentCount] = value;
+    }
+
+    @Override
+    public void handleDoubleProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double value)
+    {
+        double column[] = (double[]) currentColumns[propertyIndex];
+        column[currentCount] = value;
+    }
+
+    @Override
+    public void handleCharListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte[] value)
+    {
+        handleCharListProperty(elementTypeIndex, elementIndex, propertyIndex,
+            value, value.length);
+    }
+
+    @Override
+    public void handleShortListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short[] value)
+    {
+        handleShortListProperty(elementTypeIndex, elementIndex, propertyIndex,
+            value, value.length);
+    }
+
+    @Override
+    public void handleIntListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int[] value)
+    {
+        handleIntListProperty(elementTypeIndex, elementIndex, propertyIndex,
+            value, value.length);
+    }
+
+    @Override
+    public void handleFloatListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float[] value)
+    {
+        handleFloatListProperty(elementTypeIndex, elementIndex, propertyIndex,
+            value, value.length);
+    }
+
+    @Override
+    public void handleDoubleListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double[] value)
+    {
+        handleDoubleListProperty(elementTypeIndex, elementIndex, propertyIndex,
+            value, value.length);
+    }
+
+    @Override
+    public void handleCharListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, byte[] buffer, int length)
+    {
+        ListColumn column = (ListColumn) currentColumns[propertyIndex];
+        column.addChars(buffer, length);
+    }
+
+    @Override
+    public void handleShortListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, short[] buffer, int length)
+    {
+        ListColumn column = (ListColumn) currentColumns[propertyIndex];
+        column.addShorts(buffer, length);
+    }
+
+    @Override
+    public void handleIntListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, int[] buffer, int length)
+    {
+        ListColumn column = (ListColumn) currentColumns[propertyIndex];
+        column.addInts(buffer, length);
+    }
+
+    @Override
+    public void handleFloatListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, float[] buffer, int length)
+    {
+        ListColumn column = (ListColumn) currentColumns[propertyIndex];
+        column.addFloats(buffer, length);
+    }
+
+    @Override
+    public void handleDoubleListProperty(int elementTypeIndex, int elementIndex,
+        int propertyIndex, double[] buffer, int length)
+    {
+        ListColumn column = (ListColumn) currentColumns[propertyIndex];
+        column.addDoubles(buffer, length);
+    }
+
+    @Override
+    public void endElement(int elementTypeIndex, int elementIndex)
+    {
+        currentCount++;
+        if (currentCount == currentCapacity)
+        {
+            flush(elementTypeIndex);
+        }
+    }
+
+    @Override
+    public void handleRawElements(int elementTypeIndex, int elementIndex,
+        int count, ByteBuffer buffer, int position)
+    {
+        if (abstractStreamWriter != null)
+        {
+            try
+            {
+                abstractStreamWriter.writeRaw(elementTypeIndex, count, buffer,
+                    position);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        if (currentDecoder == null)
+        {
+            ElementDescriptor elementDescriptor =
+                descriptor.getElementDescriptors().get(elementTypeIndex);
+            currentDecoder = FixedStrideDecoder.create(elementDescriptor);
+        }
+        int stride = currentDecoder.getStride();
+        int i = 0;
+        while (i < count)
+        {
+            int n = Math.min(count - i, currentCapacity - currentCount);
+            currentDecoder.decode(buffer, position + i * stride, currentCount,
+                n, currentColumns);
+            currentCount += n;
+            i += n;
+            if (currentCount == currentCapacity)
+            {
+                flush(elementTypeIndex);
+            }
+        }
+    }
+
+    @Override
+    public void endElementList(int elementTypeIndex)
+    {
+        flush(elementTypeIndex);
+        this.currentColumns = null;
+    }
+
+}
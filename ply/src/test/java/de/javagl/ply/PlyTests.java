@@ -0,0 +1,102 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utility methods for the tests
+ */
+class PlyTests
+{
+    /**
+     * Creates one {@link PlyWriter} for each format, namely an ASCII writer,
+     * a binary little endian writer, and a binary big endian writer
+     * 
+     * @return The {@link PlyWriter} instances
+     */
+    static PlyWriter[] createWriters()
+    {
+        return new PlyWriter[] { PlyWriters.createAscii(),
+            PlyWriters.createBinaryLittleEndian(),
+            PlyWriters.createBinaryBigEndian() };
+    }
+
+    /**
+     * Uses the given writer to write the given {@link PlySource} into a byte
+     * array, and returns the byte array.
+     * 
+     * @param plySource The {@link PlySource}
+     * @param plyWriter The {@link PlyWriter}
+     * @return The bytes
+     * @throws IOException If an IO error occurs
+     */
+    static byte[] write(PlySource plySource, PlyWriter plyWriter)
+        throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        plyWriter.write(plySource, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Reads the given PLY data with a default {@link PlyReader}, and passes
+     * the content to the given {@link PlyTarget}
+     * 
+     * @param data The PLY data
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    static void read(byte data[], PlyTarget plyTarget) throws IOException
+    {
+        PlyReader r = PlyReaders.create();
+        try (InputStream inputStream = new ByteArrayInputStream(data))
+        {
+            r.readDescriptor(inputStream);
+            r.readContent(inputStream, plyTarget);
+        }
+    }
+
+    /**
+     * Uses the given writer to write the given {@link PlySource} into a byte
+     * array, reads a new {@link PlySource} from that byte array and returns it.
+     * 
+     * @param plySource The {@link PlySource}
+     * @param plyWriter The {@link PlyWriter}
+     * @return The resulting {@link PlySource}
+     * @throws IOException If an IO error occurs
+     */
+    static PlySource roundtrip(PlySource plySource, PlyWriter plyWriter)
+        throws IOException
+    {
+        byte data[] = write(plySource, plyWriter);
+        PlyReader r = PlyReaders.create();
+        return r.read(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Writes the given PLY as an "ascii" ply and returns the result
+     * 
+     * @param plySource The {@link PlySource}
+     * @return The string
+     * @throws IOException If an IO error occurs
+     */
+    static String createAsciiString(PlySource plySource) throws IOException
+    {
+        return new String(write(plySource, PlyWriters.createAscii()));
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private PlyTests()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestAsciiNumbers
+{
+    private static final String DECIMAL_CASES[] =
+    {
+        // Signs, zeros, and the different forms of decimals
+        "0", "-0", "+0", "0.0", "-0.0", "+0.0", "00000", "-000.000",
+        "1", "-1", "+1", "+1.5", ".5", "-.5", "+.5", "5.", "-5.", "+5.",
+        "1e5", "1E5", "1e+5", "1e-5", "-1e5", ".5e1", "5.e1", "1.5e-3",
+        "123456.789", "-0.000123", "00012.5000", "0.1", "0.2", "0.3",
+
+        // Around the 2^24 significand limit of float, including values
+        // that are exactly in the middle between two floats
+        "16777215", "16777216", "16777217", "16777218", "16777219",
+        "16777220", "33554431", "33554433", "33554435", "1677721.5",
+        "1677721.7", "167772.17", "16777217e1", "16777217e-1",
+        "-16777217", "8388607.5", "8388608.5", "8388609.5",
+
+        // Around the 2^53 significand limit of double
+        "9007199254740991", "9007199254740992", "9007199254740993",
+        "9007199254740994", "9007199254740995", "900719925474099.3",
+        "900719925474099.5", "9007199254740993e-16", "18014398509481985",
+        "-9007199254740993",
+
+        // Values close to the middle between 1 and the next float, where
+        // rounding to double first and then to float may round twice
+        "1.000000059604644775390625", "1.000000059604644775390624",
+        "1.000000059604644775390626", "1.000000059604645",
+        "1.000000059604644", "1.0000000596046448", "1.0000000596046447",
+        "1.00000005960464478", "1.00000005960464477",
+
+        // Around the limits of the exactly representable powers of ten
+        "1e10", "1e11", "1e-10", "1e-11", "3e10", "3e-10", "3e11",
+        "1e15", "1e16", "1e22", "1e23", "1e-22", "1e-23", "123e20",
+        "123e-20", "16777215e10", "16777215e-10", "9007199254740991e22",
+        "9007199254740991e-22",
+
+        // Around the limits of the exponents of float and double
+        "1e38", "3.4028235e38", "3.4028236e38", "3.4028234663852886e38",
+        "3.40282356779733661637539395458142568448e38", "1e39",
+        "1.17549435e-38", "1.1754942e-38", "1.4e-45", "1.401298464e-45",
+        "7e-46", "7.1e-46", "1e-46", "1e-45", "1e308",
+        "1.7976931348623157e308", "1.7976931348623158e308", "1e309",
+        "2.2250738585072014e-308", "2.225073858507201e-308", "4.9e-324",
+        "2.4703282292062328e-324", "2.4703282292062327e-324", "1e-325",
+        "1e99999", "-1e99999", "1e-99999", "1e2147483648",
+        "1e-2147483649", "0e99999", "0.0e-99999",
+
+        // Many digits
+        "3.14159265358979323846264338327950288",
+        "0.000000000000000000000000000000000001",
+        "123456789012345678", "1234567890123456789",
+        "12345678901234567890123456789",
+        "000000000000000000000000000000000001.5",
+        "1.00000000000000000000000000000000000",
+
+        // Special values and forms that are only accepted by the JDK
+        "Infinity", "-Infinity", "+Infinity", "NaN", "-NaN", "+NaN",
+        "1f", "1F", "1d", "1D", "0x1p3", "-0x1.8p-1", " 1", "1 ",
+    };
+
+    private static final String INVALID_DECIMAL_CASES[] =
+    {
+        "", "-", "+", ".", "-.", "e5", ".e5", "1e", "1e+", "1e-", "1e5.5",
+        "1.2.3", "--1", "+-1", "1-", "abc", "1x", "inf", "nan", "1,5",
+    };
+
+    private static final String LONG_CASES[] =
+    {
+        "0", "-0", "+0", "1", "-1", "+1", "000123", "-000123",
+        "127", "128", "255", "256", "-128", "-129", "32767", "32768",
+        "65535", "65536", "2147483647", "2147483648", "3000000000",
+        "4294967295", "4294967296", "-2147483648", "-2147483649",
+        "999999999999999999", "-999999999999999999",
+        "1000000000000000000", "9223372036854775807",
+        "-9223372036854775808", "0000000000000000000000000001",
+    };
+
+    private static final String INVALID_LONG_CASES[] =
+    {
+        "", "-", "+", "1.5", "1e5", "1.", ".1", "--1", "1-", "abc",
+        "9223372036854775808", "-9223372036854775809",
+        "99999999999999999999", " 1", "1 ", "Infinity", "NaN",
+    };
+
+    @Test
+    public void testParseFloat()
+    {
+        for (String s : DECIMAL_CASES)
+        {
+            assertParseFloat(s);
+        }
+    }
+
+    @Test
+    public void testParseDouble()
+    {
+        for (String s : DECIMAL_CASES)
+        {
+            assertParseDouble(s);
+        }
+    }
+
+    @Test
+    public void testParseInvalidDecimals()
+    {
+        for (String s : INVALID_DECIMAL_CASES)
+        {
+            try
+            {
+                AsciiNumbers.parseFloat(toBytes(s), s.length());
+                fail("Expected NumberFormatException for float " + s);
+            }
+            catch (NumberFormatException e)
+            {
+                // Expected
+            }
+            try
+            {
+                AsciiNumbers.parseDouble(toBytes(s), s.length());
+                fail("Expected NumberFormatException for double " + s);
+            }
+            catch (NumberFormatException e)
+            {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testParseLong()
+    {
+        for (String s : LONG_CASES)
+        {
+            long expected = Long.parseLong(s);
+            long actual = AsciiNumbers.parseLong(toBytes(s), s.length());
+            assertEquals(s, expected, actual);
+        }
+        for (String s : INVALID_LONG_CASES)
+        {
+            try
+            {
+                AsciiNumbers.parseLong(toBytes(s), s.length());
+                fail("Expected NumberFormatException for " + s);
+            }
+            catch (NumberFormatException e)
+            {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testParseRandomDecimals()
+    {
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; i++)
+        {
+            String s = createRandomDecimal(random);
+            assertParseFloat(s);
+            assertParseDouble(s);
+        }
+        for (int i = 0; i < 20000; i++)
+        {
+            float f = Float.intBitsToFloat(random.nextInt());
+            assertParseFloat(Float.toString(f));
+            double d = Double.longBitsToDouble(random.nextLong());
+            assertParseDouble(Double.toString(d));
+        }
+    }
+
+    @Test
+    public void testParseFloatMidpoints()
+    {
+        // The exact middle between two floats, and the closest decimals
+        // with up to 17 significant digits, which are parsed via double
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; i++)
+        {
+            float f = Math.abs(Float.intBitsToFloat(random.nextInt()));
+            if (Float.isNaN(f) || Float.isInfinite(f) || f == Float.MAX_VALUE)
+            {
+                continue;
+            }
+            BigDecimal lower = new BigDecimal(f);
+            BigDecimal upper = new BigDecimal(Math.nextUp(f));
+            BigDecimal midpoint =
+                lower.add(upper).divide(BigDecimal.valueOf(2));
+            assertParseFloat(midpoint.toString());
+            for (int digits = 6; digits <= 17; digits++)
+            {
+                BigDecimal rounded =
+                    midpoint.round(new MathContext(digits));
+                assertParseFloat(rounded.toString());
+                assertParseFloat(rounded.toPlainString());
+            }
+        }
+    }
+
+    @Test
+    public void testTokenizer() throws IOException
+    {
+        String content = "1 2.5 -3\n"
+            + "4 +5.25 .5\r\n"
+            + "   \t \n"
+            + "\n"
+            + "7 5. 1e5\r"
+            + "\r\n"
+            + "\t10\t 11 \t12  \r"
+            + "  4294967295 123456789.25 -98765.4321e-3";
+        int expectedInts[] = { 1, 4, 7, 10, (int) 4294967295L };
+        float expectedFloats[] = { 2.5f, 5.25f, 5.0f, 11.0f, 123456789.25f };
+        double expectedDoubles[] = { -3, 0.5, 1e5, 12, -98765.4321e-3 };
+        for (int bufferSize = 1; bufferSize <= 16; bufferSize++)
+        {
+            AsciiTokenizer tokenizer = createTokenizer(content, bufferSize);
+            int ints[] = new int[expectedInts.length];
+            float floats[] = new float[expectedFloats.length];
+            double doubles[] = new double[expectedDoubles.length];
+            for (int i = 0; i < expectedInts.length; i++)
+            {
+                assertEquals(true, tokenizer.nextLine());
+                if (i < expectedInts.length - 1)
+                {
+                    ints[i] = tokenizer.nextInt();
+                }
+                else
+                {
+                    ints[i] = tokenizer.nextUnsignedInt();
+                }
+                floats[i] = tokenizer.nextFloat();
+                doubles[i] = tokenizer.nextDouble();
+                tokenizer.skipLine();
+            }
+            assertEquals(false, tokenizer.nextLine());
+            assertArrayEquals(expectedInts, ints);
+            assertArrayEquals(expectedFloats, floats, 0.0f);
+            assertArrayEquals(expectedDoubles, doubles, 0.0);
+        }
+    }
+
+    @Test
+    public void testTokenizerLongTokens() throws IOException
+    {
+        // Tokens that are longer than the initial token array, and that
+        // cross several buffer refills
+        char digits[] = new char[200];
+        Arrays.fill(digits, '1');
+        String longToken = "0." + new String(digits);
+        String content = longToken + " " + longToken + "\n" + "1 2\n";
+        for (int bufferSize : new int[] { 1, 3, 7, 64, 1 << 16 })
+        {
+            AsciiTokenizer tokenizer = createTokenizer(content, bufferSize);
+            assertEquals(true, tokenizer.nextLine());
+            assertEquals(Float.parseFloat(longToken), tokenizer.nextFloat(),
+                0.0f);
+            assertEquals(Double.parseDouble(longToken),
+                tokenizer.nextDouble(), 0.0);
+            tokenizer.skipLine();
+            assertEquals(true, tokenizer.nextLine());
+            assertEquals(1, tokenizer.nextInt());
+            assertEquals(2, tokenizer.nextInt());
+        }
+    }
+
+    @Test
+    public void testTokenizerLineCounts() throws IOException
+    {
+        String content = "\n\n1 2\r\n  \r\n3\r4\n\t\n5";
+        for (int bufferSize = 1; bufferSize <= 8; bufferSize++)
+        {
+            assertEquals(4, createTokenizer(content, bufferSize).countLines());
+
+            AsciiTokenizer tokenizer = createTokenizer(content, bufferSize);
+            tokenizer.skipLines(2);
+            assertEquals(true, tokenizer.nextLine());
+            assertEquals(4, tokenizer.nextInt());
+        }
+    }
+
+    @Test
+    public void testTokenizerMissingValues() throws IOException
+    {
+        List<String> contents = new ArrayList<String>();
+        contents.add("1\n2 3\n");
+        contents.add("1\r\n2 3\r\n");
+        contents.add("1\r2 3\r");
+        contents.add("1   \n2 3\n");
+        contents.add("1");
+        contents.add("1 \t ");
+        for (String content : contents)
+        {
+            for (int bufferSize = 1; bufferSize <= 4; bufferSize++)
+            {
+                AsciiTokenizer tokenizer =
+                    createTokenizer(content, bufferSize);
+                assertEquals(true, tokenizer.nextLine());
+                assertEquals(1, tokenizer.nextInt());
+                try
+                {
+                    tokenizer.nextInt();
+                    fail("Expected an IOException for " + content);
+                }
+                catch (IOException e)
+                {
+                    // Expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTokenizerInvalidNumber() throws IOException
+    {
+        AsciiTokenizer tokenizer = createTokenizer("1 x2 3\n", 4);
+        tokenizer.nextLine();
+        tokenizer.nextInt();
+        try
+        {
+            tokenizer.nextFloat();
+            fail("Expected an IOException for x2");
+        }
+        catch (IOException e)
+        {
+            // Expected
+        }
+
+        String invalidInts[] = { "2147483648", "4294967295", "99999999999",
+            "-2147483649", "99999999999999999999" };
+        for (String content : invalidInts)
+        {
+            assertInvalidInt(content, false);
+        }
+        String invalidUnsignedInts[] = { "4294967296", "4294967301",
+            "99999999999", "-2147483649", "99999999999999999999" };
+        for (String content : invalidUnsignedInts)
+        {
+            assertInvalidInt(content, true);
+        }
+
+        tokenizer = createTokenizer("2147483647 -2147483648\n", 4);
+        tokenizer.nextLine();
+        assertEquals(Integer.MAX_VALUE, tokenizer.nextInt());
+        assertEquals(Integer.MIN_VALUE, tokenizer.nextInt());
+        tokenizer = createTokenizer("4294967295 -2147483648\n", 4);
+        tokenizer.nextLine();
+        assertEquals(-1, tokenizer.nextUnsignedInt());
+        assertEquals(Integer.MIN_VALUE, tokenizer.nextUnsignedInt());
+    }
+
+    /**
+     * Make sure that parsing the given string as a signed or unsigned int
+     * value fails with an IOException
+     * 
+     * @param content The string
+     * @param unsigned Whether the value should be parsed as unsigned
+     * @throws IOException If the line could not be read
+     */
+    private static void assertInvalidInt(String content, boolean unsigned)
+        throws IOException
+    {
+        AsciiTokenizer tokenizer = createTokenizer(content + "\n", 4);
+        tokenizer.nextLine();
+        try
+        {
+            if (unsigned)
+            {
+                tokenizer.nextUnsignedInt();
+            }
+            else
+            {
+                tokenizer.nextInt();
+            }
+            fail("Expected an IOException for " + content);
+        }
+        catch (IOException e)
+        {
+            // Expected
+        }
+    }
+
+    /**
+     * Make sure that parsing the given string as a float yields the same
+     * result as Float.parseFloat
+     * 
+     * @param s The string
+     */
+    private static void assertParseFloat(String s)
+    {
+        float expected = Float.parseFloat(s);
+        float actual = AsciiNumbers.parseFloat(toBytes(s), s.length());
+        assertEquals(s, Float.floatToIntBits(expected),
+            Float.floatToIntBits(actual));
+    }
+
+    /**
+     * Make sure that parsing the given string as a double yields the same
+     * result as Double.parseDouble
+     * 
+     * @param s The string
+     */
+    private static void assertParseDouble(String s)
+    {
+        double expected = Double.parseDouble(s);
+        double actual = AsciiNumbers.parseDouble(toBytes(s), s.length());
+        assertEquals(s, Double.doubleToLongBits(expected),
+            Double.doubleToLongBits(actual));
+    }
+
+    /**
+     * Returns the bytes of the given string, followed by some bytes that
+     * must be ignored by the parsing methods
+     * 
+     * @param s The string
+     * @return The bytes
+     */
+    private static byte[] toBytes(String s)
+    {
+        byte bytes[] = s.getBytes(StandardCharsets.US_ASCII);
+        byte result[] = Arrays.copyOf(bytes, bytes.length + 4);
+        Arrays.fill(result, bytes.length, result.length, (byte) '9');
+        return result;
+    }
+
+    /**
+     * Creates a random decimal string, with an optional sign, up to 20
+     * digits, an optional decimal point, and an optional exponent
+     * 
+     * @param random The random number generator
+     * @return The string
+     */
+    private static String createRandomDecimal(Random random)
+    {
+        StringBuilder sb = new StringBuilder();
+        int sign = random.nextInt(3);
+        if (sign == 1)
+        {
+            sb.append('-');
+        }
+        else if (sign == 2)
+        {
+            sb.append('+');
+        }
+        int numDigits = 1 + random.nextInt(20);
+        int point = random.nextInt(numDigits + 2) - 1;
+        for (int i = 0; i < numDigits; i++)
+        {
+            if (i == point)
+            {
+                sb.append('.');
+            }
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        if (point == numDigits)
+        {
+            sb.append('.');
+        }
+        if (random.nextBoolean())
+        {
+            sb.append(random.nextBoolean() ? 'e' : 'E');
+            int exponent = random.nextInt(81) - 40;
+            if (exponent >= 0 && random.nextBoolean())
+            {
+                sb.append('+');
+            }
+            sb.append(exponent);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a tokenizer for the given content, that reads the content
+     * from a stream input with the given buffer size
+     * 
+     * @param content The content
+     * @param bufferSize The buffer size
+     * @return The tokenizer
+     */
+    private static AsciiTokenizer createTokenizer(String content,
+        int bufferSize)
+    {
+        byte data[] = content.getBytes(StandardCharsets.US_ASCII);
+        ByteInput input = new StreamByteInput(new ByteArrayInputStream(data),
+            ByteOrder.BIG_ENDIAN, bufferSize);
+        return new AsciiTokenizer(input);
+    }
+}
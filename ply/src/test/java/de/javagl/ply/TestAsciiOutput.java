@@ -0,0 +1,118 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static de.javagl.ply.PlyTests.createAsciiString;
+import static de.javagl.ply.PlyTests.roundtrip;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestAsciiOutput
+{
+    @Test
+    public void testPlyWriterAsciiNumbers() throws IOException
+    {
+        float floats[] = { 0.0f, -0.0f, 1.0f, 0.1f, -123.456f, 1.0E7f,
+            9999999.0f, 0.001f, 1.0E-4f, Float.MIN_VALUE, Float.MAX_VALUE,
+            Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY };
+        double doubles[] = { 0.0, -0.0, 1.0, 0.1, -123.456, 1.0E7,
+            9999999.999, 0.001, 1.0E-4, 2.5E-300, Double.MAX_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        int ints[] = { 0, -1, 12, Integer.MIN_VALUE, Integer.MAX_VALUE, 100,
+            -1000, 99999, 1000000, 65535, 123456789, -7, 10, 9 };
+        int n = floats.length;
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "f", PlyType.FLOAT);
+        d.addProperty("vertex", "d", PlyType.DOUBLE);
+        d.addProperty("vertex", "i", PlyType.INT);
+        d.addProperty("vertex", "u", PlyType.UINT);
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", n)
+            .withFloat("f", floats)
+            .withDouble("d", doubles)
+            .withInt("i", ints)
+            .withInt("u", ints);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < n; i++)
+        {
+            expected.append(Float.toString(floats[i])).append(" ");
+            expected.append(Double.toString(doubles[i])).append(" ");
+            expected.append(ints[i]).append(" ");
+            expected.append(Integer.toUnsignedString(ints[i])).append("\n");
+        }
+        String actual = createAsciiString(plySource);
+        String content = actual.substring(actual.indexOf("end_header\n")
+            + "end_header\n".length());
+        assertEquals(expected.toString(), content);
+    }
+
+    @Test
+    public void testPlyWriterAsciiRoundtrip() throws IOException
+    {
+        int n = 10000;
+        Random random = new Random(0);
+        float floats[] = new float[n];
+        double doubles[] = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            floats[i] = Float.intBitsToFloat(random.nextInt());
+            doubles[i] = Double.longBitsToDouble(random.nextLong());
+        }
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "f", PlyType.FLOAT);
+        d.addProperty("vertex", "d", PlyType.DOUBLE);
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", n)
+            .withFloat("f", floats)
+            .withDouble("d", doubles);
+
+        PlySource resultPlySource =
+            roundtrip(plySource, PlyWriters.createAscii());
+        List<Element> elements = resultPlySource.getElementList("vertex");
+        for (int i = 0; i < n; i++)
+        {
+            Element element = elements.get(i);
+            assertEquals(floats[i], element.getFloatProperty("f"), 0.0f);
+            assertEquals(doubles[i], element.getDoubleProperty("d"), 0.0);
+        }
+    }
+
+    @Test
+    public void testPlyWriterAsciiDecimals() throws IOException
+    {
+        float floats[] = { 0.0f, 1.5f, -0.25f, 123.0f, -1.0E-9f, 3.0E20f };
+        double doubles[] = { 0.0, 1.5, -0.25, 123.0000004, 2.0E-7, 1.0E300 };
+        String expected = "0.000000 0.000000\n"
+            + "1.500000 1.500000\n"
+            + "-0.250000 -0.250000\n"
+            + "123.000000 123.000000\n"
+            + "0.000000 0.000000\n"
+            + "3.0E20 1.0E300\n";
+
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "f", PlyType.FLOAT);
+        d.addProperty("vertex", "d", PlyType.DOUBLE);
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", floats.length)
+            .withFloat("f", floats)
+            .withDouble("d", doubles);
+        String actual = new String(write(plySource, PlyWriters.createAscii(6)),
+            StandardCharsets.US_ASCII);
+        String content = actual.substring(actual.indexOf("end_header\n")
+            + "end_header\n".length());
+        assertEquals(expected, content);
+    }
+
+}
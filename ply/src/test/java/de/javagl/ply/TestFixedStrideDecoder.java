@@ -0,0 +1,218 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static de.javagl.ply.PlyTests.createAsciiString;
+import static de.javagl.ply.PlyTests.read;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestFixedStrideDecoder
+{
+    @Test
+    public void testFixedStrideBlockBoundaries() throws IOException
+    {
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.DOUBLE);
+        descriptor.addProperty("vertex", "red", PlyType.UCHAR);
+        descriptor.addProperty("vertex", "s", PlyType.SHORT);
+        ElementDescriptor elementDescriptor =
+            descriptor.getElementDescriptors().get(0);
+
+        // A stride that does not divide the buffer size, so that elements
+        // cross buffer refills, and a count that is not a multiple of the
+        // block size, so that the last block is shorter
+        FixedStrideDecoder decoder =
+            FixedStrideDecoder.create(elementDescriptor);
+        int stride = decoder.getStride();
+        int maxBlockSize = decoder.getMaxBlockSize();
+        assertEquals(15, stride);
+        assertNotEquals(0, ByteInput.DEFAULT_BUFFER_SIZE % stride);
+        int n = 3 * maxBlockSize + 7;
+
+        MutablePlySource plySource = PlySources.create(descriptor);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement vertex = Elements.create();
+            vertex.setFloatProperty("x", i * 0.5f);
+            vertex.setDoubleProperty("y", i / 3.0);
+            vertex.setCharProperty("red", (byte) i);
+            vertex.setShortProperty("s", (short) -i);
+            plySource.addElement("vertex", vertex);
+        }
+        String expected = createAsciiString(plySource);
+        byte data[] = write(plySource, PlyWriters.createBinaryLittleEndian());
+
+        // A buffer that is smaller than the stride causes the elements to
+        // be read property by property
+        int fixedStrideSize = ByteInput.DEFAULT_BUFFER_SIZE;
+        int perPropertySize = stride - 1;
+
+        List<Supplier<PlyTarget>> factories =
+            new ArrayList<Supplier<PlyTarget>>();
+        factories.add(DefaultPlyTarget::new);
+        factories.add(ColumnarPlyTarget::new);
+        for (Supplier<PlyTarget> factory : factories)
+        {
+            PlyTarget fixedStride = factory.get();
+            readContent(data, descriptor, n, fixedStrideSize, fixedStride);
+            PlyTarget perProperty = factory.get();
+            readContent(data, descriptor, n, perPropertySize, perProperty);
+            assertEquals(expected,
+                createAsciiString(getPlySource(perProperty)));
+            assertEquals(expected,
+                createAsciiString(getPlySource(fixedStride)));
+        }
+
+        List<double[]> fixedStrideRecords = new ArrayList<double[]>();
+        readContent(data, descriptor, n, fixedStrideSize,
+            createObjectPlyTarget(fixedStrideRecords));
+        List<double[]> perPropertyRecords = new ArrayList<double[]>();
+        readContent(data, descriptor, n, perPropertySize,
+            createObjectPlyTarget(perPropertyRecords));
+        assertEquals(n, fixedStrideRecords.size());
+        assertEquals(n, perPropertyRecords.size());
+        for (int i = 0; i < n; i++)
+        {
+            assertArrayEquals(perPropertyRecords.get(i),
+                fixedStrideRecords.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testFixedStrideLargerThanBuffer() throws IOException
+    {
+        // An element that does not fit into the buffer of a stream input,
+        // so that the reader has to fall back to reading the properties
+        // one by one
+        int numProperties = ByteInput.DEFAULT_BUFFER_SIZE / 8 + 8;
+        MutableDescriptor descriptor = Descriptors.create();
+        for (int p = 0; p < numProperties; p++)
+        {
+            descriptor.addProperty("wide", "p" + p, PlyType.DOUBLE);
+        }
+        FixedStrideDecoder decoder = FixedStrideDecoder
+            .create(descriptor.getElementDescriptors().get(0));
+        assertTrue(decoder.getStride() > ByteInput.DEFAULT_BUFFER_SIZE);
+
+        int n = 3;
+        MutablePlySource plySource = PlySources.create(descriptor);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement element = Elements.create();
+            for (int p = 0; p < numProperties; p++)
+            {
+                element.setDoubleProperty("p" + p,
+                    (double) (i * numProperties + p));
+            }
+            plySource.addElement("wide", element);
+        }
+        String expected = createAsciiString(plySource);
+
+        for (PlyWriter w : new PlyWriter[] {
+            PlyWriters.createBinaryLittleEndian(),
+            PlyWriters.createBinaryBigEndian() })
+        {
+            byte data[] = write(plySource, w);
+
+            DefaultPlyTarget perProperty = new DefaultPlyTarget();
+            read(data, perProperty);
+            assertEquals(expected,
+                createAsciiString(perProperty.getPlySource()));
+
+            ColumnarPlyTarget columnar = new ColumnarPlyTarget();
+            read(data, columnar);
+            assertEquals(expected, createAsciiString(columnar.getPlySource()));
+        }
+
+        // With a buffer that is large enough, the fixed stride path is used
+        byte data[] = write(plySource, PlyWriters.createBinaryLittleEndian());
+        DefaultPlyTarget fixedStride = new DefaultPlyTarget();
+        readContent(data, descriptor, n, 2 * decoder.getStride(), fixedStride);
+        assertEquals(expected, createAsciiString(fixedStride.getPlySource()));
+    }
+
+    /**
+     * Read the content of the given binary little endian PLY data, which
+     * contains a single element type with the given number of elements,
+     * from a stream input with the given buffer size, and pass it to the
+     * given target
+     * 
+     * @param data The PLY data
+     * @param descriptor The {@link Descriptor}
+     * @param count The number of elements
+     * @param bufferSize The buffer size
+     * @param plyTarget The {@link PlyTarget}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readContent(byte data[], Descriptor descriptor,
+        int count, int bufferSize, PlyTarget plyTarget) throws IOException
+    {
+        String endHeader = "end_header\n";
+        int start = new String(data, StandardCharsets.US_ASCII)
+            .indexOf(endHeader) + endHeader.length();
+        BinaryPlyContentReader contentReader =
+            new BinaryPlyContentReader(descriptor, true);
+        contentReader.setCounts(Collections.singletonList(count));
+        ByteInput input = new StreamByteInput(
+            new ByteArrayInputStream(data, start, data.length - start),
+            ByteOrder.LITTLE_ENDIAN, bufferSize);
+        plyTarget.setDescriptor(descriptor);
+        contentReader.read(input, plyTarget);
+    }
+
+    /**
+     * Returns the {@link PlySource} that was created by the given target,
+     * which must be a {@link DefaultPlyTarget} or a
+     * {@link ColumnarPlyTarget}
+     * 
+     * @param plyTarget The {@link PlyTarget}
+     * @return The {@link PlySource}
+     */
+    private static PlySource getPlySource(PlyTarget plyTarget)
+    {
+        if (plyTarget instanceof ColumnarPlyTarget)
+        {
+            return ((ColumnarPlyTarget) plyTarget).getPlySource();
+        }
+        return ((DefaultPlyTarget) plyTarget).getPlySource();
+    }
+
+    /**
+     * Creates an {@link ObjectPlyTarget} that stores the vertices as
+     * arrays in the given list
+     * 
+     * @param records The list
+     * @return The {@link ObjectPlyTarget}
+     */
+    private static ObjectPlyTarget createObjectPlyTarget(List<double[]> records)
+    {
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+        plyTarget.register("vertex", () -> new double[4])
+            .withPrimitiveFloat("x", (v, value) -> v[0] = value)
+            .withPrimitiveDouble("y", (v, value) -> v[1] = value)
+            .withPrimitiveByte("red", (v, value) -> v[2] = value)
+            .withShort("s", (v, value) -> v[3] = value)
+            .consume(records::add);
+        return plyTarget;
+    }
+}
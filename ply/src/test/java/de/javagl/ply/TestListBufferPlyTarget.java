@@ -0,0 +1,366 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static de.javagl.ply.PlyTests.createAsciiString;
+import static de.javagl.ply.PlyTests.createWriters;
+import static de.javagl.ply.PlyTests.read;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestListBufferPlyTarget
+{
+    @Test
+    public void testListBufferPlyTarget() throws IOException
+    {
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addListProperty("lists", "c", PlyType.UCHAR, PlyType.CHAR);
+        descriptor.addListProperty("lists", "s", PlyType.USHORT, PlyType.SHORT);
+        descriptor.addListProperty("lists", "i", PlyType.UINT, PlyType.INT);
+        descriptor.addListProperty("lists", "f", PlyType.UCHAR, PlyType.FLOAT);
+        descriptor.addListProperty("lists", "d", PlyType.INT, PlyType.DOUBLE);
+        MutablePlySource plySource = PlySources.create(descriptor);
+
+        // Lengths that grow beyond the initial buffer length and shrink
+        // again, so that the buffers are reused with stale entries
+        int n = 50;
+        for (int e = 0; e < n; e++)
+        {
+            int length = e < n / 2 ? e : n - e;
+            byte c[] = new byte[length];
+            short s[] = new short[length];
+            int i[] = new int[length];
+            float f[] = new float[length];
+            double d[] = new double[length];
+            for (int j = 0; j < length; j++)
+            {
+                c[j] = (byte) (e - j);
+                s[j] = (short) (e * 1000 - j);
+                i[j] = e * 100000 + j;
+                f[j] = e + j * 0.25f;
+                d[j] = e - j / 3.0;
+            }
+            MutableElement element = Elements.create();
+            element.setCharListProperty("c", c);
+            element.setShortListProperty("s", s);
+            element.setIntListProperty("i", i);
+            element.setFloatListProperty("f", f);
+            element.setDoubleListProperty("d", d);
+            plySource.addElement("lists", element);
+        }
+
+        String expected = createAsciiString(plySource);
+        for (PlyWriter w : createWriters())
+        {
+            byte data[] = write(plySource, w);
+            RecordingListBufferPlyTarget plyTarget =
+                new RecordingListBufferPlyTarget();
+            read(data, plyTarget);
+            assertEquals(n * 5, plyTarget.bufferCalls);
+            assertEquals(expected,
+                createAsciiString(plyTarget.delegate.getPlySource()));
+        }
+    }
+
+    @Test
+    public void testListBufferPlyTargetNegativeSizeAscii()
+    {
+        String header = "ply\n"
+            + "format ascii 1.0\n"
+            + "element face 2\n"
+            + "property list int int vertex_indices\n"
+            + "end_header\n";
+        String content = "3 0 1 2\n" + "-1 0 1 2\n";
+        byte data[] = (header + content).getBytes(StandardCharsets.US_ASCII);
+        assertNegativeSizeFails(data);
+    }
+
+    @Test
+    public void testListBufferPlyTargetNegativeSizeBinary()
+    {
+        String header = "ply\n"
+            + "format binary_little_endian 1.0\n"
+            + "element face 2\n"
+            + "property list int int vertex_indices\n"
+            + "end_header\n";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte headerData[] = header.getBytes(StandardCharsets.US_ASCII);
+        baos.write(headerData, 0, headerData.length);
+        ByteBuffer content = ByteBuffer.allocate(4 * 8);
+        content.order(ByteOrder.LITTLE_ENDIAN);
+        content.putInt(3).putInt(0).putInt(1).putInt(2);
+        content.putInt(-1).putInt(0).putInt(1).putInt(2);
+        baos.write(content.array(), 0, content.capacity());
+        assertNegativeSizeFails(baos.toByteArray());
+    }
+
+    @Test
+    public void testNegativeSizeBinaryWithoutListBuffers()
+    {
+        // A negative size for each list type must cause an IOException
+        // also for the readers that allocate a new array for each list
+        String types[] = { "char", "short", "int", "float", "double" };
+        for (String type : types)
+        {
+            String header = "ply\n"
+                + "format binary_little_endian 1.0\n"
+                + "element face 2\n"
+                + "property list int " + type + " values\n"
+                + "end_header\n";
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte headerData[] = header.getBytes(StandardCharsets.US_ASCII);
+            baos.write(headerData, 0, headerData.length);
+            ByteBuffer content = ByteBuffer.allocate(4 * 2);
+            content.order(ByteOrder.LITTLE_ENDIAN);
+            content.putInt(0).putInt(-1);
+            baos.write(content.array(), 0, content.capacity());
+            byte data[] = baos.toByteArray();
+
+            assertNegativeSizeFails(data, new DefaultPlyTarget());
+            assertNegativeSizeFails(data, new ColumnarPlyTarget());
+        }
+    }
+
+    /**
+     * Make sure that reading the given data, which contains a list with
+     * a negative size, into a {@link ListBufferPlyTarget} fails with an
+     * IOException
+     * 
+     * @param data The data
+     */
+    private static void assertNegativeSizeFails(byte data[])
+    {
+        RecordingListBufferPlyTarget plyTarget =
+            new RecordingListBufferPlyTarget();
+        try
+        {
+            read(data, plyTarget);
+            fail("Expected an IOException for a negative list size");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage().contains("-1"));
+        }
+        assertEquals(1, plyTarget.bufferCalls);
+    }
+
+    /**
+     * Make sure that reading the given data, which contains a list with
+     * a negative size, into the given {@link PlyTarget} fails with an
+     * IOException
+     * 
+     * @param data The data
+     * @param plyTarget The {@link PlyTarget}
+     */
+    private static void assertNegativeSizeFails(byte data[],
+        PlyTarget plyTarget)
+    {
+        try
+        {
+            read(data, plyTarget);
+            fail("Expected an IOException for a negative list size");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage().contains("-1"));
+        }
+    }
+
+    /**
+     * A {@link ListBufferPlyTarget} that passes copies of the valid parts
+     * of the buffers to a {@link DefaultPlyTarget}, and fails when one of
+     * the methods that receive a new array is called
+     */
+    private static class RecordingListBufferPlyTarget
+        implements ListBufferPlyTarget
+    {
+        /**
+         * The target that receives the copies
+         */
+        private final DefaultPlyTarget delegate = new DefaultPlyTarget();
+
+        /**
+         * The number of calls to the methods that receive a buffer
+         */
+        private int bufferCalls;
+
+        /**
+         * Make sure that the given length is valid for a buffer with the
+         * given length, and count the call
+         * 
+         * @param bufferLength The buffer length
+         * @param length The length
+         */
+        private void check(int bufferLength, int length)
+        {
+            assertTrue(length >= 0);
+            assertTrue(length <= bufferLength);
+            bufferCalls++;
+        }
+
+        @Override
+        public void setDescriptor(Descriptor descriptor)
+        {
+            delegate.setDescriptor(descriptor);
+        }
+
+        @Override
+        public void startElementList(int elementTypeIndex, int elementCount)
+        {
+            delegate.startElementList(elementTypeIndex, elementCount);
+        }
+
+        @Override
+        public void startElement(int elementTypeIndex, int elementIndex)
+        {
+            delegate.startElement(elementTypeIndex, elementIndex);
+        }
+
+        @Override
+        public void handleCharProperty(int elementTypeIndex, int elementIndex,
+            int propertyIndex, byte value)
+        {
+            delegate.handleCharProperty(elementTypeIndex, elementIndex,
+                propertyIndex, value);
+        }
+
+        @Override
+        public void handleShortProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, short value)
+        {
+            delegate.handleShortProperty(elementTypeIndex, elementIndex,
+                propertyIndex, value);
+        }
+
+        @Override
+        public void handleIntProperty(int elementTypeIndex, int elementIndex,
+            int propertyIndex, int value)
+        {
+            delegate.handleIntProperty(elementTypeIndex, elementIndex,
+                propertyIndex, value);
+        }
+
+        @Override
+        public void handleFloatProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, float value)
+        {
+            delegate.handleFloatProperty(elementTypeIndex, elementIndex,
+                propertyIndex, value);
+        }
+
+        @Override
+        public void handleDoubleProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, double value)
+        {
+            delegate.handleDoubleProperty(elementTypeIndex, elementIndex,
+                propertyIndex, value);
+        }
+
+        @Override
+        public void handleCharListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, byte value[])
+        {
+            fail("Unexpected call without buffer");
+        }
+
+        @Override
+        public void handleShortListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, short value[])
+        {
+            fail("Unexpected call without buffer");
+        }
+
+        @Override
+        public void handleIntListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, int value[])
+        {
+            fail("Unexpected call without buffer");
+        }
+
+        @Override
+        public void handleFloatListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, float value[])
+        {
+            fail("Unexpected call without buffer");
+        }
+
+        @Override
+        public void handleDoubleListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, double value[])
+        {
+            fail("Unexpected call without buffer");
+        }
+
+        @Override
+        public void handleCharListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, byte buffer[], int length)
+        {
+            check(buffer.length, length);
+            delegate.handleCharListProperty(elementTypeIndex, elementIndex,
+                propertyIndex, Arrays.copyOf(buffer, length));
+        }
+
+        @Override
+        public void handleShortListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, short buffer[], int length)
+        {
+            check(buffer.length, length);
+            delegate.handleShortListProperty(elementTypeIndex, elementIndex,
+                propertyIndex, Arrays.copyOf(buffer, length));
+        }
+
+        @Override
+        public void handleIntListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, int buffer[], int length)
+        {
+            check(buffer.length, length);
+            delegate.handleIntListProperty(elementTypeIndex, elementIndex,
+                propertyIndex, Arrays.copyOf(buffer, length));
+        }
+
+        @Override
+        public void handleFloatListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, float buffer[], int length)
+        {
+            check(buffer.length, length);
+            delegate.handleFloatListProperty(elementTypeIndex, elementIndex,
+                propertyIndex, Arrays.copyOf(buffer, length));
+        }
+
+        @Override
+        public void handleDoubleListProperty(int elementTypeIndex,
+            int elementIndex, int propertyIndex, double buffer[], int length)
+        {
+            check(buffer.length, length);
+            delegate.handleDoubleListProperty(elementTypeIndex, elementIndex,
+                propertyIndex, Arrays.copyOf(buffer, length));
+        }
+
+        @Override
+        public void endElement(int elementTypeIndex, int elementIndex)
+        {
+            delegate.endElement(elementTypeIndex, elementIndex);
+        }
+
+        @Override
+        public void endElementList(int elementTypeIndex)
+        {
+            delegate.endElementList(elementTypeIndex);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static de.javagl.ply.PlyTests.roundtrip;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestParallelPlyWriter
+{
+    @Test
+    public void testParallelPlyWriter() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.DOUBLE);
+        d.addProperty("vertex", "red", PlyType.UCHAR);
+
+        int n = 350000;
+        float x[] = new float[n];
+        for (int i = 0; i < n; i++)
+        {
+            x[i] = i * 0.5f;
+        }
+        ArrayPlySource arrayPlySource = new ArrayPlySource(d);
+        arrayPlySource.register("vertex", n)
+            .withFloat("x", x)
+            .withDouble("y", i -> i / 3.0)
+            .withByte("red", i -> (byte) i);
+        PlySource plySource = roundtrip(arrayPlySource,
+            PlyWriters.createBinaryLittleEndian());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            PlySource sources[] = { arrayPlySource, plySource };
+            for (PlySource source : sources)
+            {
+                assertArrayEquals(
+                    write(source, PlyWriters.createBinaryLittleEndian()),
+                    write(source, PlyWriters
+                        .createBinaryLittleEndian(executorService)));
+                assertArrayEquals(
+                    write(source, PlyWriters.createBinaryBigEndian()),
+                    write(source, PlyWriters
+                        .createBinaryBigEndian(executorService)));
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+}
@@ -5,12 +5,28 @@
  */
 package de.javagl.ply;
 
+import static de.javagl.ply.PlyTests.createAsciiString;
+import static de.javagl.ply.PlyTests.createWriters;
+import static de.javagl.ply.PlyTests.read;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -38,4 +54,778 @@ public class TestPlyReader
         assertEquals(edgeList.size(), 5);
     }
 
+    @Test
+    public void testPlyReaderPath() throws IOException
+    {
+        InputStream inputStream =
+            getClass().getResourceAsStream("/all-types-ascii.ply");
+        PlyReader r = PlyReaders.create();
+        PlySource plySource = r.read(inputStream);
+
+        Path path = Files.createTempFile("testPlyReaderPath", ".ply");
+        try
+        {
+            try (OutputStream outputStream = Files.newOutputStream(path))
+            {
+                PlyWriter w = PlyWriters.createBinaryLittleEndian();
+                w.write(plySource, outputStream);
+            }
+            PlySource resultPlySource = r.read(path);
+
+            String expected = createAsciiString(plySource);
+            String actual = createAsciiString(resultPlySource);
+            assertEquals(expected, actual);
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testPlyReaderDefaultMethods() throws IOException
+    {
+        PlyReader delegate = PlyReaders.create();
+        PlyReader r = new PlyReader()
+        {
+            @Override
+            public PlySource read(InputStream inputStream) throws IOException
+            {
+                return delegate.read(inputStream);
+            }
+
+            @Override
+            public Descriptor readDescriptor(InputStream inputStream)
+                throws IOException
+            {
+                return delegate.readDescriptor(inputStream);
+            }
+
+            @Override
+            public void readContent(InputStream inputStream,
+                PlyTarget plyTarget) throws IOException
+            {
+                delegate.readContent(inputStream, plyTarget);
+            }
+        };
+        PlySource plySource =
+            r.read(getClass().getResourceAsStream("/all-types-ascii.ply"));
+
+        Path path = Files.createTempFile("testPlyReaderDefaultMethods", ".ply");
+        try
+        {
+            try (OutputStream outputStream = Files.newOutputStream(path))
+            {
+                PlyWriter w = PlyWriters.createBinaryLittleEndian();
+                w.write(plySource, outputStream);
+            }
+            String expected = createAsciiString(plySource);
+            assertEquals(expected, createAsciiString(r.read(path)));
+
+            try (FileChannel fileChannel = FileChannel.open(path))
+            {
+                Descriptor descriptor = r.readDescriptor(fileChannel);
+                DefaultPlyTarget plyTarget = new DefaultPlyTarget();
+                plyTarget.setDescriptor(descriptor);
+                r.readContent(fileChannel, plyTarget);
+                String actual = createAsciiString(plyTarget.getPlySource());
+                assertEquals(expected, actual);
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testColumnarPlyTarget() throws IOException
+    {
+        PlyReader r = PlyReaders.create();
+        PlySource plySource =
+            r.read(getClass().getResourceAsStream("/cube-ascii.ply"));
+
+        InputStream inputStream =
+            getClass().getResourceAsStream("/cube-ascii.ply");
+        ColumnarPlyTarget plyTarget = new ColumnarPlyTarget();
+        r.readDescriptor(inputStream);
+        r.readContent(inputStream, plyTarget);
+        ColumnarPlySource columnarPlySource = plyTarget.getPlySource();
+
+        assertEquals(8, columnarPlySource.getElementCount("vertex"));
+        float z[] = columnarPlySource.getFloatColumn("vertex", "z");
+        assertEquals(8, z.length);
+        assertEquals(1.0f, z[1], 0.0f);
+        int vertexIndex[][] =
+            columnarPlySource.getIntListColumn("face", "vertex_index");
+        assertEquals(7, vertexIndex.length);
+
+        String expected = createAsciiString(plySource);
+        String actual = createAsciiString(columnarPlySource);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testColumnarPlyTargetListColumns() throws IOException
+    {
+        PlyReader r = PlyReaders.create();
+        PlySource plySource =
+            r.read(getClass().getResourceAsStream("/cube-ascii.ply"));
+
+        InputStream inputStream =
+            getClass().getResourceAsStream("/cube-ascii.ply");
+        ColumnarPlyTarget plyTarget = new ColumnarPlyTarget(true);
+        r.readDescriptor(inputStream);
+        r.readContent(inputStream, plyTarget);
+        ColumnarPlySource columnarPlySource = plyTarget.getPlySource();
+
+        ListColumn vertexIndex =
+            columnarPlySource.getListColumn("face", "vertex_index");
+        assertEquals(7, vertexIndex.getElementCount());
+        assertEquals(8, vertexIndex.getOffsets().length);
+        assertEquals(vertexIndex.getOffsets()[7],
+            vertexIndex.getIntData().length);
+        List<Element> faces = plySource.getElementList("face");
+        for (int i = 0; i < faces.size(); i++)
+        {
+            int expected[] = faces.get(i).getIntListProperty("vertex_index");
+            assertEquals(expected.length, vertexIndex.getLength(i));
+            assertArrayEquals(expected, vertexIndex.getIntList(i));
+        }
+
+        String expected = createAsciiString(plySource);
+        String actual = createAsciiString(columnarPlySource);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testTruncatedBinaryContent() throws IOException
+    {
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.DOUBLE);
+        descriptor.addListProperty("face", "vertex_indices", PlyType.UCHAR,
+            PlyType.INT);
+        MutablePlySource plySource = PlySources.create(descriptor);
+        for (int i = 0; i < 10; i++)
+        {
+            MutableElement vertex = Elements.create();
+            vertex.setFloatProperty("x", (float) i);
+            vertex.setDoubleProperty("y", (double) i);
+            plySource.addElement("vertex", vertex);
+            MutableElement face = Elements.create();
+            face.setIntListProperty("vertex_indices", new int[] { i, i, i });
+            plySource.addElement("face", face);
+        }
+        PlyWriter writers[] = { PlyWriters.createBinaryLittleEndian(),
+            PlyWriters.createBinaryBigEndian() };
+        Path path = Files.createTempFile("testTruncatedBinaryContent", ".ply");
+        try
+        {
+            for (PlyWriter w : writers)
+            {
+                byte data[] = write(plySource, w);
+                int contentStart = new String(data, StandardCharsets.US_ASCII)
+                    .indexOf("end_header\n") + "end_header\n".length();
+                int faceStart = contentStart + 10 * 12;
+
+                // Cut off in the middle of a vertex, and in the middle of
+                // the list of a face
+                int lengths[] = { contentStart + 5 * 12 + 3,
+                    faceStart + 5 * 13 + 6 };
+                for (int length : lengths)
+                {
+                    byte truncated[] = Arrays.copyOf(data, length);
+                    assertReadFails(truncated, PlyReaders.create(), path);
+                }
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testParallelPlyReader() throws IOException
+    {
+        int n = 500000;
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "z", PlyType.FLOAT);
+        MutablePlySource plySource = PlySources.create(descriptor);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement element = Elements.create();
+            element.setFloatProperty("x", (float) i);
+            element.setFloatProperty("y", i * 0.5f);
+            element.setFloatProperty("z", (float) -i);
+            plySource.addElement("vertex", element);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            assertParallelRead(plySource,
+                PlyWriters.createBinaryBigEndian(), executorService);
+            assertParallelRead(plySource,
+                PlyWriters.createAscii(), executorService);
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testSelectedProperties() throws IOException
+    {
+        int n = 1000;
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.DOUBLE);
+        descriptor.addProperty("vertex", "z", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "red", PlyType.UCHAR);
+        descriptor.addListProperty("face", "vertex_indices", PlyType.UCHAR,
+            PlyType.INT);
+        descriptor.addProperty("face", "flags", PlyType.USHORT);
+        descriptor.addListProperty("face", "weights", PlyType.UINT,
+            PlyType.FLOAT);
+        MutablePlySource plySource = PlySources.create(descriptor);
+
+        MutableDescriptor selectedDescriptor = Descriptors.create();
+        selectedDescriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        selectedDescriptor.addProperty("vertex", "z", PlyType.FLOAT);
+        selectedDescriptor.addProperty("face", "flags", PlyType.USHORT);
+        MutablePlySource selectedPlySource =
+            PlySources.create(selectedDescriptor);
+
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement vertex = Elements.create();
+            vertex.setFloatProperty("x", i * 0.5f);
+            vertex.setDoubleProperty("y", i / 3.0);
+            vertex.setFloatProperty("z", (float) -i);
+            vertex.setCharProperty("red", (byte) i);
+            plySource.addElement("vertex", vertex);
+
+            MutableElement selectedVertex = Elements.create();
+            selectedVertex.setFloatProperty("x", i * 0.5f);
+            selectedVertex.setFloatProperty("z", (float) -i);
+            selectedPlySource.addElement("vertex", selectedVertex);
+
+            MutableElement face = Elements.create();
+            face.setIntListProperty("vertex_indices",
+                new int[] { i, (i + 1) % n, (i + 2) % n });
+            face.setShortProperty("flags", (short) (i * 7));
+            face.setFloatListProperty("weights", new float[i % 4]);
+            plySource.addElement("face", face);
+
+            MutableElement selectedFace = Elements.create();
+            selectedFace.setShortProperty("flags", (short) (i * 7));
+            selectedPlySource.addElement("face", selectedFace);
+        }
+        String expected = createAsciiString(selectedPlySource);
+
+        PlyWriter writers[] = createWriters();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        Path path = Files.createTempFile("testSelectedProperties", ".ply");
+        try
+        {
+            for (PlyWriter w : writers)
+            {
+                try (OutputStream outputStream = Files.newOutputStream(path))
+                {
+                    w.write(plySource, outputStream);
+                }
+                PlyReader r = PlyReaders.create();
+                r.setSelectedProperties("vertex",
+                    Arrays.asList("z", "x", "nx"));
+                r.setSelectedProperties("face", Arrays.asList("flags"));
+                assertEquals(expected, createAsciiString(r.read(path)));
+                try (InputStream inputStream = Files.newInputStream(path))
+                {
+                    assertEquals(expected,
+                        createAsciiString(r.read(inputStream)));
+                }
+
+                PlyReader p = PlyReaders.createParallel(executorService);
+                p.setSelectedProperties("vertex", Arrays.asList("x", "z"));
+                p.setSelectedProperties("face", Arrays.asList("flags"));
+                ColumnarPlyTarget plyTarget = new ColumnarPlyTarget(true);
+                try (FileChannel fileChannel = FileChannel.open(path))
+                {
+                    p.readDescriptor(fileChannel);
+                    p.readContent(fileChannel, plyTarget);
+                }
+                assertEquals(expected,
+                    createAsciiString(plyTarget.getPlySource()));
+
+                r.setSelectedProperties("vertex", null);
+                r.setSelectedProperties("face", null);
+                assertEquals(createAsciiString(plySource),
+                    createAsciiString(r.read(path)));
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSkippedElements() throws IOException
+    {
+        int n = 1000;
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("camera", "x", PlyType.DOUBLE);
+        descriptor.addProperty("camera", "y", PlyType.DOUBLE);
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.FLOAT);
+        descriptor.addProperty("edge", "red", PlyType.UCHAR);
+        descriptor.addListProperty("edge", "vertex_indices", PlyType.USHORT,
+            PlyType.INT);
+        descriptor.addProperty("edge", "weight", PlyType.FLOAT);
+        descriptor.addListProperty("face", "vertex_indices", PlyType.UCHAR,
+            PlyType.INT);
+        descriptor.addProperty("material", "index", PlyType.INT);
+        MutablePlySource plySource = PlySources.create(descriptor);
+
+        MutableDescriptor selectedDescriptor = Descriptors.create();
+        selectedDescriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        selectedDescriptor.addProperty("vertex", "y", PlyType.FLOAT);
+        selectedDescriptor.addListProperty("face", "vertex_indices",
+            PlyType.UCHAR, PlyType.INT);
+        MutablePlySource selectedPlySource =
+            PlySources.create(selectedDescriptor);
+
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement camera = Elements.create();
+            camera.setDoubleProperty("x", i / 3.0);
+            camera.setDoubleProperty("y", -i / 3.0);
+            plySource.addElement("camera", camera);
+
+            MutableElement vertex = Elements.create();
+            vertex.setFloatProperty("x", i * 0.5f);
+            vertex.setFloatProperty("y", (float) -i);
+            plySource.addElement("vertex", vertex);
+            selectedPlySource.addElement("vertex", vertex);
+
+            MutableElement edge = Elements.create();
+            edge.setCharProperty("red", (byte) i);
+            edge.setIntListProperty("vertex_indices", new int[i % 5]);
+            edge.setFloatProperty("weight", i * 0.25f);
+            plySource.addElement("edge", edge);
+
+            MutableElement face = Elements.create();
+            face.setIntListProperty("vertex_indices",
+                new int[] { i, (i + 1) % n, (i + 2) % n });
+            plySource.addElement("face", face);
+            selectedPlySource.addElement("face", face);
+
+            MutableElement material = Elements.create();
+            material.setIntProperty("index", i);
+            plySource.addElement("material", material);
+        }
+        String expected = createAsciiString(selectedPlySource);
+
+        PlyWriter writers[] = createWriters();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        Path path = Files.createTempFile("testSkippedElements", ".ply");
+        try
+        {
+            for (PlyWriter w : writers)
+            {
+                try (OutputStream outputStream = Files.newOutputStream(path))
+                {
+                    w.write(plySource, outputStream);
+                }
+                PlyReader r = PlyReaders.create();
+                r.setSkippedElements(
+                    Arrays.asList("camera", "edge", "material", "other"));
+                assertEquals(expected, createAsciiString(r.read(path)));
+                try (InputStream inputStream = Files.newInputStream(path))
+                {
+                    assertEquals(expected,
+                        createAsciiString(r.read(inputStream)));
+                }
+
+                PlyReader p = PlyReaders.createParallel(executorService);
+                p.setSkippedElements(
+                    Arrays.asList("camera", "edge", "material"));
+                ColumnarPlyTarget plyTarget = new ColumnarPlyTarget(true);
+                try (FileChannel fileChannel = FileChannel.open(path))
+                {
+                    p.readDescriptor(fileChannel);
+                    p.readContent(fileChannel, plyTarget);
+                }
+                assertEquals(expected,
+                    createAsciiString(plyTarget.getPlySource()));
+
+                r.setSkippedElements(null);
+                assertEquals(createAsciiString(plySource),
+                    createAsciiString(r.read(path)));
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testObjectPlyTargetPrimitiveSetters() throws IOException
+    {
+        int n = 100;
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "red", PlyType.UCHAR);
+        descriptor.addProperty("vertex", "s", PlyType.SHORT);
+        descriptor.addProperty("vertex", "i", PlyType.UINT);
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.DOUBLE);
+        descriptor.addProperty("vertex", "z", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "unused", PlyType.INT);
+        MutablePlySource plySource = PlySources.create(descriptor);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement vertex = Elements.create();
+            vertex.setCharProperty("red", (byte) i);
+            vertex.setShortProperty("s", (short) -i);
+            vertex.setIntProperty("i", i * 3);
+            vertex.setFloatProperty("x", i * 0.5f);
+            vertex.setDoubleProperty("y", i / 3.0);
+            vertex.setFloatProperty("z", (float) -i);
+            vertex.setIntProperty("unused", i);
+            plySource.addElement("vertex", vertex);
+        }
+
+        for (PlyWriter w : createWriters())
+        {
+            byte data[] = write(plySource, w);
+
+            List<double[]> vertices = new ArrayList<double[]>();
+            ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+            plyTarget.register("vertex", () -> new double[6])
+                .withPrimitiveByte("red", (v, value) -> v[0] = value)
+                .withPrimitiveShort("s", (v, value) -> v[1] = value)
+                .withPrimitiveInt("i", (v, value) -> v[2] = value)
+                .withPrimitiveFloat("x", (v, value) -> v[3] = value)
+                .withPrimitiveDouble("y", (v, value) -> v[4] = value)
+                .withFloat("z", (v, value) -> v[5] = value)
+                .consume(vertices::add);
+            read(data, plyTarget);
+            assertEquals(n, vertices.size());
+            for (int i = 0; i < n; i++)
+            {
+                double v[] = vertices.get(i);
+                assertEquals((byte) i, v[0], 0.0);
+                assertEquals(-i, v[1], 0.0);
+                assertEquals(i * 3, v[2], 0.0);
+                assertEquals(i * 0.5f, v[3], 0.0);
+                assertEquals(i / 3.0, v[4], 0.0);
+                assertEquals(-i, v[5], 0.0);
+            }
+        }
+    }
+
+    @PlyElement("vertex")
+    static class AnnotatedVertex
+    {
+        @PlyProperty
+        float x;
+
+        @PlyProperty("y")
+        private double yValue;
+
+        @PlyProperty
+        byte red;
+
+        @PlyProperty
+        short flags;
+
+        @PlyProperty
+        int index;
+
+        String ignored;
+    }
+
+    @PlyElement("face")
+    static class AnnotatedFace
+    {
+        @PlyProperty("vertex_indices")
+        int indices[];
+    }
+
+    @Test
+    public void testAnnotatedObjects() throws IOException
+    {
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.DOUBLE);
+        descriptor.addProperty("vertex", "red", PlyType.UCHAR);
+        descriptor.addProperty("vertex", "flags", PlyType.USHORT);
+        descriptor.addProperty("vertex", "index", PlyType.INT);
+        descriptor.addListProperty("face", "vertex_indices", PlyType.UCHAR,
+            PlyType.INT);
+
+        int n = 100;
+        List<AnnotatedVertex> vertices = new ArrayList<AnnotatedVertex>();
+        List<AnnotatedFace> faces = new ArrayList<AnnotatedFace>();
+        for (int i = 0; i < n; i++)
+        {
+            AnnotatedVertex vertex = new AnnotatedVertex();
+            vertex.x = i * 0.5f;
+            vertex.yValue = i / 3.0;
+            vertex.red = (byte) i;
+            vertex.flags = (short) (i * 7);
+            vertex.index = -i;
+            vertices.add(vertex);
+            AnnotatedFace face = new AnnotatedFace();
+            face.indices = new int[] { i, (i + 1) % n, (i + 2) % n };
+            faces.add(face);
+        }
+        ObjectPlySource plySource = new ObjectPlySource(descriptor);
+        plySource.register(AnnotatedVertex.class, vertices);
+        plySource.register(AnnotatedFace.class, faces);
+
+        for (PlyWriter w : createWriters())
+        {
+            byte data[] = write(plySource, w);
+
+            List<AnnotatedVertex> readVertices =
+                new ArrayList<AnnotatedVertex>();
+            List<AnnotatedFace> readFaces = new ArrayList<AnnotatedFace>();
+            ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+            plyTarget.register(AnnotatedVertex.class)
+                .consume(readVertices::add);
+            plyTarget.register(AnnotatedFace.class).consume(readFaces::add);
+            read(data, plyTarget);
+            assertEquals(n, readVertices.size());
+            assertEquals(n, readFaces.size());
+            for (int i = 0; i < n; i++)
+            {
+                AnnotatedVertex expected = vertices.get(i);
+                AnnotatedVertex actual = readVertices.get(i);
+                assertEquals(expected.x, actual.x, 0.0f);
+                assertEquals(expected.yValue, actual.yValue, 0.0);
+                assertEquals(expected.red, actual.red);
+                assertEquals(expected.flags, actual.flags);
+                assertEquals(expected.index, actual.index);
+                assertArrayEquals(faces.get(i).indices,
+                    readFaces.get(i).indices);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAnnotatedObjectsWithoutPlyElement()
+    {
+        ObjectPlyTarget plyTarget = new ObjectPlyTarget();
+        plyTarget.register(String.class);
+    }
+
+    @Test
+    public void testBatchPlyTarget() throws IOException
+    {
+        int n = 10000;
+        MutableDescriptor descriptor = Descriptors.create();
+        descriptor.addProperty("vertex", "x", PlyType.FLOAT);
+        descriptor.addProperty("vertex", "y", PlyType.DOUBLE);
+        descriptor.addProperty("vertex", "red", PlyType.UCHAR);
+        descriptor.addProperty("vertex", "s", PlyType.SHORT);
+        descriptor.addProperty("vertex", "i", PlyType.INT);
+        descriptor.addListProperty("face", "vertex_indices", PlyType.UCHAR,
+            PlyType.INT);
+        MutablePlySource plySource = PlySources.create(descriptor);
+        for (int i = 0; i < n; i++)
+        {
+            MutableElement vertex = Elements.create();
+            vertex.setFloatProperty("x", i * 0.5f);
+            vertex.setDoubleProperty("y", i / 3.0);
+            vertex.setCharProperty("red", (byte) i);
+            vertex.setShortProperty("s", (short) -i);
+            vertex.setIntProperty("i", i * 3);
+            plySource.addElement("vertex", vertex);
+            MutableElement face = Elements.create();
+            face.setIntListProperty("vertex_indices",
+                new int[] { i, (i + 1) % n, (i + 2) % n });
+            plySource.addElement("face", face);
+        }
+
+        class Target extends AbstractBatchPlyTarget
+        {
+            float x[] = new float[n];
+            double y[] = new double[n];
+            byte red[] = new byte[n];
+            short s[] = new short[n];
+            int i[] = new int[n];
+            int batchedElements = 0;
+            int faces = 0;
+
+            @Override
+            public void handleFloatColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, float values[],
+                int offset, int length)
+            {
+                System.arraycopy(values, offset, x, firstElementIndex,
+                    length);
+            }
+
+            @Override
+            public void handleDoubleColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, double values[],
+                int offset, int length)
+            {
+                System.arraycopy(values, offset, y, firstElementIndex,
+                    length);
+            }
+
+            @Override
+            public void handleCharColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, byte values[],
+                int offset, int length)
+            {
+                System.arraycopy(values, offset, red, firstElementIndex,
+                    length);
+            }
+
+            @Override
+            public void handleShortColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, short values[],
+                int offset, int length)
+            {
+                System.arraycopy(values, offset, s, firstElementIndex,
+                    length);
+            }
+
+            @Override
+            public void handleIntColumn(int elementTypeIndex,
+                int firstElementIndex, int propertyIndex, int values[],
+                int offset, int length)
+            {
+                System.arraycopy(values, offset, i, firstElementIndex,
+                    length);
+            }
+
+            @Override
+            public void endBatch(int elementTypeIndex, int firstElementIndex,
+                int length)
+            {
+                assertEquals(batchedElements, firstElementIndex);
+                batchedElements += length;
+            }
+
+            @Override
+            public void handleIntListProperty(int elementTypeIndex,
+                int elementIndex, int propertyIndex, int[] value)
+            {
+                assertEquals(elementIndex, value[0]);
+                faces++;
+            }
+        }
+
+        for (PlyWriter w : createWriters())
+        {
+            byte data[] = write(plySource, w);
+
+            Target plyTarget = new Target();
+            read(data, plyTarget);
+            assertEquals(n, plyTarget.batchedElements);
+            assertEquals(n, plyTarget.faces);
+            for (int i = 0; i < n; i++)
+            {
+                assertEquals(i * 0.5f, plyTarget.x[i], 0.0f);
+                assertEquals(i / 3.0, plyTarget.y[i], 0.0);
+                assertEquals((byte) i, plyTarget.red[i]);
+                assertEquals((short) -i, plyTarget.s[i]);
+                assertEquals(i * 3, plyTarget.i[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the given PLY with the given writer into a file, reads it with
+     * a parallel reader into a {@link ColumnarPlyTarget}, and checks the
+     * resulting vertices
+     * 
+     * @param plySource The {@link PlySource}
+     * @param w The {@link PlyWriter}
+     * @param executorService The executor service
+     * @throws IOException If an IO error occurs
+     */
+    private static void assertParallelRead(PlySource plySource, PlyWriter w,
+        ExecutorService executorService) throws IOException
+    {
+        int n = plySource.getElementList("vertex").size();
+        Path path = Files.createTempFile("testParallelPlyReader", ".ply");
+        try
+        {
+            try (OutputStream outputStream = Files.newOutputStream(path))
+            {
+                w.write(plySource, outputStream);
+            }
+            PlyReader r = PlyReaders.createParallel(executorService);
+            ColumnarPlyTarget plyTarget = new ColumnarPlyTarget();
+            try (FileChannel fileChannel = FileChannel.open(path))
+            {
+                r.readDescriptor(fileChannel);
+                r.readContent(fileChannel, plyTarget);
+                assertEquals(fileChannel.size(), fileChannel.position());
+            }
+            ColumnarPlySource columnarPlySource = plyTarget.getPlySource();
+            float x[] = columnarPlySource.getFloatColumn("vertex", "x");
+            float y[] = columnarPlySource.getFloatColumn("vertex", "y");
+            float z[] = columnarPlySource.getFloatColumn("vertex", "z");
+            for (int i = 0; i < n; i++)
+            {
+                assertEquals((float) i, x[i], 0.0f);
+                assertEquals(i * 0.5f, y[i], 0.0f);
+                assertEquals((float) -i, z[i], 0.0f);
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+
+    /**
+     * Make sure that reading the given data with the given reader fails
+     * with an IOException, both from an input stream and from the given
+     * file, which the data is written to
+     * 
+     * @param data The data
+     * @param r The {@link PlyReader}
+     * @param path The path of the file
+     * @throws IOException If writing the file fails
+     */
+    private static void assertReadFails(byte data[], PlyReader r, Path path)
+        throws IOException
+    {
+        try
+        {
+            r.read(new ByteArrayInputStream(data));
+            fail("Expected an IOException when reading from a stream");
+        }
+        catch (IOException e)
+        {
+            // Expected
+        }
+        Files.write(path, data);
+        try
+        {
+            r.read(path);
+            fail("Expected an IOException when reading from a file");
+        }
+        catch (IOException e)
+        {
+            // Expected
+        }
+    }
+
 }
@@ -0,0 +1,209 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static de.javagl.ply.PlyTests.createAsciiString;
+import static de.javagl.ply.PlyTests.createWriters;
+import static de.javagl.ply.PlyTests.roundtrip;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestPlySources
+{
+    @Test
+    public void testArrayPlySource() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.FLOAT);
+        d.addProperty("vertex", "red", PlyType.UCHAR);
+        d.addListProperty("face", "vertex_indices", PlyType.UCHAR, PlyType.INT);
+        d.addProperty("face", "flags", PlyType.USHORT);
+        d.addProperty("weight", "value", PlyType.DOUBLE);
+
+        int n = 10000;
+        float x[] = new float[n];
+        byte red[] = new byte[n];
+        double value[] = new double[n];
+        int indices[] = new int[n * 4];
+        int offsets[] = new int[n + 1];
+        int size = 0;
+        for (int i = 0; i < n; i++)
+        {
+            x[i] = i * 0.25f;
+            red[i] = (byte) i;
+            value[i] = i / 3.0;
+            int length = 3 + (i % 2);
+            for (int j = 0; j < length; j++)
+            {
+                indices[size++] = (i + j) % n;
+            }
+            offsets[i + 1] = size;
+        }
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", n)
+            .withFloat("x", x)
+            .withFloat("y", i -> -i)
+            .withByte("red", red);
+        plySource.register("face", n)
+            .withIntList("vertex_indices", indices, offsets)
+            .withShort("flags", i -> (short) (i * 7));
+        plySource.register("weight", n)
+            .withDouble("value", value);
+
+        PlySource elementPlySource = new PlySource()
+        {
+            @Override
+            public Descriptor getDescriptor()
+            {
+                return plySource.getDescriptor();
+            }
+
+            @Override
+            public List<Element> getElementList(String elementName)
+            {
+                return plySource.getElementList(elementName);
+            }
+
+            @Override
+            public List<Element> getElementList(int elementTypeIndex)
+            {
+                return plySource.getElementList(elementTypeIndex);
+            }
+        };
+
+        PlyWriter writers[] = createWriters();
+        String expected = createAsciiString(plySource);
+        for (PlyWriter w : writers)
+        {
+            assertArrayEquals(write(elementPlySource, w), write(plySource, w));
+            assertEquals(expected, createAsciiString(roundtrip(plySource, w)));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testArrayPlySourceUnboundProperty() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.FLOAT);
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", 1).withFloat("x", new float[1]);
+        write(plySource, PlyWriters.createBinaryLittleEndian());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrayPlySourceTypeMismatch()
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", 1).withDouble("x", new double[1]);
+    }
+
+    @Test
+    public void testObjectPlySource() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.DOUBLE);
+        d.addProperty("vertex", "red", PlyType.UCHAR);
+        d.addProperty("vertex", "flags", PlyType.USHORT);
+        d.addProperty("vertex", "index", PlyType.INT);
+        d.addListProperty("face", "vertex_indices", PlyType.UCHAR, PlyType.INT);
+        d.addProperty("weight", "value", PlyType.DOUBLE);
+
+        int n = 10000;
+        List<double[]> vertices = new ArrayList<double[]>();
+        List<int[]> faces = new ArrayList<int[]>();
+        for (int i = 0; i < n; i++)
+        {
+            vertices.add(new double[] { i * 0.25f, i / 3.0, i, i * 7, -i });
+            faces.add(new int[] { i, (i + 1) % n, (i + 2) % n });
+        }
+        ObjectPlySource plySource = new ObjectPlySource(d);
+        plySource.register("vertex", vertices)
+            .withPrimitiveFloat("x", v -> (float) v[0])
+            .withPrimitiveDouble("y", v -> v[1])
+            .withPrimitiveByte("red", v -> (byte) v[2])
+            .withPrimitiveShort("flags", v -> (short) v[3])
+            .withPrimitiveInt("index", v -> (int) v[4]);
+        plySource.register("face", faces)
+            .withIntList("vertex_indices", f -> f);
+        plySource.register("weight", vertices)
+            .withDouble("value", v -> v[1]);
+
+        ArrayPlySource arrayPlySource = new ArrayPlySource(d);
+        arrayPlySource.register("vertex", n)
+            .withFloat("x", i -> i * 0.25f)
+            .withDouble("y", i -> i / 3.0)
+            .withByte("red", i -> (byte) i)
+            .withShort("flags", i -> (short) (i * 7))
+            .withInt("index", i -> -i);
+        int indices[] = new int[n * 3];
+        int offsets[] = new int[n + 1];
+        for (int i = 0; i < n; i++)
+        {
+            System.arraycopy(faces.get(i), 0, indices, i * 3, 3);
+            offsets[i + 1] = (i + 1) * 3;
+        }
+        arrayPlySource.register("face", n)
+            .withIntList("vertex_indices", indices, offsets);
+        arrayPlySource.register("weight", n)
+            .withDouble("value", i -> i / 3.0);
+
+        PlySource elementPlySource = new PlySource()
+        {
+            @Override
+            public Descriptor getDescriptor()
+            {
+                return plySource.getDescriptor();
+            }
+
+            @Override
+            public List<Element> getElementList(String elementName)
+            {
+                return plySource.getElementList(elementName);
+            }
+
+            @Override
+            public List<Element> getElementList(int elementTypeIndex)
+            {
+                return plySource.getElementList(elementTypeIndex);
+            }
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            PlyWriter writers[] = { PlyWriters.createAscii(),
+                PlyWriters.createBinaryLittleEndian(),
+                PlyWriters.createBinaryBigEndian(),
+                PlyWriters.createBinaryLittleEndian(executorService) };
+            for (PlyWriter w : writers)
+            {
+                byte expected[] = write(arrayPlySource, w);
+                assertArrayEquals(expected, write(plySource, w));
+                assertArrayEquals(expected, write(elementPlySource, w));
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+}
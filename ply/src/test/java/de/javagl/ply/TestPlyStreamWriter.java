@@ -0,0 +1,84 @@
+/*
+ * www.javagl.de - Ply
+ *
+ * Copyright (c) 2011-2025 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.ply;
+
+import static de.javagl.ply.PlyTests.createWriters;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TestPlyStreamWriter
+{
+    @Test
+    public void testPlyStreamWriterBatches() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "red", PlyType.UCHAR);
+        d.addListProperty("face", "vertex_indices", PlyType.UCHAR, PlyType.INT);
+
+        int n = 1000;
+        int batchSize = 300;
+        ArrayPlySource plySource = new ArrayPlySource(d);
+        plySource.register("vertex", n)
+            .withFloat("x", i -> i * 0.5f)
+            .withByte("red", i -> (byte) i);
+        plySource.register("face", 1)
+            .withIntList("vertex_indices", new int[] { 0, 1, 2 },
+                new int[] { 0, 3 });
+
+        for (PlyWriter w : createWriters())
+        {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            PlyStreamWriter s = w.open(d, Arrays.asList(n, 1), baos);
+            for (int first = 0; first < n; first += batchSize)
+            {
+                int offset = first;
+                ArrayPlySource batch = new ArrayPlySource(d);
+                batch.register("vertex", Math.min(batchSize, n - first))
+                    .withFloat("x", i -> (offset + i) * 0.5f)
+                    .withByte("red", i -> (byte) (offset + i));
+                s.write(batch);
+            }
+            s.write("face", plySource.getElementList("face"));
+            s.finish();
+            assertArrayEquals(write(plySource, w), baos.toByteArray());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPlyStreamWriterTooManyElements() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        DefaultMutableElement element = new DefaultMutableElement();
+        element.setFloatProperty("x", 1.0f);
+        PlyStreamWriter s = PlyWriters.createBinaryLittleEndian().open(d,
+            Arrays.asList(1), new ByteArrayOutputStream());
+        s.write("vertex", element);
+        s.write("vertex", element);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPlyStreamWriterTooFewElements() throws IOException
+    {
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("face", "flags", PlyType.INT);
+        DefaultMutableElement element = new DefaultMutableElement();
+        element.setIntProperty("flags", 1);
+        PlyStreamWriter s = PlyWriters.createAscii().open(d,
+            Arrays.asList(1, 1), new ByteArrayOutputStream());
+        s.write("face", element);
+    }
+
+}
@@ -5,12 +5,22 @@
  */
 package de.javagl.ply;
 
+import static de.javagl.ply.PlyTests.createAsciiString;
+import static de.javagl.ply.PlyTests.createWriters;
+import static de.javagl.ply.PlyTests.roundtrip;
+import static de.javagl.ply.PlyTests.write;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -89,42 +99,286 @@ public class TestPlyWriters
         assertEquals(expected, actual);
     }
 
-    /**
-     * Uses the given writer to write the given {@link PlySource} into a byte
-     * array, reads a new {@link PlySource} from that byte array and returns it.
-     * 
-     * @param plySource The {@link PlySource}
-     * @param plyWriter The {@link PlyWriter}
-     * @return The resulting {@link PlySource}
-     * @throws IOException I hope it doesn't ...
-     */
-    private static PlySource roundtrip(PlySource plySource, PlyWriter plyWriter)
-        throws IOException
+    @Test
+    public void testPlyWriterPath() throws IOException
+    {
+        InputStream inputStream = getClass().getResourceAsStream(inputFileName);
+
+        PlyReader r = PlyReaders.create();
+        PlySource plySource = r.read(inputStream);
+
+        PlyWriter writers[] = createWriters();
+        Path path = Files.createTempFile("TestPlyWriters", ".ply");
+        try
+        {
+            for (PlyWriter w : writers)
+            {
+                w.write(plySource, path);
+                assertArrayEquals(write(plySource, w),
+                    Files.readAllBytes(path));
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testPlyWriterDefaultMethods() throws IOException
     {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        plyWriter.write(plySource, baos);
-        ByteArrayInputStream bytes =
-            new ByteArrayInputStream(baos.toByteArray());
+        InputStream inputStream = getClass().getResourceAsStream(inputFileName);
+
         PlyReader r = PlyReaders.create();
-        PlySource resultPlySource = r.read(bytes);
-        return resultPlySource;
+        PlySource plySource = r.read(inputStream);
+
+        PlyWriter delegate = PlyWriters.createBinaryLittleEndian();
+        PlyWriter w = new PlyWriter()
+        {
+            @Override
+            public void write(PlySource plySource, OutputStream outputStream)
+                throws IOException
+            {
+                delegate.write(plySource, outputStream);
+            }
+        };
+        byte expected[] = write(plySource, delegate);
+        Path path = Files.createTempFile("TestPlyWriters", ".ply");
+        try
+        {
+            w.write(plySource, path);
+            assertArrayEquals(expected, Files.readAllBytes(path));
+
+            try (FileChannel fileChannel = FileChannel.open(path,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+            {
+                w.write(plySource, fileChannel);
+            }
+            assertArrayEquals(expected, Files.readAllBytes(path));
+        }
+        finally
+        {
+            Files.delete(path);
+        }
     }
 
+    @Test
+    public void testPlyTranscoders() throws IOException
+    {
+        InputStream inputStream = getClass().getResourceAsStream(inputFileName);
+
+        PlyReader r = PlyReaders.create();
+        PlySource plySource = r.read(inputStream);
+
+        MutableDescriptor d = Descriptors.create();
+        d.addProperty("vertex", "x", PlyType.FLOAT);
+        d.addProperty("vertex", "y", PlyType.DOUBLE);
+        d.addProperty("vertex", "red", PlyType.UCHAR);
+        d.addProperty("vertex", "flags", PlyType.USHORT);
+        d.addListProperty("face", "vertex_indices", PlyType.UCHAR, PlyType.INT);
+        int n = 10000;
+        int indices[] = new int[n * 4];
+        int offsets[] = new int[n + 1];
+        int size = 0;
+        for (int i = 0; i < n; i++)
+        {
+            int length = 3 + (i % 2);
+            for (int j = 0; j < length; j++)
+            {
+                indices[size++] = (i + j) % n;
+            }
+            offsets[i + 1] = size;
+        }
+        ArrayPlySource arrayPlySource = new ArrayPlySource(d);
+        arrayPlySource.register("vertex", n)
+            .withFloat("x", i -> i * 0.25f)
+            .withDouble("y", i -> i / 3.0)
+            .withByte("red", i -> (byte) i)
+            .withShort("flags", i -> (short) (i * 7));
+        arrayPlySource.register("face", n)
+            .withIntList("vertex_indices", indices, offsets);
+
+        PlyWriter writers[] = createWriters();
+        PlySource sources[] = { plySource, arrayPlySource };
+        Path inputPath = Files.createTempFile("TestPlyWriters", ".ply");
+        Path outputPath = Files.createTempFile("TestPlyWriters", ".ply");
+        try
+        {
+            for (PlySource source : sources)
+            {
+                for (PlyWriter inputWriter : writers)
+                {
+                    byte input[] = write(source, inputWriter);
+                    PlySource inputPlySource =
+                        r.read(new ByteArrayInputStream(input));
+                    Files.write(inputPath, input);
+                    for (PlyWriter w : writers)
+                    {
+                        byte expected[] = write(inputPlySource, w);
+
+                        ByteArrayOutputStream outputStream =
+                            new ByteArrayOutputStream();
+                        PlyTranscoders.transcode(
+                            new ByteArrayInputStream(input), w, outputStream);
+                        assertArrayEquals(expected, outputStream.toByteArray());
+
+                        PlyTranscoders.transcode(inputPath, w, outputPath);
+                        assertArrayEquals(expected,
+                            Files.readAllBytes(outputPath));
+
+                        PlyTranscoders.transcode(inputPath,
+                            createDelegatingWriter(w), outputPath);
+                        assertArrayEquals(expected,
+                            Files.readAllBytes(outputPath));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            Files.delete(inputPath);
+            Files.delete(outputPath);
+        }
+    }
+
+    @Test
+    public void testPlyStreamWriter() throws IOException
+    {
+        InputStream inputStream = getClass().getResourceAsStream(inputFileName);
+
+        PlyReader r = PlyReaders.create();
+        PlySource plySource = r.read(inputStream);
+        Descriptor descriptor = plySource.getDescriptor();
+        List<Integer> elementCounts = new ArrayList<Integer>();
+        for (ElementDescriptor elementDescriptor : descriptor
+            .getElementDescriptors())
+        {
+            String elementName = elementDescriptor.getName();
+            elementCounts.add(plySource.getElementList(elementName).size());
+        }
+
+        for (PlyWriter w : createWriters())
+        {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            PlyStreamWriter s = w.open(descriptor, elementCounts, baos);
+            for (ElementDescriptor elementDescriptor : descriptor
+                .getElementDescriptors())
+            {
+                String elementName = elementDescriptor.getName();
+                List<Element> elements = plySource.getElementList(elementName);
+                int half = elements.size() / 2;
+                s.write(elementName, elements.subList(0, half));
+                for (int i = half; i < elements.size(); i++)
+                {
+                    s.write(elementName, elements.get(i));
+                }
+            }
+            s.finish();
+            assertArrayEquals(write(plySource, w), baos.toByteArray());
+        }
+    }
+
+    @Test
+    public void testPlyStreamWriterDeferredCounts() throws IOException
+    {
+        InputStream inputStream = getClass().getResourceAsStream(inputFileName);
+
+        PlyReader r = PlyReaders.create();
+        PlySource plySource = r.read(inputStream);
+        Descriptor descriptor = plySource.getDescriptor();
+
+        PlyWriter writers[] = createWriters();
+        Path path = Files.createTempFile("TestPlyWriters", ".ply");
+        try
+        {
+            for (PlyWriter w : writers)
+            {
+                try (FileChannel fileChannel = FileChannel.open(path,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE))
+                {
+                    PlyStreamWriter s = w.open(descriptor, fileChannel);
+                    for (ElementDescriptor elementDescriptor : descriptor
+                        .getElementDescriptors())
+                    {
+                        String elementName = elementDescriptor.getName();
+                        for (Element element : plySource
+                            .getElementList(elementName))
+                        {
+                            s.write(elementName, element);
+                        }
+                    }
+                    s.finish();
+                }
+                PlySource resultPlySource =
+                    r.read(new ByteArrayInputStream(Files.readAllBytes(path)));
+                assertEquals(createAsciiString(plySource),
+                    createAsciiString(resultPlySource));
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+
     /**
-     * Writes the given PLY as an "ascii" ply and returns the result
+     * Creates a {@link PlyWriter} that delegates to the given one, and that
+     * opens a {@link PlyStreamWriter} that delegates to the one that is
+     * opened by the given writer.
      * 
-     * @param plySource The {@link PlySource}
-     * @return The string
-     * @throws IOException If an IO error occurs
+     * @param delegate The delegate {@link PlyWriter}
+     * @return The {@link PlyWriter}
      */
-    private static String createAsciiString(PlySource plySource)
-        throws IOException
+    private static PlyWriter createDelegatingWriter(PlyWriter delegate)
     {
-        PlyWriter w = PlyWriters.createAscii();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        w.write(plySource, baos);
-        String output = baos.toString();
-        return output;
+        return new PlyWriter()
+        {
+            @Override
+            public void write(PlySource plySource, OutputStream outputStream)
+                throws IOException
+            {
+                delegate.write(plySource, outputStream);
+            }
+
+            @Override
+            public PlyStreamWriter open(Descriptor descriptor,
+                List<Integer> elementCounts, OutputStream outputStream)
+                throws IOException
+            {
+                PlyStreamWriter s =
+                    delegate.open(descriptor, elementCounts, outputStream);
+                return new PlyStreamWriter()
+                {
+                    @Override
+                    public void write(String elementName, Element element)
+                        throws IOException
+                    {
+                        s.write(elementName, element);
+                    }
+
+                    @Override
+                    public void write(String elementName,
+                        List<Element> elements) throws IOException
+                    {
+                        s.write(elementName, elements);
+                    }
+
+                    @Override
+                    public void write(ArrayPlySource batch) throws IOException
+                    {
+                        s.write(batch);
+                    }
+
+                    @Override
+                    public void finish() throws IOException
+                    {
+                        s.finish();
+                    }
+                };
+            }
+        };
     }
 
 }